@@ -0,0 +1,177 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.checks.verifier.internal.InternalInputFile;
+import org.sonar.java.checks.verifier.internal.InternalSensorContext;
+import org.sonar.java.model.JParser;
+import org.sonar.java.model.JParserConfig;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.test.classpath.TestClasspathUtils;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Access to the source files used as benchmark inputs, given relatively to the root of the repository.
+ * The benchmarks are expected to be run from the "java-benchmarks" directory, another root can be provided with the
+ * "benchmark.root" system property.
+ */
+final class BenchmarkSources {
+
+  static final String ROOT_PROPERTY = "benchmark.root";
+  static final JavaVersion JAVA_VERSION = JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION;
+
+  static final String CHECKS_TEST_SOURCES = "java-checks-test-sources/default/src/main/java/";
+  static final String STRUTS_SOURCES = "its/plugin/projects/struts-1.3.9-lite/";
+  static final String SE_CHECKS_TEST_SOURCES = "java-symbolic-execution/java-symbolic-execution-checks-test-sources/src/main/java/";
+
+  private static final String CHECKS_TEST_CLASSES = "java-checks-test-sources/default/target/classes";
+  private static final String CHECKS_TEST_CLASSPATH = "java-checks-test-sources/default/target/test-classpath.txt";
+  private static final String SE_CHECKS_TEST_CLASSES = "java-symbolic-execution/java-symbolic-execution-checks-test-sources/target/classes";
+  private static final String SE_CHECKS_TEST_CLASSPATH = "java-symbolic-execution/java-symbolic-execution-checks-test-sources/target/test-classpath.txt";
+
+  private BenchmarkSources() {
+    // utility class
+  }
+
+  static Path resolve(String relativePath) {
+    return Path.of(System.getProperty(ROOT_PROPERTY, "..")).resolve(relativePath);
+  }
+
+  static String read(String relativePath) {
+    Path path = resolve(relativePath);
+    try {
+      return Files.readString(path, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read benchmark input " + path.toAbsolutePath(), e);
+    }
+  }
+
+  static InputFile inputFile(String relativePath) {
+    return InternalInputFile.inputFile("", resolve(relativePath).toFile());
+  }
+
+  /**
+   * Classpath of "java-checks-test-sources", if the module has been built. Without it, the semantic of the inputs is incomplete.
+   */
+  static List<File> classpath() {
+    return classpath(CHECKS_TEST_CLASSES, CHECKS_TEST_CLASSPATH);
+  }
+
+  /**
+   * Classpath of "java-symbolic-execution-checks-test-sources", if the module has been built.
+   */
+  static List<File> symbolicExecutionClasspath() {
+    return classpath(SE_CHECKS_TEST_CLASSES, SE_CHECKS_TEST_CLASSPATH);
+  }
+
+  private static List<File> classpath(String classesDirectory, String classpathFile) {
+    List<File> classpath = new ArrayList<>();
+    Path classes = resolve(classesDirectory);
+    if (Files.isDirectory(classes)) {
+      classpath.add(classes.toFile());
+    }
+    Path classpathPath = resolve(classpathFile);
+    if (Files.isRegularFile(classpathPath)) {
+      classpath.addAll(TestClasspathUtils.loadFromFile(classpathPath.toString()));
+    }
+    return classpath;
+  }
+
+  /**
+   * @return paths, relative to the root of the repository, of all the java files under the given directory, sorted
+   */
+  static List<String> javaFiles(String relativeDirectory) {
+    Path root = resolve("");
+    try (Stream<Path> paths = Files.walk(resolve(relativeDirectory))) {
+      return paths
+        .filter(path -> path.toString().endsWith(".java"))
+        .map(path -> root.relativize(path).toString())
+        .sorted()
+        .toList();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to list benchmark inputs of " + relativeDirectory, e);
+    }
+  }
+
+  static JParserConfig parserConfig() {
+    return JParserConfig.Mode.FILE_BY_FILE.create(JAVA_VERSION, classpath());
+  }
+
+  static JavaTree.CompilationUnitTreeImpl parse(String relativePath) {
+    return parse(parserConfig(), relativePath, read(relativePath));
+  }
+
+  static JavaTree.CompilationUnitTreeImpl parse(JParserConfig config, String relativePath, String source) {
+    return JParser.parse(config.astParser(), JAVA_VERSION.toString(), resolve(relativePath).getFileName().toString(), source);
+  }
+
+  static SonarComponents sonarComponents() {
+    InternalSensorContext sensorContext = new InternalSensorContext();
+    SonarComponents sonarComponents = new SonarComponents(null, sensorContext.fileSystem(), null, null, null, null);
+    sonarComponents.setSensorContext(sensorContext);
+    return sonarComponents;
+  }
+
+  static <T> T newInstance(Class<T> type) {
+    try {
+      return type.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Unable to instantiate " + type.getName(), e);
+    }
+  }
+
+  /**
+   * @return all the trees of the given kinds, in pre-order
+   */
+  static <T extends Tree> List<T> descendants(Tree root, Class<T> type, Tree.Kind... kinds) {
+    Set<Tree.Kind> expectedKinds = Set.copyOf(Arrays.asList(kinds));
+    List<T> result = new ArrayList<>();
+    Deque<Tree> toVisit = new ArrayDeque<>();
+    toVisit.push(root);
+    while (!toVisit.isEmpty()) {
+      Tree tree = toVisit.pop();
+      if (expectedKinds.contains(tree.kind())) {
+        result.add(type.cast(tree));
+      }
+      JavaTree javaTree = (JavaTree) tree;
+      if (!javaTree.isLeaf()) {
+        List<Tree> children = javaTree.getChildren();
+        for (int i = children.size() - 1; i >= 0; i--) {
+          toVisit.push(children.get(i));
+        }
+      }
+    }
+    return result;
+  }
+
+}
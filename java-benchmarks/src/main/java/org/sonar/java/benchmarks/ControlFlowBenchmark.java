@@ -0,0 +1,92 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.LiveVariables;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Construction of the control flow graphs of all the methods of a file, and live variables analysis on top of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControlFlowBenchmark {
+
+  @Param({
+    BenchmarkSources.CHECKS_TEST_SOURCES + "checks/PrintfMisuseCheckSample.java",
+    BenchmarkSources.CHECKS_TEST_SOURCES + "symbolicexecution/checks/DivisionByZeroCheckSample.java",
+    BenchmarkSources.STRUTS_SOURCES + "core/src/main/java/org/apache/struts/action/ActionServlet.java"
+  })
+  public String file;
+
+  private List<MethodTree> methods;
+  private List<CFG> cfgs;
+
+  @Setup
+  public void setup() {
+    methods = BenchmarkSources.descendants(BenchmarkSources.parse(file), MethodTree.class, Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR)
+      .stream()
+      .filter(method -> method.block() != null)
+      .toList();
+  }
+
+  /**
+   * Graphs keep the result of their analyses, they are built again so that each invocation analyzes them.
+   */
+  @Setup(Level.Invocation)
+  public void setupInvocation() {
+    cfgs = new ArrayList<>(methods.size());
+    methods.forEach(method -> cfgs.add(CFG.build(method)));
+  }
+
+  @Benchmark
+  public void buildCfg(Blackhole blackhole) {
+    for (MethodTree method : methods) {
+      blackhole.consume(CFG.build(method));
+    }
+  }
+
+  @Benchmark
+  public void analyzeLiveVariables(Blackhole blackhole) {
+    for (CFG cfg : cfgs) {
+      blackhole.consume(LiveVariables.analyze(cfg));
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.model.JParserConfig;
+import org.sonar.java.model.JavaTree;
+
+/**
+ * Parsing of a single file with ECJ and conversion to the SonarJava tree, including the semantic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JParserBenchmark {
+
+  @Param({
+    BenchmarkSources.CHECKS_TEST_SOURCES + "checks/PrintfMisuseCheckSample.java",
+    BenchmarkSources.CHECKS_TEST_SOURCES + "symbolicexecution/checks/DivisionByZeroCheckSample.java",
+    BenchmarkSources.STRUTS_SOURCES + "core/src/main/java/org/apache/struts/action/ActionServlet.java"
+  })
+  public String file;
+
+  private JParserConfig config;
+  private String source;
+
+  @Setup
+  public void setup() {
+    config = BenchmarkSources.parserConfig();
+    source = BenchmarkSources.read(file);
+  }
+
+  @Benchmark
+  public JavaTree.CompilationUnitTreeImpl parse() {
+    return BenchmarkSources.parse(config, file, source);
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Matching of all the method invocations and constructor calls of a file against matchers similar to the ones of the rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodMatchersBenchmark {
+
+  private static final List<MethodMatchers> MATCHERS = List.of(
+    MethodMatchers.create().ofTypes("java.lang.String").names("equals", "equalsIgnoreCase").addParametersMatcher("java.lang.Object").build(),
+    MethodMatchers.create().ofSubTypes("java.util.Collection").names("add", "remove", "contains").withAnyParameters().build(),
+    MethodMatchers.create().ofSubTypes("java.util.Map").names("get", "put", "containsKey").withAnyParameters().build(),
+    MethodMatchers.create().ofTypes("java.lang.Object").names("toString", "hashCode").addWithoutParametersMatcher().build(),
+    MethodMatchers.create().ofAnyType().names("wait", "notify", "notifyAll").withAnyParameters().build(),
+    MethodMatchers.create().ofTypes("java.util.regex.Pattern").names("compile", "matches").withAnyParameters().build(),
+    MethodMatchers.create().ofTypes("java.lang.String").names("format", "formatted", "replaceAll", "split").withAnyParameters().build(),
+    MethodMatchers.create().ofSubTypes("java.io.PrintStream").names("println", "printf").withAnyParameters().build(),
+    MethodMatchers.create().ofTypes("java.lang.Thread").names("sleep", "run", "start").withAnyParameters().build(),
+    MethodMatchers.create().ofAnyType().name(name -> name.startsWith("assert")).withAnyParameters().build(),
+    MethodMatchers.create().ofSubTypes("java.lang.Throwable").constructor().withAnyParameters().build(),
+    MethodMatchers.create().ofTypes("java.lang.Integer", "java.lang.Long", "java.lang.Double").names("valueOf", "parseInt", "parseLong").withAnyParameters().build(),
+    MethodMatchers.or(
+      MethodMatchers.create().ofTypes("java.util.Optional").names("get", "isPresent", "orElse").withAnyParameters().build(),
+      MethodMatchers.create().ofSubTypes("java.util.stream.Stream").names("map", "filter", "collect").withAnyParameters().build()));
+
+  @Param({
+    BenchmarkSources.CHECKS_TEST_SOURCES + "checks/PrintfMisuseCheckSample.java",
+    BenchmarkSources.CHECKS_TEST_SOURCES + "symbolicexecution/checks/DivisionByZeroCheckSample.java",
+    BenchmarkSources.STRUTS_SOURCES + "core/src/main/java/org/apache/struts/action/ActionServlet.java"
+  })
+  public String file;
+
+  private List<MethodInvocationTree> methodInvocations;
+  private List<NewClassTree> newClasses;
+
+  @Setup
+  public void setup() {
+    Tree tree = BenchmarkSources.parse(file);
+    methodInvocations = BenchmarkSources.descendants(tree, MethodInvocationTree.class, Tree.Kind.METHOD_INVOCATION);
+    newClasses = BenchmarkSources.descendants(tree, NewClassTree.class, Tree.Kind.NEW_CLASS);
+  }
+
+  @Benchmark
+  public int match() {
+    int matches = 0;
+    for (MethodMatchers matcher : MATCHERS) {
+      for (MethodInvocationTree methodInvocation : methodInvocations) {
+        if (matcher.matches(methodInvocation)) {
+          matches++;
+        }
+      }
+      for (NewClassTree newClass : newClasses) {
+        if (matcher.matches(newClass)) {
+          matches++;
+        }
+      }
+    }
+    return matches;
+  }
+
+}
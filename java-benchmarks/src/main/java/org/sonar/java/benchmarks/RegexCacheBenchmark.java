@@ -0,0 +1,83 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.java.regex.RegexCache;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonarsource.analyzer.commons.regex.ast.FlagSet;
+
+/**
+ * Parsing of all the string literals of a file as regular expressions through the {@link RegexCache}, either from an
+ * empty cache or from a cache already containing them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegexCacheBenchmark {
+
+  @Param({
+    BenchmarkSources.CHECKS_TEST_SOURCES + "checks/regex/RedosCheckSample.java",
+    BenchmarkSources.CHECKS_TEST_SOURCES + "checks/regex/RegexComplexityCheckSample.java",
+    BenchmarkSources.STRUTS_SOURCES + "core/src/main/java/org/apache/struts/validator/FieldChecks.java"
+  })
+  public String file;
+
+  private List<LiteralTree> literals;
+  private RegexCache warmCache;
+
+  @Setup
+  public void setup() {
+    literals = BenchmarkSources.descendants(BenchmarkSources.parse(file), LiteralTree.class, Tree.Kind.STRING_LITERAL, Tree.Kind.TEXT_BLOCK);
+    warmCache = new RegexCache();
+    literals.forEach(literal -> warmCache.getRegexForLiterals(new FlagSet(), literal));
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) {
+    parseAll(new RegexCache(), blackhole);
+  }
+
+  @Benchmark
+  public void lookup(Blackhole blackhole) {
+    parseAll(warmCache, blackhole);
+  }
+
+  private void parseAll(RegexCache cache, Blackhole blackhole) {
+    for (LiteralTree literal : literals) {
+      blackhole.consume(cache.getRegexForLiterals(new FlagSet(), literal));
+    }
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.AnnotationUtils;
+import org.sonar.check.Rule;
+import org.sonar.java.GeneratedCheckList;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.testing.VisitorsBridgeForTests;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonarsource.analyzer.commons.BuiltInQualityProfileJsonLoader;
+
+/**
+ * Execution through the {@link org.sonar.java.model.VisitorsBridge} of all the rules of the "Sonar way" profile on a parsed file.
+ * Rules are created again for each iteration, as some of them accumulate data until the end of the analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SonarWayRulesBenchmark {
+
+  private static final String SONAR_WAY_PATH = "/org/sonar/l10n/java/rules/java/Sonar_way_profile.json";
+
+  @Param({
+    BenchmarkSources.CHECKS_TEST_SOURCES + "checks/PrintfMisuseCheckSample.java",
+    BenchmarkSources.CHECKS_TEST_SOURCES + "symbolicexecution/checks/DivisionByZeroCheckSample.java",
+    BenchmarkSources.STRUTS_SOURCES + "core/src/main/java/org/apache/struts/action/ActionServlet.java"
+  })
+  public String file;
+
+  private JavaTree.CompilationUnitTreeImpl tree;
+  private InputFile inputFile;
+  private SonarComponents sonarComponents;
+  private List<Class<? extends JavaCheck>> sonarWayChecks;
+  private VisitorsBridgeForTests visitorsBridge;
+
+  @Setup
+  public void setup() {
+    tree = BenchmarkSources.parse(file);
+    inputFile = BenchmarkSources.inputFile(file);
+    sonarComponents = BenchmarkSources.sonarComponents();
+    Set<String> sonarWayRuleKeys = BuiltInQualityProfileJsonLoader.loadActiveKeysFromJsonProfile(SONAR_WAY_PATH);
+    sonarWayChecks = GeneratedCheckList.getJavaChecks().stream()
+      .filter(check -> sonarWayRuleKeys.contains(AnnotationUtils.getAnnotation(check, Rule.class).key()))
+      .toList();
+  }
+
+  @Setup(Level.Iteration)
+  public void setupIteration() {
+    List<JavaCheck> checks = sonarWayChecks.stream()
+      .<JavaCheck>map(BenchmarkSources::newInstance)
+      .toList();
+    visitorsBridge = new VisitorsBridgeForTests(checks, BenchmarkSources.classpath(), sonarComponents, BenchmarkSources.JAVA_VERSION);
+    visitorsBridge.setCurrentFile(inputFile);
+  }
+
+  @Benchmark
+  public int analyze() {
+    visitorsBridge.visitFile(tree, false);
+    return visitorsBridge.lastCreatedTestContext().getIssues().size();
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Cost of dispatching the nodes of a parsed file to the subscribed {@link IssuableSubscriptionVisitor}s.
+ * The visitors do nothing but consuming what they receive, so the measure is dominated by the traversal and the dispatch.
+ * Run with "-prof gc" to observe the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriptionVisitorsDispatchBenchmark {
+
+  private static final List<Tree.Kind> SUBSCRIBED_KINDS = List.of(
+    Tree.Kind.CLASS,
+    Tree.Kind.METHOD,
+    Tree.Kind.METHOD_INVOCATION,
+    Tree.Kind.IDENTIFIER,
+    Tree.Kind.MEMBER_SELECT,
+    Tree.Kind.VARIABLE,
+    Tree.Kind.BLOCK,
+    Tree.Kind.IF_STATEMENT,
+    Tree.Kind.NEW_CLASS,
+    Tree.Kind.STRING_LITERAL,
+    Tree.Kind.TOKEN,
+    Tree.Kind.TRIVIA);
+
+  @Param({
+    BenchmarkSources.CHECKS_TEST_SOURCES + "checks/PrintfMisuseCheckSample.java",
+    BenchmarkSources.CHECKS_TEST_SOURCES + "symbolicexecution/checks/DivisionByZeroCheckSample.java",
+    BenchmarkSources.STRUTS_SOURCES + "core/src/main/java/org/apache/struts/action/ActionServlet.java"
+  })
+  public String file;
+
+  /**
+   * Number of visitors, roughly the number of rules based on subscription visitors in a quality profile.
+   */
+  @Param({"10", "300"})
+  public int visitorCount;
+
+  private JavaTree.CompilationUnitTreeImpl tree;
+  private VisitorsBridge visitorsBridge;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    tree = BenchmarkSources.parse(file);
+    List<JavaCheck> visitors = new ArrayList<>(visitorCount);
+    for (int i = 0; i < visitorCount; i++) {
+      // each visitor subscribes to a rotating subset of kinds, like real rules which are interested in a few kinds only
+      List<Tree.Kind> kinds = List.of(
+        SUBSCRIBED_KINDS.get(i % SUBSCRIBED_KINDS.size()),
+        SUBSCRIBED_KINDS.get((i * 7 + 3) % SUBSCRIBED_KINDS.size()));
+      visitors.add(new ConsumingVisitor(kinds, blackhole));
+    }
+    visitorsBridge = new VisitorsBridge(visitors, Collections.emptyList(), null);
+  }
+
+  @Benchmark
+  public void dispatch() {
+    visitorsBridge.visitFile(tree, false);
+  }
+
+  private static class ConsumingVisitor extends IssuableSubscriptionVisitor {
+    private final List<Tree.Kind> kinds;
+    private final Blackhole blackhole;
+
+    ConsumingVisitor(List<Tree.Kind> kinds, Blackhole blackhole) {
+      this.kinds = kinds;
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return kinds;
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      blackhole.consume(tree);
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      blackhole.consume(tree);
+    }
+
+    @Override
+    public void visitToken(SyntaxToken syntaxToken) {
+      blackhole.consume(syntaxToken);
+    }
+
+    @Override
+    public void visitTrivia(SyntaxTrivia syntaxTrivia) {
+      blackhole.consume(syntaxTrivia);
+    }
+  }
+
+}
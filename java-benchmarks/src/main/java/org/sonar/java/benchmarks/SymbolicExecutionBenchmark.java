@@ -0,0 +1,96 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.java.se.checks.SECheck;
+import org.sonar.java.se.plugin.JavaSECheckList;
+import org.sonar.java.testing.JavaFileScannerContextForTests;
+
+/**
+ * Symbolic execution of all the methods of a file, through {@link org.sonar.java.se.ExplodedGraphWalker#visitMethod}.
+ * The engine can be run alone, or with all the symbolic execution rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SymbolicExecutionBenchmark {
+
+  @Param({
+    BenchmarkSources.CHECKS_TEST_SOURCES + "checks/PrintfMisuseCheckSample.java",
+    BenchmarkSources.CHECKS_TEST_SOURCES + "symbolicexecution/checks/DivisionByZeroCheckSample.java",
+    BenchmarkSources.STRUTS_SOURCES + "core/src/main/java/org/apache/struts/action/ActionServlet.java"
+  })
+  public String file;
+
+  @Param({"none", "all"})
+  public String checks;
+
+  private JavaTree.CompilationUnitTreeImpl tree;
+  private InputFile inputFile;
+  private SonarComponents sonarComponents;
+  private SymbolicExecutionVisitor visitor;
+  private JavaFileScannerContextForTests context;
+
+  @Setup
+  public void setup() {
+    tree = BenchmarkSources.parse(file);
+    inputFile = BenchmarkSources.inputFile(file);
+    sonarComponents = BenchmarkSources.sonarComponents();
+  }
+
+  @Setup(Level.Iteration)
+  public void setupIteration() {
+    List<SECheck> seChecks = "all".equals(checks) ? instantiate(JavaSECheckList.getChecks()) : List.of();
+    visitor = new SymbolicExecutionVisitor(seChecks);
+    context = new JavaFileScannerContextForTests(tree, inputFile, tree.sema, sonarComponents, BenchmarkSources.JAVA_VERSION, true, false, null);
+  }
+
+  @Benchmark
+  public SymbolicExecutionVisitor visitMethods() {
+    // the behavior cache is cleaned up at the beginning of each file, so every method is explored again
+    visitor.scanFile(context);
+    return visitor;
+  }
+
+  private static List<SECheck> instantiate(List<Class<? extends SECheck>> checkClasses) {
+    return checkClasses.stream()
+      .<SECheck>map(BenchmarkSources::newInstance)
+      .toList();
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.model.JParserConfig;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.java.se.checks.SECheck;
+import org.sonar.java.se.plugin.JavaSECheckList;
+import org.sonar.java.testing.JavaFileScannerContextForTests;
+
+/**
+ * Symbolic execution of all the files of "java-symbolic-execution-checks-test-sources", which exercise every construct and
+ * rule of the engine. The amount of explored states being fixed by the corpus, the time per operation is the inverse of the
+ * exploration throughput, and {@code -prof gc} gives the allocations of the program states.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SymbolicExecutionCorpusBenchmark {
+
+  @Param({"none", "all"})
+  public String checks;
+
+  private List<JavaFileScannerContextForTests> contexts;
+  private SymbolicExecutionVisitor visitor;
+
+  @Setup
+  public void setup() {
+    JParserConfig config = JParserConfig.Mode.FILE_BY_FILE.create(BenchmarkSources.JAVA_VERSION, BenchmarkSources.symbolicExecutionClasspath());
+    SonarComponents sonarComponents = BenchmarkSources.sonarComponents();
+    contexts = BenchmarkSources.javaFiles(BenchmarkSources.SE_CHECKS_TEST_SOURCES).stream()
+      .map(file -> {
+        JavaTree.CompilationUnitTreeImpl tree = BenchmarkSources.parse(config, file, BenchmarkSources.read(file));
+        return new JavaFileScannerContextForTests(tree, BenchmarkSources.inputFile(file), tree.sema, sonarComponents,
+          BenchmarkSources.JAVA_VERSION, true, false, null);
+      })
+      .toList();
+  }
+
+  @Setup(Level.Iteration)
+  public void setupIteration() {
+    List<SECheck> seChecks = "all".equals(checks) ? instantiate(JavaSECheckList.getChecks()) : List.of();
+    visitor = new SymbolicExecutionVisitor(seChecks);
+  }
+
+  @Benchmark
+  public SymbolicExecutionVisitor visitCorpus() {
+    for (JavaFileScannerContextForTests context : contexts) {
+      visitor.scanFile(context);
+    }
+    return visitor;
+  }
+
+  private static List<SECheck> instantiate(List<Class<? extends SECheck>> checkClasses) {
+    return checkClasses.stream()
+      .<SECheck>map(BenchmarkSources::newInstance)
+      .toList();
+  }
+
+}
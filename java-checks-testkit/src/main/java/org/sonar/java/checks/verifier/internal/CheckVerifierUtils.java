@@ -19,6 +19,8 @@ package org.sonar.java.checks.verifier.internal;
 import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
@@ -68,6 +70,12 @@ public class CheckVerifierUtils {
       public File projectLevelWorkDir(){
         return workingDirectory;
       }
+
+      @Override
+      public List<File> getJavaClasspath() {
+        // the classpath of the verifier is given to the parser directly
+        return Collections.emptyList();
+      }
     };
     sonarComponents.setSensorContext(sensorContext);
     return sonarComponents;
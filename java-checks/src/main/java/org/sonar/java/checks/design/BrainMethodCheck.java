@@ -16,17 +16,26 @@
  */
 package org.sonar.java.checks.design;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.checks.helpers.FileFactsCache;
 import org.sonar.java.checks.helpers.MethodTreeUtils;
 import org.sonar.java.metrics.MetricsScannerContext;
 import org.sonar.java.model.DefaultModuleScannerContext;
 import org.sonar.java.reporting.AnalyzerMessage;
+import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.ModuleScannerContext;
 import org.sonar.plugins.java.api.internal.EndOfAnalysis;
 import org.sonar.plugins.java.api.tree.MethodTree;
@@ -50,6 +59,9 @@ public class BrainMethodCheck extends IssuableSubscriptionVisitor implements End
   // Defined as a human short-term memory numeric limit of variables that can be kept in mind
   private static final int DEFAULT_VARIABLES_THRESHOLD = 7;
 
+  private static final FileFactsCache<List<MethodMetrics>> METHOD_METRICS_CACHE = new FileFactsCache<>("java:S6541:methods:",
+    new MethodMetricsCodec());
+
   @RuleProperty(key = "locThreshold", description = "The maximum number of LOC allowed.", defaultValue = "" + DEFAULT_LOC_THRESHOLD)
   public int locThreshold = DEFAULT_LOC_THRESHOLD;
 
@@ -69,7 +81,32 @@ public class BrainMethodCheck extends IssuableSubscriptionVisitor implements End
 
   @VisibleForTesting
   int numberOfIssuesToReport = 10;
-  private final List<IssueFound> issuesFound = new ArrayList<>();
+  /**
+   * Brain methods found in each file. A file whose metrics were read from the cache can still be scanned afterward, when another
+   * check requires it to be parsed: its brain methods are then replaced instead of being reported twice.
+   */
+  private final Map<String, List<IssueFound>> issuesFoundByFile = new LinkedHashMap<>();
+  /**
+   * Metrics of the methods of the current file, which do not depend on the thresholds, stored in the cache of the analysis.
+   */
+  private final List<MethodMetrics> fileMethodMetrics = new ArrayList<>();
+
+  @Override
+  public boolean scanWithoutParsing(InputFileScannerContext inputFileScannerContext) {
+    return METHOD_METRICS_CACHE.read(inputFileScannerContext).map(methodMetrics -> {
+      InputFile inputFile = inputFileScannerContext.getInputFile();
+      issuesFoundByFile.remove(inputFile.key());
+      methodMetrics.forEach(metrics -> addIfBrainMethod(inputFile, metrics));
+      return true;
+    }).orElse(false);
+  }
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    fileMethodMetrics.clear();
+    issuesFoundByFile.remove(context.getInputFile().key());
+    super.setContext(context);
+  }
 
   @Override
   public void visitNode(Tree tree) {
@@ -81,28 +118,39 @@ public class BrainMethodCheck extends IssuableSubscriptionVisitor implements End
       return;
     }
 
-    int cyclomaticComplexity = metricsComputer.getComplexityNodes(methodTree).size();
-    int maxNestingLevel = metricsComputer.getMethodNestingLevel(methodTree);
-    int linesOfCode = metricsComputer.getLinesOfCode(methodTree.block());
-    int numberOfAccessedVariables = metricsComputer.getNumberOfAccessedVariables(methodTree);
+    MethodMetrics metrics = new MethodMetrics(
+      AnalyzerMessage.textSpanFor(methodTree.simpleName()),
+      metricsComputer.getLinesOfCode(methodTree.block()),
+      metricsComputer.getComplexityNodes(methodTree).size(),
+      metricsComputer.getMethodNestingLevel(methodTree),
+      metricsComputer.getNumberOfAccessedVariables(methodTree));
+    fileMethodMetrics.add(metrics);
+    addIfBrainMethod(context.getInputFile(), metrics);
+  }
+
+  @Override
+  public void leaveFile(JavaFileScannerContext context) {
+    super.leaveFile(context);
+    METHOD_METRICS_CACHE.write(context, fileMethodMetrics);
+    fileMethodMetrics.clear();
+  }
 
-    if (linesOfCode >= locThreshold &&
-      cyclomaticComplexity >= cyclomaticThreshold &&
-      maxNestingLevel >= nestingThreshold &&
-      numberOfAccessedVariables >= noavThreshold) {
+  private void addIfBrainMethod(InputFile inputFile, MethodMetrics metrics) {
+    if (metrics.linesOfCode() >= locThreshold &&
+      metrics.cyclomaticComplexity() >= cyclomaticThreshold &&
+      metrics.maxNestingLevel() >= nestingThreshold &&
+      metrics.numberOfAccessedVariables() >= noavThreshold) {
 
-      int brainScore = numberOfAccessedVariables + cyclomaticComplexity + maxNestingLevel * linesOfCode;
+      int brainScore = metrics.numberOfAccessedVariables() + metrics.cyclomaticComplexity() + metrics.maxNestingLevel() * metrics.linesOfCode();
       String issueMessage = String.format(ISSUE_MESSAGE,
-        linesOfCode, locThreshold - 1,
-        cyclomaticComplexity, cyclomaticThreshold - 1,
-        maxNestingLevel, nestingThreshold - 1,
-        numberOfAccessedVariables, noavThreshold - 1);
-
-      AnalyzerMessage analyzerMessage = new AnalyzerMessage(this, context.getInputFile(),
-        AnalyzerMessage.textSpanFor(methodTree.simpleName()), issueMessage, 0);
-      issuesFound.add(new IssueFound(brainScore, analyzerMessage));
-    }
+        metrics.linesOfCode(), locThreshold - 1,
+        metrics.cyclomaticComplexity(), cyclomaticThreshold - 1,
+        metrics.maxNestingLevel(), nestingThreshold - 1,
+        metrics.numberOfAccessedVariables(), noavThreshold - 1);
 
+      AnalyzerMessage analyzerMessage = new AnalyzerMessage(this, inputFile, metrics.textSpan(), issueMessage, 0);
+      issuesFoundByFile.computeIfAbsent(inputFile.key(), key -> new ArrayList<>()).add(new IssueFound(brainScore, analyzerMessage));
+    }
   }
 
   private static boolean isExcluded(MethodTree methodTree) {
@@ -111,6 +159,8 @@ public class BrainMethodCheck extends IssuableSubscriptionVisitor implements End
 
   @Override
   public void endOfAnalysis(ModuleScannerContext context) {
+    List<IssueFound> issuesFound = new ArrayList<>();
+    issuesFoundByFile.values().forEach(issuesFound::addAll);
     if (issuesFound.size() > numberOfIssuesToReport) {
       numberOfIssuesToReport += issuesFound.size() / 10;
       issuesFound.sort((a, b) -> b.brainScore - a.brainScore);
@@ -124,6 +174,42 @@ public class BrainMethodCheck extends IssuableSubscriptionVisitor implements End
     }
   }
 
+  private record MethodMetrics(AnalyzerMessage.TextSpan textSpan, int linesOfCode, int cyclomaticComplexity, int maxNestingLevel,
+    int numberOfAccessedVariables) {
+  }
+
+  private static class MethodMetricsCodec implements FileFactsCache.Codec<List<MethodMetrics>> {
+
+    @Override
+    public void encode(List<MethodMetrics> methodMetrics, DataOutput out) throws IOException {
+      out.writeInt(methodMetrics.size());
+      for (MethodMetrics metrics : methodMetrics) {
+        out.writeInt(metrics.textSpan().startLine);
+        out.writeInt(metrics.textSpan().startCharacter);
+        out.writeInt(metrics.textSpan().endLine);
+        out.writeInt(metrics.textSpan().endCharacter);
+        out.writeInt(metrics.linesOfCode());
+        out.writeInt(metrics.cyclomaticComplexity());
+        out.writeInt(metrics.maxNestingLevel());
+        out.writeInt(metrics.numberOfAccessedVariables());
+      }
+    }
+
+    @Override
+    public List<MethodMetrics> decode(DataInput in) throws IOException {
+      int size = in.readInt();
+      if (size < 0) {
+        throw new IOException("Invalid number of methods: " + size);
+      }
+      List<MethodMetrics> methodMetrics = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        var textSpan = new AnalyzerMessage.TextSpan(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+        methodMetrics.add(new MethodMetrics(textSpan, in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+      }
+      return methodMetrics;
+    }
+  }
+
   private static class IssueFound {
 
     int brainScore;
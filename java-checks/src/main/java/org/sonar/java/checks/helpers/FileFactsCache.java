@@ -0,0 +1,117 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.checks.helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.plugins.java.api.InputFileScannerContext;
+import org.sonar.plugins.java.api.caching.CacheContext;
+
+/**
+ * Facts collected on each file by a check implementing {@link org.sonar.plugins.java.api.internal.EndOfAnalysis}, kept in the
+ * cache of the analysis. On the next analysis, the check gets back the facts of unchanged files in
+ * {@link org.sonar.plugins.java.api.JavaFileScanner#scanWithoutParsing}, so that these files do not have to be parsed for it.
+ * <p>
+ * The facts must not depend on the parameters of the check, which can change between two analyses.
+ *
+ * @param <F> the facts of a file
+ */
+public final class FileFactsCache<F> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FileFactsCache.class);
+
+  public interface Codec<F> {
+    void encode(F facts, DataOutput out) throws IOException;
+
+    F decode(DataInput in) throws IOException;
+  }
+
+  private final String cacheKeyPrefix;
+  private final Codec<F> codec;
+
+  /**
+   * @param cacheKeyPrefix prefix of the keys of the facts, to be changed when their encoding changes
+   */
+  public FileFactsCache(String cacheKeyPrefix, Codec<F> codec) {
+    this.cacheKeyPrefix = cacheKeyPrefix;
+    this.codec = codec;
+  }
+
+  /**
+   * Reads the facts stored for the file by the previous analysis, and keeps them for the next one.
+   */
+  public Optional<F> read(InputFileScannerContext context) {
+    CacheContext cacheContext = context.getCacheContext();
+    if (!cacheContext.isCacheEnabled()) {
+      return Optional.empty();
+    }
+    String cacheKey = cacheKey(context);
+    byte[] bytes = cacheContext.getReadCache().readBytes(cacheKey);
+    if (bytes == null) {
+      return Optional.empty();
+    }
+    F facts;
+    try {
+      facts = codec.decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+    } catch (IOException e) {
+      LOG.trace("Cached entry is unreadable for key '{}'", cacheKey);
+      return Optional.empty();
+    }
+    try {
+      cacheContext.getWriteCache().copyFromPrevious(cacheKey);
+    } catch (IllegalArgumentException e) {
+      LOG.trace("Tried to write multiple times to cache key '{}'. Ignoring writes after the first.", cacheKey);
+    }
+    return Optional.of(facts);
+  }
+
+  /**
+   * Stores the facts collected on the file for the next analysis, when the cache is enabled.
+   */
+  public void write(InputFileScannerContext context, F facts) {
+    CacheContext cacheContext = context.getCacheContext();
+    if (!cacheContext.isCacheEnabled()) {
+      return;
+    }
+    String cacheKey = cacheKey(context);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      codec.encode(facts, new DataOutputStream(bytes));
+    } catch (IOException e) {
+      // not expected when writing to memory
+      throw new IllegalStateException(e);
+    }
+    try {
+      cacheContext.getWriteCache().write(cacheKey, bytes.toByteArray());
+    } catch (IllegalArgumentException e) {
+      LOG.trace("Tried to write multiple times to cache key '{}'. Ignoring writes after the first.", cacheKey);
+    }
+  }
+
+  private String cacheKey(InputFileScannerContext context) {
+    return cacheKeyPrefix + context.getInputFile().key();
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.checks.regex;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonarsource.analyzer.commons.regex.MatchType;
+
+/**
+ * Results of the backtracking analysis of {@link RedosCheck}, shared by all the files of a module. The analysis only depends on the
+ * text of the regex, its flags and how it is matched, so that the same pattern found in many files is analyzed once.
+ * Recently used results are kept in memory, up to a bounded number. When the cache of the analysis is enabled, results are also
+ * written to it, addressed by a digest of what they depend on, and read back by the next analysis.
+ */
+class RedosAnalysisCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RedosAnalysisCache.class);
+
+  private static final String CACHE_KEY_PREFIX = "java:S5852:analysis:";
+  private static final int FORMAT_VERSION = 1;
+  @VisibleForTesting
+  static final int MAX_ENTRIES = 10_000;
+
+  record Key(String regex, int flags, MatchType matchType) {
+  }
+
+  record Result(RedosCheck.BacktrackingType backtrackingType, boolean containsBackReference) {
+  }
+
+  private final Map<Key, Result> recentResults = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  /**
+   * Keys of the entries already stored in the write cache during this analysis, which can only be stored once.
+   */
+  private final Set<String> storedKeys = new HashSet<>();
+
+  Result get(Key key, CacheContext cacheContext, Supplier<Result> analysis) {
+    Result result = recentResults.get(key);
+    if (result != null) {
+      return result;
+    }
+    if (!cacheContext.isCacheEnabled()) {
+      result = analysis.get();
+    } else {
+      String cacheKey = cacheKey(key);
+      result = decode(cacheContext.getReadCache().readBytes(cacheKey));
+      if (result != null) {
+        store(cacheKey, () -> cacheContext.getWriteCache().copyFromPrevious(cacheKey));
+      } else {
+        Result computed = analysis.get();
+        store(cacheKey, () -> cacheContext.getWriteCache().write(cacheKey, encode(computed)));
+        result = computed;
+      }
+    }
+    recentResults.put(key, result);
+    return result;
+  }
+
+  private void store(String cacheKey, Runnable write) {
+    if (storedKeys.add(cacheKey)) {
+      try {
+        write.run();
+      } catch (IllegalArgumentException e) {
+        LOG.trace("Tried to write multiple times to cache key '{}'. Ignoring writes after the first.", cacheKey);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  static String cacheKey(Key key) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      String version = RedosAnalysisCache.class.getPackage().getImplementationVersion();
+      String content = FORMAT_VERSION + "|" + version + "|" + key.flags() + "|" + key.matchType() + "|" + key.regex();
+      return CACHE_KEY_PREFIX + HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] encode(Result result) {
+    return new byte[] {(byte) result.backtrackingType().ordinal(), (byte) (result.containsBackReference() ? 1 : 0)};
+  }
+
+  @CheckForNull
+  private static Result decode(@Nullable byte[] bytes) {
+    RedosCheck.BacktrackingType[] types = RedosCheck.BacktrackingType.values();
+    if (bytes == null || bytes.length != 2 || bytes[0] < 0 || bytes[0] >= types.length) {
+      return null;
+    }
+    return new Result(types[bytes[0]], bytes[1] != 0);
+  }
+
+}
@@ -76,6 +76,7 @@ public class RedosCheck extends AbstractRegexCheckTrackingMatchType {
 
   private final RegexReachabilityChecker reachabilityChecker = new RegexReachabilityChecker(false);
   private final IntersectAutomataChecker intersectionChecker = new IntersectAutomataChecker(false);
+  private final RedosAnalysisCache analysisCache = new RedosAnalysisCache();
 
   // Java 9 introduced a loop optimization that's applied to greedy repetitions in regexes that don't use capturing groups.
   // Without this optimization any loop where for the same input multiple paths can be taken through the loop's body,
@@ -124,6 +125,17 @@ public class RedosCheck extends AbstractRegexCheckTrackingMatchType {
     if (regexForLiterals.getResult().getText().length() > MAX_REGEX_LENGTH) {
       return;
     }
+    RedosAnalysisCache.Key key = new RedosAnalysisCache.Key(regexForLiterals.getResult().getSource().getSourceText(),
+      regexForLiterals.getInitialFlags().getMask(), matchType);
+    RedosAnalysisCache.Result result = analysisCache.get(key, context.getCacheContext(), () -> analyze(regexForLiterals, matchType));
+    regexContainsBackReference = result.containsBackReference();
+    foundBacktrackingType = result.backtrackingType();
+    message().ifPresent(message ->
+      reportIssue(methodOrAnnotationName(methodInvocationOrAnnotation), message, null, Collections.emptyList())
+    );
+  }
+
+  private RedosAnalysisCache.Result analyze(RegexParseResult regexForLiterals, MatchType matchType) {
     regexContainsBackReference = false;
     foundBacktrackingType = BacktrackingType.NO_ISSUE;
     reachabilityChecker.clearCache();
@@ -132,9 +144,7 @@ public class RedosCheck extends AbstractRegexCheckTrackingMatchType {
     boolean isUsedForPartialMatch = matchType == MatchType.PARTIAL || matchType == MatchType.BOTH;
     RedosFinder visitor = new RedosFinder(regexForLiterals.getStartState(), regexForLiterals.getFinalState(), isUsedForFullMatch, isUsedForPartialMatch);
     visitor.visit(regexForLiterals);
-    message().ifPresent(message ->
-      reportIssue(methodOrAnnotationName(methodInvocationOrAnnotation), message, null, Collections.emptyList())
-    );
+    return new RedosAnalysisCache.Result(foundBacktrackingType, regexContainsBackReference);
   }
 
   private void addBacktracking(BacktrackingType newBacktrackingType) {
@@ -16,7 +16,6 @@
  */
 package org.sonar.java.checks.security;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -25,6 +24,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
@@ -35,6 +35,7 @@ import org.sonar.java.model.DefaultJavaFileScannerContext;
 import org.sonar.java.model.DefaultModuleScannerContext;
 import org.sonar.java.model.ExpressionUtils;
 import org.sonar.java.reporting.AnalyzerMessage;
+import org.sonar.java.reporting.PendingIssues;
 import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -130,7 +131,8 @@ public class ExcessiveContentRequestCheck extends IssuableSubscriptionVisitor im
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ExcessiveContentRequestCheck.class);
 
-  private final List<AnalyzerMessage> multipartConstructorIssues = new ArrayList<>();
+  @Nullable
+  private PendingIssues multipartConstructorIssues = null;
   private boolean sizeSetSomewhere = false;
 
   private Set<String> filesCached = new HashSet<>();
@@ -160,12 +162,15 @@ public class ExcessiveContentRequestCheck extends IssuableSubscriptionVisitor im
 
   @Override
   public void endOfAnalysis(ModuleScannerContext context) {
-    if (!sizeSetSomewhere) {
-      var defaultContext = (DefaultModuleScannerContext) context;
-      multipartConstructorIssues.forEach(defaultContext::reportIssue);
+    if (multipartConstructorIssues != null) {
+      if (!sizeSetSomewhere) {
+        var defaultContext = (DefaultModuleScannerContext) context;
+        multipartConstructorIssues.forEach(defaultContext::reportIssue);
+      }
+      multipartConstructorIssues.clear();
+      multipartConstructorIssues = null;
     }
     filesCached.clear();
-    multipartConstructorIssues.clear();
     sizeSetSomewhere = false;
   }
 
@@ -182,6 +187,9 @@ public class ExcessiveContentRequestCheck extends IssuableSubscriptionVisitor im
       if (MULTIPART_CONSTRUCTOR.matches(newClassTree)) {
         // Create an issue that we will report only at the end of the analysis if the maximum size was never set.
         AnalyzerMessage analyzerMessage = defaultContext.createAnalyzerMessage(this, newClassTree, MESSAGE_SIZE_NOT_SET);
+        if (multipartConstructorIssues == null) {
+          multipartConstructorIssues = defaultContext.newPendingIssues();
+        }
         multipartConstructorIssues.add(analyzerMessage);
         currentFileInstantiates = true;
       }
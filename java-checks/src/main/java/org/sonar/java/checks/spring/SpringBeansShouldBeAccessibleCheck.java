@@ -17,17 +17,15 @@
 package org.sonar.java.checks.spring;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
@@ -35,6 +33,7 @@ import org.sonar.check.Rule;
 import org.sonar.java.model.DefaultJavaFileScannerContext;
 import org.sonar.java.model.DefaultModuleScannerContext;
 import org.sonar.java.reporting.AnalyzerMessage;
+import org.sonar.java.reporting.PendingIssues;
 import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -70,10 +69,10 @@ public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisi
   private static final String CACHE_KEY_PREFIX = "java:S4605:targeted:";
 
   /**
-   * The key is the package name.
-   * The value is a list of messages which are independent of Syntax Trees (to avoid memory leaks).
+   * Messages, which are independent of Syntax Trees (to avoid memory leaks), grouped by package name.
    */
-  private final Map<String, List<AnalyzerMessage>> messagesPerPackage = new HashMap<>();
+  @Nullable
+  private PendingIssues messagesPerPackage = null;
   /**
    * These are the packages that will be scanned by Spring in search of components
    */
@@ -99,11 +98,18 @@ public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisi
 
   @Override
   public void endOfAnalysis(ModuleScannerContext context) {
+    if (messagesPerPackage == null) {
+      return;
+    }
     var defaultContext = (DefaultModuleScannerContext) context;
-    messagesPerPackage.entrySet().stream()
+    messagesPerPackage.forEachWithGroup((packageName, message) -> {
       // support sub-packages
-      .filter(entry -> packagesScannedBySpringAtProjectLevel.stream().noneMatch(entry.getKey()::contains))
-      .forEach(entry -> entry.getValue().forEach(defaultContext::reportIssue));
+      if (packagesScannedBySpringAtProjectLevel.stream().noneMatch(packageName::contains)) {
+        defaultContext.reportIssue(message);
+      }
+    });
+    messagesPerPackage.clear();
+    messagesPerPackage = null;
   }
 
   @Override
@@ -196,7 +202,10 @@ public class SpringBeansShouldBeAccessibleCheck extends IssuableSubscriptionVisi
   private void addMessageToMap(String classPackageName, IdentifierTree classNameTree) {
     DefaultJavaFileScannerContext defaultContext = (DefaultJavaFileScannerContext) context;
     AnalyzerMessage analyzerMessage = defaultContext.createAnalyzerMessage(this, classNameTree, String.format(MESSAGE_FORMAT, classNameTree.name()));
-    messagesPerPackage.computeIfAbsent(classPackageName, k -> new ArrayList<>()).add(analyzerMessage);
+    if (messagesPerPackage == null) {
+      messagesPerPackage = defaultContext.newPendingIssues();
+    }
+    messagesPerPackage.add(classPackageName, analyzerMessage);
   }
 
   private void addToScannedPackages(SymbolMetadata.AnnotationValue annotationValue) {
@@ -17,8 +17,25 @@
 package org.sonar.java.checks.design;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.caching.JavaReadCacheImpl;
+import org.sonar.java.caching.JavaWriteCacheImpl;
+import org.sonar.java.checks.helpers.HashCacheTestHelper;
 import org.sonar.java.checks.verifier.CheckVerifier;
-
+import org.sonar.java.checks.verifier.internal.InternalReadCache;
+import org.sonar.java.checks.verifier.internal.InternalWriteCache;
+import org.sonar.java.model.DefaultModuleScannerContext;
+import org.sonar.java.reporting.AnalyzerMessage;
+import org.sonar.plugins.java.api.InputFileScannerContext;
+import org.sonar.plugins.java.api.caching.CacheContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sonar.java.checks.verifier.TestUtils.mainCodeSourcesPath;
 
 class BrainMethodCheckTest {
@@ -89,4 +106,73 @@ class BrainMethodCheckTest {
       .verifyIssues();
   }
 
+  @Test
+  void metrics_of_unchanged_files_are_read_from_the_cache() {
+    InternalReadCache emptyReadCache = new InternalReadCache();
+    InternalWriteCache writeCache = new InternalWriteCache().bind(emptyReadCache);
+    CheckVerifier.newVerifier()
+      .onFile(HIGH_COMPLEXITY_FILE_PATH)
+      .withChecks(new BrainMethodCheck())
+      .withCache(emptyReadCache, writeCache)
+      .verifyIssues();
+    assertThat(writeCache.getData().keySet()).anyMatch(key -> key.startsWith("java:S6541:methods:"));
+
+    InternalReadCache readCache = new InternalReadCache().putAll(writeCache);
+    InputFile unchangedFile = HashCacheTestHelper.inputFileFromPath(HIGH_COMPLEXITY_FILE_PATH);
+    var check = new BrainMethodCheck();
+    assertThat(check.scanWithoutParsing(inputFileScannerContext(unchangedFile, readCache))).isTrue();
+    DefaultModuleScannerContext moduleContext = mock(DefaultModuleScannerContext.class);
+    check.endOfAnalysis(moduleContext);
+    ArgumentCaptor<AnalyzerMessage> issue = ArgumentCaptor.forClass(AnalyzerMessage.class);
+    verify(moduleContext).reportIssue(issue.capture());
+    assertThat(issue.getValue().getInputComponent()).isEqualTo(unchangedFile);
+    assertThat(issue.getValue().getMessage()).startsWith("A \"Brain Method\" was detected. Refactor it to reduce at least one of the following "
+      + "metrics: LOC from 66 to 64");
+    assertThat(issue.getValue().primaryLocation().startLine).isEqualTo(5);
+
+    // cached metrics do not depend on thresholds
+    check = new BrainMethodCheck();
+    check.locThreshold = 120;
+    assertThat(check.scanWithoutParsing(inputFileScannerContext(unchangedFile, readCache))).isTrue();
+    moduleContext = mock(DefaultModuleScannerContext.class);
+    check.endOfAnalysis(moduleContext);
+    verify(moduleContext, never()).reportIssue(any());
+
+    assertThat(new BrainMethodCheck().scanWithoutParsing(inputFileScannerContext(unchangedFile, new InternalReadCache()))).isFalse();
+  }
+
+  @Test
+  void metrics_read_from_the_cache_are_replaced_when_the_file_is_scanned_anyway() {
+    InternalReadCache emptyReadCache = new InternalReadCache();
+    InternalWriteCache writeCache = new InternalWriteCache().bind(emptyReadCache);
+    CheckVerifier.newVerifier()
+      .onFile(HIGH_COMPLEXITY_FILE_PATH)
+      .withChecks(new BrainMethodCheck())
+      .withCache(emptyReadCache, writeCache)
+      .verifyIssues();
+
+    // an other check requires the unchanged file to be parsed after its metrics have been read from the cache
+    InternalReadCache readCache = new InternalReadCache().putAll(writeCache);
+    InputFile unchangedFile = HashCacheTestHelper.inputFileFromPath(HIGH_COMPLEXITY_FILE_PATH);
+    var check = new BrainMethodCheck();
+    assertThat(check.scanWithoutParsing(inputFileScannerContext(unchangedFile, readCache))).isTrue();
+    InternalReadCache otherReadCache = new InternalReadCache();
+    CheckVerifier.newVerifier()
+      .onFile(HIGH_COMPLEXITY_FILE_PATH)
+      .withChecks(check)
+      .withCache(otherReadCache, new InternalWriteCache().bind(otherReadCache))
+      .verifyIssues();
+  }
+
+  private static InputFileScannerContext inputFileScannerContext(InputFile inputFile, InternalReadCache readCache) {
+    CacheContext cacheContext = mock(CacheContext.class);
+    when(cacheContext.isCacheEnabled()).thenReturn(true);
+    when(cacheContext.getReadCache()).thenReturn(new JavaReadCacheImpl(readCache));
+    when(cacheContext.getWriteCache()).thenReturn(new JavaWriteCacheImpl(new InternalWriteCache().bind(readCache)));
+    InputFileScannerContext context = mock(InputFileScannerContext.class);
+    when(context.getInputFile()).thenReturn(inputFile);
+    when(context.getCacheContext()).thenReturn(cacheContext);
+    return context;
+  }
+
 }
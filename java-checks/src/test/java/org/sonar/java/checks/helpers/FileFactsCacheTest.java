@@ -0,0 +1,105 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.checks.helpers;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.caching.JavaReadCacheImpl;
+import org.sonar.java.caching.JavaWriteCacheImpl;
+import org.sonar.java.checks.verifier.internal.InternalReadCache;
+import org.sonar.java.checks.verifier.internal.InternalWriteCache;
+import org.sonar.plugins.java.api.InputFileScannerContext;
+import org.sonar.plugins.java.api.caching.CacheContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileFactsCacheTest {
+
+  private static final FileFactsCache<String> CACHE = new FileFactsCache<>("test:facts:", new FileFactsCache.Codec<>() {
+    @Override
+    public void encode(String facts, DataOutput out) throws IOException {
+      out.writeUTF(facts);
+    }
+
+    @Override
+    public String decode(DataInput in) throws IOException {
+      return in.readUTF();
+    }
+  });
+
+  private final InputFile inputFile = mock(InputFile.class);
+
+  @BeforeEach
+  void setUp() {
+    when(inputFile.key()).thenReturn("module:A.java");
+  }
+
+  @Test
+  void facts_are_written_and_read_back_by_the_next_analysis() {
+    InternalReadCache emptyReadCache = new InternalReadCache();
+    InternalWriteCache firstWriteCache = new InternalWriteCache().bind(emptyReadCache);
+    InputFileScannerContext context = context(true, emptyReadCache, firstWriteCache);
+    assertThat(CACHE.read(context)).isEmpty();
+    CACHE.write(context, "facts");
+    // written once per analysis
+    CACHE.write(context, "other facts");
+    assertThat(firstWriteCache.getData()).containsOnlyKeys("test:facts:" + inputFile.key());
+
+    InternalReadCache readCache = new InternalReadCache().putAll(firstWriteCache);
+    InternalWriteCache secondWriteCache = new InternalWriteCache().bind(readCache);
+    assertThat(CACHE.read(context(true, readCache, secondWriteCache))).contains("facts");
+    assertThat(secondWriteCache.getData()).containsOnlyKeys("test:facts:" + inputFile.key());
+    // kept once per analysis
+    assertThat(CACHE.read(context(true, readCache, secondWriteCache))).contains("facts");
+  }
+
+  @Test
+  void nothing_is_read_nor_written_when_cache_is_disabled() {
+    InternalReadCache readCache = new InternalReadCache().put("test:facts:" + inputFile.key(), new byte[] {0, 1, 42});
+    InternalWriteCache writeCache = new InternalWriteCache().bind(readCache);
+    InputFileScannerContext context = context(false, readCache, writeCache);
+    assertThat(CACHE.read(context)).isEmpty();
+    CACHE.write(context, "facts");
+    assertThat(writeCache.getData()).isEmpty();
+  }
+
+  @Test
+  void unreadable_facts_are_ignored() {
+    InternalReadCache readCache = new InternalReadCache().put("test:facts:" + inputFile.key(), new byte[] {0, 5, 42});
+    InternalWriteCache writeCache = new InternalWriteCache().bind(readCache);
+    assertThat(CACHE.read(context(true, readCache, writeCache))).isEmpty();
+    assertThat(writeCache.getData()).isEmpty();
+  }
+
+  private InputFileScannerContext context(boolean cacheEnabled, InternalReadCache readCache, InternalWriteCache writeCache) {
+    CacheContext cacheContext = mock(CacheContext.class);
+    when(cacheContext.isCacheEnabled()).thenReturn(cacheEnabled);
+    when(cacheContext.getReadCache()).thenReturn(new JavaReadCacheImpl(readCache));
+    when(cacheContext.getWriteCache()).thenReturn(new JavaWriteCacheImpl(writeCache));
+    InputFileScannerContext context = mock(InputFileScannerContext.class);
+    when(context.getInputFile()).thenReturn(inputFile);
+    when(context.getCacheContext()).thenReturn(cacheContext);
+    return context;
+  }
+
+}
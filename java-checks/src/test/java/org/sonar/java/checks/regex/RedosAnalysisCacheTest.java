@@ -0,0 +1,113 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.checks.regex;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.caching.JavaReadCacheImpl;
+import org.sonar.java.caching.JavaWriteCacheImpl;
+import org.sonar.java.checks.verifier.internal.InternalReadCache;
+import org.sonar.java.checks.verifier.internal.InternalWriteCache;
+import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonarsource.analyzer.commons.regex.MatchType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RedosAnalysisCacheTest {
+
+  private static final RedosAnalysisCache.Key KEY = new RedosAnalysisCache.Key("(a+)+b", 0, MatchType.FULL);
+  private static final RedosAnalysisCache.Result RESULT = new RedosAnalysisCache.Result(RedosCheck.BacktrackingType.ALWAYS_EXPONENTIAL, true);
+
+  private final AtomicInteger analysisCount = new AtomicInteger();
+  private final Supplier<RedosAnalysisCache.Result> analysis = () -> {
+    analysisCount.incrementAndGet();
+    return RESULT;
+  };
+
+  @Test
+  void same_regex_is_analyzed_once_without_cache() {
+    RedosAnalysisCache cache = new RedosAnalysisCache();
+    CacheContext cacheContext = cacheContext(false, new InternalReadCache(), new InternalWriteCache());
+
+    assertThat(cache.get(KEY, cacheContext, analysis)).isEqualTo(RESULT);
+    assertThat(cache.get(new RedosAnalysisCache.Key("(a+)+b", 0, MatchType.FULL), cacheContext, analysis)).isEqualTo(RESULT);
+    assertThat(analysisCount).hasValue(1);
+
+    cache.get(new RedosAnalysisCache.Key("(a+)+b", 0, MatchType.PARTIAL), cacheContext, analysis);
+    cache.get(new RedosAnalysisCache.Key("(a+)+b", 2, MatchType.FULL), cacheContext, analysis);
+    assertThat(analysisCount).hasValue(3);
+  }
+
+  @Test
+  void results_are_written_to_and_read_from_the_cache() {
+    InternalWriteCache firstWriteCache = new InternalWriteCache();
+    RedosAnalysisCache firstAnalysis = new RedosAnalysisCache();
+    firstAnalysis.get(KEY, cacheContext(true, new InternalReadCache(), firstWriteCache), analysis);
+    assertThat(analysisCount).hasValue(1);
+    assertThat(firstWriteCache.getData()).containsOnlyKeys(RedosAnalysisCache.cacheKey(KEY));
+
+    InternalReadCache readCache = new InternalReadCache().putAll(firstWriteCache);
+    InternalWriteCache secondWriteCache = new InternalWriteCache().bind(readCache);
+    CacheContext cacheContext = cacheContext(true, readCache, secondWriteCache);
+    RedosAnalysisCache secondAnalysis = new RedosAnalysisCache();
+    assertThat(secondAnalysis.get(KEY, cacheContext, analysis)).isEqualTo(RESULT);
+    assertThat(analysisCount).hasValue(1);
+    String cacheKey = RedosAnalysisCache.cacheKey(KEY);
+    assertThat(secondWriteCache.getData()).containsOnlyKeys(cacheKey);
+    assertThat(secondWriteCache.getData().get(cacheKey)).isEqualTo(firstWriteCache.getData().get(cacheKey));
+  }
+
+  @Test
+  void results_are_stored_once_per_analysis() {
+    InternalWriteCache writeCache = new InternalWriteCache();
+    CacheContext cacheContext = cacheContext(true, new InternalReadCache(), writeCache);
+    new RedosAnalysisCache().get(KEY, cacheContext, analysis);
+    // another instance of the check writing the same key
+    assertThat(new RedosAnalysisCache().get(KEY, cacheContext, analysis)).isEqualTo(RESULT);
+    assertThat(writeCache.getData()).hasSize(1);
+  }
+
+  @Test
+  void invalid_cached_results_are_recomputed() {
+    InternalReadCache readCache = new InternalReadCache().put(RedosAnalysisCache.cacheKey(KEY), new byte[] {42, 0});
+    CacheContext cacheContext = cacheContext(true, readCache, new InternalWriteCache().bind(readCache));
+    assertThat(new RedosAnalysisCache().get(KEY, cacheContext, analysis)).isEqualTo(RESULT);
+    assertThat(analysisCount).hasValue(1);
+  }
+
+  @Test
+  void cache_key_depends_on_regex_flags_and_match_type() {
+    assertThat(RedosAnalysisCache.cacheKey(KEY))
+      .startsWith("java:S5852:analysis:")
+      .isEqualTo(RedosAnalysisCache.cacheKey(new RedosAnalysisCache.Key("(a+)+b", 0, MatchType.FULL)))
+      .isNotEqualTo(RedosAnalysisCache.cacheKey(new RedosAnalysisCache.Key("(a+)+c", 0, MatchType.FULL)))
+      .isNotEqualTo(RedosAnalysisCache.cacheKey(new RedosAnalysisCache.Key("(a+)+b", 2, MatchType.FULL)))
+      .isNotEqualTo(RedosAnalysisCache.cacheKey(new RedosAnalysisCache.Key("(a+)+b", 0, MatchType.BOTH)));
+  }
+
+  private static CacheContext cacheContext(boolean enabled, InternalReadCache readCache, InternalWriteCache writeCache) {
+    CacheContext cacheContext = mock(CacheContext.class);
+    when(cacheContext.isCacheEnabled()).thenReturn(enabled);
+    when(cacheContext.getReadCache()).thenReturn(new JavaReadCacheImpl(readCache));
+    when(cacheContext.getWriteCache()).thenReturn(new JavaWriteCacheImpl(writeCache));
+    return cacheContext;
+  }
+
+}
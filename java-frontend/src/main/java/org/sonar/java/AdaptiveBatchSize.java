@@ -0,0 +1,63 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.util.OptionalLong;
+
+/**
+ * Size of the next batch, in bytes of source code, adapted to the heap used while the previous batch was analyzed. The batch size
+ * is doubled as long as the heap used after garbage collections stays under half of the budget, and halved when it exceeds it.
+ * It stays within a factor {@value #MAX_FACTOR} of the initial size.
+ */
+class AdaptiveBatchSize {
+
+  static final long MAX_FACTOR = 32L;
+  private static final long MIN_INITIAL_SIZE = 1_000L;
+
+  private final long maxHeapUsage;
+  private final long minSize;
+  private final long maxSize;
+  private long size;
+
+  /**
+   * @param maxHeapUsage heap, in bytes, that the analysis of a batch should not exceed once garbage is collected
+   */
+  AdaptiveBatchSize(long initialSize, long maxHeapUsage) {
+    this.maxHeapUsage = maxHeapUsage;
+    this.size = Math.max(MIN_INITIAL_SIZE, initialSize);
+    this.minSize = Math.max(1L, size / MAX_FACTOR);
+    this.maxSize = size * MAX_FACTOR;
+  }
+
+  long sizeInBytes() {
+    return size;
+  }
+
+  /**
+   * @param heapUsedAfterGc highest heap usage after a garbage collection during the analysis of the last batch, if any happened
+   * @return the size of the next batch
+   */
+  long update(OptionalLong heapUsedAfterGc) {
+    if (heapUsedAfterGc.isEmpty() || heapUsedAfterGc.getAsLong() < maxHeapUsage / 2) {
+      size = Math.min(maxSize, size * 2);
+    } else if (heapUsedAfterGc.getAsLong() > maxHeapUsage) {
+      size = Math.max(minSize, size / 2);
+    }
+    return size;
+  }
+
+}
@@ -0,0 +1,410 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Profiling mode of the analysis, recording the CPU time and the bytes allocated by the current thread, as given by the
+ * {@link ThreadMXBean}, in each phase and in each rule:
+ * <ul>
+ *   <li>parse: parsing and binding resolution by ECJ, then conversion to the tree of the analyzer</li>
+ *   <li>semantic: creation of the symbol table of the analyzer</li>
+ *   <li>visit: execution of the rules, each one measured separately</li>
+ * </ul>
+ * Samples nest as the calls do, and each one only counts its own time and allocations, not the ones of the samples it contains.
+ * The report is written as JSON and as collapsed stacks, which flame graph tools read.
+ * <p>
+ * The profiler is active for the analysis which activated it, and for the threads this analysis starts, such as the ones
+ * parsing batches: concurrent analyses in the same JVM do not see the profilers of each other. When the profiler is not active,
+ * starting a sample only reads a thread local.
+ */
+public final class AnalysisProfiler {
+
+  public static final String JSON_REPORT = "sonar-java-profile.json";
+  public static final String COLLAPSED_STACKS_REPORT = "sonar-java-profile.collapsed";
+
+  public enum Phase {
+    PARSE, SEMANTIC, VISIT;
+
+    String frameName() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  @FunctionalInterface
+  public interface Sample {
+    void stop();
+  }
+
+  private static final Sample NO_SAMPLE = () -> {
+  };
+  private static final int MAX_HOTSPOTS = 100;
+  private static final Comparator<Hotspot> BY_CPU_TIME = Comparator.comparingLong(Hotspot::cpuTimeNanos);
+
+  private static final InheritableThreadLocal<AnalysisProfiler> ACTIVE = new InheritableThreadLocal<>();
+
+  private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+  private final boolean cpuTimeSupported;
+  private final boolean allocatedBytesSupported;
+  private final Node root = new Node("all", Phase.VISIT, false);
+  private final ThreadLocal<ThreadProfile> threadProfiles = ThreadLocal.withInitial(() -> new ThreadProfile(this));
+  // the least expensive hotspot is at the head, to be replaced by more expensive ones
+  private final PriorityQueue<Hotspot> hotspots = new PriorityQueue<>(BY_CPU_TIME);
+
+  private AnalysisProfiler() {
+    cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+    if (cpuTimeSupported && !threadMXBean.isThreadCpuTimeEnabled()) {
+      threadMXBean.setThreadCpuTimeEnabled(true);
+    }
+    allocatedBytesSupported = threadMXBean instanceof com.sun.management.ThreadMXBean sunThreadMXBean
+      && sunThreadMXBean.isThreadAllocatedMemorySupported()
+      && sunThreadMXBean.isThreadAllocatedMemoryEnabled();
+  }
+
+  /**
+   * Starts to record the samples of the current thread, and of the threads it starts, until {@link #deactivate()}.
+   */
+  public static AnalysisProfiler activate() {
+    AnalysisProfiler profiler = new AnalysisProfiler();
+    ACTIVE.set(profiler);
+    return profiler;
+  }
+
+  public static void deactivate() {
+    ACTIVE.remove();
+  }
+
+  public static boolean isActive() {
+    return ACTIVE.get() != null;
+  }
+
+  public static Sample start(Phase phase) {
+    return start(phase, phase.frameName());
+  }
+
+  /**
+   * Starts a sample of the given phase which is not a rule, such as the traversal of the tree shared by several rules.
+   */
+  public static Sample start(Phase phase, String name) {
+    AnalysisProfiler profiler = ACTIVE.get();
+    return profiler == null ? NO_SAMPLE : profiler.threadProfiles.get().push(name, phase, false);
+  }
+
+  /**
+   * Starts a sample of the visit phase for the given rule, identified by the name of its class.
+   */
+  public static Sample startRule(Object rule) {
+    AnalysisProfiler profiler = ACTIVE.get();
+    return profiler == null ? NO_SAMPLE : profiler.threadProfiles.get().push(rule.getClass().getName(), Phase.VISIT, true);
+  }
+
+  /**
+   * Ends the visit of a file by the current thread: the time spent by each rule on the file since the previous call is recorded as
+   * a hotspot, if it is among the most expensive ones.
+   */
+  public static void endFile(@Nullable Object file) {
+    AnalysisProfiler profiler = ACTIVE.get();
+    if (profiler != null) {
+      profiler.threadProfiles.get().endFile(String.valueOf(file));
+    }
+  }
+
+  long cpuTime() {
+    return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0L;
+  }
+
+  long allocatedBytes() {
+    return allocatedBytesSupported ? ((com.sun.management.ThreadMXBean) threadMXBean).getCurrentThreadAllocatedBytes() : 0L;
+  }
+
+  private void addHotspot(Hotspot hotspot) {
+    synchronized (hotspots) {
+      if (hotspots.size() < MAX_HOTSPOTS) {
+        hotspots.add(hotspot);
+      } else if (BY_CPU_TIME.compare(hotspot, hotspots.peek()) > 0) {
+        hotspots.poll();
+        hotspots.add(hotspot);
+      }
+    }
+  }
+
+  /**
+   * Own CPU time and allocations of each rule, summed over all the places where the rule is called, the most expensive first.
+   */
+  public List<Measure> rules() {
+    Map<String, Measure> byRule = new HashMap<>();
+    root.forEach((path, node) -> {
+      if (node.rule) {
+        byRule.merge(node.name, node.measure(node.name), Measure::plus);
+      }
+    });
+    return sorted(byRule.values());
+  }
+
+  public Map<Phase, Measure> phases() {
+    Map<Phase, Measure> byPhase = new EnumMap<>(Phase.class);
+    for (Phase phase : Phase.values()) {
+      byPhase.put(phase, new Measure(phase.frameName(), 0L, 0L, 0L));
+    }
+    root.forEach((path, node) -> byPhase.merge(node.phase, node.measure(node.phase.frameName()), Measure::plus));
+    return byPhase;
+  }
+
+  /**
+   * Time spent by rules on single files, the most expensive first.
+   */
+  public List<Hotspot> hotspots() {
+    List<Hotspot> result;
+    synchronized (hotspots) {
+      result = new ArrayList<>(hotspots);
+    }
+    result.sort(BY_CPU_TIME.reversed().thenComparing(Hotspot::rule).thenComparing(Hotspot::file));
+    return result;
+  }
+
+  /**
+   * Own CPU time of each stack of samples, in microseconds, in the format read by flame graph tools: the names of the samples
+   * separated by semicolons, then the time.
+   */
+  public List<String> collapsedStacks() {
+    List<String> lines = new ArrayList<>();
+    root.forEach((path, node) -> {
+      long micros = node.cpuTimeNanos.get() / 1000;
+      if (micros > 0) {
+        lines.add(path + " " + micros);
+      }
+    });
+    return lines;
+  }
+
+  public void writeReport(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    Files.write(directory.resolve(COLLAPSED_STACKS_REPORT), collapsedStacks(), StandardCharsets.UTF_8);
+    try (Writer writer = Files.newBufferedWriter(directory.resolve(JSON_REPORT), StandardCharsets.UTF_8)) {
+      writer.write(toJson());
+    }
+  }
+
+  @VisibleForTesting
+  String toJson() {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n  \"cpuTimeSupported\": ").append(cpuTimeSupported)
+      .append(",\n  \"allocatedBytesSupported\": ").append(allocatedBytesSupported)
+      .append(",\n  \"phases\": [");
+    appendMeasures(json, phases().values());
+    json.append("],\n  \"rules\": [");
+    appendMeasures(json, rules());
+    json.append("],\n  \"hotspots\": [");
+    String separator = "\n";
+    for (Hotspot hotspot : hotspots()) {
+      json.append(separator).append("    {\"rule\": ");
+      appendString(json, hotspot.rule);
+      json.append(", \"file\": ");
+      appendString(json, hotspot.file);
+      json.append(", \"cpuTimeNanos\": ").append(hotspot.cpuTimeNanos)
+        .append(", \"allocatedBytes\": ").append(hotspot.allocatedBytes).append("}");
+      separator = ",\n";
+    }
+    json.append("\n  ]\n}\n");
+    return json.toString();
+  }
+
+  private static void appendMeasures(StringBuilder json, Iterable<Measure> measures) {
+    String separator = "\n";
+    for (Measure measure : measures) {
+      json.append(separator).append("    {\"name\": ");
+      appendString(json, measure.name);
+      json.append(", \"calls\": ").append(measure.calls)
+        .append(", \"cpuTimeNanos\": ").append(measure.cpuTimeNanos)
+        .append(", \"allocatedBytes\": ").append(measure.allocatedBytes).append("}");
+      separator = ",\n";
+    }
+    json.append("\n  ");
+  }
+
+  private static void appendString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c < ' ') {
+        json.append(String.format("\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+    json.append('"');
+  }
+
+  private static List<Measure> sorted(Iterable<Measure> measures) {
+    List<Measure> result = new ArrayList<>();
+    measures.forEach(result::add);
+    result.sort(Comparator.comparingLong(Measure::cpuTimeNanos).reversed().thenComparing(Measure::name));
+    return result;
+  }
+
+  public record Measure(String name, long calls, long cpuTimeNanos, long allocatedBytes) {
+    Measure plus(Measure other) {
+      return new Measure(name, calls + other.calls, cpuTimeNanos + other.cpuTimeNanos, allocatedBytes + other.allocatedBytes);
+    }
+  }
+
+  public record Hotspot(String rule, String file, long cpuTimeNanos, long allocatedBytes) {
+  }
+
+  /**
+   * Samples with the same name and the same parents, shared by all the threads.
+   */
+  private static final class Node {
+    private final String name;
+    private final Phase phase;
+    private final boolean rule;
+    private final Map<String, Node> children = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong cpuTimeNanos = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    private Node(String name, Phase phase, boolean rule) {
+      this.name = name;
+      this.phase = phase;
+      this.rule = rule;
+    }
+
+    private Node child(String name, Phase phase, boolean rule) {
+      Node child = children.get(name);
+      return child != null ? child : children.computeIfAbsent(name, k -> new Node(name, phase, rule));
+    }
+
+    private Measure measure(String measureName) {
+      return new Measure(measureName, calls.get(), cpuTimeNanos.get(), allocatedBytes.get());
+    }
+
+    /**
+     * Visits the samples below this one, each one with the names of its parents and its own name.
+     */
+    private void forEach(BiConsumer<String, Node> consumer) {
+      List<Node> nodes = new ArrayList<>();
+      List<String> paths = new ArrayList<>();
+      pushSortedChildren(this, "", nodes, paths);
+      while (!nodes.isEmpty()) {
+        Node node = nodes.remove(nodes.size() - 1);
+        String path = paths.remove(paths.size() - 1);
+        consumer.accept(path, node);
+        pushSortedChildren(node, path + ";", nodes, paths);
+      }
+    }
+
+    private static void pushSortedChildren(Node node, String prefix, List<Node> nodes, List<String> paths) {
+      Node[] children = node.children.values().toArray(new Node[0]);
+      // reversed, so that children are popped in the order of their names
+      Arrays.sort(children, Comparator.comparing((Node child) -> child.name).reversed());
+      for (Node child : children) {
+        nodes.add(child);
+        paths.add(prefix + child.name.replace(';', '_').replace(' ', '_'));
+      }
+    }
+  }
+
+  /**
+   * Stack of the samples started by a thread, which is also the sample stopped by {@link #stop()}, as samples are strictly nested.
+   */
+  private static final class ThreadProfile implements Sample {
+    private final AnalysisProfiler profiler;
+    private Node[] nodes = new Node[16];
+    private long[] cpuStarts = new long[16];
+    private long[] allocationStarts = new long[16];
+    private long[] childrenCpuTimes = new long[16];
+    private long[] childrenAllocations = new long[16];
+    private int depth = 1;
+    // own CPU time and allocations of each rule on the current file
+    private final Map<String, long[]> fileRules = new HashMap<>();
+
+    private ThreadProfile(AnalysisProfiler profiler) {
+      this.profiler = profiler;
+      nodes[0] = profiler.root;
+    }
+
+    private Sample push(String name, Phase phase, boolean rule) {
+      if (depth == nodes.length) {
+        int length = depth * 2;
+        nodes = Arrays.copyOf(nodes, length);
+        cpuStarts = Arrays.copyOf(cpuStarts, length);
+        allocationStarts = Arrays.copyOf(allocationStarts, length);
+        childrenCpuTimes = Arrays.copyOf(childrenCpuTimes, length);
+        childrenAllocations = Arrays.copyOf(childrenAllocations, length);
+      }
+      nodes[depth] = nodes[depth - 1].child(name, phase, rule);
+      childrenCpuTimes[depth] = 0L;
+      childrenAllocations[depth] = 0L;
+      allocationStarts[depth] = profiler.allocatedBytes();
+      cpuStarts[depth] = profiler.cpuTime();
+      depth++;
+      return this;
+    }
+
+    @Override
+    public void stop() {
+      long cpuTime = profiler.cpuTime();
+      long allocatedBytes = profiler.allocatedBytes();
+      depth--;
+      Node node = nodes[depth];
+      nodes[depth] = null;
+      cpuTime -= cpuStarts[depth];
+      allocatedBytes -= allocationStarts[depth];
+      long ownCpuTime = cpuTime - childrenCpuTimes[depth];
+      long ownAllocatedBytes = allocatedBytes - childrenAllocations[depth];
+      node.calls.incrementAndGet();
+      node.cpuTimeNanos.addAndGet(ownCpuTime);
+      node.allocatedBytes.addAndGet(ownAllocatedBytes);
+      childrenCpuTimes[depth - 1] += cpuTime;
+      childrenAllocations[depth - 1] += allocatedBytes;
+      if (node.rule) {
+        long[] fileRule = fileRules.computeIfAbsent(node.name, k -> new long[2]);
+        fileRule[0] += ownCpuTime;
+        fileRule[1] += ownAllocatedBytes;
+      }
+    }
+
+    private void endFile(String file) {
+      fileRules.forEach((rule, measure) -> profiler.addHotspot(new Hotspot(rule, file, measure[0], measure[1])));
+      fileRules.clear();
+    }
+  }
+
+}
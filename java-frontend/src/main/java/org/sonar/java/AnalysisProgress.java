@@ -20,31 +20,43 @@ public class AnalysisProgress {
   private final int totalFileCount;
   private int currentBatchSize;
   private int analysedFileCount;
+  private int batchesInProgress;
 
   public AnalysisProgress(int totalFileCount) {
     this.totalFileCount = totalFileCount;
     currentBatchSize = 0;
     analysedFileCount = 0;
+    batchesInProgress = 0;
   }
 
-  public void startBatch(int currentBatchSize) {
-    this.currentBatchSize = currentBatchSize;
+  /**
+   * Batches can be analyzed concurrently (see {@code sonar.java.experimental.batchModeThreads}), in which case the
+   * current batch size is the sum of the sizes of all the batches in progress.
+   */
+  public synchronized void startBatch(int currentBatchSize) {
+    this.currentBatchSize += currentBatchSize;
+    batchesInProgress++;
   }
 
-  public void endBatch() {
-    this.analysedFileCount += currentBatchSize;
-    this.currentBatchSize = 0;
+  public synchronized void endBatch() {
+    endBatch(currentBatchSize);
   }
 
-  public boolean isFirstBatch() {
-    return analysedFileCount == 0;
+  public synchronized void endBatch(int batchSize) {
+    this.analysedFileCount += batchSize;
+    this.currentBatchSize = Math.max(0, currentBatchSize - batchSize);
+    batchesInProgress = Math.max(0, batchesInProgress - 1);
   }
 
-  public boolean isLastBatch() {
-    return analysedFileCount + currentBatchSize == totalFileCount;
+  public synchronized boolean isFirstBatch() {
+    return analysedFileCount == 0 && batchesInProgress <= 1;
   }
 
-  public double toGlobalPercentage(double currentBatchPercentage) {
+  public synchronized boolean isLastBatch() {
+    return analysedFileCount + currentBatchSize == totalFileCount && batchesInProgress <= 1;
+  }
+
+  public synchronized double toGlobalPercentage(double currentBatchPercentage) {
     if (totalFileCount == 0) {
       return 0;
     }
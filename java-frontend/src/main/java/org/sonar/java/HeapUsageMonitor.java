@@ -0,0 +1,93 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Highest heap usage observed right after garbage collections, which is the memory actually retained by the analysis, as opposed
+ * to the heap usage at a random point, which also counts the garbage not collected yet. Collections are notified by the JVM.
+ */
+class HeapUsageMonitor implements NotificationListener, AutoCloseable {
+
+  private static final long NONE = -1L;
+
+  private final Set<String> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+    .filter(pool -> pool.getType() == MemoryType.HEAP)
+    .map(MemoryPoolMXBean::getName)
+    .collect(Collectors.toSet());
+  private final List<NotificationEmitter> emitters = new ArrayList<>();
+  private final AtomicLong peakUsedAfterGc = new AtomicLong(NONE);
+
+  HeapUsageMonitor() {
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (collector instanceof NotificationEmitter emitter) {
+        emitter.addNotificationListener(this, null, null);
+        emitters.add(emitter);
+      }
+    }
+  }
+
+  @Override
+  public void handleNotification(Notification notification, Object handback) {
+    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+      return;
+    }
+    GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+    long used = info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+      .filter(pool -> heapPools.contains(pool.getKey()))
+      .mapToLong(pool -> pool.getValue().getUsed())
+      .sum();
+    peakUsedAfterGc.accumulateAndGet(used, Math::max);
+  }
+
+  /**
+   * @return the highest heap usage after a garbage collection since the last call, if any collection happened
+   */
+  OptionalLong takePeakUsedAfterGc() {
+    long peak = peakUsedAfterGc.getAndSet(NONE);
+    return peak == NONE ? OptionalLong.empty() : OptionalLong.of(peak);
+  }
+
+  @Override
+  public void close() {
+    for (NotificationEmitter emitter : emitters) {
+      try {
+        emitter.removeNotificationListener(this);
+      } catch (ListenerNotFoundException e) {
+        // already removed
+      }
+    }
+    emitters.clear();
+  }
+
+}
@@ -17,6 +17,8 @@
 package org.sonar.java;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -26,6 +28,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -61,6 +72,10 @@ public class JavaFrontend {
   private final JavaAstScanner astScanner;
   private final JavaAstScanner astScannerForTests;
   private final JavaAstScanner astScannerForGeneratedFiles;
+  /**
+   * Rules are not thread-safe: even when batches are parsed concurrently, files are scanned one at a time.
+   */
+  private final Object scanLock = new Object();
 
   public JavaFrontend(JavaVersion javaVersion, @Nullable SonarComponents sonarComponents, @Nullable Measurer measurer,
                       JavaResourceLocator javaResourceLocator, @Nullable SonarJavaIssueFilter postAnalysisIssueFilter, JavaCheck... visitors) {
@@ -125,10 +140,39 @@ public class JavaFrontend {
   }
 
   public void scan(Iterable<InputFile> sourceFiles, Iterable<InputFile> testFiles, Iterable<? extends InputFile> generatedFiles) {
+    if (!isProfilerEnabled()) {
+      scanFiles(sourceFiles, testFiles, generatedFiles);
+      return;
+    }
+    AnalysisProfiler profiler = AnalysisProfiler.activate();
+    try {
+      scanFiles(sourceFiles, testFiles, generatedFiles);
+    } finally {
+      AnalysisProfiler.deactivate();
+      writeProfilerReport(profiler);
+    }
+  }
+
+  private void writeProfilerReport(AnalysisProfiler profiler) {
+    Path directory = sonarComponents.projectLevelWorkDir().toPath();
+    try {
+      profiler.writeReport(directory);
+      LOG.info("Profile of the analysis written to {} and {} in {}", AnalysisProfiler.JSON_REPORT, AnalysisProfiler.COLLAPSED_STACKS_REPORT, directory);
+    } catch (IOException e) {
+      LOG.warn("Unable to write the profile of the analysis to {}: {}", directory, e.getMessage());
+    }
+  }
+
+  private void scanFiles(Iterable<InputFile> sourceFiles, Iterable<InputFile> testFiles, Iterable<? extends InputFile> generatedFiles) {
     if (canOptimizeScanning()) {
       long successfullyScanned = 0L;
       long total = 0L;
 
+      List<InputFile> filesToPrefetch = new ArrayList<>();
+      sourceFiles.forEach(filesToPrefetch::add);
+      testFiles.forEach(filesToPrefetch::add);
+      sonarComponents.prefetchContentHashes(filesToPrefetch);
+
       Map<Boolean, List<InputFile>> mainFilesScannedWithoutParsing = astScanner.scanWithoutParsing(sourceFiles);
       sourceFiles = mainFilesScannedWithoutParsing.get(false);
       successfullyScanned += mainFilesScannedWithoutParsing.get(true).size();
@@ -216,33 +260,335 @@ public class JavaFrontend {
       scanBatch(context, allInputFiles, analysisProgress);
     } else {
       long batchSize = batchModeSizeInKB * 1_000L;
-      LOG.info("{} with batch size {} KB.", logUsingBatch, batchModeSizeInKB);
-      BatchGenerator generator = new BatchGenerator(allInputFiles.iterator(), batchSize);
+      List<InputFile> orderedInputFiles = allInputFiles;
+      if (isBatchModeOrderedByDependencies()) {
+        long start = System.nanoTime();
+        orderedInputFiles = PackageDependencyOrder.order(allInputFiles);
+        LOG.info("Ordered {} {} java source files by package dependencies in {} ms.", allInputFiles.size(), context.descriptor(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      }
+      BatchGenerator generator = new BatchGenerator(orderedInputFiles.iterator(), batchSize);
+      int threads = getBatchModeThreads();
+      long pipelineQueueSizeInKB = getPipelineQueueSizeInKB();
+      long maxHeapUsage = maxHeapUsage(getAdaptiveBatchMaxHeapRatio(), Runtime.getRuntime().maxMemory());
+      warnAboutConflictingBatchModes(threads > 1, pipelineQueueSizeInKB > 0L, maxHeapUsage > 0L);
+      if (threads > 1) {
+        LOG.info("{} with batch size {} KB, using {} threads.", logUsingBatch, batchModeSizeInKB, threads);
+        scanBatchesInParallel(context, generator, analysisProgress, threads);
+      } else if (pipelineQueueSizeInKB > 0L && pipelineQueueSizeInKB < Long.MAX_VALUE / 1_000L) {
+        LOG.info("{} with batch size {} KB, pipelined with a queue of {} KB.", logUsingBatch, batchModeSizeInKB, pipelineQueueSizeInKB);
+        scanBatchesPipelined(context, generator, analysisProgress, pipelineQueueSizeInKB * 1_000L);
+      } else if (maxHeapUsage > 0L) {
+        LOG.info("{} with an initial batch size of {} KB, adapted to use at most {} KB of heap.", logUsingBatch, batchModeSizeInKB, maxHeapUsage / 1_000L);
+        scanBatchesAdaptively(context, generator, analysisProgress, maxHeapUsage);
+      } else {
+        LOG.info("{} with batch size {} KB.", logUsingBatch, batchModeSizeInKB);
+        while (generator.hasNext()) {
+          List<InputFile> batch = generator.next();
+          scanBatch(context, batch, analysisProgress);
+        }
+      }
+    }
+  }
+
+  /**
+   * Only one way of running the batches is used, in this order of precedence: on several threads, pipelined, then with an adapted
+   * size.
+   */
+  private static void warnAboutConflictingBatchModes(boolean parallel, boolean pipelined, boolean adaptive) {
+    List<String> properties = new ArrayList<>();
+    if (parallel) {
+      properties.add(SonarComponents.SONAR_BATCH_MODE_THREADS_KEY);
+    }
+    if (pipelined) {
+      properties.add(SonarComponents.SONAR_PIPELINE_QUEUE_SIZE_KEY);
+    }
+    if (adaptive) {
+      properties.add(SonarComponents.SONAR_ADAPTIVE_BATCH_MAX_HEAP_RATIO_KEY);
+    }
+    if (properties.size() > 1) {
+      LOG.warn("Conflicting batch modes are configured by {}: only \"{}\" is used.", String.join(", ", properties), properties.get(0));
+    }
+  }
+
+  /**
+   * @return the heap that batches may use when their size is adapted, or -1 when their size is fixed, because no ratio of the
+   * heap is configured or because the maximum heap of the JVM is undefined
+   */
+  @VisibleForTesting
+  static long maxHeapUsage(double maxHeapRatio, long maxHeap) {
+    if (maxHeapRatio <= 0.0 || maxHeapRatio >= 1.0 || maxHeap <= 0L || maxHeap == Long.MAX_VALUE) {
+      return -1L;
+    }
+    return (long) (maxHeap * maxHeapRatio);
+  }
+
+  /**
+   * Batches are scanned one after the other, the size of each batch being derived from the heap retained, as seen after garbage
+   * collections, while the previous one was analyzed. See {@link AdaptiveBatchSize}.
+   */
+  private void scanBatchesAdaptively(BatchModeContext context, BatchGenerator generator, AnalysisProgress analysisProgress, long maxHeapUsage) {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(generator.batchSizeInBytes(), maxHeapUsage);
+    generator.setBatchSizeInBytes(batchSize.sizeInBytes());
+    try (HeapUsageMonitor heapUsageMonitor = new HeapUsageMonitor()) {
       while (generator.hasNext()) {
         List<InputFile> batch = generator.next();
+        heapUsageMonitor.takePeakUsedAfterGc();
         scanBatch(context, batch, analysisProgress);
+        long previousSize = batchSize.sizeInBytes();
+        long nextSize = batchSize.update(heapUsageMonitor.takePeakUsedAfterGc());
+        if (nextSize != previousSize) {
+          LOG.info("Batch size changed from {} KB to {} KB.", previousSize / 1_000L, nextSize / 1_000L);
+          generator.setBatchSizeInBytes(nextSize);
+        }
+      }
+    }
+  }
+
+  /**
+   * Each batch is parsed by its own ECJ environment on a bounded pool of worker threads. Parsing and semantic resolution of
+   * the different batches happen concurrently, while the scan of each file by the rules is serialized on {@link #scanLock}.
+   * The outcome of every file is therefore the same as in a sequential analysis. Only the order in which files are visited
+   * across batches can differ.
+   *
+   * As soon as a batch fails, the other batches are cancelled and the failure is propagated as in a sequential analysis.
+   */
+  private void scanBatchesInParallel(BatchModeContext context, BatchGenerator generator, AnalysisProgress analysisProgress, int threads) {
+    AtomicBoolean batchFailed = new AtomicBoolean(false);
+    BooleanSupplier isCanceled = () -> batchFailed.get() || analysisCancelled();
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "Java batch analysis " + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    WorkerPerformanceMeasures workerMeasures = new WorkerPerformanceMeasures(workerPerformanceMeasureFile());
+    List<Future<?>> pendingBatches = new ArrayList<>();
+    try {
+      while (generator.hasNext()) {
+        List<InputFile> batch = generator.next();
+        pendingBatches.add(executor.submit(workerMeasures.measured(() -> scanBatch(context, batch, analysisProgress, isCanceled))));
+      }
+      for (Future<?> pendingBatch : pendingBatches) {
+        waitForBatch(pendingBatch);
+      }
+    } catch (RuntimeException | Error e) {
+      batchFailed.set(true);
+      throw e;
+    } finally {
+      executor.shutdownNow();
+      awaitTermination(executor);
+    }
+  }
+
+  @Nullable
+  private Path workerPerformanceMeasureFile() {
+    return sonarComponents == null ? null : sonarComponents.getWorkerPerformanceMeasureFile();
+  }
+
+  private static void waitForBatch(Future<?> batch) {
+    try {
+      batch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
       }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new AnalysisException(BATCH_ERROR_MESSAGE, cause);
+    }
+  }
+
+  /**
+   * Cancelled batches stop at the next file. The end of the analysis should not run while one of them still scans a file, so the
+   * workers are waited for until they are all terminated, even when the current thread is interrupted.
+   */
+  private static void awaitTermination(ExecutorService executor) {
+    boolean interrupted = false;
+    boolean terminated = false;
+    while (!terminated) {
+      try {
+        terminated = executor.awaitTermination(1, TimeUnit.MINUTES);
+        if (!terminated) {
+          LOG.warn("Waiting for batches still running after the end of the analysis.");
+        }
+      } catch (InterruptedException e) {
+        interrupted = true;
+        executor.shutdownNow();
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Dedicated threads parse the batches and convert their files, while the current thread runs the rules on them. ECJ cleans up
+   * the compilation unit of a file as soon as it has been handed over, while its semantic is still resolved lazily by the rules:
+   * each file is therefore scanned while the thread parsing its batch waits in the requestor of ECJ. While a batch resolves its
+   * next file, the rules scan a file of another batch, so parsing is hidden behind the scan as long as the capacity of the
+   * {@link ParsedBatchQueue} allows several batches to be in progress.
+   */
+  private void scanBatchesPipelined(BatchModeContext context, BatchGenerator generator, AnalysisProgress analysisProgress, long queueSizeInBytes) {
+    ParsedBatchQueue queue = new ParsedBatchQueue(queueSizeInBytes);
+    BooleanSupplier isCanceled = () -> queue.isCancelled() || analysisCancelled();
+    JParserConfig parserConfig = batchParserConfig(context);
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService parsers = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "Java batch parser " + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    WorkerPerformanceMeasures producerMeasures = new WorkerPerformanceMeasures(workerPerformanceMeasureFile());
+    Executor measuredParsers = task -> parsers.execute(producerMeasures.measured(task));
+    Thread producer = new Thread(producerMeasures.measured(() -> parseBatches(generator, parserConfig, isCanceled, analysisProgress, queue, measuredParsers)),
+      "Java batch parser");
+    producer.setDaemon(true);
+    producer.start();
+    Consumer<ParsedBatchQueue.ParsedBatch> scannedBatches = batch -> {
+      context.endOfBatch(batch.files());
+      analysisProgress.endBatch(batch.fileCount());
+      logBatchDuration(batch.fileCount(), batch.startNanos());
+    };
+    try {
+      ParsedBatchQueue.ParsedFile parsedFile;
+      while ((parsedFile = queue.takeFile(scannedBatches)) != null) {
+        try {
+          // environments are released by the thread parsing the batch, once ECJ is done with them
+          scanAsBatchCallback(parsedFile.inputFile(), parsedFile.result(), context, environmentCleaner -> {
+          });
+        } finally {
+          queue.scanned(parsedFile);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } finally {
+      queue.cancel();
+      join(producer);
+      parsers.shutdown();
+      awaitTermination(parsers);
+    }
+  }
+
+  private static void parseBatches(BatchGenerator generator, JParserConfig parserConfig, BooleanSupplier isCanceled, AnalysisProgress analysisProgress,
+    ParsedBatchQueue queue, Executor parsers) {
+    Throwable failure = null;
+    try {
+      while (generator.hasNext() && !isCanceled.getAsBoolean()) {
+        List<InputFile> batchFiles = generator.next();
+        long sizeInBytes = batchFiles.stream().mapToLong(inputFile -> inputFile.file().length()).sum();
+        ParsedBatchQueue.ParsedBatch batch = queue.startBatch(batchFiles, sizeInBytes);
+        if (batch == null) {
+          break;
+        }
+        parsers.execute(() -> parseBatch(batchFiles, batch, parserConfig, isCanceled, analysisProgress, queue));
+      }
+      if (generator.hasNext()) {
+        failure = new AnalysisException("Analysis cancelled");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure = new AnalysisException("Analysis cancelled", e);
+    } catch (RuntimeException | Error e) {
+      failure = e;
+    } finally {
+      queue.close(failure);
+    }
+  }
+
+  private static void parseBatch(List<InputFile> batchFiles, ParsedBatchQueue.ParsedBatch batch, JParserConfig parserConfig, BooleanSupplier isCanceled,
+    AnalysisProgress analysisProgress, ParsedBatchQueue queue) {
+    List<JParserConfig.Result> results = new ArrayList<>(batchFiles.size());
+    Throwable failure = null;
+    try {
+      analysisProgress.startBatch(batchFiles.size());
+      parserConfig.parse(batchFiles, isCanceled, analysisProgress, (input, result) -> {
+        results.add(result);
+        queue.handOver(new ParsedBatchQueue.ParsedFile(batch, input, result));
+      });
+    } catch (RuntimeException | Error e) {
+      failure = e;
+    } finally {
+      // Due to a bug in ECJ, JAR files remain locked after the analysis on Windows, we unlock them manually, at the end of each batches. See SONARJAVA-3609.
+      cleanEnvironments(results);
+      queue.endBatch(batch, failure);
+    }
+  }
+
+  private static void cleanEnvironments(List<JParserConfig.Result> results) {
+    Set<Runnable> environmentsCleaners = new HashSet<>();
+    for (JParserConfig.Result result : results) {
+      try {
+        environmentsCleaners.add(result.get().sema.getEnvironmentCleaner());
+      } catch (Exception e) {
+        // files which failed to be parsed have no environment to release
+      }
+    }
+    environmentsCleaners.forEach(Runnable::run);
+  }
+
+  private static void join(Thread thread) {
+    boolean interrupted = false;
+    while (thread.isAlive()) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
     }
   }
 
   private <T extends InputFile> void scanBatch(BatchModeContext context, List<T> batchFiles, AnalysisProgress analysisProgress) {
+    scanBatch(context, batchFiles, analysisProgress, this::analysisCancelled);
+  }
+
+  private <T extends InputFile> void scanBatch(BatchModeContext context, List<T> batchFiles, AnalysisProgress analysisProgress, BooleanSupplier isCanceled) {
+    long start = System.nanoTime();
     analysisProgress.startBatch(batchFiles.size());
     Set<Runnable> environmentsCleaners = new HashSet<>();
-    boolean shouldIgnoreUnnamedModuleForSplitPackage = sonarComponents!= null && sonarComponents.shouldIgnoreUnnamedModuleForSplitPackage();
-    JParserConfig.Mode.BATCH
-      .create(javaVersion, context.getClasspath(), shouldIgnoreUnnamedModuleForSplitPackage)
-      .parse(batchFiles, this::analysisCancelled, analysisProgress, (input, result) -> scanAsBatchCallback(input, result, context, environmentsCleaners));
+    try {
+      batchParserConfig(context)
+        .parse(batchFiles, isCanceled, analysisProgress, (input, result) -> {
+          synchronized (scanLock) {
+            scanAsBatchCallback(input, result, context, environmentsCleaners::add);
+          }
+        });
+    } finally {
+      synchronized (scanLock) {
+        context.endOfBatch(batchFiles);
+      }
+    }
     // Due to a bug in ECJ, JAR files remain locked after the analysis on Windows, we unlock them manually, at the end of each batches. See SONARJAVA-3609.
     environmentsCleaners.forEach(Runnable::run);
-    analysisProgress.endBatch();
+    analysisProgress.endBatch(batchFiles.size());
+    logBatchDuration(batchFiles.size(), start);
+  }
+
+  private static void logBatchDuration(int fileCount, long startNanos) {
+    LOG.debug("Batch of {} java source files analyzed in {} ms.", fileCount, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
   }
 
-  private static void scanAsBatchCallback(InputFile inputFile, JParserConfig.Result result, BatchModeContext context, Set<Runnable> environmentsCleaners) {
+  private JParserConfig batchParserConfig(BatchModeContext context) {
+    boolean shouldIgnoreUnnamedModuleForSplitPackage = sonarComponents!= null && sonarComponents.shouldIgnoreUnnamedModuleForSplitPackage();
+    return JParserConfig.Mode.BATCH.create(javaVersion, context.getClasspath(), shouldIgnoreUnnamedModuleForSplitPackage);
+  }
+
+  private static void scanAsBatchCallback(InputFile inputFile, JParserConfig.Result result, BatchModeContext context, Consumer<Runnable> environmentsCleaners) {
     JavaAstScanner scanner = context.selectScanner(inputFile);
     Duration duration = PerformanceMeasure.start(context.descriptor(inputFile));
     scanner.simpleScan(inputFile, result, ast ->
       // In batch mode, we delay the cleaning of the environment as it will be used in later processing.
-      environmentsCleaners.add(ast.sema.getEnvironmentCleaner())
+      environmentsCleaners.accept(ast.sema.getEnvironmentCleaner())
     );
     duration.stop();
   }
@@ -256,6 +602,8 @@ public class JavaFrontend {
 
     JavaAstScanner selectScanner(InputFile input);
 
+    void endOfBatch(List<? extends InputFile> batchFiles);
+
     void endOfAnalysis();
   }
 
@@ -281,6 +629,12 @@ public class JavaFrontend {
       return input.type() == InputFile.Type.TEST ? astScannerForTests : astScanner;
     }
 
+    @Override
+    public void endOfBatch(List<? extends InputFile> batchFiles) {
+      astScanner.endOfBatch(batchFiles);
+      astScannerForTests.endOfBatch(batchFiles);
+    }
+
     @Override
     public void endOfAnalysis() {
       astScanner.endOfAnalysis();
@@ -319,6 +673,11 @@ public class JavaFrontend {
       return scanner;
     }
 
+    @Override
+    public void endOfBatch(List<? extends InputFile> batchFiles) {
+      scanner.endOfBatch(batchFiles);
+    }
+
     @Override
     public void endOfAnalysis() {
       scanner.endOfAnalysis();
@@ -327,7 +686,7 @@ public class JavaFrontend {
   }
 
   static class BatchGenerator {
-    public final long batchSizeInBytes;
+    private long batchSizeInBytes;
     private final Iterator<InputFile> source;
     private InputFile buffer = null;
 
@@ -337,6 +696,17 @@ public class JavaFrontend {
       this.batchSizeInBytes = batchSizeInBytes;
     }
 
+    public long batchSizeInBytes() {
+      return batchSizeInBytes;
+    }
+
+    /**
+     * Applies to the batches returned by the next calls to {@link #next()}.
+     */
+    public void setBatchSizeInBytes(long batchSizeInBytes) {
+      this.batchSizeInBytes = batchSizeInBytes;
+    }
+
     public boolean hasNext() {
       return buffer != null || source.hasNext();
     }
@@ -388,6 +758,31 @@ public class JavaFrontend {
     return sonarComponents == null ? -1L : sonarComponents.getBatchModeSizeInKB();
   }
 
+  @VisibleForTesting
+  long getPipelineQueueSizeInKB() {
+    return sonarComponents == null ? -1L : sonarComponents.getPipelineQueueSizeInKB();
+  }
+
+  @VisibleForTesting
+  boolean isBatchModeOrderedByDependencies() {
+    return sonarComponents != null && sonarComponents.isBatchModeOrderedByDependencies();
+  }
+
+  @VisibleForTesting
+  double getAdaptiveBatchMaxHeapRatio() {
+    return sonarComponents == null ? -1.0 : sonarComponents.getAdaptiveBatchMaxHeapRatio();
+  }
+
+  @VisibleForTesting
+  boolean isProfilerEnabled() {
+    return sonarComponents != null && sonarComponents.isProfilerEnabled();
+  }
+
+  @VisibleForTesting
+  int getBatchModeThreads() {
+    return sonarComponents == null ? 1 : sonarComponents.getBatchModeThreads();
+  }
+
   private boolean isCacheEnabled() {
     return sonarComponents != null && CacheContextImpl.of(sonarComponents).isCacheEnabled();
   }
@@ -0,0 +1,230 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Orders files so that the files of packages depending on each other are next to each other, and are therefore parsed in the
+ * same ECJ batch, which then resolves their types once. Dependencies come from the package and import declarations read at the
+ * top of each file, without parsing it.
+ * <p>
+ * Packages importing each other, directly or not, are kept together. These groups come in topological order, a group coming
+ * right after the groups it depends on. Within a package, files keep their original order.
+ */
+final class PackageDependencyOrder {
+
+  private final Map<String, List<InputFile>> filesByPackage = new LinkedHashMap<>();
+  private final Map<String, Set<String>> importsByPackage = new HashMap<>();
+
+  private PackageDependencyOrder() {
+  }
+
+  static List<InputFile> order(List<InputFile> files) {
+    PackageDependencyOrder order = new PackageDependencyOrder();
+    files.forEach(order::add);
+    return order.orderedFiles();
+  }
+
+  private void add(InputFile file) {
+    Header header = readHeader(file);
+    filesByPackage.computeIfAbsent(header.packageName, k -> new ArrayList<>()).add(file);
+    importsByPackage.computeIfAbsent(header.packageName, k -> new LinkedHashSet<>()).addAll(header.importedPackages);
+  }
+
+  private List<InputFile> orderedFiles() {
+    List<InputFile> result = new ArrayList<>();
+    for (List<String> component : stronglyConnectedComponents()) {
+      component.forEach(packageName -> result.addAll(filesByPackage.get(packageName)));
+    }
+    return result;
+  }
+
+  /**
+   * Iterative version of Tarjan's algorithm, which returns the components of the graph of packages so that a component comes
+   * after the ones it depends on.
+   */
+  private List<List<String>> stronglyConnectedComponents() {
+    List<String> packages = new ArrayList<>(filesByPackage.keySet());
+    Map<String, Integer> indexes = new HashMap<>();
+    for (String packageName : packages) {
+      indexes.put(packageName, indexes.size());
+    }
+    int[][] successors = new int[packages.size()][];
+    for (int i = 0; i < packages.size(); i++) {
+      successors[i] = importsByPackage.get(packages.get(i)).stream()
+        .map(indexes::get)
+        .filter(Objects::nonNull)
+        .mapToInt(Integer::intValue)
+        .toArray();
+    }
+
+    int count = packages.size();
+    int[] index = new int[count];
+    int[] lowLink = new int[count];
+    boolean[] onStack = new boolean[count];
+    Arrays.fill(index, -1);
+    Deque<Integer> componentStack = new ArrayDeque<>();
+    // explicit call stack of packages and of the next successor to visit, to support long chains of dependencies
+    int[] callStack = new int[count];
+    int[] nextSuccessor = new int[count];
+    int nextIndex = 0;
+    List<List<String>> components = new ArrayList<>();
+    for (int root = 0; root < count; root++) {
+      if (index[root] >= 0) {
+        continue;
+      }
+      int top = 0;
+      callStack[0] = root;
+      nextSuccessor[0] = 0;
+      index[root] = nextIndex;
+      lowLink[root] = nextIndex;
+      nextIndex++;
+      componentStack.push(root);
+      onStack[root] = true;
+      while (top >= 0) {
+        int node = callStack[top];
+        if (nextSuccessor[top] < successors[node].length) {
+          int successor = successors[node][nextSuccessor[top]];
+          nextSuccessor[top]++;
+          if (index[successor] < 0) {
+            index[successor] = nextIndex;
+            lowLink[successor] = nextIndex;
+            nextIndex++;
+            componentStack.push(successor);
+            onStack[successor] = true;
+            top++;
+            callStack[top] = successor;
+            nextSuccessor[top] = 0;
+          } else if (onStack[successor]) {
+            lowLink[node] = Math.min(lowLink[node], index[successor]);
+          }
+        } else {
+          if (lowLink[node] == index[node]) {
+            components.add(popComponent(componentStack, onStack, node, packages));
+          }
+          top--;
+          if (top >= 0) {
+            int parent = callStack[top];
+            lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+          }
+        }
+      }
+    }
+    return components;
+  }
+
+  private static List<String> popComponent(Deque<Integer> componentStack, boolean[] onStack, int root, List<String> packages) {
+    List<Integer> members = new ArrayList<>();
+    int member;
+    do {
+      member = componentStack.pop();
+      onStack[member] = false;
+      members.add(member);
+    } while (member != root);
+    // packages of a component in the order in which they were first seen
+    members.sort(null);
+    List<String> component = new ArrayList<>(members.size());
+    members.forEach(m -> component.add(packages.get(m)));
+    return component;
+  }
+
+  private record Header(String packageName, Set<String> importedPackages) {
+  }
+
+  /**
+   * Reads the package and import declarations, until the first line which is neither a declaration, an annotation nor a comment.
+   * A file which cannot be read is considered to be in the default package.
+   */
+  private static Header readHeader(InputFile file) {
+    String packageName = "";
+    Set<String> importedPackages = new LinkedHashSet<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.inputStream(), file.charset()))) {
+      boolean inComment = false;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String code = line.strip();
+        if (!inComment && code.startsWith("/*")) {
+          inComment = true;
+          code = code.substring(2);
+        }
+        if (inComment) {
+          int end = code.indexOf("*/");
+          if (end < 0) {
+            continue;
+          }
+          code = code.substring(end + 2).strip();
+          inComment = false;
+        }
+        if (code.startsWith("package ")) {
+          packageName = declaredName(code.substring("package ".length()));
+        } else if (code.startsWith("import ")) {
+          String importedPackage = importedPackage(declaredName(code.substring("import ".length())));
+          if (importedPackage != null) {
+            importedPackages.add(importedPackage);
+          }
+        } else if (!code.isEmpty() && !code.startsWith("//") && !code.startsWith("@")) {
+          break;
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // ordering is only an optimization, the file will be reported when it is parsed
+    }
+    return new Header(packageName, importedPackages);
+  }
+
+  private static String declaredName(String declaration) {
+    int end = declaration.indexOf(';');
+    String name = end < 0 ? declaration : declaration.substring(0, end);
+    return name.replace("static ", "").replaceAll("\\s", "");
+  }
+
+  /**
+   * By convention, the package of an imported type is made of the segments preceding the first one starting with an upper case.
+   */
+  @CheckForNull
+  static String importedPackage(String importedName) {
+    String[] segments = importedName.split("\\.");
+    StringBuilder packageName = new StringBuilder();
+    for (String segment : segments) {
+      if (segment.isEmpty() || segment.equals("*") || Character.isUpperCase(segment.charAt(0))) {
+        break;
+      }
+      if (packageName.length() > 0) {
+        packageName.append('.');
+      }
+      packageName.append(segment);
+    }
+    return packageName.length() == 0 ? null : packageName.toString();
+  }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.model.JParserConfig;
+
+/**
+ * Bounded hand-off between the threads parsing batches with ECJ and the thread running the rules on the parsed files.
+ *
+ * ECJ cleans up the compilation unit of a file as soon as its requestor returns, while the semantic of the file is still
+ * resolved lazily through the lookup environment when rules visit it. Each file is therefore handed over from the requestor,
+ * whose thread waits until the file has been scanned: the next file of a batch is only resolved once the previous one has been
+ * scanned. To keep the rules busy meanwhile, the consumer takes the files handed over by any of the batches being parsed, the
+ * oldest batch first. The files of a batch are scanned in the order in which ECJ hands them over.
+ *
+ * The capacity is expressed in bytes of source code: a new batch is not started as long as the batches being parsed or scanned
+ * exceed the capacity. A batch bigger than the capacity is still accepted when no other batch is in progress, so that the
+ * pipeline never blocks.
+ */
+class ParsedBatchQueue {
+
+  record ParsedFile(ParsedBatch batch, InputFile inputFile, JParserConfig.Result result) {
+  }
+
+  static final class ParsedBatch {
+    private final List<InputFile> files;
+    private final long sizeInBytes;
+    private final long startNanos = System.nanoTime();
+    @Nullable
+    private ParsedFile pendingFile = null;
+    private boolean scanning = false;
+    private boolean parsed = false;
+    @Nullable
+    private Throwable failure = null;
+
+    private ParsedBatch(List<InputFile> files, long sizeInBytes) {
+      this.files = files;
+      this.sizeInBytes = sizeInBytes;
+    }
+
+    List<InputFile> files() {
+      return files;
+    }
+
+    int fileCount() {
+      return files.size();
+    }
+
+    long startNanos() {
+      return startNanos;
+    }
+  }
+
+  private final long capacityInBytes;
+  private final Deque<ParsedBatch> batches = new ArrayDeque<>();
+  private long bytesInProgress = 0L;
+  private boolean closed = false;
+  private boolean cancelled = false;
+  @Nullable
+  private Throwable producerFailure = null;
+
+  ParsedBatchQueue(long capacityInBytes) {
+    this.capacityInBytes = capacityInBytes;
+  }
+
+  /**
+   * Waits until there is enough room for a new batch, then makes it available to the consumer.
+   *
+   * @return the batch to hand the parsed files over, or null if the consumer cancelled the pipeline.
+   */
+  @CheckForNull
+  synchronized ParsedBatch startBatch(List<InputFile> files, long sizeInBytes) throws InterruptedException {
+    while (!cancelled && !batches.isEmpty() && bytesInProgress + sizeInBytes > capacityInBytes) {
+      wait();
+    }
+    if (cancelled) {
+      return null;
+    }
+    ParsedBatch batch = new ParsedBatch(files, sizeInBytes);
+    batches.add(batch);
+    bytesInProgress += sizeInBytes;
+    notifyAll();
+    return batch;
+  }
+
+  /**
+   * Called from the requestor of ECJ: waits until the consumer has scanned the file. The calling thread keeps waiting when it is
+   * interrupted, as the consumer may be using the compilation unit of the file, and its interrupted status is restored.
+   *
+   * @return false if the consumer cancelled the pipeline, in which case the file has not been scanned.
+   */
+  synchronized boolean handOver(ParsedFile file) {
+    if (cancelled) {
+      return false;
+    }
+    ParsedBatch batch = file.batch();
+    batch.pendingFile = file;
+    notifyAll();
+    boolean interrupted = false;
+    while (!cancelled && batch.pendingFile != null) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    boolean scanned = batch.pendingFile == null;
+    batch.pendingFile = null;
+    return scanned;
+  }
+
+  /**
+   * Called by the thread parsing the batch once ECJ is done with it, or when it failed.
+   */
+  synchronized void endBatch(ParsedBatch batch, @Nullable Throwable failure) {
+    batch.parsed = true;
+    batch.failure = failure;
+    notifyAll();
+  }
+
+  /**
+   * Called by the producer once all the batches have been started, or when it failed.
+   */
+  synchronized void close(@Nullable Throwable failure) {
+    closed = true;
+    producerFailure = failure;
+    notifyAll();
+  }
+
+  /**
+   * Waits for the next file handed over by one of the batches, which is to be released with {@link #scanned(ParsedFile)} once
+   * scanned. Batches whose files have all been scanned are passed to the given consumer, or their failure is rethrown.
+   *
+   * @return the next file, or null when the producer is done and every batch has been scanned.
+   */
+  @CheckForNull
+  ParsedFile takeFile(Consumer<ParsedBatch> scannedBatches) throws InterruptedException {
+    while (true) {
+      ParsedBatch scannedBatch;
+      synchronized (this) {
+        ParsedFile file = null;
+        scannedBatch = null;
+        Iterator<ParsedBatch> iterator = batches.iterator();
+        while (file == null && scannedBatch == null && iterator.hasNext()) {
+          ParsedBatch batch = iterator.next();
+          if (batch.pendingFile != null && !batch.scanning) {
+            batch.scanning = true;
+            file = batch.pendingFile;
+          } else if (batch.parsed && batch.pendingFile == null) {
+            iterator.remove();
+            bytesInProgress -= batch.sizeInBytes;
+            notifyAll();
+            scannedBatch = batch;
+          }
+        }
+        if (file != null) {
+          return file;
+        }
+        if (scannedBatch == null) {
+          if (closed && batches.isEmpty()) {
+            rethrow(producerFailure);
+            return null;
+          }
+          wait();
+          continue;
+        }
+      }
+      rethrow(scannedBatch.failure);
+      scannedBatches.accept(scannedBatch);
+    }
+  }
+
+  /**
+   * Releases the thread parsing the batch of the file, which waits in the requestor of ECJ.
+   */
+  synchronized void scanned(ParsedFile file) {
+    ParsedBatch batch = file.batch();
+    batch.scanning = false;
+    batch.pendingFile = null;
+    notifyAll();
+  }
+
+  /**
+   * Called by the consumer when it stops scanning. Batches in progress are dropped, and their threads stop waiting.
+   */
+  synchronized void cancel() {
+    cancelled = true;
+    batches.clear();
+    bytesInProgress = 0L;
+    notifyAll();
+  }
+
+  synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  private static void rethrow(@Nullable Throwable failure) {
+    if (failure instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    }
+    if (failure instanceof Error error) {
+      throw error;
+    }
+  }
+
+}
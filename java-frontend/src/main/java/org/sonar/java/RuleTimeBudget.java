@@ -0,0 +1,166 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Time that each rule may spend on each file. Rules cannot be interrupted, so the budget is enforced between the calls made to
+ * them: once a rule exceeded its budget on a file, it is cancelled for the rest of the file. Subscription visitors are then no
+ * longer notified of its trees. The other rules still run.
+ * <p>
+ * Only the issues of the rules which were actually interrupted, because calls to them were skipped, are discarded, as they could
+ * be based on a partial visit of the file. A rule which ran over its budget but completed its visit, like a scanner visiting the
+ * whole file in a single call, keeps its issues. As a rule can only be interrupted once it already reported some issues, the
+ * issues reported on the file are kept until the end of the file, and only saved for the rules which were not interrupted.
+ * <p>
+ * Rules implementing {@link OwnTimeBudget} are not subject to this budget. As rules, files are analyzed one at a time.
+ */
+public final class RuleTimeBudget {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RuleTimeBudget.class);
+
+  private final long budgetInMs;
+  private final long budgetInNanos;
+  private final LongSupplier nanoClock;
+  private final Consumer<String> analysisWarnings;
+  private final Map<Object, Long> spentByRule = new IdentityHashMap<>();
+  private final Set<Object> cancelledRules = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Set<Object> interruptedRules = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Set<String> warnedRules = new HashSet<>();
+  private final List<PendingIssue> pendingIssues = new ArrayList<>();
+  @Nullable
+  private InputComponent currentFile;
+
+  public RuleTimeBudget(long budgetInMs, Consumer<String> analysisWarnings) {
+    this(budgetInMs, System::nanoTime, analysisWarnings);
+  }
+
+  @VisibleForTesting
+  RuleTimeBudget(long budgetInMs, LongSupplier nanoClock, Consumer<String> analysisWarnings) {
+    this.budgetInMs = budgetInMs;
+    this.budgetInNanos = TimeUnit.MILLISECONDS.toNanos(budgetInMs);
+    this.nanoClock = nanoClock;
+    this.analysisWarnings = analysisWarnings;
+  }
+
+  public void startFile(@Nullable InputComponent file) {
+    currentFile = file;
+    spentByRule.clear();
+    cancelledRules.clear();
+    interruptedRules.clear();
+    pendingIssues.clear();
+  }
+
+  /**
+   * Saves the issues kept for the rules which were not interrupted on the file, and forgets the file, so that the issues reported
+   * out of it, as at the end of the analysis, are saved right away.
+   */
+  public void endFile() {
+    try {
+      for (Object rule : interruptedRules) {
+        LOG.warn("Issues of rule {} on file {} are discarded, as it was cancelled before the end of its visit.", rule.getClass().getName(), currentFile);
+      }
+      for (PendingIssue issue : pendingIssues) {
+        if (!interruptedRules.contains(issue.rule())) {
+          issue.save().run();
+        }
+      }
+    } finally {
+      startFile(null);
+    }
+  }
+
+  /**
+   * Saves an issue right away, unless it is reported on the file currently analyzed: it is then kept until the end of the file, or
+   * discarded if its rule is already interrupted on this file.
+   */
+  public void saveIssue(Object rule, @Nullable InputComponent component, Runnable save) {
+    if (currentFile == null || !currentFile.equals(component)) {
+      save.run();
+    } else if (!interruptedRules.contains(rule)) {
+      pendingIssues.add(new PendingIssue(rule, save));
+    }
+  }
+
+  /**
+   * @return the start time of a call to a rule, to give to {@link #stop(Object, long)} once the call is done
+   */
+  public long start() {
+    return nanoClock.getAsLong();
+  }
+
+  /**
+   * @return true if the rule got cancelled on the file by this call
+   */
+  public boolean stop(Object rule, long start) {
+    long spent = spentByRule.merge(rule, nanoClock.getAsLong() - start, Long::sum);
+    if (spent <= budgetInNanos || !cancelledRules.add(rule)) {
+      return false;
+    }
+    String ruleName = rule.getClass().getName();
+    LOG.warn("Rule {} cancelled on file {}, after exceeding its time budget of {} ms.", ruleName, currentFile, budgetInMs);
+    if (warnedRules.add(ruleName)) {
+      analysisWarnings.accept(String.format("Rule %s exceeded its time budget of %d ms on some files, on which it was cancelled."
+        + " See the analysis logs for the list of these files.", ruleName, budgetInMs));
+    }
+    return true;
+  }
+
+  public boolean isCancelled(Object rule) {
+    return cancelledRules.contains(rule);
+  }
+
+  /**
+   * To be called before each call to a rule.
+   *
+   * @return true if the call is to be skipped, as the rule is cancelled on the file, in which case the rule is interrupted and its
+   * issues on the file are discarded
+   */
+  public boolean skip(Object rule) {
+    if (!cancelledRules.contains(rule)) {
+      return false;
+    }
+    interruptedRules.add(rule);
+    return true;
+  }
+
+  /**
+   * Implemented by the rules which enforce a time budget of their own, such as the symbolic execution, and which the time budget
+   * of the rules does not apply to.
+   */
+  public interface OwnTimeBudget {
+  }
+
+  private record PendingIssue(Object rule, Runnable save) {
+  }
+
+}
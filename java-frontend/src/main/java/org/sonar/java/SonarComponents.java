@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -66,6 +67,7 @@ import org.sonar.java.model.GeneratedFile;
 import org.sonar.java.model.JProblem;
 import org.sonar.java.model.LineUtils;
 import org.sonar.java.reporting.AnalyzerMessage;
+import org.sonar.java.reporting.PendingIssues;
 import org.sonar.java.reporting.JavaIssue;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
@@ -87,6 +89,56 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   public static final String SONAR_AUTOSCAN_CHECK_FILTERING = "sonar.internal.analysis.autoscan.filtering";
   public static final String SONAR_BATCH_SIZE_KEY = "sonar.java.experimental.batchModeSizeInKB";
   public static final String SONAR_FILE_BY_FILE = "sonar.java.fileByFile";
+  /**
+   * Number of ECJ batches that can be parsed concurrently. Rules are still executed one file at a time.
+   * By default, batches are processed sequentially.
+   */
+  public static final String SONAR_BATCH_MODE_THREADS_KEY = "sonar.java.experimental.batchModeThreads";
+  /**
+   * Size, in KB of source code, of the batches which are parsed on their own threads while the rules scan their files, including
+   * the batches being scanned. While a batch resolves its next file, the rules scan a file of another batch: the size should hold
+   * at least two batches for parsing to overlap with the scan. By default, batches are parsed and scanned one after the other.
+   */
+  public static final String SONAR_PIPELINE_QUEUE_SIZE_KEY = "sonar.java.experimental.pipelineQueueSizeInKB";
+  /**
+   * Size, in KB, of the issues that rules reporting at the end of the analysis keep in memory. Beyond it, they are written to a
+   * temporary file in the working directory. By default, they are all kept in memory.
+   */
+  public static final String SONAR_PENDING_ISSUES_MAX_SIZE_KEY = "sonar.java.experimental.pendingIssuesMaxSizeInKB";
+  /**
+   * Fraction, between 0 and 1, of the maximum heap that the analysis of a batch should use. When set, the size of sequential batches
+   * is adapted after each batch to the heap used after garbage collections. By default, all the batches have the same size.
+   */
+  public static final String SONAR_ADAPTIVE_BATCH_MAX_HEAP_RATIO_KEY = "sonar.java.experimental.adaptiveBatchMaxHeapRatio";
+  /**
+   * Describes if files are grouped into batches by package dependencies, read from their import declarations, so that types are
+   * resolved in fewer batches. By default, files are sliced into batches in the order of the file system.
+   */
+  public static final String SONAR_BATCH_MODE_ORDER_BY_DEPENDENCIES_KEY = "sonar.java.experimental.batchModeOrderByDependencies";
+  /**
+   * Describes if the archives of the classpath are kept open between the analyses of the file by file mode, as in SonarLint, so
+   * that they are not read again as long as the classpath does not change. As open archives are locked on Windows, it is disabled
+   * by default.
+   */
+  public static final String SONAR_KEEP_CLASSPATH_WARM_KEY = "sonar.java.experimental.keepClasspathWarm";
+  /**
+   * Describes if the CPU time and the allocations of each phase of the analysis and of each rule are recorded, and written as a
+   * report in the working directory at the end of the analysis. By default, the analysis is not profiled.
+   */
+  public static final String SONAR_PROFILER_KEY = "sonar.java.experimental.profiler";
+  /**
+   * Time, in milliseconds, that each rule may spend on each file. A rule exceeding it is cancelled on the file, and an analysis
+   * warning is added. The issues it reported on the file are discarded if it was interrupted before the end of its visit. By
+   * default, rules have no time budget.
+   */
+  public static final String SONAR_RULE_TIME_BUDGET_PER_FILE_IN_MS_KEY = "sonar.java.experimental.ruleTimeBudgetPerFileInMs";
+  /**
+   * Describes if the performance measures of the analysis are recorded. They are written by the sensor to the file set by
+   * {@link #PERFORMANCE_MEASURE_FILE_PATH_KEY}, by default in the working directory.
+   */
+  public static final String PERFORMANCE_MEASURE_ACTIVATION_KEY = "sonar.java.performance.measure";
+  public static final String PERFORMANCE_MEASURE_FILE_PATH_KEY = "sonar.java.performance.measure.path";
+  public static final String PERFORMANCE_MEASURE_DEFAULT_FILE = "sonar.java.performance.measure.json";
   /**
    * Describes if an optimized analysis of unchanged by skipping some rules is enabled.
    * By default, the property is not set (null), leaving SQ/SC to decide whether to enable this behavior.
@@ -117,6 +169,8 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   private final ProjectDefinition projectDefinition;
   @Nullable
   private final SonarLintCache sonarLintCache;
+  @Nullable
+  private RuleTimeBudget ruleTimeBudget;
   private final FileSystem fs;
   private final List<JavaCheck> mainChecks;
   private final List<JavaCheck> testChecks;
@@ -127,6 +181,8 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   private final Set<RuleKey> additionalAutoScanCompatibleRuleKeys;
 
   private boolean alreadyLoggedSkipStatus = false;
+  @Nullable
+  private ContentHashCache contentHashCache;
 
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
     ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath,
@@ -222,6 +278,7 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
 
   public void setSensorContext(SensorContext context) {
     this.context = context;
+    this.contentHashCache = null;
   }
 
   public void setCheckFilter(UnaryOperator<List<JavaCheck>> checkFilter) {
@@ -402,7 +459,13 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
     if (!analyzerMessage.flows.isEmpty()) {
       issue.addFlow((InputFile) analyzerMessage.getInputComponent(), analyzerMessage.flows);
     }
-    issue.save();
+    JavaCheck check = analyzerMessage.getCheck();
+    if (ruleTimeBudget == null || check == null) {
+      issue.save();
+    } else {
+      // issues are discarded if the check gets interrupted on the file, see RuleTimeBudget
+      ruleTimeBudget.saveIssue(check, fileOrProject, issue::save);
+    }
   }
 
   public boolean reportAnalysisError(RecognitionException re, InputFile inputFile) {
@@ -476,6 +539,115 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
     return config.getLong(SONAR_BATCH_SIZE_KEY).orElse(computeIdealBatchSize());
   }
 
+  /**
+   * Returns the number of threads used to parse batches, as read from configuration. Only relevant when more than one batch is used.
+   *
+   * @return the number of threads, at least 1.
+   */
+  public int getBatchModeThreads() {
+    return Math.max(1, context.config().getInt(SONAR_BATCH_MODE_THREADS_KEY).orElse(1));
+  }
+
+  /**
+   * Returns the capacity of the queue between parsing and scanning of batches, as read from configuration, in Kilo Bytes.
+   *
+   * @return the capacity or a default value of -1L when batches should not be pipelined.
+   */
+  public long getPipelineQueueSizeInKB() {
+    return context.config().getLong(SONAR_PIPELINE_QUEUE_SIZE_KEY).orElse(-1L);
+  }
+
+  /**
+   * Returns the size of the issues kept in memory by rules reporting at the end of the analysis, as read from configuration, in Kilo Bytes.
+   *
+   * @return the size or a default value of -1L when they are all kept in memory.
+   */
+  public long getPendingIssuesMaxSizeInKB() {
+    return context.config().getLong(SONAR_PENDING_ISSUES_MAX_SIZE_KEY).orElse(-1L);
+  }
+
+  /**
+   * Returns the fraction of the maximum heap that the analysis of a batch should use, as read from configuration.
+   *
+   * @return the fraction or a default value of -1 when the batch size should not be adapted.
+   */
+  public double getAdaptiveBatchMaxHeapRatio() {
+    return context.config().getDouble(SONAR_ADAPTIVE_BATCH_MAX_HEAP_RATIO_KEY).orElse(-1.0);
+  }
+
+  public boolean isBatchModeOrderedByDependencies() {
+    return context.config().getBoolean(SONAR_BATCH_MODE_ORDER_BY_DEPENDENCIES_KEY).orElse(false);
+  }
+
+  public boolean isClasspathKeptWarm() {
+    return context.config().getBoolean(SONAR_KEEP_CLASSPATH_WARM_KEY).orElse(false);
+  }
+
+  public boolean isProfilerEnabled() {
+    return context.config().getBoolean(SONAR_PROFILER_KEY).orElse(false);
+  }
+
+  /**
+   * Returns the file where the performance measures of the threads analyzing batches are written. It is next to the file of the
+   * measures of the sensor, with a ".workers.json" extension.
+   *
+   * @return the file, or null when performance measures are not activated or not written to a file
+   */
+  @CheckForNull
+  public Path getWorkerPerformanceMeasureFile() {
+    if (context == null || !context.config().getBoolean(PERFORMANCE_MEASURE_ACTIVATION_KEY).orElse(false)) {
+      return null;
+    }
+    Path sensorFile = context.config().get(PERFORMANCE_MEASURE_FILE_PATH_KEY)
+      .filter(path -> !path.isEmpty())
+      .map(Path::of)
+      .orElseGet(() -> Optional.ofNullable(fs.workDir())
+        .filter(File::exists)
+        .map(workDir -> workDir.toPath().resolve(PERFORMANCE_MEASURE_DEFAULT_FILE))
+        .orElse(null));
+    if (sensorFile == null) {
+      return null;
+    }
+    String fileName = sensorFile.getFileName().toString();
+    String baseName = fileName.endsWith(".json") ? fileName.substring(0, fileName.length() - ".json".length()) : fileName;
+    return sensorFile.resolveSibling(baseName + ".workers.json");
+  }
+
+  /**
+   * Returns the time that each rule may spend on each file, as read from configuration.
+   *
+   * @return the time in milliseconds or a default value of -1 when rules have no time budget.
+   */
+  public long getRuleTimeBudgetPerFileInMs() {
+    return context.config().getLong(SONAR_RULE_TIME_BUDGET_PER_FILE_IN_MS_KEY).orElse(-1L);
+  }
+
+  /**
+   * @return the time budget of the rules, shared by all the files of the analysis, or null when rules have no time budget
+   */
+  @CheckForNull
+  public RuleTimeBudget ruleTimeBudget() {
+    if (ruleTimeBudget == null && context != null) {
+      long budgetInMs = getRuleTimeBudgetPerFileInMs();
+      if (budgetInMs <= 0) {
+        return null;
+      }
+      ruleTimeBudget = new RuleTimeBudget(budgetInMs, this::addAnalysisWarning);
+    }
+    return ruleTimeBudget;
+  }
+
+  public void addAnalysisWarning(String warning) {
+    if (javaClasspath != null) {
+      javaClasspath.analysisWarnings().addUnique(warning);
+    }
+  }
+
+  public PendingIssues newPendingIssues() {
+    long maxSizeInKB = getPendingIssuesMaxSizeInKB();
+    return maxSizeInKB < 0 ? new PendingIssues() : new PendingIssues(maxSizeInKB * 1000L, projectLevelWorkDir());
+  }
+
   public boolean shouldIgnoreUnnamedModuleForSplitPackage() {
     return context.config().getBoolean(SONAR_IGNORE_UNNAMED_MODULE_FOR_SPLIT_PACKAGE).orElse(false);
   }
@@ -548,8 +720,30 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   }
 
 
+  /**
+   * Hashes the files in advance, for the next calls to {@link #fileCanBeSkipped(InputFile)}. Nothing is done when unchanged files
+   * cannot be skipped, as their hashes are then only written to the cache.
+   */
+  public void prefetchContentHashes(Collection<? extends InputFile> inputFiles) {
+    try {
+      if (!canSkipUnchangedFiles()) {
+        return;
+      }
+    } catch (ApiMismatchException e) {
+      return;
+    }
+    contentHashCache().prefetch(inputFiles);
+  }
+
+  private synchronized ContentHashCache contentHashCache() {
+    if (contentHashCache == null) {
+      contentHashCache = new ContentHashCache(this);
+    }
+    return contentHashCache;
+  }
+
   public boolean fileCanBeSkipped(InputFile inputFile) {
-    var contentHashCache = new ContentHashCache(this);
+    var contentHashCache = contentHashCache();
     if (inputFile instanceof GeneratedFile) {
       // Generated files should not be skipped as we cannot assess the change status of the source file
       return false;
@@ -0,0 +1,70 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.nio.file.Path;
+import javax.annotation.Nullable;
+import org.sonarsource.performance.measure.PerformanceMeasure;
+
+/**
+ * {@link PerformanceMeasure} records the measures of each thread in its own current measure, so the ones of worker threads are
+ * lost by default. Each task run by a worker is instead measured under a root of its own, which is added to a file dedicated to the
+ * workers, next to the file of the measures of the sensor.
+ */
+final class WorkerPerformanceMeasures {
+
+  static final String ROOT_MEASURE_NAME = "JavaFrontendWorker";
+
+  /**
+   * Roots are added to the existing content of the file, which should not be read and written by several workers at once.
+   */
+  private static final Object FILE_LOCK = new Object();
+
+  @Nullable
+  private final String file;
+
+  /**
+   * @param file where the measures of the workers are added, or null when performance measures are not activated
+   */
+  WorkerPerformanceMeasures(@Nullable Path file) {
+    this.file = file == null ? null : file.toString();
+  }
+
+  /**
+   * @return the given task, recording its measures when performance measures are activated
+   */
+  Runnable measured(Runnable task) {
+    String measuresFile = file;
+    if (measuresFile == null) {
+      return task;
+    }
+    return () -> {
+      PerformanceMeasure.Duration root = PerformanceMeasure.reportBuilder()
+        .activate(true)
+        .toFile(measuresFile)
+        .start(ROOT_MEASURE_NAME);
+      try {
+        task.run();
+      } finally {
+        synchronized (FILE_LOCK) {
+          root.stop();
+        }
+      }
+    };
+  }
+
+}
@@ -19,6 +19,7 @@ package org.sonar.java.ast;
 import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -83,8 +84,10 @@ public class JavaAstScanner {
     try {
       boolean shouldIgnoreUnnamedModuleForSplitPacakge = sonarComponents != null &&
         sonarComponents.shouldIgnoreUnnamedModuleForSplitPackage();
+      boolean keepClasspathWarm = sonarComponents != null && sonarComponents.isClasspathKeptWarm();
       JParserConfig.Mode.FILE_BY_FILE
         .create(visitor.getJavaVersion(), visitor.getClasspath(), shouldIgnoreUnnamedModuleForSplitPacakge)
+        .keepClasspathWarm(keepClasspathWarm)
         .parse(filesNames,
           this::analysisCancelled,
           analysisProgress,
@@ -109,6 +112,10 @@ public class JavaAstScanner {
       });
   }
 
+  public void endOfBatch(Collection<? extends InputFile> batchFiles) {
+    visitor.endOfBatch(batchFiles);
+  }
+
   public void endOfAnalysis() {
     visitor.endOfAnalysis();
     logUndefinedTypes();
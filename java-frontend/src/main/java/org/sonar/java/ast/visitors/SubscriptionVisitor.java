@@ -23,6 +23,7 @@ import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
 
@@ -80,7 +81,48 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
     visit(tree);
   }
 
-  private void visit(Tree tree) {
+  /**
+   * Iterative, as the trees of generated code, for instance of long concatenations, can be deeper than what the stack allows.
+   */
+  private void visit(Tree root) {
+    if (!enter(root)) {
+      return;
+    }
+    Tree[] treeStack = new Tree[64];
+    int[] childIndexStack = new int[64];
+    treeStack[0] = root;
+    int depth = 1;
+    while (depth > 0) {
+      Tree current = treeStack[depth - 1];
+      List<Tree> children = ((JavaTree) current).getChildren();
+      int childIndex = childIndexStack[depth - 1];
+      if (childIndex < children.size()) {
+        childIndexStack[depth - 1] = childIndex + 1;
+        Tree child = children.get(childIndex);
+        if (enter(child)) {
+          if (depth == treeStack.length) {
+            treeStack = Arrays.copyOf(treeStack, depth * 2);
+            childIndexStack = Arrays.copyOf(childIndexStack, depth * 2);
+          }
+          treeStack[depth] = child;
+          childIndexStack[depth] = 0;
+          depth++;
+        }
+      } else {
+        depth--;
+        if (isSubscribed(current)) {
+          leaveNode(current);
+        }
+      }
+    }
+  }
+
+  /**
+   * Visits the given tree, or its token and trivia.
+   *
+   * @return true if the children of the tree still have to be visited, in which case the tree has to be left once done
+   */
+  private boolean enter(Tree tree) {
     boolean isSubscribed = isSubscribed(tree);
     boolean shouldVisitSyntaxToken = (visitToken || visitTrivia) && tree.is(Tree.Kind.TOKEN);
     if (shouldVisitSyntaxToken) {
@@ -93,13 +135,18 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
           visitTrivia(syntaxTrivia);
         }
       }
-    } else if (isSubscribed) {
+      return false;
+    }
+    if (isSubscribed) {
       visitNode(tree);
     }
-    visitChildren(tree);
-    if (!shouldVisitSyntaxToken && isSubscribed) {
-      leaveNode(tree);
+    if (((JavaTree) tree).isLeaf()) {
+      if (isSubscribed) {
+        leaveNode(tree);
+      }
+      return false;
     }
+    return true;
   }
 
   private boolean isSubscribed(Tree tree) {
@@ -114,14 +161,4 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
     return nodesToVisit.contains(Tree.Kind.TOKEN);
   }
 
-  private void visitChildren(Tree tree) {
-    JavaTree javaTree = (JavaTree) tree;
-    if (!javaTree.isLeaf()) {
-      for (Tree next : javaTree.getChildren()) {
-        if (next != null) {
-          visit(next);
-        }
-      }
-    }
-  }
 }
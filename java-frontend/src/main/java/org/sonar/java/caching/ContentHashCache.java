@@ -19,12 +19,20 @@ package org.sonar.java.caching;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.cache.ReadCache;
 import org.sonar.api.batch.sensor.cache.WriteCache;
 import org.sonar.java.SonarComponents;
+import org.sonarsource.performance.measure.PerformanceMeasure;
 
 public class ContentHashCache {
 
@@ -35,6 +43,16 @@ public class ContentHashCache {
   private ReadCache readCache;
   private WriteCache writeCache;
   private final boolean enabled;
+  /**
+   * Whether the hash of a file, by key, was found to be the same as the cached one, so that files are hashed and the caches
+   * accessed once per file.
+   */
+  private final Map<String, Boolean> sameHashCached = new ConcurrentHashMap<>();
+  /**
+   * Keys of the files whose hash is already in the next cache, written or copied from the previous one, so that it is neither
+   * computed nor written again.
+   */
+  private final Set<String> hashesInNextCache = ConcurrentHashMap.newKeySet();
 
   public ContentHashCache(SonarComponents sonarComponents) {
     CacheContextImpl cacheContext = CacheContextImpl.of(sonarComponents);
@@ -56,25 +74,69 @@ public class ContentHashCache {
       LOG.trace("Cache is disabled. File status is: {}. File can't be skipped.", inputFile.status());
       return false;
     }
-    String cacheKey = getCacheKey(inputFile);
+    Boolean knownResult = sameHashCached.get(inputFile.key());
+    if (knownResult != null) {
+      return knownResult;
+    }
+    return hasSameHashCached(inputFile, computeHash(inputFile));
+  }
+
+  /**
+   * Compares the hashes of the files with the cached ones in advance, for the next calls to {@link #hasSameHashCached(InputFile)}.
+   * Files are hashed in parallel, while the caches are only accessed from the calling thread.
+   */
+  public void prefetch(Collection<? extends InputFile> inputFiles) {
+    if (!enabled) {
+      return;
+    }
+    PerformanceMeasure.Duration duration = PerformanceMeasure.start("ContentHashCache.prefetch");
     try {
-      LOG.trace("Reading cache for the file {}", inputFile.key());
-      byte[] cachedHash = readCache.read(cacheKey).readAllBytes();
-      byte[] fileHash = FileHashingUtils.inputFileContentHash(inputFile);
-      boolean isHashEqual = MessageDigest.isEqual(fileHash, cachedHash);
-      if (isHashEqual) {
-        copyFromPrevious(inputFile);
-      } else {
-        writeToCache(inputFile);
+      List<? extends InputFile> filesToHash = inputFiles.stream()
+        .filter(inputFile -> !sameHashCached.containsKey(inputFile.key()))
+        .toList();
+      List<byte[]> hashes = filesToHash.parallelStream()
+        .map(ContentHashCache::computeHash)
+        .toList();
+      for (int i = 0; i < filesToHash.size(); i++) {
+        hasSameHashCached(filesToHash.get(i), hashes.get(i));
       }
-      return isHashEqual;
-    } catch (IllegalArgumentException e) {
-      LOG.trace(String.format("Could not find key %s in the cache", cacheKey));
-      writeToCache(inputFile);
+    } finally {
+      duration.stop();
+    }
+  }
+
+  private boolean hasSameHashCached(InputFile inputFile, @Nullable byte[] fileHash) {
+    boolean isHashEqual = false;
+    if (fileHash != null) {
+      String cacheKey = getCacheKey(inputFile);
+      try {
+        LOG.trace("Reading cache for the file {}", inputFile.key());
+        byte[] cachedHash = readCache.read(cacheKey).readAllBytes();
+        isHashEqual = MessageDigest.isEqual(fileHash, cachedHash);
+        if (isHashEqual) {
+          copyFromPrevious(inputFile);
+        } else {
+          writeToCache(inputFile, fileHash);
+        }
+      } catch (IllegalArgumentException e) {
+        LOG.trace(String.format("Could not find key %s in the cache", cacheKey));
+        writeToCache(inputFile, fileHash);
+      } catch (IOException e) {
+        LOG.warn(String.format(HASH_COMPUTE_FAIL_MSG, inputFile.key()));
+      }
+    }
+    sameHashCached.put(inputFile.key(), isHashEqual);
+    return isHashEqual;
+  }
+
+  @CheckForNull
+  private static byte[] computeHash(InputFile inputFile) {
+    try {
+      return FileHashingUtils.inputFileContentHash(inputFile);
     } catch (IOException | NoSuchAlgorithmException e) {
       LOG.warn(String.format(HASH_COMPUTE_FAIL_MSG, inputFile.key()));
+      return null;
     }
-    return false;
   }
 
   public boolean contains(InputFile inputFile) {
@@ -90,15 +152,22 @@ public class ContentHashCache {
       LOG.trace("Cannot write hashes to the cache when the cache is disabled ({}).", inputFile.key());
       return false;
     }
+    if (hashesInNextCache.contains(inputFile.key())) {
+      return true;
+    }
+    byte[] fileHash = computeHash(inputFile);
+    return fileHash != null && writeToCache(inputFile, fileHash);
+  }
+
+  private boolean writeToCache(InputFile inputFile, byte[] fileHash) {
     LOG.trace("Writing to the cache for file {}", inputFile.key());
     String cacheKey = getCacheKey(inputFile);
     try {
-      writeCache.write(cacheKey, FileHashingUtils.inputFileContentHash(inputFile));
+      writeCache.write(cacheKey, fileHash);
+      hashesInNextCache.add(inputFile.key());
       return true;
     } catch (IllegalArgumentException e) {
       LOG.trace(String.format("Tried to write multiple times to cache key %s. Ignoring writes after the first.", cacheKey));
-    } catch (IOException | NoSuchAlgorithmException e) {
-      LOG.warn(String.format(HASH_COMPUTE_FAIL_MSG, inputFile.key()));
     }
     return false;
   }
@@ -106,6 +175,7 @@ public class ContentHashCache {
   private void copyFromPrevious(InputFile inputFile) {
     LOG.trace("Copying cache from previous for file {}", inputFile.key());
     writeCache.copyFromPrevious(getCacheKey(inputFile));
+    hashesInNextCache.add(inputFile.key());
   }
 
   private static String getCacheKey(InputFile inputFile) {
@@ -130,6 +130,17 @@ public class CFG implements ControlFlowGraph {
   }
 
   private String pendingLabel = null;
+
+  /**
+   * Results of the analyses of this graph, computed on first request and shared by all the checks visiting the same tree.
+   */
+  @Nullable
+  LiveVariables liveVariables = null;
+  @Nullable
+  LiveVariables liveVariablesWithFields = null;
+  @Nullable
+  Map<Tree, CFGLoop> loops = null;
+
   private Map<String, Block> labelsBreakTarget = new HashMap<>();
   private Map<String, Block> labelsContinueTarget = new HashMap<>();
 
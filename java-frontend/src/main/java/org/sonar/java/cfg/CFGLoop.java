@@ -24,6 +24,7 @@ import javax.annotation.CheckForNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -146,7 +147,17 @@ public class CFGLoop {
     return terminator != null && terminator.is(Tree.Kind.FOR_STATEMENT, Tree.Kind.WHILE_STATEMENT, Tree.Kind.DO_STATEMENT);
   }
 
+  /**
+   * Loops of the graph by the tree of their statement. They are computed once per graph, following calls return the same map.
+   */
   public static Map<Tree, CFGLoop> getCFGLoops(CFG cfg) {
+    if (cfg.loops == null) {
+      cfg.loops = Collections.unmodifiableMap(computeCFGLoops(cfg));
+    }
+    return cfg.loops;
+  }
+
+  private static Map<Tree, CFGLoop> computeCFGLoops(CFG cfg) {
     Map<Tree, CFGLoop> cfgLoops = new HashMap<>();
     for (CFG.Block block : cfg.blocks()) {
       if (CFGLoop.isStarting(block)) {
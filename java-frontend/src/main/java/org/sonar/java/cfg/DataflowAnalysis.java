@@ -0,0 +1,235 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.cfg;
+
+import java.util.BitSet;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Worklist solver of dataflow problems on a {@link CFG}, whose facts are sets of indexes, for instance of symbols numbered by a
+ * {@link SymbolIndex}. Both normal and exceptional successors of a block are followed.
+ * <p>
+ * Blocks are processed in reverse postorder of the graph for forward problems, and in postorder for backward ones, so that
+ * most blocks are visited once their inputs are known. The worklist is a bit set of positions in this order.
+ */
+public final class DataflowAnalysis {
+
+  public enum Direction {
+    FORWARD, BACKWARD
+  }
+
+  /**
+   * How facts coming from several blocks are combined: union for "may" problems, such as live variables, and intersection for
+   * "must" problems, such as definite assignment.
+   */
+  public enum Meet {
+    UNION, INTERSECTION
+  }
+
+  @FunctionalInterface
+  public interface Transfer {
+    /**
+     * Transforms in place the facts flowing into the block, at its start for forward problems and at its end for backward ones,
+     * into the facts flowing out of it.
+     */
+    void apply(CFG.Block block, BitSet facts);
+  }
+
+  /**
+   * Facts at the start and at the end of each block, in the order of execution whatever the direction of the problem.
+   * The returned sets must not be modified.
+   */
+  public static final class Result {
+    private final BitSet[] before;
+    private final BitSet[] after;
+
+    private Result(BitSet[] before, BitSet[] after) {
+      this.before = before;
+      this.after = after;
+    }
+
+    public BitSet before(CFG.Block block) {
+      return before[block.id()];
+    }
+
+    public BitSet after(CFG.Block block) {
+      return after[block.id()];
+    }
+  }
+
+  private DataflowAnalysis() {
+  }
+
+  /**
+   * @param boundary facts flowing into the entry block for forward problems, and into the blocks without successors for
+   *                 backward ones
+   * @param size     number of possible facts, used as the initial value of intersections
+   */
+  public static Result solve(CFG cfg, Direction direction, Meet meet, BitSet boundary, int size, Transfer transfer) {
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    int count = blocks.size();
+    int[][] successors = new int[count][];
+    int[][] predecessors = edges(blocks, successors);
+    int[][] incoming = direction == Direction.FORWARD ? predecessors : successors;
+    int[][] outgoing = direction == Direction.FORWARD ? successors : predecessors;
+
+    int[] order = reversePostorder(cfg, successors);
+    int[] position = new int[count];
+    for (int i = 0; i < count; i++) {
+      int index = direction == Direction.FORWARD ? i : (count - 1 - i);
+      position[order[i]] = index;
+    }
+    int[] blockAt = new int[count];
+    for (int id = 0; id < count; id++) {
+      blockAt[position[id]] = id;
+    }
+
+    BitSet[] input = new BitSet[count];
+    BitSet[] output = new BitSet[count];
+    BitSet pending = new BitSet(count);
+    pending.set(0, count);
+    int entryId = cfg.entryBlock().id();
+    for (int next = pending.nextSetBit(0); next >= 0; next = pending.nextSetBit(0)) {
+      pending.clear(next);
+      int id = blockAt[next];
+      boolean start = direction == Direction.FORWARD ? (id == entryId) : (incoming[id].length == 0);
+      BitSet facts = meet(meet, start ? boundary : null, incoming[id], output, size);
+      input[id] = (BitSet) facts.clone();
+      transfer.apply(blocks.get(id), facts);
+      if (!facts.equals(output[id])) {
+        output[id] = facts;
+        for (int target : outgoing[id]) {
+          pending.set(position[target]);
+        }
+      }
+    }
+    return direction == Direction.FORWARD ? new Result(input, output) : new Result(output, input);
+  }
+
+  private static BitSet meet(Meet meet, @Nullable BitSet boundary, int[] sources, BitSet[] output, int size) {
+    BitSet facts = null;
+    if (boundary != null) {
+      facts = (BitSet) boundary.clone();
+    }
+    for (int source : sources) {
+      BitSet sourceFacts = output[source];
+      if (sourceFacts == null) {
+        // not computed yet: neutral element of the meet
+        continue;
+      }
+      if (facts == null) {
+        facts = (BitSet) sourceFacts.clone();
+      } else if (meet == Meet.UNION) {
+        facts.or(sourceFacts);
+      } else {
+        facts.and(sourceFacts);
+      }
+    }
+    if (facts == null) {
+      facts = new BitSet(size);
+      if (meet == Meet.INTERSECTION) {
+        facts.set(0, size);
+      }
+    }
+    return facts;
+  }
+
+  /**
+   * Fills the normal and exceptional successors of each block, by id, and returns the predecessors computed from them.
+   */
+  private static int[][] edges(List<CFG.Block> blocks, int[][] successors) {
+    int count = blocks.size();
+    int[] predecessorCounts = new int[count];
+    for (CFG.Block block : blocks) {
+      int[] targets = new int[block.successors().size() + block.exceptions().size()];
+      int i = 0;
+      for (CFG.Block successor : block.successors()) {
+        targets[i++] = successor.id();
+      }
+      for (CFG.Block successor : block.exceptions()) {
+        targets[i++] = successor.id();
+      }
+      successors[block.id()] = targets;
+      for (int target : targets) {
+        predecessorCounts[target]++;
+      }
+    }
+    int[][] predecessors = new int[count][];
+    for (int id = 0; id < count; id++) {
+      predecessors[id] = new int[predecessorCounts[id]];
+      predecessorCounts[id] = 0;
+    }
+    for (int id = 0; id < count; id++) {
+      for (int target : successors[id]) {
+        predecessors[target][predecessorCounts[target]++] = id;
+      }
+    }
+    return predecessors;
+  }
+
+  /**
+   * Ids of the blocks in reverse postorder of a depth-first traversal from the entry block, followed by the ones of the blocks
+   * which are not reachable from it, in reverse postorder of the traversals starting from them.
+   */
+  private static int[] reversePostorder(CFG cfg, int[][] successors) {
+    int count = successors.length;
+    int[] postorder = new int[count];
+    int visitedCount = 0;
+    BitSet visited = new BitSet(count);
+    // explicit stack of blocks and of the next successor to visit, to support large methods
+    int[] stack = new int[count];
+    int[] nextSuccessor = new int[count];
+    int[] order = new int[count];
+    int ordered = 0;
+    int root = cfg.entryBlock().id();
+    while (root >= 0) {
+      int traversalStart = visitedCount;
+      int top = 0;
+      stack[0] = root;
+      nextSuccessor[0] = 0;
+      visited.set(root);
+      while (top >= 0) {
+        int id = stack[top];
+        if (nextSuccessor[top] < successors[id].length) {
+          int successor = successors[id][nextSuccessor[top]];
+          nextSuccessor[top]++;
+          if (!visited.get(successor)) {
+            visited.set(successor);
+            top++;
+            stack[top] = successor;
+            nextSuccessor[top] = 0;
+          }
+        } else {
+          postorder[visitedCount] = id;
+          visitedCount++;
+          top--;
+        }
+      }
+      for (int i = visitedCount - 1; i >= traversalStart; i--) {
+        order[ordered] = postorder[i];
+        ordered++;
+      }
+      root = visited.nextClearBit(0);
+      if (root >= count) {
+        root = -1;
+      }
+    }
+    return order;
+  }
+
+}
@@ -16,13 +16,9 @@
  */
 package org.sonar.java.cfg;
 
-import java.util.Collections;
-import java.util.Deque;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.Objects;
+import java.util.List;
 import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -38,14 +34,14 @@ import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonar.plugins.java.api.tree.VariableTree;
 import org.sonarsource.analyzer.commons.collections.ListUtils;
-import org.sonarsource.analyzer.commons.collections.SetUtils;
+import org.sonarsource.performance.measure.PerformanceMeasure;
 
 public class LiveVariables {
 
   private final CFG cfg;
-  private final Map<CFG.Block, Set<Symbol>> out = new HashMap<>();
-  private final Map<CFG.Block, Set<Symbol>> in = new HashMap<>();
   private final boolean includeFields;
+  private final SymbolIndex symbols = new SymbolIndex();
+  private DataflowAnalysis.Result result;
 
   private LiveVariables(CFG cfg, boolean includeFields) {
     this.cfg = cfg;
@@ -53,75 +49,71 @@ public class LiveVariables {
   }
 
   public Set<Symbol> getOut(CFG.Block block) {
-    return out.get(block);
+    return symbols.asSet(result.after(block));
   }
 
   public Set<Symbol> getIn(CFG.Block block) {
-    return in.get(block);
+    return symbols.asSet(result.before(block));
   }
 
   /**
-   * Returns LiveVariables object with information concerning local variables and parameters
+   * Returns LiveVariables object with information concerning local variables and parameters.
+   * The analysis is done once per graph, following calls return the same object.
    */
   public static LiveVariables analyze(CFG cfg) {
-    return analyze(cfg, false);
+    if (cfg.liveVariables == null) {
+      cfg.liveVariables = analyze(cfg, false);
+    }
+    return cfg.liveVariables;
   }
 
   /**
-   * Returns LiveVariables object with information concerning local variables, parameters and fields
+   * Returns LiveVariables object with information concerning local variables, parameters and fields.
+   * The analysis is done once per graph, following calls return the same object.
    */
   public static LiveVariables analyzeWithFields(CFG cfg) {
-    return analyze(cfg, true);
+    if (cfg.liveVariablesWithFields == null) {
+      cfg.liveVariablesWithFields = analyze(cfg, true);
+    }
+    return cfg.liveVariablesWithFields;
   }
 
   private static LiveVariables analyze(CFG cfg, boolean includeFields) {
-    LiveVariables liveVariables = new LiveVariables(cfg, includeFields);
+    PerformanceMeasure.Duration duration = PerformanceMeasure.start("LiveVariables");
+    try {
+      LiveVariables liveVariables = new LiveVariables(cfg, includeFields);
+      liveVariables.analyzeCFG();
+      return liveVariables;
+    } finally {
+      duration.stop();
+    }
+  }
+
+  private void analyzeCFG() {
     // Generate kill/gen for each block in isolation
-    Map<CFG.Block, Set<Symbol>> kill = new HashMap<>();
-    Map<CFG.Block, Set<Symbol>> gen = new HashMap<>();
-    for (CFG.Block block : liveVariables.cfg.reversedBlocks()) {
-      Set<Symbol> blockKill = new HashSet<>();
-      Set<Symbol> blockGen = new HashSet<>();
-      liveVariables.processBlockElements(block, blockKill, blockGen);
-      kill.put(block, blockKill);
-      gen.put(block, blockGen);
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    BitSet[] kill = new BitSet[blocks.size()];
+    BitSet[] gen = new BitSet[blocks.size()];
+    for (CFG.Block block : blocks) {
+      BitSet blockKill = new BitSet();
+      BitSet blockGen = new BitSet();
+      processBlockElements(block, blockKill, blockGen);
+      kill[block.id()] = blockKill;
+      gen[block.id()] = blockGen;
     }
-    liveVariables.analyzeCFG(liveVariables.in, kill, gen);
+    // in = gen and (out - kill)
+    result = DataflowAnalysis.solve(cfg, DataflowAnalysis.Direction.BACKWARD, DataflowAnalysis.Meet.UNION, new BitSet(), symbols.size(),
+      (block, facts) -> {
+        facts.andNot(kill[block.id()]);
+        facts.or(gen[block.id()]);
+      });
     // out of exit block are empty by definition.
-    if (!liveVariables.out.get(liveVariables.cfg.reversedBlocks().get(0)).isEmpty()) {
+    if (!result.after(blocks.get(0)).isEmpty()) {
       throw new IllegalStateException("Out of exit block should be empty");
     }
-
-    // Make things immutable.
-    for (Map.Entry<CFG.Block, Set<Symbol>> blockSetEntry : liveVariables.out.entrySet()) {
-      blockSetEntry.setValue(Collections.unmodifiableSet(blockSetEntry.getValue()));
-    }
-
-    return liveVariables;
-  }
-
-  private void analyzeCFG(Map<CFG.Block, Set<Symbol>> in, Map<CFG.Block, Set<Symbol>> kill, Map<CFG.Block, Set<Symbol>> gen) {
-    Deque<CFG.Block> workList = new LinkedList<>();
-    workList.addAll(cfg.reversedBlocks());
-    while (!workList.isEmpty()) {
-      CFG.Block block = workList.removeFirst();
-
-      Set<Symbol> blockOut = out.computeIfAbsent(block, k -> new HashSet<>());
-      block.successors().stream().map(in::get).filter(Objects::nonNull).forEach(blockOut::addAll);
-      block.exceptions().stream().map(in::get).filter(Objects::nonNull).forEach(blockOut::addAll);
-      // in = gen and (out - kill)
-      Set<Symbol> newIn = new HashSet<>(gen.get(block));
-      newIn.addAll(SetUtils.difference(blockOut, kill.get(block)));
-
-      if (newIn.equals(in.get(block))) {
-        continue;
-      }
-      in.put(block, newIn);
-      block.predecessors().forEach(workList::addLast);
-    }
   }
 
-  private void processBlockElements(CFG.Block block, Set<Symbol> blockKill, Set<Symbol> blockGen) {
+  private void processBlockElements(CFG.Block block, BitSet blockKill, BitSet blockGen) {
     // process elements from bottom to top
     Set<Tree> assignmentLHS = new HashSet<>();
     for (Tree element : ListUtils.reverse(block.elements())) {
@@ -136,17 +128,16 @@ public class LiveVariables {
           processMemberSelect((MemberSelectExpressionTree) element, assignmentLHS, blockGen);
           break;
         case VARIABLE:
-          blockKill.add(((VariableTree) element).symbol());
-          blockGen.remove(((VariableTree) element).symbol());
+          processVariable((VariableTree) element, blockKill, blockGen);
           break;
         case LAMBDA_EXPRESSION:
-          blockGen.addAll(getUsedVariables(((LambdaExpressionTree) element).body(), cfg.methodSymbol()));
+          addUsedVariables(((LambdaExpressionTree) element).body(), blockGen);
           break;
         case METHOD_REFERENCE:
-          blockGen.addAll(getUsedVariables(((MethodReferenceTree) element).expression(), cfg.methodSymbol()));
+          addUsedVariables(((MethodReferenceTree) element).expression(), blockGen);
           break;
         case NEW_CLASS:
-          blockGen.addAll(getUsedVariables(((NewClassTree) element).classBody(), cfg.methodSymbol()));
+          addUsedVariables(((NewClassTree) element).classBody(), blockGen);
           break;
         default:
           // Ignore other kind of elements, no change of gen/kill
@@ -154,24 +145,30 @@ public class LiveVariables {
     }
   }
 
-  private void processIdentifier(IdentifierTree element, Set<Symbol> blockGen, Set<Tree> assignmentLHS) {
+  private void processVariable(VariableTree element, BitSet blockKill, BitSet blockGen) {
+    int variable = symbols.indexOf(element.symbol());
+    blockKill.set(variable);
+    blockGen.clear(variable);
+  }
+
+  private void processIdentifier(IdentifierTree element, BitSet blockGen, Set<Tree> assignmentLHS) {
     Symbol symbol = element.symbol();
     if (!assignmentLHS.contains(element) && includeSymbol(symbol)) {
-      blockGen.add(symbol);
+      blockGen.set(symbols.indexOf(symbol));
     }
   }
 
-  private void processMemberSelect(MemberSelectExpressionTree element, Set<Tree> assignmentLHS, Set<Symbol> blockGen) {
+  private void processMemberSelect(MemberSelectExpressionTree element, Set<Tree> assignmentLHS, BitSet blockGen) {
     Symbol symbol;
     if (!assignmentLHS.contains(element) && includeFields) {
       symbol = getField(element);
       if (symbol != null) {
-        blockGen.add(symbol);
+        blockGen.set(symbols.indexOf(symbol));
       }
     }
   }
 
-  private void processAssignment(AssignmentExpressionTree element, Set<Symbol> blockKill, Set<Symbol> blockGen, Set<Tree> assignmentLHS) {
+  private void processAssignment(AssignmentExpressionTree element, BitSet blockKill, BitSet blockGen, Set<Tree> assignmentLHS) {
     Symbol symbol = null;
     ExpressionTree lhs = element.variable();
     if (lhs.is(Kind.IDENTIFIER)) {
@@ -183,8 +180,9 @@ public class LiveVariables {
 
     if (symbol != null && includeSymbol(symbol)) {
       assignmentLHS.add(lhs);
-      blockGen.remove(symbol);
-      blockKill.add(symbol);
+      int variable = symbols.indexOf(symbol);
+      blockGen.clear(variable);
+      blockKill.set(variable);
     }
   }
 
@@ -214,13 +212,13 @@ public class LiveVariables {
     return null;
   }
 
-  private Set<Symbol> getUsedVariables(@Nullable Tree syntaxNode, Symbol.MethodSymbol owner) {
+  private void addUsedVariables(@Nullable Tree syntaxNode, BitSet blockGen) {
     if(syntaxNode == null) {
-      return Collections.emptySet();
+      return;
     }
-    VariableReadExtractor extractorFromClass = new VariableReadExtractor(owner, includeFields);
+    VariableReadExtractor extractorFromClass = new VariableReadExtractor(cfg.methodSymbol(), includeFields);
     syntaxNode.accept(extractorFromClass);
-    return extractorFromClass.usedVariables();
+    extractorFromClass.usedVariables().forEach(symbol -> blockGen.set(symbols.indexOf(symbol)));
   }
 
 }
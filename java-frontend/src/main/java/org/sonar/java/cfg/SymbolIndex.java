@@ -0,0 +1,111 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.cfg;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.sonar.plugins.java.api.semantic.Symbol;
+
+/**
+ * Dense numbering of the symbols of a method, in order of appearance, so that sets of symbols can be represented as bit sets
+ * by a {@link DataflowAnalysis}.
+ */
+public final class SymbolIndex {
+
+  private final Map<Symbol, Integer> indexes = new HashMap<>();
+  private final List<Symbol> symbols = new ArrayList<>();
+
+  /**
+   * Returns the index of the symbol, numbering it if it was not known yet.
+   */
+  public int indexOf(Symbol symbol) {
+    return indexes.computeIfAbsent(symbol, s -> {
+      symbols.add(s);
+      return symbols.size() - 1;
+    });
+  }
+
+  public Symbol symbol(int index) {
+    return symbols.get(index);
+  }
+
+  public int size() {
+    return symbols.size();
+  }
+
+  /**
+   * Unmodifiable view of the symbols whose indexes are in the given bit set.
+   */
+  public Set<Symbol> asSet(BitSet bits) {
+    return new SymbolSet(bits);
+  }
+
+  private class SymbolSet extends AbstractSet<Symbol> {
+
+    private final BitSet bits;
+
+    private SymbolSet(BitSet bits) {
+      this.bits = bits;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      Integer index = indexes.get(o);
+      return index != null && bits.get(index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return bits.isEmpty();
+    }
+
+    @Override
+    public int size() {
+      return bits.cardinality();
+    }
+
+    @Override
+    public Iterator<Symbol> iterator() {
+      return new Iterator<>() {
+        private int next = bits.nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public Symbol next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          Symbol symbol = symbols.get(next);
+          next = bits.nextSetBit(next + 1);
+          return symbol;
+        }
+      };
+    }
+  }
+
+}
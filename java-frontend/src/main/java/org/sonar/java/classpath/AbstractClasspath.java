@@ -18,8 +18,6 @@ package org.sonar.java.classpath;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
-import java.nio.file.DirectoryStream.Filter;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -33,11 +31,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -239,35 +240,35 @@ public abstract class AbstractClasspath {
     return "glob:" + separatorsToUnix(dir.toString()) + UNIX_SEPARATOR + separatorsToUnix(pattern);
   }
 
+  /**
+   * Libraries of the dirs matching the pattern, these dirs, then the jar and zip files matching the pattern, all found in a single
+   * walk of the file tree, which can be large when libraries are taken from a cache of dependencies.
+   */
   private static Set<File> getMatchingLibraries(String pattern, Path dir) throws IOException {
-    Set<File> matches = new LinkedHashSet<>();
-    Set<File> dirs = getMatchingDirs(pattern, dir);
-
     PathMatcher matcher = FileSystems.getDefault().getPathMatcher(getGlob(dir, pattern));
-    for (File d : dirs) {
-      matches.addAll(getLibs(d.toPath()));
-    }
-
-    matches.addAll(dirs);
-    matches.addAll(new LibraryFinder().find(dir, matcher));
+    PathMatcher baseDirMatcher = null;
     if (pattern.startsWith("**/")) {
       // match jar in the base dir when using wildcard
-      matches.addAll(new LibraryFinder().find(dir, FileSystems.getDefault().getPathMatcher(getGlob(dir, pattern.substring(3)))));
+      baseDirMatcher = FileSystems.getDefault().getPathMatcher(getGlob(dir, pattern.substring(3)));
     }
+    // without pattern, only the libraries of dir itself are looked for
+    LibraryAndDirFinder finder = new LibraryAndDirFinder(StringUtils.isEmpty(pattern) ? null : matcher, matcher, baseDirMatcher);
+    if (StringUtils.isEmpty(pattern)) {
+      finder.librariesByDir.put(dir, new ArrayList<>());
+    }
+    Files.walkFileTree(dir, finder);
+
+    Set<File> matches = new LinkedHashSet<>();
+    finder.librariesByDir.values().forEach(matches::addAll);
+    finder.librariesByDir.keySet().forEach(d -> matches.add(d.toFile()));
+    matches.addAll(finder.matchedLibraries);
+    matches.addAll(finder.baseDirLibraries);
     return matches;
   }
 
-  private static List<File> getLibs(Path dir) throws IOException {
-    Filter<Path> filter = path -> {
-      String name = path.getFileName().toString();
-      return name.endsWith(".jar") || name.endsWith(".zip") || name.endsWith(".aar");
-    };
-
-    List<File> files = new ArrayList<>();
-    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, filter)) {
-      stream.forEach(p -> files.add(p.toFile()));
-    }
-    return files;
+  private static boolean isLibrary(Path path) {
+    String name = path.getFileName().toString();
+    return name.endsWith(".jar") || name.endsWith(".zip") || name.endsWith(".aar");
   }
 
   private abstract static class AbstractFileFinder extends SimpleFileVisitor<Path> {
@@ -304,6 +305,57 @@ public abstract class AbstractClasspath {
     }
   }
 
+  private static class LibraryAndDirFinder extends SimpleFileVisitor<Path> {
+    @Nullable
+    private final PathMatcher dirMatcher;
+    private final PathMatcher libraryMatcher;
+    @Nullable
+    private final PathMatcher baseDirLibraryMatcher;
+    private final Map<Path, List<File>> librariesByDir = new LinkedHashMap<>();
+    private final Set<File> matchedLibraries = new LinkedHashSet<>();
+    private final Set<File> baseDirLibraries = new LinkedHashSet<>();
+
+    LibraryAndDirFinder(@Nullable PathMatcher dirMatcher, PathMatcher libraryMatcher, @Nullable PathMatcher baseDirLibraryMatcher) {
+      this.dirMatcher = dirMatcher;
+      this.libraryMatcher = libraryMatcher;
+      this.baseDirLibraryMatcher = baseDirLibraryMatcher;
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+      addToParentDir(dir);
+      if (dirMatcher != null && dirMatcher.matches(dir)) {
+        librariesByDir.putIfAbsent(dir, new ArrayList<>());
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attr) {
+      addToParentDir(file);
+      String name = file.getFileName().toString();
+      if (name.endsWith(".jar") || name.endsWith(".zip")) {
+        if (libraryMatcher.matches(file)) {
+          matchedLibraries.add(file.toFile());
+        }
+        if (baseDirLibraryMatcher != null && baseDirLibraryMatcher.matches(file)) {
+          baseDirLibraries.add(file.toFile());
+        }
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    private void addToParentDir(Path path) {
+      Path parent = path.getParent();
+      if (parent != null && isLibrary(path)) {
+        List<File> libraries = librariesByDir.get(parent);
+        if (libraries != null) {
+          libraries.add(path.toFile());
+        }
+      }
+    }
+  }
+
   private static Path resolvePath(Path baseDir, String fileName) {
     Path filePath = Paths.get(fileName);
     if (!filePath.isAbsolute()) {
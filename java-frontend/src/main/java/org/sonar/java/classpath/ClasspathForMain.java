@@ -81,6 +81,10 @@ public class ClasspathForMain extends AbstractClasspath {
     return false;
   }
 
+  public AnalysisWarningsWrapper analysisWarnings() {
+    return analysisWarnings;
+  }
+
   private boolean useDeprecatedProperties() {
     return isNotNullOrEmpty(settings.get("sonar.binaries").orElse(null)) && isNotNullOrEmpty(settings.get("sonar.libraries").orElse(null));
   }
@@ -17,6 +17,8 @@
 package org.sonar.java.model;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
@@ -24,6 +26,7 @@ import org.sonar.api.batch.fs.InputComponent;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.caching.CacheContextImpl;
 import org.sonar.java.reporting.AnalyzerMessage;
+import org.sonar.java.reporting.PendingIssues;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.ModuleScannerContext;
@@ -76,6 +79,20 @@ public class DefaultModuleScannerContext implements ModuleScannerContext {
     sonarComponents.reportIssue(message);
   }
 
+  /**
+   * @return an empty collection of issues to report at the end of the analysis, bounded in memory as configured for the project
+   */
+  public PendingIssues newPendingIssues() {
+    return sonarComponents == null ? new PendingIssues() : sonarComponents.newPendingIssues();
+  }
+
+  /**
+   * @return the binaries and libraries of the main code of the project
+   */
+  public List<File> getJavaClasspath() {
+    return sonarComponents == null ? Collections.emptyList() : sonarComponents.getJavaClasspath();
+  }
+
   @Override
   public File getRootProjectWorkingDirectory() {
     return sonarComponents.projectLevelWorkDir();
@@ -0,0 +1,69 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.eclipse.jdt.core.dom.IAnnotationBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * What is derived from bindings alone, shared by the {@link JSema} of all the files parsed together in a batch, whose bindings
+ * are the same objects: types resolved by name, annotations of packages and names of types. Library types are then looked
+ * up once per batch instead of once per file.
+ * <p>
+ * Symbols and types themselves stay per file, as they give access to the declarations and usages of the file.
+ */
+final class JBindingCache {
+
+  private final Map<String, Optional<ITypeBinding>> typesByName = new ConcurrentHashMap<>();
+  private final Map<String, IAnnotationBinding[]> packageAnnotations = new ConcurrentHashMap<>();
+  private final Map<ITypeBinding, String> fullyQualifiedNames = new ConcurrentHashMap<>();
+
+  @Nullable
+  ITypeBinding resolveType(String name, Function<String, ITypeBinding> resolver) {
+    Optional<ITypeBinding> typeBinding = typesByName.get(name);
+    if (typeBinding == null) {
+      typeBinding = Optional.ofNullable(resolver.apply(name));
+      typesByName.putIfAbsent(name, typeBinding);
+    }
+    return typeBinding.orElse(null);
+  }
+
+  IAnnotationBinding[] packageAnnotations(String packageName, Function<String, IAnnotationBinding[]> resolver) {
+    return packageAnnotations.computeIfAbsent(packageName, resolver);
+  }
+
+  /**
+   * The computation is not done in {@link Map#computeIfAbsent} as it can be recursive, for arrays.
+   */
+  String fullyQualifiedName(ITypeBinding typeBinding, Function<ITypeBinding, String> computation) {
+    String fullyQualifiedName = fullyQualifiedNames.get(typeBinding);
+    if (fullyQualifiedName == null) {
+      fullyQualifiedName = computation.apply(typeBinding);
+      String previous = fullyQualifiedNames.putIfAbsent(typeBinding, fullyQualifiedName);
+      if (previous != null) {
+        fullyQualifiedName = previous;
+      }
+    }
+    return fullyQualifiedName;
+  }
+
+}
@@ -18,10 +18,10 @@ package org.sonar.java.model;
 
 import com.sonar.sslr.api.RecognitionException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -33,7 +33,6 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.eclipse.jdt.core.compiler.IProblem;
-import org.eclipse.jdt.core.compiler.InvalidInputException;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
@@ -149,12 +148,7 @@ import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 import org.eclipse.jdt.core.dom.WhileStatement;
 import org.eclipse.jdt.core.dom.WildcardType;
 import org.eclipse.jdt.core.dom.YieldStatement;
-import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
-import org.eclipse.jdt.internal.compiler.parser.Scanner;
 import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
-import org.eclipse.jdt.internal.formatter.DefaultCodeFormatterOptions;
-import org.eclipse.jdt.internal.formatter.Token;
-import org.eclipse.jdt.internal.formatter.TokenManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.java.annotations.VisibleForTesting;
@@ -292,10 +286,10 @@ public class JParser {
       throw new RecognitionException(-1, "ECJ: Unable to parse file.", e);
     }
 
-    return convert(version, unitName, source, astNode);
+    return convert(version, unitName, source, astNode, new JBindingCache());
   }
 
-  static JavaTree.CompilationUnitTreeImpl convert(String version, String unitName, String source, CompilationUnit astNode) {
+  static JavaTree.CompilationUnitTreeImpl convert(String version, String unitName, String source, CompilationUnit astNode, JBindingCache bindingCache) {
     List<IProblem> errors = Stream.of(astNode.getProblems()).filter(IProblem::isError).toList();
     Optional<IProblem> possibleSyntaxError = errors.stream().filter(IS_SYNTAX_ERROR).findFirst();
     LineColumnConverter lineColumnConverter = new LineColumnConverter(source);
@@ -315,10 +309,10 @@ public class JParser {
       .collect(Collectors.toSet());
 
     JParser converter = new JParser();
-    converter.sema = new JSema(astNode.getAST());
+    converter.sema = new JSema(astNode.getAST(), bindingCache);
     converter.sema.undefinedTypes.addAll(undefinedTypes);
     converter.compilationUnit = astNode;
-    converter.tokenManager = createTokenManager(version, unitName, source);
+    converter.tokens = JTokens.lex(version, unitName, source);
     converter.lineColumnConverter = lineColumnConverter;
 
     JavaTree.CompilationUnitTreeImpl tree = converter.convertCompilationUnit(astNode);
@@ -331,60 +325,46 @@ public class JParser {
     return tree;
   }
 
-  @VisibleForTesting
-  static TokenManager createTokenManager(String version, String unitName, String source) {
-    return new TokenManager(lex(version, unitName, source.toCharArray()), source, new DefaultCodeFormatterOptions(new HashMap<>()));
-  }
-
-  private static void setParents(Tree node) {
-    Iterator<Tree> childrenIterator = iteratorFor(node);
-    while (childrenIterator.hasNext()) {
-      Tree child = childrenIterator.next();
-      ((JavaTree) child).setParent(node);
-      setParents(child);
+  /**
+   * Iterative, as the trees of generated code, for instance of long concatenations, can be deeper than what the stack allows.
+   */
+  private static void setParents(Tree root) {
+    Tree[] treeStack = new Tree[64];
+    int[] childIndexStack = new int[64];
+    treeStack[0] = root;
+    int depth = 1;
+    while (depth > 0) {
+      Tree current = treeStack[depth - 1];
+      List<Tree> children = childrenOf(current);
+      int childIndex = childIndexStack[depth - 1];
+      if (childIndex < children.size()) {
+        childIndexStack[depth - 1] = childIndex + 1;
+        Tree child = children.get(childIndex);
+        ((JavaTree) child).setParent(current);
+        if (depth == treeStack.length) {
+          treeStack = Arrays.copyOf(treeStack, depth * 2);
+          childIndexStack = Arrays.copyOf(childIndexStack, depth * 2);
+        }
+        treeStack[depth] = child;
+        childIndexStack[depth] = 0;
+        depth++;
+      } else {
+        depth--;
+      }
     }
   }
 
-  private static Iterator<Tree> iteratorFor(Tree node) {
+  private static List<Tree> childrenOf(Tree node) {
     if (node.kind() == Tree.Kind.INFERED_TYPE || node.kind() == Tree.Kind.TOKEN) {
       // getChildren throws exception in this case
-      return Collections.emptyIterator();
-    }
-    return ((JavaTree) node).getChildren().iterator();
-  }
-
-  @VisibleForTesting
-  static List<Token> lex(String version, String unitName, char[] sourceChars) {
-    List<Token> tokens = new ArrayList<>();
-    Scanner scanner = new Scanner(
-      true,
-      false,
-      false,
-      CompilerOptions.versionToJdkLevel(version),
-      null,
-      null,
-      false
-    );
-    scanner.fakeInModule = "module-info.java".equals(unitName);
-    scanner.setSource(sourceChars);
-    while (true) {
-      try {
-        int tokenType = scanner.getNextToken();
-        Token token = Token.fromCurrent(scanner, tokenType);
-        tokens.add(token);
-        if (tokenType == TerminalTokens.TokenNameEOF) {
-          break;
-        }
-      } catch (InvalidInputException e) {
-        throw new IllegalStateException(e);
-      }
+      return Collections.emptyList();
     }
-    return tokens;
+    return ((JavaTree) node).getChildren();
   }
 
   private CompilationUnit compilationUnit;
 
-  private TokenManager tokenManager;
+  private JTokens tokens;
   private LineColumnConverter lineColumnConverter;
 
   private JSema sema;
@@ -420,8 +400,8 @@ public class JParser {
   }
 
   private int firstTokenIndexAfter(ASTNode e) {
-    int index = tokenManager.firstIndexAfter(e, ANY_TOKEN);
-    while (isComment(tokenManager.get(index))) {
+    int index = tokens.firstIndexAfter(e, ANY_TOKEN);
+    while (isComment(tokens.type(index))) {
       index++;
     }
     return index;
@@ -434,7 +414,7 @@ public class JParser {
     assert tokenType != ANY_TOKEN;
     do {
       tokenIndex += 1;
-    } while (tokenManager.get(tokenIndex).tokenType != tokenType);
+    } while (tokens.type(tokenIndex) != tokenType);
     return tokenIndex;
   }
 
@@ -442,21 +422,21 @@ public class JParser {
    * @param tokenType {@link TerminalTokens}
    */
   private InternalSyntaxToken firstTokenBefore(ASTNode e, int tokenType) {
-    return createSyntaxToken(tokenManager.firstIndexBefore(e, tokenType));
+    return createSyntaxToken(tokens.firstIndexBefore(e, tokenType));
   }
 
   /**
    * @param tokenType {@link TerminalTokens}
    */
   private InternalSyntaxToken firstTokenAfter(ASTNode e, int tokenType) {
-    return createSyntaxToken(tokenManager.firstIndexAfter(e, tokenType));
+    return createSyntaxToken(tokens.firstIndexAfter(e, tokenType));
   }
 
   /**
    * @param tokenType {@link TerminalTokens}
    */
   private InternalSyntaxToken firstTokenIn(ASTNode e, int tokenType) {
-    return createSyntaxToken(tokenManager.firstIndexIn(e, tokenType));
+    return createSyntaxToken(tokens.firstIndexIn(e, tokenType));
   }
 
   /**
@@ -465,12 +445,12 @@ public class JParser {
    * @return {@link TerminalTokens}
    */
   @VisibleForTesting
-  static int firstIndexIn(TokenManager tokenManager, ASTNode e, int tokenTypeCandidateA, int tokenTypeCandidateB) {
-    int first = tokenManager.firstIndexIn(e, ANY_TOKEN);
-    int last = tokenManager.lastIndexIn(e, ANY_TOKEN);
+  static int firstIndexIn(JTokens tokens, ASTNode e, int tokenTypeCandidateA, int tokenTypeCandidateB) {
+    int first = tokens.firstIndexIn(e, ANY_TOKEN);
+    int last = tokens.lastIndexIn(e, ANY_TOKEN);
     for (int tokenIndex = first; tokenIndex <= last; tokenIndex++) {
-      Token token = tokenManager.get(tokenIndex);
-      if (token.tokenType == tokenTypeCandidateA || token.tokenType == tokenTypeCandidateB) {
+      int tokenType = tokens.type(tokenIndex);
+      if (tokenType == tokenTypeCandidateA || tokenType == tokenTypeCandidateB) {
         return tokenIndex;
       }
     }
@@ -482,44 +462,41 @@ public class JParser {
    * @param tokenType {@link TerminalTokens}
    */
   private InternalSyntaxToken lastTokenIn(ASTNode e, int tokenType) {
-    return createSyntaxToken(tokenManager.lastIndexIn(e, tokenType));
+    return createSyntaxToken(tokens.lastIndexIn(e, tokenType));
   }
 
   private InternalSyntaxToken createSyntaxToken(int tokenIndex) {
-    Token t = tokenManager.get(tokenIndex);
     String value;
     boolean isEOF;
-    if (t.tokenType == TerminalTokens.TokenNameEOF) {
+    if (tokens.type(tokenIndex) == TerminalTokens.TokenNameEOF) {
       isEOF = true;
       value = "";
     } else {
       isEOF = false;
-      value = t.toString(tokenManager.getSource());
+      value = tokens.text(tokenIndex);
     }
-    LineColumnConverter.Pos pos = lineColumnConverter.toPos(t.originalStart);
+    LineColumnConverter.Pos pos = lineColumnConverter.toPos(tokens.start(tokenIndex));
     return new InternalSyntaxToken(pos.line(), pos.columnOffset(), value, collectComments(tokenIndex), isEOF);
   }
 
   private InternalSyntaxToken createSpecialToken(int tokenIndex) {
-    Token t = tokenManager.get(tokenIndex);
-    List<SyntaxTrivia> comments = t.tokenType == TerminalTokens.TokenNameGREATER
+    List<SyntaxTrivia> comments = tokens.type(tokenIndex) == TerminalTokens.TokenNameGREATER
       ? collectComments(tokenIndex)
       : Collections.emptyList();
-    LineColumnConverter.Pos pos = lineColumnConverter.toPos(t.originalEnd);
+    LineColumnConverter.Pos pos = lineColumnConverter.toPos(tokens.end(tokenIndex));
     return new InternalSyntaxToken(pos.line(), pos.columnOffset(), ">", comments, false);
   }
 
   private List<SyntaxTrivia> collectComments(int tokenIndex) {
     int commentIndex = tokenIndex;
-    while (commentIndex > 0 && isComment(tokenManager.get(commentIndex - 1))) {
+    while (commentIndex > 0 && isComment(tokens.type(commentIndex - 1))) {
       commentIndex--;
     }
     List<SyntaxTrivia> comments = new ArrayList<>();
     for (int i = commentIndex; i < tokenIndex; i++) {
-      Token t = tokenManager.get(i);
-      LineColumnConverter.Pos pos = lineColumnConverter.toPos(t.originalStart);
-      comments.add(new InternalSyntaxTrivia(convertTokenTypeToCommentKind(t),
-        t.toString(tokenManager.getSource()),
+      LineColumnConverter.Pos pos = lineColumnConverter.toPos(tokens.start(i));
+      comments.add(new InternalSyntaxTrivia(convertTokenTypeToCommentKind(tokens.type(i)),
+        tokens.text(i),
         pos.line(),
         pos.columnOffset()
       ));
@@ -528,23 +505,23 @@ public class JParser {
   }
 
   @VisibleForTesting
-  static CommentKind convertTokenTypeToCommentKind(Token token) {
-    return switch (token.tokenType) {
+  static CommentKind convertTokenTypeToCommentKind(int tokenType) {
+    return switch (tokenType) {
       case TokenNameCOMMENT_BLOCK -> CommentKind.BLOCK;
       case TokenNameCOMMENT_JAVADOC -> CommentKind.JAVADOC;
       case TokenNameCOMMENT_LINE -> CommentKind.LINE;
       case TokenNameCOMMENT_MARKDOWN -> CommentKind.MARKDOWN;
-      default -> throw new IllegalStateException("Unexpected value: " + token.tokenType);
+      default -> throw new IllegalStateException("Unexpected value: " + tokenType);
     };
   }
 
   /**
-   * {@link Token#isComment()} has an issue https://github.com/eclipse-jdt/eclipse.jdt.core/issues/3914
+   * The {@code isComment()} method of the ECJ formatter tokens has an issue https://github.com/eclipse-jdt/eclipse.jdt.core/issues/3914
    * it does not support Markdown comments. This method has to be used instead.
    */
   @VisibleForTesting
-  static boolean isComment(Token token) {
-    return switch (token.tokenType) {
+  static boolean isComment(int tokenType) {
+    return switch (tokenType) {
       case TokenNameCOMMENT_BLOCK, TokenNameCOMMENT_JAVADOC, TokenNameCOMMENT_LINE, TokenNameCOMMENT_MARKDOWN -> true;
       default -> false;
     };
@@ -552,13 +529,13 @@ public class JParser {
 
   private void addEmptyStatementsToList(int tokenIndex, List list) {
     while (true) {
-      Token token;
+      int tokenType;
       do {
         tokenIndex++;
-        token = tokenManager.get(tokenIndex);
-      } while (isComment(token));
+        tokenType = tokens.type(tokenIndex);
+      } while (isComment(tokenType));
 
-      if (token.tokenType != TerminalTokens.TokenNameSEMICOLON) {
+      if (tokenType != TerminalTokens.TokenNameSEMICOLON) {
         break;
       }
       list.add(new EmptyStatementTreeImpl(createSyntaxToken(tokenIndex)));
@@ -596,7 +573,7 @@ public class JParser {
       t.binding = e2.resolveBinding();
       imports.add(t);
 
-      int tokenIndex = tokenManager.lastIndexIn(e2, TerminalTokens.TokenNameSEMICOLON);
+      int tokenIndex = tokens.lastIndexIn(e2, TerminalTokens.TokenNameSEMICOLON);
       addEmptyStatementsToList(tokenIndex, imports);
     }
 
@@ -883,12 +860,12 @@ public class JParser {
     if (e.getNodeType() == ASTNode.ENUM_DECLARATION) {
       EnumDeclaration enumDeclaration = (EnumDeclaration) e;
       if (!enumDeclaration.enumConstants().isEmpty()) {
-        return tokenManager.firstIndexBefore((ASTNode) enumDeclaration.enumConstants().get(0), TerminalTokens.TokenNameLBRACE);
+        return tokens.firstIndexBefore((ASTNode) enumDeclaration.enumConstants().get(0), TerminalTokens.TokenNameLBRACE);
       }
       if (!enumDeclaration.bodyDeclarations().isEmpty()) {
-        return tokenManager.firstIndexBefore((ASTNode) e.bodyDeclarations().get(0), TerminalTokens.TokenNameLBRACE);
+        return tokens.firstIndexBefore((ASTNode) e.bodyDeclarations().get(0), TerminalTokens.TokenNameLBRACE);
       }
-      return tokenManager.lastIndexIn(e, TerminalTokens.TokenNameLBRACE);
+      return tokens.lastIndexIn(e, TerminalTokens.TokenNameLBRACE);
     }
     if (!e.bodyDeclarations().isEmpty()) {
       // for records, bodyDeclarations may not be in the order encountered in file, for classes they are
@@ -900,9 +877,9 @@ public class JParser {
           firstDeclaration = declaration;
         }
       }
-      return tokenManager.firstIndexBefore(firstDeclaration, TerminalTokens.TokenNameLBRACE);
+      return tokens.firstIndexBefore(firstDeclaration, TerminalTokens.TokenNameLBRACE);
     }
-    return tokenManager.lastIndexIn(e, TerminalTokens.TokenNameLBRACE);
+    return tokens.lastIndexIn(e, TerminalTokens.TokenNameLBRACE);
   }
 
   private void completeSuperInterfaces(AbstractTypeDeclaration e, ClassTreeImpl t) {
@@ -947,7 +924,7 @@ public class JParser {
     final int openParTokenIndex = firstTokenIndexAfter(e.getName());
     final InternalSyntaxToken openParToken;
     final InternalSyntaxToken closeParToken;
-    if (tokenManager.get(openParTokenIndex).tokenType == TerminalTokens.TokenNameLPAREN) {
+    if (tokens.type(openParTokenIndex) == TerminalTokens.TokenNameLPAREN) {
       openParToken = createSyntaxToken(openParTokenIndex);
       closeParToken = e.arguments().isEmpty()
         ? firstTokenAfter(e.getName(), TerminalTokens.TokenNameRPAREN)
@@ -976,7 +953,7 @@ public class JParser {
 
     final int separatorTokenIndex = firstTokenIndexAfter(e);
     final InternalSyntaxToken separatorToken;
-    switch (tokenManager.get(separatorTokenIndex).tokenType) {
+    switch (tokens.type(separatorTokenIndex)) {
       case TerminalTokens.TokenNameCOMMA,
         TerminalTokens.TokenNameSEMICOLON:
         separatorToken = createSyntaxToken(separatorTokenIndex);
@@ -1038,7 +1015,7 @@ public class JParser {
 
   private int processTypeDeclaration(AbstractTypeDeclaration node, List<Tree> members) {
     members.add(convertTypeDeclaration(node));
-    return tokenManager.lastIndexIn(node, TerminalTokens.TokenNameRBRACE);
+    return tokens.lastIndexIn(node, TerminalTokens.TokenNameRBRACE);
   }
 
   private int processAnnotationTypeMemberDeclaration(AnnotationTypeMemberDeclaration e, List<Tree> members) {
@@ -1058,7 +1035,7 @@ public class JParser {
     declaration(t.methodBinding, t);
 
     members.add(t);
-    return tokenManager.lastIndexIn(e, TerminalTokens.TokenNameSEMICOLON);
+    return tokens.lastIndexIn(e, TerminalTokens.TokenNameSEMICOLON);
   }
 
   private int processInitializerDeclaration(Initializer e, List<Tree> members) {
@@ -1076,7 +1053,7 @@ public class JParser {
         blockTree.body(),
         (InternalSyntaxToken) blockTree.closeBraceToken()));
     }
-    return tokenManager.lastIndexIn(e, TerminalTokens.TokenNameRBRACE);
+    return tokens.lastIndexIn(e, TerminalTokens.TokenNameRBRACE);
   }
 
   private int processMethodDeclaration(MethodDeclaration e, List<Tree> members) {
@@ -1125,7 +1102,7 @@ public class JParser {
     declaration(t.methodBinding, t);
 
     members.add(t);
-    return tokenManager.lastIndexIn(e, body == null ? TerminalTokens.TokenNameSEMICOLON : TerminalTokens.TokenNameRBRACE);
+    return tokens.lastIndexIn(e, body == null ? TerminalTokens.TokenNameSEMICOLON : TerminalTokens.TokenNameRBRACE);
   }
 
   private int processFieldDeclaration(FieldDeclaration fieldDeclaration, List<Tree> members) {
@@ -1147,7 +1124,7 @@ public class JParser {
 
       members.add(t);
     }
-    return tokenManager.lastIndexIn(fieldDeclaration, TerminalTokens.TokenNameSEMICOLON);
+    return tokens.lastIndexIn(fieldDeclaration, TerminalTokens.TokenNameSEMICOLON);
   }
 
   private ArgumentListTreeImpl convertArguments(@Nullable InternalSyntaxToken openParen, List<?> list, @Nullable InternalSyntaxToken closeParen) {
@@ -1168,8 +1145,8 @@ public class JParser {
       return null;
     }
     ASTNode last = (ASTNode) list.get(list.size() - 1);
-    int tokenIndex = tokenManager.firstIndexAfter(last, ANY_TOKEN);
-    while (isComment(tokenManager.get(tokenIndex))) {
+    int tokenIndex = tokens.firstIndexAfter(last, ANY_TOKEN);
+    while (isComment(tokens.type(tokenIndex))) {
       tokenIndex++;
     }
     return convertTypeArguments(
@@ -1197,8 +1174,8 @@ public class JParser {
       return new TypeParameterListTreeImpl();
     }
     ASTNode last = (ASTNode) list.get(list.size() - 1);
-    int tokenIndex = tokenManager.firstIndexAfter(last, ANY_TOKEN);
-    while (isComment(tokenManager.get(tokenIndex))) {
+    int tokenIndex = tokens.firstIndexAfter(last, ANY_TOKEN);
+    while (isComment(tokens.type(tokenIndex))) {
       tokenIndex++;
     }
     TypeParameterListTreeImpl t = new TypeParameterListTreeImpl(
@@ -1356,9 +1333,8 @@ public class JParser {
   }
 
   private IdentifierTreeImpl createSimpleName(SimpleName e) {
-    int tokenIndex = firstIndexIn(tokenManager, e, TerminalTokens.TokenNameIdentifier, TerminalTokens.TokenNameUNDERSCORE);
-    Token token = tokenManager.get(tokenIndex);
-    boolean isUnnamedVariable = token.tokenType == TerminalTokens.TokenNameUNDERSCORE;
+    int tokenIndex = firstIndexIn(tokens, e, TerminalTokens.TokenNameIdentifier, TerminalTokens.TokenNameUNDERSCORE);
+    boolean isUnnamedVariable = tokens.type(tokenIndex) == TerminalTokens.TokenNameUNDERSCORE;
     IdentifierTreeImpl t = new IdentifierTreeImpl(createSyntaxToken(tokenIndex), isUnnamedVariable);
     t.typeBinding = e.resolveTypeBinding();
     t.binding = e.resolveBinding();
@@ -1490,12 +1466,12 @@ public class JParser {
     }
 
     final int firstSemicolonTokenIndex = e.initializers().isEmpty()
-      ? tokenManager.firstIndexIn(e, TerminalTokens.TokenNameSEMICOLON)
-      : tokenManager.firstIndexAfter((ASTNode) e.initializers().get(e.initializers().size() - 1), TerminalTokens.TokenNameSEMICOLON);
+      ? tokens.firstIndexIn(e, TerminalTokens.TokenNameSEMICOLON)
+      : tokens.firstIndexAfter((ASTNode) e.initializers().get(e.initializers().size() - 1), TerminalTokens.TokenNameSEMICOLON);
     Expression expression = e.getExpression();
     final int secondSemicolonTokenIndex = expression == null
       ? nextTokenIndex(firstSemicolonTokenIndex, TerminalTokens.TokenNameSEMICOLON)
-      : tokenManager.firstIndexAfter(expression, TerminalTokens.TokenNameSEMICOLON);
+      : tokens.firstIndexAfter(expression, TerminalTokens.TokenNameSEMICOLON);
 
     return new ForStatementTreeImpl(
       firstTokenIn(e, TerminalTokens.TokenNamefor),
@@ -1771,15 +1747,15 @@ public class JParser {
     if (isLast) {
       separators.add(firstTokenAfter(resource, TerminalTokens.TokenNameSEMICOLON));
     } else {
-      int tokenIndex = tokenManager.firstIndexBefore(tryStatement.getBody(), TerminalTokens.TokenNameRPAREN);
+      int tokenIndex = tokens.firstIndexBefore(tryStatement.getBody(), TerminalTokens.TokenNameRPAREN);
       while (true) {
-        Token token;
+        int tokenType;
         do {
           tokenIndex--;
-          token = tokenManager.get(tokenIndex);
-        } while (isComment(token));
+          tokenType = tokens.type(tokenIndex);
+        } while (isComment(tokenType));
 
-        if (token.tokenType != TerminalTokens.TokenNameSEMICOLON) {
+        if (tokenType != TerminalTokens.TokenNameSEMICOLON) {
           break;
         }
         separators.add(createSyntaxToken(tokenIndex));
@@ -2105,7 +2081,7 @@ public class JParser {
       Expression o = (Expression) e.expressions().get(i);
       initializers.add(convertExpression(o));
       final int commaTokenIndex = firstTokenIndexAfter(o);
-      if (tokenManager.get(commaTokenIndex).tokenType == TerminalTokens.TokenNameCOMMA) {
+      if (tokens.type(commaTokenIndex) == TerminalTokens.TokenNameCOMMA) {
         initializers.separators().add(firstTokenAfter(o, TerminalTokens.TokenNameCOMMA));
       }
     }
@@ -2281,7 +2257,7 @@ public class JParser {
         rhs
       );
     } else {
-      final int firstDotTokenIndex = tokenManager.firstIndexAfter(e.getQualifier(), TerminalTokens.TokenNameDOT);
+      final int firstDotTokenIndex = tokens.firstIndexAfter(e.getQualifier(), TerminalTokens.TokenNameDOT);
       AbstractTypedTree qualifier = (AbstractTypedTree) convertExpression(e.getQualifier());
       KeywordSuper keywordSuper = new KeywordSuper(firstTokenAfter(e.getQualifier(), TerminalTokens.TokenNamesuper), null);
       MemberSelectExpressionTreeImpl qualifiedSuper = new MemberSelectExpressionTreeImpl(
@@ -2457,12 +2433,12 @@ public class JParser {
   }
 
   private ExpressionTree convertLiteral(NumberLiteral e) {
-    int tokenIndex = tokenManager.findIndex(e.getStartPosition(), ANY_TOKEN, true);
-    int tokenType = tokenManager.get(tokenIndex).tokenType;
+    int tokenIndex = tokens.findIndex(e.getStartPosition(), ANY_TOKEN, true);
+    int tokenType = tokens.type(tokenIndex);
     boolean unaryMinus = tokenType == TerminalTokens.TokenNameMINUS;
     if (unaryMinus) {
       tokenIndex++;
-      tokenType = tokenManager.get(tokenIndex).tokenType;
+      tokenType = tokens.type(tokenIndex);
     }
     ExpressionTree result;
     switch (tokenType) {
@@ -2640,7 +2616,7 @@ public class JParser {
   private TypeTree convertArrayType(ArrayType e) {
     @Nullable ITypeBinding elementTypeBinding = e.getElementType().resolveBinding();
     TypeTree t = convertType(e.getElementType());
-    int tokenIndex = tokenManager.firstIndexAfter(e.getElementType(), TerminalTokens.TokenNameLBRACKET);
+    int tokenIndex = tokens.firstIndexAfter(e.getElementType(), TerminalTokens.TokenNameLBRACKET);
     for (int i = 0; i < e.dimensions().size(); i++) {
       if (i > 0) {
         tokenIndex = nextTokenIndex(tokenIndex, TerminalTokens.TokenNameLBRACKET);
@@ -19,6 +19,7 @@ package org.sonar.java.model;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -39,6 +40,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.java.AnalysisException;
+import org.sonar.java.AnalysisProfiler;
 import org.sonar.java.AnalysisProgress;
 import org.sonar.java.ExecutionTimeReport;
 import org.sonar.java.ProgressMonitor;
@@ -59,11 +61,31 @@ public abstract class JParserConfig {
   final JavaVersion javaVersion;
   final List<File> classpath;
   final boolean shouldIgnoreUnnamedModuleForSplitPackage;
+  // computed once, as the parser is created for each file in file by file mode
+  private final Map<String, String> compilerOptions;
+  private final String[] classpathEntries;
+  private final boolean includeRunningVMBootclasspath;
+  boolean keepClasspathWarm = false;
 
   private JParserConfig(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage) {
     this.javaVersion = javaVersion;
     this.classpath = classpath;
     this.shouldIgnoreUnnamedModuleForSplitPackage = shouldIgnoreUnnamedModuleForSplitPackage;
+    this.compilerOptions = compilerOptions(javaVersion, shouldIgnoreUnnamedModuleForSplitPackage);
+    this.classpathEntries = classpath.stream()
+      .map(File::getAbsolutePath)
+      .toArray(String[]::new);
+    this.includeRunningVMBootclasspath = classpath.stream()
+      .noneMatch(f -> JRE_JARS.contains(f.getName()));
+  }
+
+  /**
+   * Keeps the archives of the classpath open after the analysis, so that the next analyses of the same JVM with the same classpath
+   * do not read them again. Only used in file by file mode.
+   */
+  public JParserConfig keepClasspathWarm(boolean keepClasspathWarm) {
+    this.keepClasspathWarm = keepClasspathWarm;
+    return this;
   }
 
   public abstract void parse(Iterable<? extends InputFile> inputFiles, BooleanSupplier isCanceled,
@@ -115,6 +137,17 @@ public abstract class JParserConfig {
 
   public ASTParser astParser() {
     ASTParser astParser = ASTParser.newParser(AST.getJLSLatest());
+    // the options are copied by the parser
+    astParser.setCompilerOptions(compilerOptions);
+    astParser.setEnvironment(classpathEntries, new String[] {}, new String[] {}, includeRunningVMBootclasspath);
+
+    astParser.setResolveBindings(true);
+    astParser.setBindingsRecovery(true);
+
+    return astParser;
+  }
+
+  private static Map<String, String> compilerOptions(JavaVersion javaVersion, boolean shouldIgnoreUnnamedModuleForSplitPackage) {
     Map<String, String> options = new HashMap<>(JavaCore.getOptions());
     JavaCore.setComplianceOptions(javaVersion.effectiveJavaVersionAsString(), options);
     options.put(JavaCore.COMPILER_PB_MAX_PER_UNIT, MAXIMUM_ECJ_WARNINGS);
@@ -127,20 +160,7 @@ public abstract class JParserConfig {
     // enabling all supported compiler warnings
     JProblem.Type.compilerOptions()
       .forEach(option -> options.put(option, "warning"));
-
-    astParser.setCompilerOptions(options);
-
-    boolean includeRunningVMBootclasspath = classpath.stream()
-      .noneMatch(f -> JRE_JARS.contains(f.getName()));
-
-    astParser.setEnvironment(classpath.stream()
-      .map(File::getAbsolutePath)
-      .toArray(String[]::new), new String[] {}, new String[] {}, includeRunningVMBootclasspath);
-
-    astParser.setResolveBindings(true);
-    astParser.setBindingsRecovery(true);
-
-    return astParser;
+    return Collections.unmodifiableMap(options);
   }
 
   @VisibleForTesting
@@ -168,7 +188,11 @@ public abstract class JParserConfig {
 
       ExecutionTimeReport executionTimeReport = new ExecutionTimeReport();
       ProgressMonitor monitor = new ProgressMonitor(isCanceled, analysisProgress);
+      // bindings of the files of a batch are shared, so are the data derived from them
+      JBindingCache bindingCache = new JBindingCache();
       PerformanceMeasure.Duration batchPerformance = PerformanceMeasure.start("ParseAsBatch");
+      // the analysis of the files, done by the requestor, is measured separately
+      AnalysisProfiler.Sample parseSample = AnalysisProfiler.start(AnalysisProfiler.Phase.PARSE);
       try {
         astParser().createASTs(sourceFilePaths.toArray(new String[0]), encodings.toArray(new String[0]), new String[0], new FileASTRequestor() {
           @Override
@@ -178,7 +202,7 @@ public abstract class JParserConfig {
             executionTimeReport.start(inputFile);
             Result result;
             try {
-              result = new Result(JParser.convert(javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents(), ast));
+              result = new Result(JParser.convert(javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents(), ast, bindingCache));
             } catch (Exception e) {
               result = new Result(e);
             }
@@ -203,6 +227,7 @@ public abstract class JParserConfig {
           fallbackToFileByFileMode(notYetAnalyzedFiles.stream().toList(), isCanceled, action);
         }
       } finally {
+        parseSample.stop();
         batchPerformance.stop();
         // ExecutionTimeReport will not include the parsing time by file when using batch mode.
         executionTimeReport.reportAsBatch();
@@ -240,6 +265,12 @@ public abstract class JParserConfig {
         .map(InputFile::toString)
         .toList();
       progressReport.start(filesNames);
+      if (keepClasspathWarm) {
+        WarmClasspath.SHARED.retain(classpath);
+      } else {
+        // archives kept open by previous analyses stay locked until released
+        WarmClasspath.SHARED.release();
+      }
       try {
         for (InputFile inputFile : inputFiles) {
           if (isCanceled.getAsBoolean()) {
@@ -265,11 +296,13 @@ public abstract class JParserConfig {
     private static void parse(ASTParser astParser, InputFile inputFile, JavaVersion javaVersion, BiConsumer<InputFile, Result> action) {
       Result result;
       PerformanceMeasure.Duration parseDuration = PerformanceMeasure.start("JParser");
+      AnalysisProfiler.Sample parseSample = AnalysisProfiler.start(AnalysisProfiler.Phase.PARSE);
       try {
         result = new Result(JParser.parse(astParser, javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents()));
       } catch (Exception e) {
         result = new Result(e);
       } finally {
+        parseSample.stop();
         parseDuration.stop();
       }
       action.accept(inputFile, result);
@@ -41,6 +41,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 public final class JSema implements Sema {
 
   private final AST ast;
+  private final JBindingCache bindingCache;
   final Set<JProblem> undefinedTypes = new HashSet<>();
   final Map<IBinding, Tree> declarations = new HashMap<>();
   final Map<IBinding, List<IdentifierTree>> usages = new HashMap<>();
@@ -52,7 +53,15 @@ public final class JSema implements Sema {
   private final Map<String, Type> nameToTypeCache = new HashMap<>();
 
   JSema(AST ast) {
+    this(ast, new JBindingCache());
+  }
+
+  /**
+   * @param bindingCache shared by the files parsed in the same batch as this one
+   */
+  JSema(AST ast, JBindingCache bindingCache) {
     this.ast = ast;
+    this.bindingCache = bindingCache;
   }
 
   public JType type(ITypeBinding typeBinding) {
@@ -125,6 +134,11 @@ public final class JSema implements Sema {
 
   @Nullable
   ITypeBinding resolveType(String name) {
+    return bindingCache.resolveType(name, this::resolveTypeInEnvironment);
+  }
+
+  @Nullable
+  private ITypeBinding resolveTypeInEnvironment(String name) {
     int dimensions = 0;
     int end = name.length() - 1;
     while (name.charAt(end) == ']') {
@@ -144,7 +158,11 @@ public final class JSema implements Sema {
   }
 
   IAnnotationBinding[] resolvePackageAnnotations(String packageName) {
-    return ASTUtils.resolvePackageAnnotations(ast, packageName);
+    return bindingCache.packageAnnotations(packageName, name -> ASTUtils.resolvePackageAnnotations(ast, name));
+  }
+
+  String fullyQualifiedName(ITypeBinding typeBinding) {
+    return bindingCache.fullyQualifiedName(typeBinding, JType::fullyQualifiedName);
   }
 
   public Runnable getEnvironmentCleaner() {
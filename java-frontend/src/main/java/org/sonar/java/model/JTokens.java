@@ -0,0 +1,192 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.Arrays;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.parser.Scanner;
+import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
+
+/**
+ * Tokens of a compilation unit, comments included, stored as parallel arrays of types and of start and end offsets in the source,
+ * instead of one object per token.
+ * <p>
+ * Lookups follow the ones of the ECJ formatter {@code TokenManager}: a token type of {@code -1} matches any token, and restricted
+ * keywords, such as {@code record} or {@code permits}, match the identifiers spelled the same.
+ */
+final class JTokens {
+
+  static final int ANY_TOKEN = -1;
+
+  private final String source;
+  private int size;
+  private int[] types;
+  private int[] starts;
+  private int[] ends;
+
+  private JTokens(String source) {
+    this.source = source;
+    // roughly one token every 4 characters
+    int capacity = Math.max(16, source.length() / 4);
+    types = new int[capacity];
+    starts = new int[capacity];
+    ends = new int[capacity];
+  }
+
+  static JTokens lex(String version, String unitName, String source) {
+    JTokens tokens = new JTokens(source);
+    char[] sourceChars = source.toCharArray();
+    Scanner scanner = new Scanner(
+      true,
+      false,
+      false,
+      CompilerOptions.versionToJdkLevel(version),
+      null,
+      null,
+      false
+    );
+    scanner.fakeInModule = "module-info.java".equals(unitName);
+    scanner.setSource(sourceChars);
+    while (true) {
+      int tokenType;
+      try {
+        tokenType = scanner.getNextToken();
+      } catch (InvalidInputException e) {
+        throw new IllegalStateException(e);
+      }
+      int start = scanner.getCurrentTokenStartPosition();
+      int end = scanner.getCurrentTokenEndPosition();
+      if (tokenType == TerminalTokens.TokenNameCOMMENT_LINE || tokenType == TerminalTokens.TokenNameCOMMENT_MARKDOWN) {
+        // as the formatter tokens, line comments do not include the line terminator
+        while (end > start && (sourceChars[end] == '\r' || sourceChars[end] == '\n')) {
+          end--;
+        }
+      }
+      tokens.add(tokenType, start, end);
+      if (tokenType == TerminalTokens.TokenNameEOF) {
+        tokens.trim();
+        return tokens;
+      }
+    }
+  }
+
+  private void add(int type, int start, int end) {
+    if (size == types.length) {
+      int capacity = size * 2;
+      types = Arrays.copyOf(types, capacity);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+    }
+    types[size] = type;
+    starts[size] = start;
+    ends[size] = end;
+    size++;
+  }
+
+  /**
+   * Lookups going past the first or the last token then fail, as with the formatter tokens.
+   */
+  private void trim() {
+    types = Arrays.copyOf(types, size);
+    starts = Arrays.copyOf(starts, size);
+    ends = Arrays.copyOf(ends, size);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return {@link TerminalTokens}
+   */
+  int type(int index) {
+    return types[index];
+  }
+
+  int start(int index) {
+    return starts[index];
+  }
+
+  /**
+   * @return offset of the last character of the token
+   */
+  int end(int index) {
+    return ends[index];
+  }
+
+  String text(int index) {
+    return source.substring(starts[index], ends[index] + 1);
+  }
+
+  int firstIndexIn(ASTNode node, int tokenType) {
+    return findIndex(node.getStartPosition(), tokenType, true);
+  }
+
+  int lastIndexIn(ASTNode node, int tokenType) {
+    return findIndex(node.getStartPosition() + node.getLength() - 1, tokenType, false);
+  }
+
+  int firstIndexAfter(ASTNode node, int tokenType) {
+    return findIndex(node.getStartPosition() + node.getLength(), tokenType, true);
+  }
+
+  int firstIndexBefore(ASTNode node, int tokenType) {
+    return findIndex(node.getStartPosition() - 1, tokenType, false);
+  }
+
+  /**
+   * @param tokenType {@link TerminalTokens} or {@link #ANY_TOKEN}
+   * @return index of the first token of the given type from the token at the given position, searching forward or backward
+   */
+  int findIndex(int position, int tokenType, boolean forward) {
+    int left = 0;
+    int right = size - 1;
+    while (left < right) {
+      int middle = (left + right) / 2;
+      if (starts[middle] <= position && position <= ends[middle]) {
+        left = middle;
+        break;
+      }
+      if (ends[middle] < position) {
+        left = middle + 1;
+      } else {
+        right = middle - 1;
+      }
+    }
+    int index = left;
+    if (!forward && starts[index] > position) {
+      index--;
+    }
+    if (forward && ends[index] < position) {
+      index++;
+    }
+    while (tokenType >= 0 && types[index] != tokenType && !matchesIdentifier(index, tokenType)) {
+      index += forward ? 1 : -1;
+    }
+    return index;
+  }
+
+  private boolean matchesIdentifier(int index, int tokenType) {
+    if (types[index] == TerminalTokens.TokenNameIdentifier && TerminalTokens.isRestrictedKeyword(tokenType)) {
+      return tokenType == TerminalTokens.getRestrictedKeyword(text(index));
+    }
+    return types[index] == TerminalTokens.TokenNameUNDERSCORE && tokenType == TerminalTokens.TokenNameIdentifier;
+  }
+
+}
@@ -59,7 +59,7 @@ final class JType implements Type, Type.ArrayType {
   JType(JSema sema, ITypeBinding typeBinding) {
     this.sema = Objects.requireNonNull(sema);
     this.typeBinding = Objects.requireNonNull(typeBinding);
-    this.fullyQualifiedName = fullyQualifiedName(typeBinding);
+    this.fullyQualifiedName = sema.fullyQualifiedName(typeBinding);
   }
 
   @Override
@@ -209,7 +209,7 @@ final class JType implements Type, Type.ArrayType {
     return fullyQualifiedName;
   }
 
-  private static String fullyQualifiedName(ITypeBinding typeBinding) {
+  static String fullyQualifiedName(ITypeBinding typeBinding) {
     if (typeBinding.isNullType()) {
       return "<nulltype>";
     } else if (typeBinding.isPrimitive()) {
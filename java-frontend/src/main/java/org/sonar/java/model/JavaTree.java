@@ -16,6 +16,7 @@
  */
 package org.sonar.java.model;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -71,23 +72,40 @@ public abstract class JavaTree implements Tree {
 
   public List<SyntaxToken> allTokens() {
     List<SyntaxToken> list = new ArrayList<>();
-    if (this instanceof SyntaxToken st) {
-      list.add(st);
-    } else {
-      for (Tree tree : children) {
-        list.addAll(((JavaTree) tree).allTokens());
+    Deque<Tree> stack = new ArrayDeque<>();
+    stack.push(this);
+    while (!stack.isEmpty()) {
+      Tree tree = stack.pop();
+      if (tree instanceof SyntaxToken st) {
+        list.add(st);
+      } else {
+        List<Tree> trees = ((JavaTree) tree).children;
+        for (int index = trees.size() - 1; index >= 0; index--) {
+          stack.push(trees.get(index));
+        }
       }
     }
     return list;
   }
 
+  /**
+   * Iterative, as the trees of generated code, for instance of long concatenations, can be deeper than what the stack allows.
+   * Trees with their own definition of their first token are asked for it.
+   */
   @Override
   @Nullable
   public SyntaxToken firstToken() {
-    for (Tree child : getChildren()) {
-      SyntaxToken first = child.firstToken();
-      if (first != null) {
-        return first;
+    Deque<Tree> stack = new ArrayDeque<>();
+    pushChildren(this, stack, false);
+    while (!stack.isEmpty()) {
+      Tree tree = stack.pop();
+      if (tree instanceof JavaTree javaTree && !javaTree.isLeaf() && javaTree.hasDefaultFirstToken()) {
+        pushChildren(javaTree, stack, false);
+      } else {
+        SyntaxToken first = tree.firstToken();
+        if (first != null) {
+          return first;
+        }
       }
     }
     return null;
@@ -96,16 +114,43 @@ public abstract class JavaTree implements Tree {
   @Override
   @Nullable
   public SyntaxToken lastToken() {
-    List<Tree> trees = getChildren();
-    for (int index = trees.size() - 1; index >= 0; index--) {
-      SyntaxToken last = trees.get(index).lastToken();
-      if (last != null) {
-        return last;
+    Deque<Tree> stack = new ArrayDeque<>();
+    pushChildren(this, stack, true);
+    while (!stack.isEmpty()) {
+      Tree tree = stack.pop();
+      if (tree instanceof JavaTree javaTree && !javaTree.isLeaf()) {
+        pushChildren(javaTree, stack, true);
+      } else {
+        SyntaxToken last = tree.lastToken();
+        if (last != null) {
+          return last;
+        }
       }
     }
     return null;
   }
 
+  /**
+   * Pushes the children so that they are popped in their order, or in reverse order.
+   */
+  private static void pushChildren(JavaTree tree, Deque<Tree> stack, boolean reverse) {
+    List<Tree> trees = tree.getChildren();
+    if (reverse) {
+      trees.forEach(stack::push);
+    } else {
+      for (int index = trees.size() - 1; index >= 0; index--) {
+        stack.push(trees.get(index));
+      }
+    }
+  }
+
+  /**
+   * @return false when {@link #firstToken()} is overridden
+   */
+  protected boolean hasDefaultFirstToken() {
+    return true;
+  }
+
   public int getLine() {
     SyntaxToken firstSyntaxToken = firstToken();
     if (firstSyntaxToken == null) {
@@ -144,10 +189,17 @@ public abstract class JavaTree implements Tree {
   protected abstract List<Tree> children();
 
   public List<Tree> getChildren() {
-    if(children == null) {
-      children = children().stream()
-        .filter(Objects::nonNull)
-        .toList();
+    if (children == null) {
+      List<Tree> trees = children();
+      Tree[] nonNullTrees = new Tree[trees.size()];
+      int count = 0;
+      for (Tree tree : trees) {
+        if (tree != null) {
+          nonNullTrees[count] = tree;
+          count++;
+        }
+      }
+      children = Collections.unmodifiableList(Arrays.asList(count == nonNullTrees.length ? nonNullTrees : Arrays.copyOf(nonNullTrees, count)));
     }
     return children;
   }
@@ -20,10 +20,13 @@ import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.InterruptedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -35,9 +38,11 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.check.Rule;
 import org.sonar.java.AnalysisException;
+import org.sonar.java.AnalysisProfiler;
 import org.sonar.java.CheckFailureException;
 import org.sonar.java.ExceptionHandler;
 import org.sonar.java.IllegalRuleParameterException;
+import org.sonar.java.RuleTimeBudget;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.java.ast.visitors.SonarSymbolTableVisitor;
@@ -47,6 +52,7 @@ import org.sonar.java.classpath.DependencyVersionInference;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.exceptions.ThrowableUtils;
 import org.sonar.plugins.java.api.DependencyVersionAware;
+import org.sonar.plugins.java.api.FileLocalCheck;
 import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaCheck;
@@ -60,6 +66,7 @@ import org.sonar.plugins.java.api.internal.EndOfAnalysis;
 import org.sonar.plugins.java.api.semantic.Sema;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonarsource.performance.measure.PerformanceMeasure;
@@ -71,6 +78,7 @@ public class VisitorsBridge {
   private final Iterable<? extends JavaCheck> visitors;
   private final List<JavaFileScanner> allScanners;
   private final List<JavaFileScanner> scannersThatCannotBeSkipped;
+  private final Map<InputFile, List<JavaFileScanner>> scannersRequiringParsingByFile = new HashMap<>();
   private final SonarComponents sonarComponents;
   protected InputFile currentFile;
   protected final JavaVersion javaVersion;
@@ -81,6 +89,8 @@ public class VisitorsBridge {
   @VisibleForTesting
   CacheContext cacheContext;
   private final DependencyVersionInference dependencyService;
+  @Nullable
+  private RuleTimeBudget ruleTimeBudget;
 
   @VisibleForTesting
   public VisitorsBridge(JavaFileScanner visitor) {
@@ -162,7 +172,8 @@ public class VisitorsBridge {
   }
 
   static boolean canVisitorBeSkippedOnUnchangedFiles(Object visitor) {
-    return !(visitor instanceof EndOfAnalysis) && visitor.getClass().getCanonicalName().startsWith("org.sonar.java.checks.");
+    return !(visitor instanceof EndOfAnalysis)
+      && (visitor instanceof FileLocalCheck || visitor.getClass().getCanonicalName().startsWith("org.sonar.java.checks."));
   }
 
   public JavaVersion getJavaVersion() {
@@ -199,6 +210,7 @@ public class VisitorsBridge {
       for (var scanner : scannersThatCannotBeSkipped) {
         boolean exceptionIsBlownUp = false;
         PerformanceMeasure.Duration scannerDuration = PerformanceMeasure.start(scanner);
+        AnalysisProfiler.Sample scannerSample = AnalysisProfiler.startRule(scanner);
         try {
           if (scanner.scanWithoutParsing(fileScannerContext)) {
             scannersNotRequiringParsing.add(scanner);
@@ -213,6 +225,7 @@ public class VisitorsBridge {
         } catch (Exception e) {
           exceptionIsBlownUp = true;
           allScansSucceeded = false;
+          scannersRequiringParsing.add(scanner);
           String failureMessage = String.format(
             "Scan without parsing of file %s failed for scanner %s.",
             inputFile,
@@ -222,6 +235,7 @@ public class VisitorsBridge {
           interruptIfFailFast(new CheckFailureException(failureMessage, e));
           exceptionIsBlownUp = false;
         } finally {
+          scannerSample.stop();
           scannerDuration.stop();
           if (exceptionIsBlownUp) {
             duration.stop();
@@ -233,6 +247,10 @@ public class VisitorsBridge {
       LOG.trace("Scanners that do not require parsing of {}: {}", inputFile, scannersNotRequiringParsing);
       LOG.debug("Scanners that require parsing of {}: {}", inputFile, scannersRequiringParsing);
 
+      if (!allScansSucceeded) {
+        // Scanners that already succeeded without parsing are not run again once the file has been parsed
+        scannersRequiringParsingByFile.put(inputFile, scannersRequiringParsing);
+      }
       return allScansSucceeded;
     } else {
       return false;
@@ -245,36 +263,100 @@ public class VisitorsBridge {
     } else {
       fullyScannedFileCount++;
     }
+    ruleTimeBudget = sonarComponents == null ? null : sonarComponents.ruleTimeBudget();
+    if (ruleTimeBudget == null) {
+      scanFile(parsedTree, fileCanBeSkipped);
+      return;
+    }
+    ruleTimeBudget.startFile(currentFile);
+    try {
+      scanFile(parsedTree, fileCanBeSkipped);
+    } finally {
+      // saves the issues of the rules which stayed within their budget
+      ruleTimeBudget.endFile();
+    }
+  }
 
+  private void scanFile(@Nullable Tree parsedTree, boolean fileCanBeSkipped) {
     PerformanceMeasure.Duration compilationUnitDuration = PerformanceMeasure.start("CompilationUnit");
     JavaTree.CompilationUnitTreeImpl tree = new JavaTree.CompilationUnitTreeImpl(null, new ArrayList<>(), new ArrayList<>(), null, null);
     compilationUnitDuration.stop();
 
     PerformanceMeasure.Duration symbolTableDuration = PerformanceMeasure.start("SymbolTable");
+    AnalysisProfiler.Sample semanticSample = AnalysisProfiler.start(AnalysisProfiler.Phase.SEMANTIC);
     boolean fileParsed = parsedTree != null;
-    if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
-      tree = (JavaTree.CompilationUnitTreeImpl) parsedTree;
-      createSonarSymbolTable(tree);
+    try {
+      if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
+        tree = (JavaTree.CompilationUnitTreeImpl) parsedTree;
+        createSonarSymbolTable(tree);
+      }
+    } finally {
+      semanticSample.stop();
+      symbolTableDuration.stop();
     }
-    symbolTableDuration.stop();
 
     JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, tree.sema, sonarComponents, fileParsed);
     var scanners = getScanners(fileCanBeSkipped);
 
     PerformanceMeasure.Duration scannersDuration = PerformanceMeasure.start("Scanners");
-    for (JavaFileScanner scanner : scanners) {
-      PerformanceMeasure.Duration scannerDuration = PerformanceMeasure.start(scanner);
-      try {
-        runScanner(javaFileScannerContext, scanner);
-      } catch (CheckFailureException e) {
-        interruptIfFailFast(e);
-      } finally {
-        scannerDuration.stop();
+    AnalysisProfiler.Sample visitSample = AnalysisProfiler.start(AnalysisProfiler.Phase.VISIT);
+    try {
+      for (JavaFileScanner scanner : scanners) {
+        PerformanceMeasure.Duration scannerDuration = PerformanceMeasure.start(scanner);
+        AnalysisProfiler.Sample scannerSample = startProfilerSample(scanner);
+        // the time of the subscription visitors is measured for each of them by their runner
+        boolean hasTimeBudget = !(scanner instanceof IssuableSubscriptionVisitorsRunner) && !(scanner instanceof RuleTimeBudget.OwnTimeBudget);
+        long start = startTimeBudget();
+        try {
+          runScanner(javaFileScannerContext, scanner);
+        } catch (CheckFailureException e) {
+          interruptIfFailFast(e);
+        } finally {
+          if (hasTimeBudget) {
+            stopTimeBudget(scanner, start);
+          }
+          scannerSample.stop();
+          scannerDuration.stop();
+        }
       }
+    } finally {
+      visitSample.stop();
+      AnalysisProfiler.endFile(currentFile);
     }
     scannersDuration.stop();
   }
 
+  private long startTimeBudget() {
+    return ruleTimeBudget == null ? 0L : ruleTimeBudget.start();
+  }
+
+  private void stopTimeBudget(JavaCheck rule, long start) {
+    if (ruleTimeBudget != null) {
+      ruleTimeBudget.stop(rule, start);
+    }
+  }
+
+  private boolean isCancelled(JavaCheck rule) {
+    return ruleTimeBudget != null && ruleTimeBudget.isCancelled(rule);
+  }
+
+  /**
+   * @return true if the call to the given rule is to be skipped, as it is cancelled on the file, see {@link RuleTimeBudget#skip}
+   */
+  private boolean skip(JavaCheck rule) {
+    return ruleTimeBudget != null && ruleTimeBudget.skip(rule);
+  }
+
+  /**
+   * The runner of the subscription visitors is not a rule: its own time is the one of the traversal of the tree.
+   */
+  private static AnalysisProfiler.Sample startProfilerSample(JavaFileScanner scanner) {
+    if (scanner instanceof IssuableSubscriptionVisitorsRunner) {
+      return AnalysisProfiler.start(AnalysisProfiler.Phase.VISIT, "IssuableSubscriptionVisitors");
+    }
+    return AnalysisProfiler.startRule(scanner);
+  }
+
   private void interruptIfFailFast(CheckFailureException e) {
     if (sonarComponents != null && sonarComponents.shouldFailAnalysisOnException()) {
       throw new AnalysisException("Failing check", e);
@@ -288,27 +370,36 @@ public class VisitorsBridge {
   private void runScanner(Runnable action, JavaFileScanner scanner) throws CheckFailureException {
     try {
       action.run();
-    } catch (IllegalRuleParameterException e) {
+    } catch (RuntimeException e) {
+      throw checkFailure(e, scanner);
+    }
+  }
+
+  /**
+   * @return the failure to report for an exception thrown by a scanner, unless the exception has to interrupt the analysis
+   * in which case it is rethrown directly
+   */
+  private CheckFailureException checkFailure(RuntimeException e, JavaFileScanner scanner) {
+    if (e instanceof IllegalRuleParameterException) {
       // bad configuration of a rule parameter, we want to fail analysis fast.
       throw new AnalysisException("Bad configuration of rule parameter", e);
-    } catch (Exception e) {
-      Throwable rootCause = ThrowableUtils.getRootCause(e);
-      if (rootCause instanceof InterruptedIOException
-        || rootCause instanceof InterruptedException
-        || rootCause instanceof CancellationException
-        || analysisCancelled()) {
-        throw e;
-      }
+    }
+    Throwable rootCause = ThrowableUtils.getRootCause(e);
+    if (rootCause instanceof InterruptedIOException
+      || rootCause instanceof InterruptedException
+      || rootCause instanceof CancellationException
+      || analysisCancelled()) {
+      throw e;
+    }
 
-      String message = String.format(
-        "Unable to run check %s - %s on file '%s', To help improve the SonarSource Java Analyzer, please report this problem to SonarSource: see https://community.sonarsource" +
-          ".com/",
-        scanner.getClass(), ruleKey(scanner), currentFile);
+    String message = String.format(
+      "Unable to run check %s - %s on file '%s', To help improve the SonarSource Java Analyzer, please report this problem to SonarSource: see https://community.sonarsource" +
+        ".com/",
+      scanner.getClass(), ruleKey(scanner), currentFile);
 
-      LOG.error(message, e);
+    LOG.error(message, e);
 
-      throw new CheckFailureException(message, e);
-    }
+    return new CheckFailureException(message, e);
   }
 
   private boolean analysisCancelled() {
@@ -365,10 +456,16 @@ public class VisitorsBridge {
   }
 
   private List<JavaFileScanner> getScanners(boolean supportedScannersCanBeSkippedForThisFile) {
-    return supportedScannersCanBeSkippedForThisFile ? scannersThatCannotBeSkipped : allScanners;
+    List<JavaFileScanner> scannersRequiringParsing = currentFile == null ? null : scannersRequiringParsingByFile.remove(currentFile);
+    if (!supportedScannersCanBeSkippedForThisFile) {
+      return allScanners;
+    }
+    return scannersRequiringParsing != null ? scannersRequiringParsing : scannersThatCannotBeSkipped;
   }
 
   public void processRecognitionException(RecognitionException e, InputFile inputFile) {
+    // the file will not be visited once parsed, the scanners left to run on it are forgotten
+    scannersRequiringParsingByFile.remove(inputFile);
     if (sonarComponents == null || !sonarComponents.reportAnalysisError(e, inputFile)) {
       this.visitFile(null, false);
       getScanners(false).stream()
@@ -377,11 +474,19 @@ public class VisitorsBridge {
     }
   }
 
+  /**
+   * Forgets the scanners left to run on the files of a batch which were not visited, because their batch failed or was cancelled.
+   */
+  public void endOfBatch(Collection<? extends InputFile> batchFiles) {
+    batchFiles.forEach(scannersRequiringParsingByFile::remove);
+  }
+
   public void setCurrentFile(InputFile inputFile) {
     this.currentFile = inputFile;
   }
 
   public void endOfAnalysis() {
+    scannersRequiringParsingByFile.clear();
     if (skippedFileCount > 0) {
       LOG.info("Optimized analysis for {} of {} files.", skippedFileCount, skippedFileCount + fullyScannedFileCount);
     } else if (fullyScannedFileCount > 0) {
@@ -397,18 +502,45 @@ public class VisitorsBridge {
   }
 
   private class IssuableSubscriptionVisitorsRunner implements JavaFileScanner, EndOfAnalysis {
-    private EnumMap<Tree.Kind, List<SubscriptionVisitor>> checks;
+    private static final SubscriptionVisitor[] NO_VISITORS = new SubscriptionVisitor[0];
+    private static final AnalysisProfiler.Sample NO_SAMPLE = () -> {
+    };
+    private static final int INITIAL_STACK_DEPTH = 64;
+
+    /**
+     * Subscribed visitors indexed by {@link Tree.Kind#ordinal()}, so that dispatching a node is a plain array lookup.
+     */
+    private final SubscriptionVisitor[][] visitorsByKind;
     private List<SubscriptionVisitor> subscriptionVisitors;
+    /**
+     * Stack of the trees currently being visited and the index of their next child to visit, reused across files.
+     */
+    private Tree[] treeStack = new Tree[INITIAL_STACK_DEPTH];
+    private int[] childIndexStack = new int[INITIAL_STACK_DEPTH];
+    /**
+     * Trees which each visitor cancelled on the file had entered when it got cancelled, indexed by their depth, for it to still
+     * leave them.
+     */
+    private final Map<SubscriptionVisitor, Tree[]> enteredTreesOfCancelledVisitors = new IdentityHashMap<>();
+    /**
+     * Whether the visitors are sampled by the {@link AnalysisProfiler}, decided once per file.
+     */
+    private boolean profiled = false;
 
     IssuableSubscriptionVisitorsRunner() {
-      checks = new EnumMap<>(Tree.Kind.class);
+      visitorsByKind = new SubscriptionVisitor[Tree.Kind.values().length][];
+      Arrays.fill(visitorsByKind, NO_VISITORS);
       this.subscriptionVisitors = new ArrayList<>();
     }
 
     private void add(SubscriptionVisitor subscriptionVisitor) {
       this.subscriptionVisitors.add(subscriptionVisitor);
-      subscriptionVisitor.nodesToVisit()
-        .forEach(k -> checks.computeIfAbsent(k, key -> new ArrayList<>()).add(subscriptionVisitor));
+      subscriptionVisitor.nodesToVisit().forEach(kind -> {
+        SubscriptionVisitor[] visitors = visitorsByKind[kind.ordinal()];
+        SubscriptionVisitor[] extended = Arrays.copyOf(visitors, visitors.length + 1);
+        extended[visitors.length] = subscriptionVisitor;
+        visitorsByKind[kind.ordinal()] = extended;
+      });
     }
 
     @Override
@@ -416,6 +548,7 @@ public class VisitorsBridge {
       boolean allScansSucceeded = true;
       for (SubscriptionVisitor visitor : subscriptionVisitors) {
         PerformanceMeasure.Duration duration = PerformanceMeasure.start(visitor);
+        AnalysisProfiler.Sample visitorSample = AnalysisProfiler.startRule(visitor);
         try {
           allScansSucceeded &= visitor.scanWithoutParsing(fileScannerContext);
         } catch (Exception e) {
@@ -428,6 +561,7 @@ public class VisitorsBridge {
           LOG.warn(failureMessage);
           interruptIfFailFast(new CheckFailureException(failureMessage, e));
         } finally {
+          visitorSample.stop();
           duration.stop();
         }
       }
@@ -437,6 +571,7 @@ public class VisitorsBridge {
     @Override
     public void scanFile(JavaFileScannerContext javaFileScannerContext) {
       PerformanceMeasure.Duration issuableSubscriptionVisitorsDuration = PerformanceMeasure.start("IssuableSubscriptionVisitors");
+      profiled = AnalysisProfiler.isActive();
       try {
         forEach(subscriptionVisitors, s -> s.setContext(javaFileScannerContext));
         visit(javaFileScannerContext.getTree());
@@ -444,6 +579,7 @@ public class VisitorsBridge {
       } catch (CheckFailureException e) {
         interruptIfFailFast(e);
       } finally {
+        enteredTreesOfCancelledVisitors.clear();
         issuableSubscriptionVisitorsDuration.stop();
       }
     }
@@ -456,44 +592,184 @@ public class VisitorsBridge {
         .forEach(check -> check.endOfAnalysis(cachedContext));
     }
 
-    private void visitChildren(Tree tree) throws CheckFailureException {
-      JavaTree javaTree = (JavaTree) tree;
-      if (!javaTree.isLeaf()) {
-        for (Tree next : javaTree.getChildren()) {
-          if (next != null) {
-            visit(next);
+    private void visit(Tree root) throws CheckFailureException {
+      if (!enter(root, 0)) {
+        return;
+      }
+      treeStack[0] = root;
+      childIndexStack[0] = 0;
+      int depth = 1;
+      while (depth > 0) {
+        Tree current = treeStack[depth - 1];
+        List<Tree> children = ((JavaTree) current).getChildren();
+        int childIndex = childIndexStack[depth - 1];
+        if (childIndex < children.size()) {
+          childIndexStack[depth - 1] = childIndex + 1;
+          Tree child = children.get(childIndex);
+          if (enter(child, depth)) {
+            if (depth == treeStack.length) {
+              treeStack = Arrays.copyOf(treeStack, depth * 2);
+              childIndexStack = Arrays.copyOf(childIndexStack, depth * 2);
+            }
+            treeStack[depth] = child;
+            childIndexStack[depth] = 0;
+            depth++;
           }
+        } else {
+          depth--;
+          treeStack[depth] = null;
+          leaveNode(current, depth);
         }
       }
     }
 
-    private void visit(Tree tree) throws CheckFailureException {
+    /**
+     * Notifies the visitors subscribed to the kind of the given tree.
+     *
+     * @param depth the position of the tree in the stack of the trees being visited
+     * @return true if the children of the tree still have to be visited, in which case the tree has to be left once done
+     */
+    private boolean enter(Tree tree, int depth) throws CheckFailureException {
       Kind kind = tree.kind();
-      List<SubscriptionVisitor> subscribed = checks.getOrDefault(kind, Collections.emptyList());
-      Consumer<SubscriptionVisitor> callback;
-      boolean isToken = (kind == Tree.Kind.TOKEN);
-      if (isToken) {
-        callback = s -> s.visitToken((SyntaxToken) tree);
-      } else {
-        callback = s -> s.visitNode(tree);
+      if (kind == Tree.Kind.TOKEN) {
+        visitToken((SyntaxToken) tree, depth);
+        return false;
       }
-      forEach(subscribed, callback);
-      if (isToken) {
-        forEach(checks.getOrDefault(Tree.Kind.TRIVIA, Collections.emptyList()), s -> ((SyntaxToken) tree).trivias().forEach(s::visitTrivia));
-      } else {
-        visitChildren(tree);
+      for (SubscriptionVisitor visitor : visitorsByKind[kind.ordinal()]) {
+        if (skip(visitor)) {
+          continue;
+        }
+        PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
+        AnalysisProfiler.Sample visitorSample = startRuleSample(visitor);
+        long start = startTimeBudget();
+        try {
+          visitor.visitNode(tree);
+        } catch (RuntimeException e) {
+          throw checkFailure(e, visitor);
+        } finally {
+          // a visitor cancelled while visiting the tree still has to leave it
+          stopTimeBudget(visitor, start, tree, depth);
+          visitorSample.stop();
+          visitorDuration.stop();
+        }
       }
-      if (!isToken) {
-        forEach(subscribed, s -> s.leaveNode(tree));
+      if (((JavaTree) tree).isLeaf()) {
+        leaveNode(tree, depth);
+        return false;
       }
+      return true;
     }
 
-    private final void forEach(Collection<SubscriptionVisitor> visitors, Consumer<SubscriptionVisitor> callback) throws CheckFailureException {
+    /**
+     * Visitors cancelled on the file still leave the trees they entered before their cancellation, so that they can keep their
+     * state balanced, as they may not reset it when starting the next file.
+     */
+    private void leaveNode(Tree tree, int depth) throws CheckFailureException {
+      for (SubscriptionVisitor visitor : visitorsByKind[tree.kind().ordinal()]) {
+        if (isCancelled(visitor) && !enteredBeforeCancellation(visitor, tree, depth)) {
+          continue;
+        }
+        PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
+        AnalysisProfiler.Sample visitorSample = startRuleSample(visitor);
+        long start = startTimeBudget();
+        try {
+          visitor.leaveNode(tree);
+        } catch (RuntimeException e) {
+          throw checkFailure(e, visitor);
+        } finally {
+          stopTimeBudget(visitor, start, null, depth);
+          visitorSample.stop();
+          visitorDuration.stop();
+        }
+      }
+    }
+
+    private void visitToken(SyntaxToken token, int depth) throws CheckFailureException {
+      for (SubscriptionVisitor visitor : visitorsByKind[Tree.Kind.TOKEN.ordinal()]) {
+        if (skip(visitor)) {
+          continue;
+        }
+        PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
+        AnalysisProfiler.Sample visitorSample = startRuleSample(visitor);
+        long start = startTimeBudget();
+        try {
+          visitor.visitToken(token);
+        } catch (RuntimeException e) {
+          throw checkFailure(e, visitor);
+        } finally {
+          stopTimeBudget(visitor, start, null, depth);
+          visitorSample.stop();
+          visitorDuration.stop();
+        }
+      }
+      SubscriptionVisitor[] triviaVisitors = visitorsByKind[Tree.Kind.TRIVIA.ordinal()];
+      if (triviaVisitors.length == 0) {
+        return;
+      }
+      List<SyntaxTrivia> trivias = token.trivias();
+      for (SubscriptionVisitor visitor : triviaVisitors) {
+        if (skip(visitor)) {
+          continue;
+        }
+        PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
+        AnalysisProfiler.Sample visitorSample = startRuleSample(visitor);
+        long start = startTimeBudget();
+        try {
+          for (int i = 0; i < trivias.size(); i++) {
+            visitor.visitTrivia(trivias.get(i));
+          }
+        } catch (RuntimeException e) {
+          throw checkFailure(e, visitor);
+        } finally {
+          stopTimeBudget(visitor, start, null, depth);
+          visitorSample.stop();
+          visitorDuration.stop();
+        }
+      }
+    }
+
+    /**
+     * Called for all the visitors, including the ones cancelled on the file, so that they start and end each file.
+     */
+    private void forEach(Collection<SubscriptionVisitor> visitors, Consumer<SubscriptionVisitor> callback) throws CheckFailureException {
       for (SubscriptionVisitor visitor : visitors) {
         PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
-        runScanner(() -> callback.accept(visitor), visitor);
+        AnalysisProfiler.Sample visitorSample = startRuleSample(visitor);
+        long start = startTimeBudget();
+        try {
+          runScanner(() -> callback.accept(visitor), visitor);
+        } finally {
+          stopTimeBudget(visitor, start, null, 0);
+          visitorSample.stop();
+        }
         visitorDuration.stop();
       }
     }
+
+    private AnalysisProfiler.Sample startRuleSample(SubscriptionVisitor visitor) {
+      return profiled ? AnalysisProfiler.startRule(visitor) : NO_SAMPLE;
+    }
+
+    /**
+     * Charges the time of a call to the budget of the visitor. When the visitor gets cancelled by this call, the trees it entered
+     * so far are recorded, to still leave them.
+     *
+     * @param enteredTree the tree entered by the call, if any, on top of the ones of the stack
+     * @param depth the number of trees of the stack entered before the call
+     */
+    private void stopTimeBudget(SubscriptionVisitor visitor, long start, @Nullable Tree enteredTree, int depth) {
+      if (ruleTimeBudget != null && ruleTimeBudget.stop(visitor, start)) {
+        Tree[] enteredTrees = Arrays.copyOf(treeStack, enteredTree == null ? depth : (depth + 1));
+        if (enteredTree != null) {
+          enteredTrees[depth] = enteredTree;
+        }
+        enteredTreesOfCancelledVisitors.put(visitor, enteredTrees);
+      }
+    }
+
+    private boolean enteredBeforeCancellation(SubscriptionVisitor visitor, Tree tree, int depth) {
+      Tree[] enteredTrees = enteredTreesOfCancelledVisitors.get(visitor);
+      return enteredTrees != null && depth < enteredTrees.length && enteredTrees[depth] == tree;
+    }
   }
 }
@@ -0,0 +1,129 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Archives of classpaths kept open from one analysis to the next, for the file by file mode used by SonarLint. ECJ opens the
+ * archives of the classpath for each parsed file, and closes them once the file is analyzed. As long as an archive is open
+ * somewhere in the JVM, reopening it reuses its already read central directory instead of reading it again.
+ * <p>
+ * The archives of the last few classpaths are kept, so that alternating between projects does not reopen them each time. The
+ * archives of a classpath are reopened when its fingerprint, made of the sizes and modification dates of its entries, changes.
+ * Note that open archives are locked on Windows: they are all released as soon as an analysis does not keep its classpath warm.
+ */
+final class WarmClasspath {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WarmClasspath.class);
+
+  static final int MAX_CLASSPATHS = 3;
+
+  /**
+   * Shared by all the analyses run by the same class loader, which SonarLint keeps between analyses.
+   */
+  static final WarmClasspath SHARED = new WarmClasspath();
+
+  /**
+   * Open archives by the paths of the entries of their classpath, from the least to the most recently used.
+   */
+  private final Map<List<String>, OpenArchives> openArchivesByClasspath = new LinkedHashMap<>(MAX_CLASSPATHS + 1, 0.75f, true);
+
+  /**
+   * @return true when the archives of the classpath had to be (re)opened
+   */
+  synchronized boolean retain(List<File> classpath) {
+    List<Entry> fingerprint = fingerprint(classpath);
+    List<String> paths = fingerprint.stream().map(Entry::path).toList();
+    OpenArchives previous = openArchivesByClasspath.get(paths);
+    if (previous != null) {
+      if (previous.fingerprint.equals(fingerprint)) {
+        return false;
+      }
+      previous.close();
+    }
+    openArchivesByClasspath.put(paths, open(classpath, fingerprint));
+    Iterator<OpenArchives> leastRecentlyUsed = openArchivesByClasspath.values().iterator();
+    while (openArchivesByClasspath.size() > MAX_CLASSPATHS) {
+      leastRecentlyUsed.next().close();
+      leastRecentlyUsed.remove();
+    }
+    return true;
+  }
+
+  synchronized void release() {
+    openArchivesByClasspath.values().forEach(OpenArchives::close);
+    openArchivesByClasspath.clear();
+  }
+
+  synchronized int openArchiveCount() {
+    return openArchivesByClasspath.values().stream().mapToInt(openArchives -> openArchives.archives.size()).sum();
+  }
+
+  private static OpenArchives open(List<File> classpath, List<Entry> fingerprint) {
+    List<ZipFile> archives = new ArrayList<>();
+    for (File file : classpath) {
+      if (file.isFile() && isArchive(file.getName())) {
+        try {
+          archives.add(new ZipFile(file));
+        } catch (IOException e) {
+          LOG.debug("Unable to keep {} open: {}", file, e.getMessage());
+        }
+      }
+    }
+    LOG.debug("Keeping {} archives of the classpath open for the next analyses.", archives.size());
+    return new OpenArchives(fingerprint, archives);
+  }
+
+  private static List<Entry> fingerprint(List<File> classpath) {
+    List<Entry> entries = new ArrayList<>(classpath.size());
+    for (File file : classpath) {
+      entries.add(new Entry(file.getAbsolutePath(), file.lastModified(), file.length()));
+    }
+    return entries;
+  }
+
+  private static boolean isArchive(String fileName) {
+    return fileName.endsWith(".jar") || fileName.endsWith(".zip");
+  }
+
+  private record Entry(String path, long lastModified, long length) {
+  }
+
+  private record OpenArchives(List<Entry> fingerprint, List<ZipFile> archives) {
+
+    void close() {
+      for (ZipFile archive : archives) {
+        try {
+          archive.close();
+        } catch (IOException e) {
+          LOG.debug("Unable to close {}: {}", archive.getName(), e.getMessage());
+        }
+      }
+    }
+  }
+
+}
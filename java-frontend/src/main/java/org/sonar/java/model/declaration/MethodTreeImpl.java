@@ -48,6 +48,7 @@ import org.sonar.plugins.java.api.tree.TreeVisitor;
 import org.sonar.plugins.java.api.tree.TypeParameters;
 import org.sonar.plugins.java.api.tree.TypeTree;
 import org.sonar.plugins.java.api.tree.VariableTree;
+import org.sonarsource.performance.measure.PerformanceMeasure;
 
 public class MethodTreeImpl extends JavaTree implements MethodTree {
 
@@ -250,7 +251,9 @@ public class MethodTreeImpl extends JavaTree implements MethodTree {
       return null;
     }
     if (cfg == null) {
+      PerformanceMeasure.Duration duration = PerformanceMeasure.start("CFG");
       cfg = CFG.build(this);
+      duration.stop();
     }
     return cfg;
   }
@@ -75,6 +75,11 @@ public class MethodInvocationTreeImpl extends AssessableExpressionTree implement
     return super.firstToken();
   }
 
+  @Override
+  protected boolean hasDefaultFirstToken() {
+    return typeArguments() == null || !methodSelect.is(Tree.Kind.MEMBER_SELECT);
+  }
+
   @Override
   public ExpressionTree methodSelect() {
     return methodSelect;
@@ -32,6 +32,7 @@ import org.sonar.api.batch.sensor.issue.fix.NewInputFileEdit;
 import org.sonar.api.batch.sensor.issue.fix.NewQuickFix;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.java.Preconditions;
+import org.sonar.java.RuleTimeBudget;
 import org.sonar.java.SonarComponents;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -229,7 +230,13 @@ public class InternalJavaIssueBuilder implements JavaIssueBuilderExtended {
 
     handleQuickFixes(ruleKeyVal, newIssue);
 
-    newIssue.save();
+    RuleTimeBudget ruleTimeBudget = sonarComponents.ruleTimeBudget();
+    if (ruleTimeBudget == null) {
+      newIssue.save();
+    } else {
+      // issues are discarded if the rule gets cancelled on the file
+      ruleTimeBudget.saveIssue(rule, inputFile, newIssue::save);
+    }
     reported = true;
   }
 
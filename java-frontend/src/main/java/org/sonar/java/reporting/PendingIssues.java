@@ -0,0 +1,250 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.reporting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.plugins.java.api.JavaCheck;
+
+/**
+ * Issues which are only known to be reported at the end of the analysis, collected by rules implementing
+ * {@link org.sonar.plugins.java.api.internal.EndOfAnalysis}. Each issue belongs to a group, for instance a package, chosen by the
+ * rule to decide at the end which ones to report.
+ * <p>
+ * Issues are kept in memory up to the given size. Beyond it, the ones in memory are written to a temporary file and read back
+ * when iterated, so that the memory used by a rule does not grow with the size of the project. Iteration follows the order in
+ * which the issues were added.
+ */
+public final class PendingIssues {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PendingIssues.class);
+
+  private static final String DEFAULT_GROUP = "";
+
+  private final long maxSizeInMemory;
+  @Nullable
+  private final File spillDirectory;
+
+  private final List<String> groups = new ArrayList<>();
+  private final List<AnalyzerMessage> messages = new ArrayList<>();
+  private long sizeInMemory = 0L;
+
+  @Nullable
+  private File spillFile = null;
+  private int spilledCount = 0;
+  private boolean spillFailed = false;
+  private final List<JavaCheck> spilledChecks = new ArrayList<>();
+  private final Map<JavaCheck, Integer> spilledCheckIndexes = new IdentityHashMap<>();
+  private final List<InputComponent> spilledComponents = new ArrayList<>();
+  private final Map<InputComponent, Integer> spilledComponentIndexes = new IdentityHashMap<>();
+
+  /**
+   * Pending issues which are all kept in memory.
+   */
+  public PendingIssues() {
+    this(-1L, null);
+  }
+
+  /**
+   * @param maxSizeInMemory estimated size, in bytes, of the issues kept in memory before writing them to a file, or a negative value
+   *                        to keep all of them in memory
+   * @param spillDirectory  directory of the temporary file, the default temporary directory when null
+   */
+  public PendingIssues(long maxSizeInMemory, @Nullable File spillDirectory) {
+    this.maxSizeInMemory = maxSizeInMemory;
+    this.spillDirectory = spillDirectory;
+  }
+
+  public void add(AnalyzerMessage message) {
+    add(DEFAULT_GROUP, message);
+  }
+
+  public void add(String group, AnalyzerMessage message) {
+    groups.add(group);
+    messages.add(message);
+    sizeInMemory += estimatedSize(group) + estimatedSize(message);
+    if (maxSizeInMemory >= 0 && !spillFailed && sizeInMemory > maxSizeInMemory) {
+      spill();
+    }
+  }
+
+  public int size() {
+    return spilledCount + messages.size();
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void forEach(Consumer<AnalyzerMessage> action) {
+    forEachWithGroup((group, message) -> action.accept(message));
+  }
+
+  public void forEachWithGroup(BiConsumer<String, AnalyzerMessage> action) {
+    if (spillFile != null) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile.toPath())))) {
+        for (int i = 0; i < spilledCount; i++) {
+          String group = in.readUTF();
+          action.accept(group, readMessage(in));
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Unable to read pending issues from " + spillFile, e);
+      }
+    }
+    for (int i = 0; i < messages.size(); i++) {
+      action.accept(groups.get(i), messages.get(i));
+    }
+  }
+
+  /**
+   * Forgets all the issues, and deletes the temporary file if any.
+   */
+  public void clear() {
+    groups.clear();
+    messages.clear();
+    sizeInMemory = 0L;
+    if (spillFile != null) {
+      try {
+        Files.deleteIfExists(spillFile.toPath());
+      } catch (IOException e) {
+        LOG.debug("Unable to delete {}", spillFile, e);
+      }
+      spillFile = null;
+    }
+    spilledCount = 0;
+    spillFailed = false;
+    spilledChecks.clear();
+    spilledCheckIndexes.clear();
+    spilledComponents.clear();
+    spilledComponentIndexes.clear();
+  }
+
+  private void spill() {
+    try {
+      if (spillFile == null) {
+        spillFile = File.createTempFile("java-pending-issues", ".bin", spillDirectory);
+        spillFile.deleteOnExit();
+      }
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile.toPath(),
+        StandardOpenOption.APPEND)))) {
+        for (int i = 0; i < messages.size(); i++) {
+          out.writeUTF(groups.get(i));
+          writeMessage(out, messages.get(i));
+        }
+      }
+    } catch (IOException e) {
+      // issues stay in memory from now on
+      LOG.warn("Unable to write pending issues to disk, they are kept in memory: {}", e.getMessage());
+      spillFailed = true;
+      return;
+    }
+    spilledCount += messages.size();
+    groups.clear();
+    messages.clear();
+    sizeInMemory = 0L;
+  }
+
+  private void writeMessage(DataOutputStream out, AnalyzerMessage message) throws IOException {
+    out.writeInt(index(message.getCheck(), spilledChecks, spilledCheckIndexes));
+    out.writeInt(index(message.getInputComponent(), spilledComponents, spilledComponentIndexes));
+    byte[] text = message.getMessage().getBytes(StandardCharsets.UTF_8);
+    out.writeInt(text.length);
+    out.write(text);
+    Double cost = message.getCost();
+    out.writeInt(cost == null ? 0 : cost.intValue());
+    AnalyzerMessage.TextSpan textSpan = message.primaryLocation();
+    out.writeBoolean(textSpan != null);
+    if (textSpan != null) {
+      out.writeInt(textSpan.startLine);
+      out.writeInt(textSpan.startCharacter);
+      out.writeInt(textSpan.endLine);
+      out.writeInt(textSpan.endCharacter);
+    }
+    out.writeInt(message.flows.size());
+    for (List<AnalyzerMessage> flow : message.flows) {
+      out.writeInt(flow.size());
+      for (AnalyzerMessage location : flow) {
+        writeMessage(out, location);
+      }
+    }
+  }
+
+  private AnalyzerMessage readMessage(DataInputStream in) throws IOException {
+    JavaCheck check = spilledChecks.get(in.readInt());
+    InputComponent component = spilledComponents.get(in.readInt());
+    byte[] text = new byte[in.readInt()];
+    in.readFully(text);
+    int cost = in.readInt();
+    AnalyzerMessage.TextSpan textSpan = null;
+    if (in.readBoolean()) {
+      textSpan = new AnalyzerMessage.TextSpan(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+    }
+    AnalyzerMessage message = new AnalyzerMessage(check, component, textSpan, new String(text, StandardCharsets.UTF_8), cost);
+    int flowCount = in.readInt();
+    for (int i = 0; i < flowCount; i++) {
+      int locationCount = in.readInt();
+      List<AnalyzerMessage> flow = new ArrayList<>();
+      for (int j = 0; j < locationCount; j++) {
+        flow.add(readMessage(in));
+      }
+      message.flows.add(flow);
+    }
+    return message;
+  }
+
+  private static <T> int index(T value, List<T> values, Map<T, Integer> indexes) {
+    return indexes.computeIfAbsent(value, v -> {
+      values.add(v);
+      return values.size() - 1;
+    });
+  }
+
+  private static long estimatedSize(String string) {
+    return 40L + 2L * string.length();
+  }
+
+  private static long estimatedSize(AnalyzerMessage message) {
+    // the message, its text span and its list of flows
+    long size = 120L + estimatedSize(message.getMessage());
+    for (List<AnalyzerMessage> flow : message.flows) {
+      size += 40L;
+      for (AnalyzerMessage location : flow) {
+        size += estimatedSize(location);
+      }
+    }
+    return size;
+  }
+
+}
@@ -0,0 +1,30 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.plugins.java.api;
+
+import org.sonar.java.annotations.Beta;
+
+/**
+ * Implementing this interface declares that the issues raised by a check on a file only depend on the content of this file.
+ * <br />
+ * When the analysis is able to skip unchanged files, such checks are not executed on them: their issues are kept from the previous
+ * analysis. Checks implementing {@link org.sonar.plugins.java.api.internal.EndOfAnalysis}, which need to see all the files, are
+ * always executed.
+ */
+@Beta
+public interface FileLocalCheck {
+}
@@ -0,0 +1,62 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.util.OptionalLong;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBatchSizeTest {
+
+  @Test
+  void size_grows_while_heap_usage_is_low() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(10_000L, 1_000_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(10_000L);
+    assertThat(batchSize.update(OptionalLong.empty())).isEqualTo(20_000L);
+    assertThat(batchSize.update(OptionalLong.of(100_000L))).isEqualTo(40_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(40_000L);
+  }
+
+  @Test
+  void size_is_kept_when_heap_usage_is_close_to_the_budget() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(10_000L, 1_000_000L);
+    assertThat(batchSize.update(OptionalLong.of(500_000L))).isEqualTo(10_000L);
+    assertThat(batchSize.update(OptionalLong.of(1_000_000L))).isEqualTo(10_000L);
+  }
+
+  @Test
+  void size_shrinks_when_heap_usage_exceeds_the_budget() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(10_000L, 1_000_000L);
+    assertThat(batchSize.update(OptionalLong.of(1_000_001L))).isEqualTo(5_000L);
+  }
+
+  @Test
+  void size_is_bounded() {
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(0L, 1_000_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(1_000L);
+    for (int i = 0; i < 10; i++) {
+      batchSize.update(OptionalLong.empty());
+    }
+    assertThat(batchSize.sizeInBytes()).isEqualTo(1_000L * AdaptiveBatchSize.MAX_FACTOR);
+    for (int i = 0; i < 20; i++) {
+      batchSize.update(OptionalLong.of(2_000_000L));
+    }
+    assertThat(batchSize.sizeInBytes()).isEqualTo(31L);
+  }
+
+}
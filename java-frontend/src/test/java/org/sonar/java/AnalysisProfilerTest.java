@@ -0,0 +1,181 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.java.AnalysisProfiler.Phase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AnalysisProfilerTest {
+
+  @TempDir
+  Path tempDir;
+
+  @AfterEach
+  void deactivate() {
+    AnalysisProfiler.deactivate();
+  }
+
+  @Test
+  void nothing_is_recorded_when_not_active() {
+    assertThat(AnalysisProfiler.isActive()).isFalse();
+    AnalysisProfiler.Sample sample = AnalysisProfiler.start(Phase.PARSE);
+    assertThat(AnalysisProfiler.startRule(new RuleA())).isSameAs(sample);
+    sample.stop();
+    AnalysisProfiler.endFile("A.java");
+
+    AnalysisProfiler profiler = AnalysisProfiler.activate();
+    assertThat(AnalysisProfiler.isActive()).isTrue();
+    assertThat(profiler.rules()).isEmpty();
+    assertThat(profiler.hotspots()).isEmpty();
+    assertThat(profiler.collapsedStacks()).isEmpty();
+    assertThat(profiler.phases().values()).extracting(AnalysisProfiler.Measure::calls).containsOnly(0L);
+  }
+
+  @Test
+  void samples_are_nested_and_only_count_their_own_time() {
+    AnalysisProfiler profiler = AnalysisProfiler.activate();
+    AnalysisProfiler.Sample parse = AnalysisProfiler.start(Phase.PARSE);
+    burnCpu();
+    AnalysisProfiler.Sample visit = AnalysisProfiler.start(Phase.VISIT);
+    for (int i = 0; i < 3; i++) {
+      AnalysisProfiler.Sample rule = AnalysisProfiler.startRule(new RuleA());
+      burnCpu();
+      rule.stop();
+    }
+    AnalysisProfiler.Sample traversal = AnalysisProfiler.start(Phase.VISIT, "Traversal");
+    AnalysisProfiler.Sample rule = AnalysisProfiler.startRule(new RuleB());
+    burnCpu();
+    rule.stop();
+    traversal.stop();
+    visit.stop();
+    parse.stop();
+    AnalysisProfiler.deactivate();
+
+    assertThat(profiler.rules())
+      .extracting(AnalysisProfiler.Measure::name, AnalysisProfiler.Measure::calls)
+      .containsExactlyInAnyOrder(
+        tuple(RuleA.class.getName(), 3L),
+        tuple(RuleB.class.getName(), 1L));
+    Map<Phase, AnalysisProfiler.Measure> phases = profiler.phases();
+    assertThat(phases.get(Phase.PARSE).calls()).isEqualTo(1L);
+    assertThat(phases.get(Phase.SEMANTIC).calls()).isZero();
+    // the visit phase, the traversal and the rules
+    assertThat(phases.get(Phase.VISIT).calls()).isEqualTo(6L);
+
+    assertThat(profiler.collapsedStacks())
+      .anyMatch(line -> line.startsWith("parse "))
+      .anyMatch(line -> line.startsWith("parse;visit;" + RuleA.class.getName() + " "))
+      .anyMatch(line -> line.startsWith("parse;visit;Traversal;" + RuleB.class.getName() + " "))
+      .allMatch(line -> line.matches("[^ ]++ \\d++"));
+    long total = phases.values().stream().mapToLong(AnalysisProfiler.Measure::cpuTimeNanos).sum();
+    long rules = profiler.rules().stream().mapToLong(AnalysisProfiler.Measure::cpuTimeNanos).sum();
+    assertThat(rules).isPositive().isLessThanOrEqualTo(total);
+    assertThat(phases.get(Phase.PARSE).cpuTimeNanos()).isPositive();
+  }
+
+  @Test
+  void most_expensive_rules_on_files_are_reported_as_hotspots() {
+    AnalysisProfiler profiler = AnalysisProfiler.activate();
+    for (int i = 0; i < 120; i++) {
+      AnalysisProfiler.startRule(new RuleA()).stop();
+      AnalysisProfiler.endFile("File" + i + ".java");
+    }
+    AnalysisProfiler.Sample rule = AnalysisProfiler.startRule(new RuleB());
+    burnCpu();
+    rule.stop();
+    AnalysisProfiler.endFile("Expensive.java");
+
+    assertThat(profiler.hotspots()).hasSize(100);
+    AnalysisProfiler.Hotspot first = profiler.hotspots().get(0);
+    assertThat(first.rule()).isEqualTo(RuleB.class.getName());
+    assertThat(first.file()).isEqualTo("Expensive.java");
+  }
+
+  @Test
+  void report_is_written_as_json_and_collapsed_stacks() throws IOException {
+    AnalysisProfiler profiler = AnalysisProfiler.activate();
+    AnalysisProfiler.Sample rule = AnalysisProfiler.startRule(new RuleA());
+    burnCpu();
+    rule.stop();
+    AnalysisProfiler.endFile("src/\"quoted\"\\\tFile.java");
+    Path directory = tempDir.resolve("work");
+    profiler.writeReport(directory);
+
+    String json = Files.readString(directory.resolve(AnalysisProfiler.JSON_REPORT), StandardCharsets.UTF_8);
+    assertThat(json)
+      .startsWith("{\n  \"cpuTimeSupported\": ")
+      .contains("\"phases\": [\n    {\"name\": \"parse\", \"calls\": 0, \"cpuTimeNanos\": 0, \"allocatedBytes\": 0},")
+      .contains("{\"name\": \"" + RuleA.class.getName() + "\", \"calls\": 1, \"cpuTimeNanos\": ")
+      .contains("\"file\": \"src/\\\"quoted\\\"\\\\\\u0009File.java\"");
+    assertThat(Files.readAllLines(directory.resolve(AnalysisProfiler.COLLAPSED_STACKS_REPORT)))
+      .containsExactlyElementsOf(profiler.collapsedStacks())
+      .hasSize(1);
+  }
+
+  @Test
+  void profiler_is_only_active_for_the_analysis_which_activated_it_and_the_threads_it_starts() throws InterruptedException {
+    AnalysisProfiler profiler = AnalysisProfiler.activate();
+    Thread startedByTheAnalysis = new Thread(() -> AnalysisProfiler.startRule(new RuleA()).stop());
+    startedByTheAnalysis.start();
+    startedByTheAnalysis.join();
+
+    // an other analysis, running concurrently, activates and deactivates its own profiler
+    AnalysisProfiler[] otherProfiler = new AnalysisProfiler[1];
+    Thread otherAnalysis = new Thread(() -> {
+      AnalysisProfiler.deactivate();
+      otherProfiler[0] = AnalysisProfiler.activate();
+      AnalysisProfiler.startRule(new RuleB()).stop();
+      AnalysisProfiler.deactivate();
+    });
+    otherAnalysis.start();
+    otherAnalysis.join();
+    AnalysisProfiler.startRule(new RuleA()).stop();
+
+    assertThat(profiler.rules())
+      .extracting(AnalysisProfiler.Measure::name, AnalysisProfiler.Measure::calls)
+      .containsExactly(tuple(RuleA.class.getName(), 2L));
+    assertThat(otherProfiler[0].rules())
+      .extracting(AnalysisProfiler.Measure::name)
+      .containsExactly(RuleB.class.getName());
+  }
+
+  private static void burnCpu() {
+    long start = System.nanoTime();
+    long sum = 0;
+    while (System.nanoTime() - start < 5_000_000L) {
+      sum += Long.numberOfTrailingZeros(sum + start);
+    }
+    assertThat(sum).isNotNegative();
+  }
+
+  private static class RuleA {
+  }
+
+  private static class RuleB {
+  }
+
+}
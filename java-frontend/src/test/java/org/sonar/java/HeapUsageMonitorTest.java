@@ -0,0 +1,40 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.util.OptionalLong;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeapUsageMonitorTest {
+
+  @Test
+  void peak_heap_usage_after_gc_is_taken_once() throws InterruptedException {
+    try (HeapUsageMonitor monitor = new HeapUsageMonitor()) {
+      OptionalLong peak = OptionalLong.empty();
+      for (int i = 0; i < 100 && peak.isEmpty(); i++) {
+        System.gc();
+        Thread.sleep(20);
+        peak = monitor.takePeakUsedAfterGc();
+      }
+      assertThat(peak).isPresent();
+      assertThat(peak.getAsLong()).isPositive().isLessThanOrEqualTo(Runtime.getRuntime().maxMemory());
+    }
+  }
+
+}
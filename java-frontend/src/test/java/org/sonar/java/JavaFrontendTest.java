@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Rule;
@@ -66,7 +67,15 @@ import org.sonar.plugins.java.api.JavaResourceLocator;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.ModuleScannerContext;
 import org.sonar.plugins.java.api.internal.EndOfAnalysis;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -398,6 +407,11 @@ class JavaFrontendTest {
     assertThat(frontend.isFileByFileEnabled()).isFalse();
     assertThat(frontend.analysisCancelled()).isFalse();
     assertThat(frontend.getBatchModeSizeInKB()).isEqualTo(-1L);
+    assertThat(frontend.getBatchModeThreads()).isEqualTo(1);
+    assertThat(frontend.getPipelineQueueSizeInKB()).isEqualTo(-1L);
+    assertThat(frontend.getAdaptiveBatchMaxHeapRatio()).isEqualTo(-1.0);
+    assertThat(frontend.isBatchModeOrderedByDependencies()).isFalse();
+    assertThat(frontend.isProfilerEnabled()).isFalse();
   }
 
   @Test
@@ -583,7 +597,6 @@ class JavaFrontendTest {
   void test_preview_feature_in_max_supported_version_not_enabled_by_default() throws IOException {
     // When the actual version match the maximum supported version (currently 21), we do not enable the preview features flag
     // by default anymore, and we should expect issues parsing preview feature syntax
-    logTester.setLevel(Level.DEBUG);
     scan(new MapSettings()
         .setProperty(JavaVersion.SOURCE_VERSION, "21")
         .setProperty(JavaCore.COMPILER_PB_ENABLE_PREVIEW_FEATURES, "enabled"),
@@ -600,7 +613,6 @@ class JavaFrontendTest {
 
   @Test
   void test_sealed_classes_not_supported_with_java_16() throws IOException {
-    logTester.setLevel(Level.DEBUG);
     scan(new MapSettings().setProperty(JavaVersion.SOURCE_VERSION, "16"),
       SONARLINT_RUNTIME, "sealed class Shape permits Circle { } final class Circle extends Shape { }");
     assertThat(sensorContext.allAnalysisErrors()).hasSize(1);
@@ -614,7 +626,6 @@ class JavaFrontendTest {
 
   @Test
   void test_sealed_classes_support_using_java_17() throws IOException {
-    logTester.setLevel(Level.DEBUG);
     scan(new MapSettings().setProperty(JavaVersion.SOURCE_VERSION, "17"),
       SONARLINT_RUNTIME, "sealed class Shape permits Circle { } final class Circle extends Shape { }");
     assertThat(sensorContext.allAnalysisErrors()).isEmpty();
@@ -625,7 +636,6 @@ class JavaFrontendTest {
 
   @Test
   void test_java17_feature() throws IOException {
-    logTester.setLevel(Level.DEBUG);
     scan(new MapSettings().setProperty(JavaVersion.SOURCE_VERSION, "17"),
       SONARLINT_RUNTIME, "sealed class Shape permits Circle { } final class Circle extends Shape { }");
     String allLogs = String.join("\n", logTester.logs());
@@ -637,7 +647,6 @@ class JavaFrontendTest {
   @Test
   void test_scan_as_autoscan_uses_a_single_batch() throws IOException {
     MapSettings settings = new MapSettings().setProperty(SonarComponents.SONAR_AUTOSCAN, true);
-    logTester.setLevel(Level.DEBUG);
     scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B extends A {}");
     String allLogs = String.join("\n", logTester.logs());
     assertThat(allLogs)
@@ -649,7 +658,6 @@ class JavaFrontendTest {
   void test_scan_as_batch_uses_configured_batch_size_when_below_threshold() throws IOException {
     MapSettings settings = new MapSettings()
       .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 1);
-    logTester.setLevel(Level.DEBUG);
     scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B extends A {}");
     String allLogs = String.join("\n", logTester.logs());
     assertThat(allLogs)
@@ -662,7 +670,6 @@ class JavaFrontendTest {
     long overTheTopBatchSize = 9_223_372_036_855_038L;
     MapSettings settings = new MapSettings()
       .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, overTheTopBatchSize);
-    logTester.setLevel(Level.DEBUG);
     scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B extends A {}");
     String allLogs = String.join("\n", logTester.logs());
     assertThat(allLogs)
@@ -675,7 +682,6 @@ class JavaFrontendTest {
   void test_scan_as_batch_effectively_splits_scans_in_batches() throws IOException {
     MapSettings settings = new MapSettings()
       .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0);
-    logTester.setLevel(Level.DEBUG);
     scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B extends A {}");
     String allLogs = String.join("\n", logTester.logs());
     assertThat(allLogs)
@@ -683,6 +689,271 @@ class JavaFrontendTest {
       .contains("Using ECJ batch to parse 2 Main java source files with batch size 0 KB.");
   }
 
+  @Test
+  void test_scan_batches_in_parallel() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_BATCH_MODE_THREADS_KEY, 3);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {}", "class C {}", "class D {}", "class E {}");
+    assertThat(sensorContext.allAnalysisErrors()).isEmpty();
+    String allLogs = String.join("\n", logTester.logs());
+    assertThat(allLogs)
+      .doesNotContain("Unresolved imports/types")
+      .containsOnlyOnce("Using ECJ batch to parse 5 Main java source files with batch size 0 KB, using 3 threads.");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(5);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void test_scan_batches_in_parallel_is_ignored_with_a_single_batch() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_AUTOSCAN, true)
+      .setProperty(SonarComponents.SONAR_BATCH_MODE_THREADS_KEY, 3);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B extends A {}");
+    String allLogs = String.join("\n", logTester.logs());
+    assertThat(allLogs)
+      .doesNotContain("threads")
+      .contains("Using ECJ batch to parse 2 Main and Test java source files in a single batch.");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(2);
+  }
+
+  @Test
+  void exceptions_outside_rules_in_parallel_batch_mode_should_interrupt_analysis_if_fail_fast() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_BATCH_MODE_THREADS_KEY, 2)
+      .setProperty("sonar.internal.analysis.failFast", "true");
+    File file = temp.newFile("Broken.java");
+    InputFile brokenFile = mock(InputFile.class);
+    when(brokenFile.file()).thenReturn(file);
+    when(brokenFile.charset()).thenThrow(new NullPointerException());
+    List<InputFile> inputFiles = List.of(brokenFile, brokenFile, brokenFile);
+    assertThatThrownBy(() -> scan(settings, SONARQUBE_RUNTIME, inputFiles))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Batch Mode failed, analysis of Java Files stopped.");
+    assertThat(logTester.logs(Level.ERROR)).containsExactly("Batch Mode failed, analysis of Java Files stopped.");
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void should_handle_analysis_cancellation_in_parallel_batch_mode() {
+    mainCodeIssueScannerAndFilter.isCancelled = true;
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_BATCH_MODE_THREADS_KEY, 2);
+    assertThatThrownBy(() -> scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {}", "class C {}"))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Analysis cancelled");
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void test_scan_batches_pipelined() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_PIPELINE_QUEUE_SIZE_KEY, 1);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {}", "class C {", "class D {}");
+    String allLogs = String.join("\n", logTester.logs());
+    assertThat(allLogs)
+      .contains("Unable to parse source file : 'C.java'")
+      .containsOnlyOnce("Using ECJ batch to parse 4 Main java source files with batch size 0 KB, pipelined with a queue of 1 KB.");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(4);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void rules_see_the_same_semantic_in_pipelined_and_sequential_batch_modes() throws IOException {
+    String[] sources = {
+      """
+        package p;
+        import java.util.List;
+        import java.util.stream.Collectors;
+        class Main {
+          List<String> names(List<IntBox> boxes) {
+            return boxes.stream().map(box -> box.map(i -> "#" + i)).filter(s -> !s.isEmpty()).collect(Collectors.toList());
+          }
+          int sum(List<? extends Box<Integer>> boxes) {
+            int sum = 0;
+            for (Box<Integer> box : boxes) {
+              sum += box.get().compareTo(0) > 0 ? box.get() : 0;
+            }
+            return sum;
+          }
+        }
+        """,
+      """
+        package p;
+        import java.util.function.Function;
+        public interface Box<T extends Comparable<T>> {
+          T get();
+          default <R> R map(Function<? super T, R> mapper) {
+            return mapper.apply(get());
+          }
+        }
+        """,
+      """
+        package p;
+        public class IntBox implements Box<Integer> {
+          private final int value;
+          IntBox(int value) {
+            this.value = value;
+          }
+          @Override
+          public Integer get() {
+            return value;
+          }
+        }
+        """};
+    List<String> sequentialSemantic = scanSemantic(new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 1_000), sources);
+    List<String> pipelinedSemantic = scanSemantic(new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 1_000)
+      .setProperty(SonarComponents.SONAR_PIPELINE_QUEUE_SIZE_KEY, 1), sources);
+
+    assertThat(logTester.logs()).anyMatch(log -> log.endsWith("pipelined with a queue of 1 KB."));
+    // types declared in the other files of the batch are resolved
+    assertThat(sequentialSemantic).contains(
+      "IntBox true Object [p.Box[java.lang.Integer[] java.lang.Integer] p.Box] 3",
+      "compareTo java.lang.Integer#compareTo(Ljava/lang/Integer;)I 1 int[] int",
+      "box 1 p.IntBox[] p.IntBox p.IntBox[] p.IntBox",
+      "p.IntBox#get()Ljava/lang/Integer; overrides [p.Box#get()Ljava/lang/Comparable;]");
+    assertThat(pipelinedSemantic).containsExactlyElementsOf(sequentialSemantic);
+  }
+
+  private List<String> scanSemantic(MapSettings settings, String... sources) throws IOException {
+    File baseDir = temp.newFolder();
+    sensorContext = SensorContextTester.create(baseDir);
+    sensorContext.setSettings(settings);
+    List<InputFile> inputFiles = new ArrayList<>();
+    for (String source : sources) {
+      Matcher matcher = Pattern.compile("(?:class|interface) (\\w++)").matcher(source);
+      assertTrue(matcher.find());
+      inputFiles.add(generateInputFile(source, sensorContext, new File(baseDir, matcher.group(1) + ".java"), InputFile.Type.MAIN));
+    }
+    mainCodeIssueScannerAndFilter = new TestIssueFilter();
+    mainCodeIssueScannerAndFilter.semantic = new ArrayList<>();
+    scan(settings, SONARQUBE_RUNTIME, inputFiles);
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(sources.length);
+    return mainCodeIssueScannerAndFilter.semantic;
+  }
+
+  @Test
+  void test_scan_batches_adaptively() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_ADAPTIVE_BATCH_MAX_HEAP_RATIO_KEY, "0.9");
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {}", "class C {", "class D {}");
+    String allLogs = String.join("\n", logTester.logs());
+    assertThat(allLogs)
+      .contains("Unable to parse source file : 'C.java'")
+      .containsOnlyOnce("Using ECJ batch to parse 4 Main java source files with an initial batch size of 0 KB, adapted to use at most ");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(4);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void conflicting_batch_modes_are_reported() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_PIPELINE_QUEUE_SIZE_KEY, 1)
+      .setProperty(SonarComponents.SONAR_ADAPTIVE_BATCH_MAX_HEAP_RATIO_KEY, "0.9");
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {}");
+    assertThat(logTester.logs(Level.WARN)).containsExactly(
+      "Conflicting batch modes are configured by sonar.java.experimental.pipelineQueueSizeInKB, "
+        + "sonar.java.experimental.adaptiveBatchMaxHeapRatio: only \"sonar.java.experimental.pipelineQueueSizeInKB\" is used.");
+    assertThat(String.join("\n", logTester.logs()))
+      .containsOnlyOnce("Using ECJ batch to parse 2 Main java source files with batch size 0 KB, pipelined with a queue of 1 KB.");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(2);
+  }
+
+  @Test
+  void max_heap_usage_of_adaptive_batches() {
+    assertThat(JavaFrontend.maxHeapUsage(0.5, 1_000L)).isEqualTo(500L);
+    assertThat(JavaFrontend.maxHeapUsage(-1.0, 1_000L)).isEqualTo(-1L);
+    assertThat(JavaFrontend.maxHeapUsage(1.0, 1_000L)).isEqualTo(-1L);
+    // the maximum heap of the JVM is undefined: batches keep their fixed size
+    assertThat(JavaFrontend.maxHeapUsage(0.5, -1L)).isEqualTo(-1L);
+    assertThat(JavaFrontend.maxHeapUsage(0.5, Long.MAX_VALUE)).isEqualTo(-1L);
+  }
+
+  @Test
+  void test_scan_batches_ordered_by_dependencies() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_BATCH_MODE_ORDER_BY_DEPENDENCIES_KEY, true);
+    scan(settings, SONARQUBE_RUNTIME, "package a; import b.B; class A {}", "package b; public class B {}", "class C {");
+    List<String> logs = logTester.logs();
+    assertThat(logs)
+      .anyMatch(log -> log.startsWith("Ordered 3 Main java source files by package dependencies in "));
+    assertThat(logs.stream().filter(log -> log.startsWith("Batch of 1 java source files analyzed in "))).hasSize(3);
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(3);
+  }
+
+  @Test
+  void test_scan_with_profiler() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_PROFILER_KEY, true);
+    sensorContext = SensorContextTester.create(temp.getRoot().getAbsoluteFile());
+    sensorContext.setSettings(settings);
+    sensorContext.fileSystem().setWorkDir(temp.newFolder("work").toPath());
+    scan(settings, SONARQUBE_RUNTIME, "class A { int a; }", "class B { A a; }");
+    File workDir = sensorContext.fileSystem().workDir();
+    assertThat(logTester.logs()).contains("Profile of the analysis written to sonar-java-profile.json and sonar-java-profile.collapsed in " + workDir.toPath());
+
+    String json = Files.asCharSource(new File(workDir, AnalysisProfiler.JSON_REPORT), StandardCharsets.UTF_8).read();
+    assertThat(json)
+      .contains("{\"name\": \"parse\", \"calls\": 2,")
+      .contains("{\"name\": \"semantic\", \"calls\": 2,")
+      .contains("{\"name\": \"visit\", \"calls\": ")
+      .contains("{\"name\": \"" + TestIssueFilter.class.getName() + "\", \"calls\": 2,");
+    List<String> stacks = Files.asCharSource(new File(workDir, AnalysisProfiler.COLLAPSED_STACKS_REPORT), StandardCharsets.UTF_8).readLines();
+    assertThat(stacks).allMatch(line -> line.matches("parse(;[^ ]++)* \\d++"));
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(2);
+  }
+
+  @Test
+  void analysis_exception_should_interrupt_pipelined_analysis() {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_PIPELINE_QUEUE_SIZE_KEY, 1);
+    mainCodeIssueScannerAndFilter.exceptionDuringScan = new IllegalRuleParameterException("Test AnalysisException", new NullPointerException());
+    assertThatThrownBy(() -> scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {}", "class C {}"))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Bad configuration of rule parameter");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(1);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void should_handle_analysis_cancellation_in_pipelined_batch_mode() {
+    mainCodeIssueScannerAndFilter.isCancelled = true;
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_PIPELINE_QUEUE_SIZE_KEY, 1);
+    assertThatThrownBy(() -> scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {}", "class C {}"))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Analysis cancelled");
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
+  @Test
+  void exceptions_outside_rules_in_pipelined_batch_mode_should_interrupt_analysis_if_fail_fast() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0)
+      .setProperty(SonarComponents.SONAR_PIPELINE_QUEUE_SIZE_KEY, 1)
+      .setProperty("sonar.internal.analysis.failFast", "true");
+    File file = temp.newFile("Broken.java");
+    InputFile brokenFile = mock(InputFile.class);
+    when(brokenFile.file()).thenReturn(file);
+    when(brokenFile.charset()).thenThrow(new NullPointerException());
+    List<InputFile> inputFiles = List.of(brokenFile, brokenFile);
+    assertThatThrownBy(() -> scan(settings, SONARQUBE_RUNTIME, inputFiles))
+      .isInstanceOf(AnalysisException.class)
+      .hasMessage("Batch Mode failed, analysis of Java Files stopped.");
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
   @Test
   void batch_generator_returns_an_empty_list_when_no_input_files() {
     List<InputFile> emptyList = Collections.emptyList();
@@ -865,12 +1136,16 @@ class JavaFrontendTest {
     JavaFileScannerContext scannerContext;
     boolean isCancelled = false;
     RuntimeException exceptionDuringScan = null;
+    List<String> semantic = null;
 
     @Override
     public void scanFile(JavaFileScannerContext scannerContext) {
       this.scannerContext = scannerContext;
       scanFileInvocationCount++;
       lastScannedTree = scannerContext.getTree();
+      if (semantic != null) {
+        lastScannedTree.accept(new SemanticRecorder(semantic));
+      }
       if (isCancelled) {
         sensorContext.setCancelled(true);
       }
@@ -889,4 +1164,56 @@ class JavaFrontendTest {
       endOfAnalysisInvocationCount++;
     }
   }
+
+  /**
+   * Records what rules can query lazily from the semantic of a file.
+   */
+  private static class SemanticRecorder extends BaseTreeVisitor {
+    private final List<String> semantic;
+
+    SemanticRecorder(List<String> semantic) {
+      this.semantic = semantic;
+    }
+
+    @Override
+    public void visitClass(ClassTree tree) {
+      Symbol.TypeSymbol symbol = tree.symbol();
+      semantic.add(symbol.name() + " " + symbol.type().isSubtypeOf("p.Box") + " " + symbol.superClass() + " "
+        + symbol.interfaces().stream().map(JavaFrontendTest::describe).toList() + " " + symbol.memberSymbols().size());
+      super.visitClass(tree);
+    }
+
+    @Override
+    public void visitMethod(MethodTree tree) {
+      Symbol.MethodSymbol symbol = tree.symbol();
+      semantic.add(symbol.signature() + " overrides " + symbol.overriddenSymbols().stream().map(Symbol.MethodSymbol::signature).toList());
+      super.visitMethod(tree);
+    }
+
+    @Override
+    public void visitMethodInvocation(MethodInvocationTree tree) {
+      Symbol.MethodSymbol symbol = tree.methodSymbol();
+      semantic.add(symbol.name() + " " + symbol.signature() + " " + symbol.overriddenSymbols().size() + " " + describe(tree.symbolType()));
+      super.visitMethodInvocation(tree);
+    }
+
+    @Override
+    public void visitLambdaExpression(LambdaExpressionTree tree) {
+      semantic.add("lambda " + describe(tree.symbolType()));
+      super.visitLambdaExpression(tree);
+    }
+
+    @Override
+    public void visitIdentifier(IdentifierTree tree) {
+      Symbol symbol = tree.symbol();
+      semantic.add(tree.name() + " " + symbol.usages().size() + " " + describe(symbol.type()) + " " + describe(tree.symbolType()));
+    }
+  }
+
+  private static String describe(@Nullable Type type) {
+    if (type == null || type.isUnknown()) {
+      return "!unknown!";
+    }
+    return type.fullyQualifiedName() + type.typeArguments().stream().map(JavaFrontendTest::describe).toList() + " " + type.erasure().fullyQualifiedName();
+  }
 }
@@ -0,0 +1,95 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PackageDependencyOrderTest {
+
+  @Test
+  void files_come_after_the_packages_they_import() {
+    InputFile a = inputFile("A.java", "package app;\nimport lib.B;\nclass A {}");
+    InputFile b = inputFile("B.java", "package lib;\nimport util.*;\npublic class B {}");
+    InputFile c = inputFile("C.java", "package util;\npublic class C {}");
+    InputFile d = inputFile("D.java", "package app;\nclass D {}");
+    assertThat(PackageDependencyOrder.order(List.of(a, b, c, d))).containsExactly(c, b, a, d);
+  }
+
+  @Test
+  void packages_importing_each_other_are_kept_together() {
+    InputFile a = inputFile("A.java", "package a;\nimport b.B;\nclass A {}");
+    InputFile x = inputFile("X.java", "package x;\nclass X {}");
+    InputFile b = inputFile("B.java", "package b;\nimport static a.A.FOO;\nclass B {}");
+    InputFile a2 = inputFile("A2.java", "package a;\nclass A2 {}");
+    assertThat(PackageDependencyOrder.order(List.of(a, x, b, a2))).containsExactly(a, a2, b, x);
+  }
+
+  @Test
+  void comments_and_annotations_are_skipped_until_the_first_type() {
+    InputFile a = inputFile("A.java", """
+      /*
+       * License
+       */
+      // comment
+      @Deprecated
+      package a;
+
+      import java.util.List; /* trailing */
+      /* single line */ import b.B;
+      class A {}
+      import c.C;
+      """);
+    InputFile b = inputFile("B.java", "package b;\nclass B {}");
+    InputFile c = inputFile("C.java", "package c;\nclass C {}");
+    assertThat(PackageDependencyOrder.order(List.of(a, c, b))).containsExactly(b, a, c);
+  }
+
+  @Test
+  void files_which_cannot_be_read_are_in_the_default_package() throws IOException {
+    InputFile a = inputFile("A.java", "import b.B;\nclass A {}");
+    InputFile unreadable = mock(InputFile.class);
+    when(unreadable.charset()).thenReturn(StandardCharsets.UTF_8);
+    when(unreadable.inputStream()).thenThrow(new IOException("boom"));
+    InputFile b = inputFile("B.java", "package b;\nclass B {}");
+    assertThat(PackageDependencyOrder.order(List.of(a, b, unreadable))).containsExactly(b, a, unreadable);
+  }
+
+  @Test
+  void imported_package() {
+    assertThat(PackageDependencyOrder.importedPackage("java.util.List")).isEqualTo("java.util");
+    assertThat(PackageDependencyOrder.importedPackage("java.util.*")).isEqualTo("java.util");
+    assertThat(PackageDependencyOrder.importedPackage("java.util.Map.Entry")).isEqualTo("java.util");
+    assertThat(PackageDependencyOrder.importedPackage("List")).isNull();
+  }
+
+  private static InputFile inputFile(String name, String contents) {
+    return new TestInputFileBuilder("module", name)
+      .setCharset(StandardCharsets.UTF_8)
+      .setContents(contents)
+      .build();
+  }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.sonar.api.batch.fs.InputFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ParsedBatchQueueTest {
+
+  private final List<ParsedBatchQueue.ParsedBatch> scannedBatches = new ArrayList<>();
+
+  @Test
+  void batches_are_reported_in_order_once_scanned_until_closed() throws Exception {
+    ParsedBatchQueue queue = new ParsedBatchQueue(100);
+    ParsedBatchQueue.ParsedBatch first = queue.startBatch(files(1), 10);
+    ParsedBatchQueue.ParsedBatch second = queue.startBatch(files(2), 20);
+    queue.endBatch(first, null);
+    queue.endBatch(second, null);
+    queue.close(null);
+
+    assertThat(queue.takeFile(scannedBatches::add)).isNull();
+    assertThat(scannedBatches).containsExactly(first, second);
+    assertThat(second.fileCount()).isEqualTo(2);
+  }
+
+  @Test
+  void batch_bigger_than_capacity_is_accepted_when_queue_is_empty() throws Exception {
+    ParsedBatchQueue queue = new ParsedBatchQueue(10);
+    ParsedBatchQueue.ParsedBatch batch = queue.startBatch(files(1), 1_000);
+    assertThat(batch).isNotNull();
+    queue.endBatch(batch, null);
+    queue.close(null);
+    assertThat(queue.takeFile(scannedBatches::add)).isNull();
+    assertThat(scannedBatches).containsExactly(batch);
+  }
+
+  @Timeout(5)
+  @Test
+  void producer_waits_until_the_batches_in_progress_are_scanned() throws Exception {
+    ParsedBatchQueue queue = new ParsedBatchQueue(10);
+    ParsedBatchQueue.ParsedBatch batch = queue.startBatch(files(1), 8);
+    AtomicBoolean secondBatchStarted = new AtomicBoolean(false);
+    List<ParsedBatchQueue.ParsedBatch> startedBatches = new ArrayList<>();
+    Thread producer = new Thread(() -> {
+      try {
+        ParsedBatchQueue.ParsedBatch second = queue.startBatch(files(1), 8);
+        startedBatches.add(second);
+        secondBatchStarted.set(true);
+        queue.endBatch(second, null);
+        queue.close(null);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    producer.start();
+    ParsedBatchQueue.ParsedFile file = parsedFile(batch);
+    Thread parser = new Thread(() -> {
+      queue.handOver(file);
+      queue.endBatch(batch, null);
+    });
+    parser.start();
+
+    // the batch being scanned still counts against the capacity
+    assertThat(queue.takeFile(scannedBatches::add)).isSameAs(file);
+    producer.join(200);
+    assertThat(secondBatchStarted).isFalse();
+
+    queue.scanned(file);
+    parser.join();
+    producer.join(200);
+    assertThat(secondBatchStarted).isFalse();
+
+    assertThat(queue.takeFile(scannedBatches::add)).isNull();
+    producer.join();
+    assertThat(secondBatchStarted).isTrue();
+    assertThat(scannedBatches).containsExactly(batch, startedBatches.get(0));
+  }
+
+  @Timeout(5)
+  @Test
+  void parser_waits_in_the_requestor_until_the_file_is_scanned() throws Exception {
+    ParsedBatchQueue queue = new ParsedBatchQueue(100);
+    ParsedBatchQueue.ParsedBatch batch = queue.startBatch(files(2), 10);
+    ParsedBatchQueue.ParsedFile first = parsedFile(batch);
+    ParsedBatchQueue.ParsedFile second = parsedFile(batch);
+    AtomicBoolean firstHandedOver = new AtomicBoolean(false);
+    Thread parser = new Thread(() -> {
+      firstHandedOver.set(queue.handOver(first));
+      queue.handOver(second);
+      queue.endBatch(batch, null);
+    });
+    parser.start();
+
+    assertThat(queue.takeFile(scannedBatches::add)).isSameAs(first);
+    parser.join(200);
+    assertThat(firstHandedOver).isFalse();
+
+    queue.scanned(first);
+    assertThat(queue.takeFile(scannedBatches::add)).isSameAs(second);
+    assertThat(firstHandedOver).isTrue();
+    assertThat(scannedBatches).isEmpty();
+    queue.scanned(second);
+    parser.join();
+    queue.close(null);
+    assertThat(queue.takeFile(scannedBatches::add)).isNull();
+    assertThat(scannedBatches).containsExactly(batch);
+  }
+
+  @Timeout(5)
+  @Test
+  void files_of_the_next_batch_are_scanned_while_the_previous_batch_resolves_its_next_file() throws Exception {
+    ParsedBatchQueue queue = new ParsedBatchQueue(100);
+    ParsedBatchQueue.ParsedBatch first = queue.startBatch(files(2), 10);
+    ParsedBatchQueue.ParsedBatch second = queue.startBatch(files(1), 10);
+    ParsedBatchQueue.ParsedFile firstOfFirst = parsedFile(first);
+    ParsedBatchQueue.ParsedFile secondOfFirst = parsedFile(first);
+    ParsedBatchQueue.ParsedFile firstOfSecond = parsedFile(second);
+    Thread secondParser = new Thread(() -> {
+      queue.handOver(firstOfSecond);
+      queue.endBatch(second, null);
+    });
+    secondParser.start();
+
+    // the first batch did not hand any file over yet
+    assertThat(queue.takeFile(scannedBatches::add)).isSameAs(firstOfSecond);
+    Thread firstParser = new Thread(() -> {
+      queue.handOver(firstOfFirst);
+      queue.handOver(secondOfFirst);
+      queue.endBatch(first, null);
+    });
+    firstParser.start();
+    queue.scanned(firstOfSecond);
+    secondParser.join();
+
+    assertThat(queue.takeFile(scannedBatches::add)).isSameAs(firstOfFirst);
+    queue.scanned(firstOfFirst);
+    assertThat(queue.takeFile(scannedBatches::add)).isSameAs(secondOfFirst);
+    queue.scanned(secondOfFirst);
+    firstParser.join();
+    queue.close(null);
+    assertThat(queue.takeFile(scannedBatches::add)).isNull();
+    // the second batch is reported as soon as its files are scanned
+    assertThat(scannedBatches).containsExactly(second, first);
+  }
+
+  @Timeout(5)
+  @Test
+  void interrupted_parser_keeps_waiting_for_the_file_being_scanned() throws Exception {
+    ParsedBatchQueue queue = new ParsedBatchQueue(100);
+    ParsedBatchQueue.ParsedBatch batch = queue.startBatch(files(1), 10);
+    ParsedBatchQueue.ParsedFile file = parsedFile(batch);
+    AtomicBoolean interruptedAfterScan = new AtomicBoolean(false);
+    Thread parser = new Thread(() -> {
+      queue.handOver(file);
+      interruptedAfterScan.set(Thread.currentThread().isInterrupted());
+    });
+    parser.start();
+    assertThat(queue.takeFile(scannedBatches::add)).isSameAs(file);
+
+    parser.interrupt();
+    parser.join(200);
+    assertThat(parser.isAlive()).isTrue();
+
+    queue.scanned(file);
+    parser.join();
+    assertThat(interruptedAfterScan).isTrue();
+  }
+
+  @Test
+  void failures_are_rethrown_once_the_previous_files_are_taken() throws Exception {
+    ParsedBatchQueue queue = new ParsedBatchQueue(100);
+    ParsedBatchQueue.ParsedBatch batch = queue.startBatch(files(1), 10);
+    queue.endBatch(batch, new IllegalStateException("batch failure"));
+    queue.close(new IllegalStateException("boom"));
+
+    assertThatThrownBy(() -> queue.takeFile(scannedBatches::add))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("batch failure");
+    assertThatThrownBy(() -> queue.takeFile(scannedBatches::add))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("boom");
+    assertThat(scannedBatches).isEmpty();
+
+    ParsedBatchQueue failingQueue = new ParsedBatchQueue(100);
+    failingQueue.close(new StackOverflowError());
+    assertThatThrownBy(() -> failingQueue.takeFile(scannedBatches::add)).isInstanceOf(StackOverflowError.class);
+  }
+
+  @Timeout(5)
+  @Test
+  void cancel_releases_waiting_producer_and_parsers() throws Exception {
+    ParsedBatchQueue queue = new ParsedBatchQueue(10);
+    ParsedBatchQueue.ParsedBatch pending = queue.startBatch(files(1), 8);
+    AtomicBoolean started = new AtomicBoolean(true);
+    Thread producer = new Thread(() -> {
+      try {
+        started.set(queue.startBatch(files(1), 8) != null);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    producer.start();
+    AtomicBoolean scanned = new AtomicBoolean(true);
+    Thread parser = new Thread(() -> scanned.set(queue.handOver(parsedFile(pending))));
+    parser.start();
+
+    assertThat(queue.isCancelled()).isFalse();
+    queue.cancel();
+    producer.join();
+    parser.join();
+    assertThat(started).isFalse();
+    assertThat(scanned).isFalse();
+    assertThat(queue.isCancelled()).isTrue();
+    assertThat(queue.handOver(parsedFile(pending))).isFalse();
+    assertThat(queue.startBatch(files(1), 1)).isNull();
+  }
+
+  private static List<InputFile> files(int count) {
+    List<InputFile> files = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      files.add(mock(InputFile.class));
+    }
+    return files;
+  }
+
+  private static ParsedBatchQueue.ParsedFile parsedFile(ParsedBatchQueue.ParsedBatch batch) {
+    return new ParsedBatchQueue.ParsedFile(batch, mock(InputFile.class), null);
+  }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.event.Level;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.java.testing.ThreadLocalLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleTimeBudgetTest {
+
+  @RegisterExtension
+  public ThreadLocalLogTester logTester = new ThreadLocalLogTester().setLevel(Level.DEBUG);
+
+  private final InputFile fileA = new TestInputFileBuilder("", "A.java").build();
+  private final InputFile fileB = new TestInputFileBuilder("", "B.java").build();
+  private final List<String> warnings = new ArrayList<>();
+  private long now = 0L;
+  private final RuleTimeBudget budget = new RuleTimeBudget(10, () -> now, warnings::add);
+
+  @Test
+  void rule_is_cancelled_once_its_time_on_the_file_exceeds_the_budget() {
+    RuleA rule = new RuleA();
+    RuleB other = new RuleB();
+    budget.startFile(fileA);
+
+    spend(rule, 6);
+    spend(other, 1);
+    assertThat(budget.isCancelled(rule)).isFalse();
+
+    spend(rule, 4);
+    assertThat(budget.isCancelled(rule)).as("time equal to the budget is allowed").isFalse();
+
+    spend(rule, 1);
+    assertThat(budget.isCancelled(rule)).isTrue();
+    assertThat(budget.isCancelled(other)).isFalse();
+    assertThat(budget.skip(rule)).isTrue();
+    assertThat(budget.skip(other)).isFalse();
+
+    assertThat(logTester.logs(Level.WARN))
+      .containsExactly("Rule " + RuleA.class.getName() + " cancelled on file A.java, after exceeding its time budget of 10 ms.");
+    assertThat(warnings).containsExactly("Rule " + RuleA.class.getName() + " exceeded its time budget of 10 ms on some files,"
+      + " on which it was cancelled. See the analysis logs for the list of these files.");
+  }
+
+  @Test
+  void budget_is_reset_for_each_file_and_warning_is_added_once_per_rule() {
+    RuleA rule = new RuleA();
+    budget.startFile(fileA);
+    spend(rule, 11);
+    spend(rule, 1);
+    assertThat(budget.isCancelled(rule)).isTrue();
+
+    budget.startFile(fileB);
+    assertThat(budget.isCancelled(rule)).isFalse();
+    spend(rule, 5);
+    assertThat(budget.isCancelled(rule)).isFalse();
+    spend(rule, 6);
+    assertThat(budget.isCancelled(rule)).isTrue();
+
+    // an other instance of the same rule is counted on its own, but does not add a second warning
+    RuleA otherInstance = new RuleA();
+    spend(otherInstance, 20);
+    assertThat(budget.isCancelled(otherInstance)).isTrue();
+
+    assertThat(logTester.logs(Level.WARN)).hasSize(3);
+    assertThat(warnings).hasSize(1);
+  }
+
+  @Test
+  void issues_on_the_file_are_saved_at_its_end_for_the_rules_which_were_not_interrupted() {
+    RuleA rule = new RuleA();
+    RuleB other = new RuleB();
+    List<String> saved = new ArrayList<>();
+    budget.saveIssue(rule, fileA, () -> saved.add("before the file"));
+    budget.startFile(fileA);
+
+    budget.saveIssue(rule, fileA, () -> saved.add("rule before its interruption"));
+    budget.saveIssue(other, fileA, () -> saved.add("other"));
+    budget.saveIssue(rule, fileB, () -> saved.add("rule on an other file"));
+    spend(rule, 11);
+    spend(other, 11);
+    budget.saveIssue(other, fileA, () -> saved.add("other after its cancellation"));
+    assertThat(budget.skip(rule)).isTrue();
+    budget.saveIssue(rule, fileA, () -> saved.add("rule after its interruption"));
+    assertThat(saved).containsExactly("before the file", "rule on an other file");
+
+    budget.endFile();
+    // the other rule exceeded its budget, but was not interrupted: its issues are complete
+    assertThat(saved).containsExactly("before the file", "rule on an other file", "other", "other after its cancellation");
+    assertThat(budget.isCancelled(rule)).isFalse();
+    assertThat(logTester.logs(Level.WARN))
+      .contains("Issues of rule " + RuleA.class.getName() + " on file A.java are discarded, as it was cancelled before the end of its visit.")
+      .noneMatch(log -> log.startsWith("Issues of rule " + RuleB.class.getName()));
+
+    // once the file is done, issues are saved right away
+    budget.saveIssue(rule, fileA, () -> saved.add("end of analysis"));
+    assertThat(saved).endsWith("end of analysis");
+  }
+
+  private void spend(Object rule, long millis) {
+    long start = budget.start();
+    now += TimeUnit.MILLISECONDS.toNanos(millis);
+    budget.stop(rule, start);
+  }
+
+  private static class RuleA {
+  }
+
+  private static class RuleB {
+  }
+
+}
@@ -29,6 +29,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.LongSupplier;
 import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
@@ -58,6 +59,8 @@ import org.sonar.api.batch.rule.Checks;
 import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
 import org.sonar.api.batch.rule.internal.NewActiveRule;
 import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
 import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.batch.sensor.issue.Issue;
@@ -745,6 +748,151 @@ class SonarComponentsTest {
     assertThat(sonarComponents.getBatchModeSizeInKB()).isEqualTo(-1L);
   }
 
+  @Test
+  void batch_mode_threads() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+    assertThat(sonarComponents.getBatchModeThreads()).isEqualTo(1);
+
+    settings.setProperty("sonar.java.experimental.batchModeThreads", "4");
+    assertThat(sonarComponents.getBatchModeThreads()).isEqualTo(4);
+
+    settings.setProperty("sonar.java.experimental.batchModeThreads", "-2");
+    assertThat(sonarComponents.getBatchModeThreads()).isEqualTo(1);
+  }
+
+  @Test
+  void pipeline_queue_size() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+    assertThat(sonarComponents.getPipelineQueueSizeInKB()).isEqualTo(-1L);
+
+    settings.setProperty("sonar.java.experimental.pipelineQueueSizeInKB", "2000");
+    assertThat(sonarComponents.getPipelineQueueSizeInKB()).isEqualTo(2000L);
+  }
+
+  @Test
+  void adaptive_batch_max_heap_ratio() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+    assertThat(sonarComponents.getAdaptiveBatchMaxHeapRatio()).isEqualTo(-1.0);
+
+    settings.setProperty("sonar.java.experimental.adaptiveBatchMaxHeapRatio", "0.4");
+    assertThat(sonarComponents.getAdaptiveBatchMaxHeapRatio()).isEqualTo(0.4);
+  }
+
+  @Test
+  void keep_classpath_warm() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+    assertThat(sonarComponents.isClasspathKeptWarm()).isFalse();
+
+    settings.setProperty("sonar.java.experimental.keepClasspathWarm", "true");
+    assertThat(sonarComponents.isClasspathKeptWarm()).isTrue();
+  }
+
+  @Test
+  void worker_performance_measure_file() {
+    MapSettings settings = new MapSettings();
+    Path workDir = Path.of("target").toAbsolutePath();
+    DefaultFileSystem fileSystem = new DefaultFileSystem(new File(".")).setWorkDir(workDir);
+    SonarComponents sonarComponents = new SonarComponents(null, fileSystem, null, null, null, null);
+    assertThat(sonarComponents.getWorkerPerformanceMeasureFile()).isNull();
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+    assertThat(sonarComponents.getWorkerPerformanceMeasureFile()).isNull();
+
+    settings.setProperty("sonar.java.performance.measure", "true");
+    assertThat(sonarComponents.getWorkerPerformanceMeasureFile()).isEqualTo(workDir.resolve("sonar.java.performance.measure.workers.json"));
+
+    settings.setProperty("sonar.java.performance.measure.path", workDir.resolve("measures.json").toString());
+    assertThat(sonarComponents.getWorkerPerformanceMeasureFile()).isEqualTo(workDir.resolve("measures.workers.json"));
+
+    settings.setProperty("sonar.java.performance.measure.path", workDir.resolve("measures").toString());
+    assertThat(sonarComponents.getWorkerPerformanceMeasureFile()).isEqualTo(workDir.resolve("measures.workers.json"));
+
+    // like the measures of the sensor, the ones of the workers are not written without an existing working directory
+    settings.removeProperty("sonar.java.performance.measure.path");
+    fileSystem.setWorkDir(workDir.resolve("missing"));
+    assertThat(sonarComponents.getWorkerPerformanceMeasureFile()).isNull();
+  }
+
+  @Test
+  void rule_time_budget() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    assertThat(sonarComponents.ruleTimeBudget()).isNull();
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+    assertThat(sonarComponents.getRuleTimeBudgetPerFileInMs()).isEqualTo(-1L);
+    assertThat(sonarComponents.ruleTimeBudget()).isNull();
+
+    settings.setProperty("sonar.java.experimental.ruleTimeBudgetPerFileInMs", "0");
+    assertThat(sonarComponents.ruleTimeBudget()).isNull();
+
+    settings.setProperty("sonar.java.experimental.ruleTimeBudgetPerFileInMs", "500");
+    assertThat(sonarComponents.getRuleTimeBudgetPerFileInMs()).isEqualTo(500L);
+    RuleTimeBudget ruleTimeBudget = sonarComponents.ruleTimeBudget();
+    assertThat(ruleTimeBudget).isNotNull();
+    assertThat(sonarComponents.ruleTimeBudget()).isSameAs(ruleTimeBudget);
+  }
+
+  @Test
+  void issues_of_rules_interrupted_on_a_file_are_discarded() {
+    JavaCheck cancelledCheck = new CustomCheck();
+    JavaCheck otherCheck = new CustomCheck();
+    SensorContextTester specificContext = SensorContextTester.create(new File("."))
+      .setSettings(new MapSettings().setProperty("sonar.java.experimental.ruleTimeBudgetPerFileInMs", "500"));
+    DefaultFileSystem fileSystem = specificContext.fileSystem();
+    InputFile inputFile = new TestInputFileBuilder("", "file.java").setContents("class A {\n}\n\n").build();
+    InputFile otherInputFile = new TestInputFileBuilder("", "other.java").setContents("class B {\n}\n\n").build();
+    fileSystem.add(inputFile);
+    fileSystem.add(otherInputFile);
+    when(this.checks.ruleKey(any(JavaCheck.class))).thenReturn(mock(RuleKey.class));
+
+    SonarComponents sonarComponents = new SonarComponents(fileLinesContextFactory, fileSystem, null,
+      null, checkFactory, specificContext.activeRules(), new CheckRegistrar[]{getRegistrar(cancelledCheck)});
+    sonarComponents.setSensorContext(specificContext);
+    RuleTimeBudget ruleTimeBudget = sonarComponents.ruleTimeBudget();
+    ruleTimeBudget.startFile(inputFile);
+    sonarComponents.addIssue(inputFile, cancelledCheck, 1, "discarded, reported before the interruption", null);
+    ruleTimeBudget.stop(cancelledCheck, ruleTimeBudget.start() - TimeUnit.SECONDS.toNanos(1));
+    assertThat(ruleTimeBudget.skip(cancelledCheck)).isTrue();
+
+    sonarComponents.addIssue(inputFile, cancelledCheck, 1, "discarded", null);
+    sonarComponents.addIssue(inputFile, otherCheck, 2, "kept on the file", null);
+    sonarComponents.addIssue(otherInputFile, cancelledCheck, 3, "kept on an other file", null);
+
+    // issues on the file are only saved at its end
+    assertThat(specificContext.allIssues())
+      .extracting(issue -> issue.primaryLocation().message())
+      .containsExactly("kept on an other file");
+
+    ruleTimeBudget.endFile();
+    sonarComponents.addIssue(inputFile, cancelledCheck, 1, "kept after the end of the file", null);
+    assertThat(specificContext.allIssues())
+      .extracting(issue -> issue.primaryLocation().message())
+      .containsExactly("kept on an other file", "kept on the file", "kept after the end of the file");
+    assertThat(logTester.logs(Level.WARN))
+      .containsExactly(
+        "Rule " + CustomCheck.class.getName() + " cancelled on file file.java, after exceeding its time budget of 500 ms.",
+        "Issues of rule " + CustomCheck.class.getName() + " on file file.java are discarded, as it was cancelled before the end of its visit.");
+  }
+
+  @Test
+  void pending_issues_max_size() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+    assertThat(sonarComponents.getPendingIssuesMaxSizeInKB()).isEqualTo(-1L);
+    assertThat(sonarComponents.newPendingIssues()).isNotNull();
+
+    settings.setProperty("sonar.java.experimental.pendingIssuesMaxSizeInKB", "2000");
+    assertThat(sonarComponents.getPendingIssuesMaxSizeInKB()).isEqualTo(2000L);
+  }
+
   @ParameterizedTest
   @CsvSource({
     "50, 2",
@@ -901,6 +1049,56 @@ class SonarComponentsTest {
     assertThat(sonarComponents.fileCanBeSkipped(mock(InputFile.class))).isFalse();
   }
 
+  @Test
+  void fileCanBeSkipped_hashes_prefetched_files_once() throws IOException {
+    SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
+    sensorContextTester.setCacheEnabled(true);
+    sensorContextTester.setSettings(new MapSettings().setProperty(SonarComponents.SONAR_CAN_SKIP_UNCHANGED_FILES_KEY, true));
+    ReadCache readCache = mock(ReadCache.class);
+    when(readCache.read(any())).thenThrow(new IllegalArgumentException());
+    sensorContextTester.setPreviousCache(readCache);
+    sensorContextTester.setNextCache(mock(WriteCache.class));
+    SonarComponents sonarComponents = new SonarComponents(fileLinesContextFactory, sensorContextTester.fileSystem(),
+      mock(ClasspathForMain.class), mock(ClasspathForTest.class), checkFactory, context.activeRules());
+    sonarComponents.setSensorContext(sensorContextTester);
+    InputFile inputFile = mock(InputFile.class);
+    when(inputFile.key()).thenReturn("A.java");
+    when(inputFile.contents()).thenReturn("class A {}");
+
+    sonarComponents.prefetchContentHashes(List.of(inputFile));
+    assertThat(sonarComponents.fileCanBeSkipped(inputFile)).isFalse();
+    assertThat(sonarComponents.fileCanBeSkipped(inputFile)).isFalse();
+    verify(inputFile, times(1)).contents();
+    verify(readCache, times(1)).read(any());
+  }
+
+  @Test
+  void fileCanBeSkipped_hashes_files_once_when_unchanged_files_cannot_be_skipped() throws IOException {
+    SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
+    sensorContextTester.setCacheEnabled(true);
+    sensorContextTester.setSettings(new MapSettings().setProperty(SonarComponents.SONAR_CAN_SKIP_UNCHANGED_FILES_KEY, false));
+    ReadCache readCache = mock(ReadCache.class);
+    sensorContextTester.setPreviousCache(readCache);
+    WriteCache writeCache = mock(WriteCache.class);
+    sensorContextTester.setNextCache(writeCache);
+    SonarComponents sonarComponents = new SonarComponents(fileLinesContextFactory, sensorContextTester.fileSystem(),
+      mock(ClasspathForMain.class), mock(ClasspathForTest.class), checkFactory, context.activeRules());
+    sonarComponents.setSensorContext(sensorContextTester);
+    InputFile inputFile = mock(InputFile.class);
+    when(inputFile.key()).thenReturn("A.java");
+    when(inputFile.contents()).thenReturn("class A {}");
+
+    // a full analysis neither hashes the files in advance nor reads the previous cache
+    sonarComponents.prefetchContentHashes(List.of(inputFile));
+    verify(inputFile, never()).contents();
+
+    assertThat(sonarComponents.fileCanBeSkipped(inputFile)).isFalse();
+    assertThat(sonarComponents.fileCanBeSkipped(inputFile)).isFalse();
+    verify(inputFile, times(1)).contents();
+    verify(writeCache, times(1)).write(any(), any(byte[].class));
+    verify(readCache, never()).read(any());
+  }
+
   private static Stream<Arguments> fileCanBeSkipped_only_logs_on_first_call_input() throws ApiMismatchException {
     ApiMismatchException apiMismatchException = new ApiMismatchException(new NoSuchMethodError("API version mismatch :-("));
 
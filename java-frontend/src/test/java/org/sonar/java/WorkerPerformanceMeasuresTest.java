@@ -0,0 +1,62 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.performance.measure.DurationMeasure;
+import org.sonarsource.performance.measure.DurationMeasureFiles;
+import org.sonarsource.performance.measure.PerformanceMeasure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkerPerformanceMeasuresTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void measures_of_worker_threads_are_added_to_their_own_file() throws Exception {
+    Path report = tempDir.resolve("performance.measure.workers.json");
+    WorkerPerformanceMeasures workerMeasures = new WorkerPerformanceMeasures(report);
+    Thread firstWorker = new Thread(workerMeasures.measured(() -> PerformanceMeasure.start("WorkerTask").stop()));
+    Thread secondWorker = new Thread(workerMeasures.measured(() -> PerformanceMeasure.start("WorkerTask").stop()));
+    firstWorker.start();
+    secondWorker.start();
+    firstWorker.join();
+    secondWorker.join();
+    Thread unmeasuredWorker = new Thread(() -> PerformanceMeasure.start("UnmeasuredTask").stop());
+    unmeasuredWorker.start();
+    unmeasuredWorker.join();
+
+    DurationMeasure measure = DurationMeasureFiles.fromJson(report);
+    assertThat(measure.name()).isEqualTo(WorkerPerformanceMeasures.ROOT_MEASURE_NAME);
+    assertThat(measure.calls()).isEqualTo(2);
+    assertThat(measure.get("WorkerTask").calls()).isEqualTo(2);
+    assertThat(measure.get("UnmeasuredTask")).isNull();
+  }
+
+  @Test
+  void tasks_are_run_as_they_are_when_measures_are_not_activated() {
+    WorkerPerformanceMeasures workerMeasures = new WorkerPerformanceMeasures(null);
+    Runnable task = () -> {
+    };
+    assertThat(workerMeasures.measured(task)).isSameAs(task);
+  }
+
+}
@@ -36,9 +36,14 @@ import org.sonar.java.testing.ThreadLocalLogTester;
 import org.sonar.plugins.java.api.caching.SonarLintCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ContentHashCacheTest {
@@ -156,6 +161,64 @@ class ContentHashCacheTest {
       contains("Failed to compute content hash for file " + inputFile1.key());
   }
 
+  @Test
+  void prefetch_compares_hashes_once_per_file() throws IOException, NoSuchAlgorithmException {
+    SensorContextTester sensorContext = getSonarComponentsTester();
+    ContentHashCache contentHashCache = new ContentHashCache(mockSonarComponents(sensorContext));
+    InputFile changedFile = mock(InputFile.class);
+    when(changedFile.key()).thenReturn("changed");
+    when(changedFile.contents()).thenReturn("class A {}");
+    ReadCache readCache = sensorContext.previousCache();
+    when(readCache.read("java:contentHash:MD5:changed")).thenThrow(new IllegalArgumentException());
+
+    contentHashCache.prefetch(List.of(inputFile, changedFile));
+    contentHashCache.prefetch(List.of(changedFile));
+    Assertions.assertTrue(contentHashCache.hasSameHashCached(inputFile));
+    Assertions.assertFalse(contentHashCache.hasSameHashCached(changedFile));
+
+    verify(changedFile, times(1)).contents();
+    verify(readCache, times(1)).read("java:contentHash:MD5:" + inputFile.key());
+    WriteCache writeCache = sensorContext.nextCache();
+    verify(writeCache, times(1)).copyFromPrevious("java:contentHash:MD5:" + inputFile.key());
+    verify(writeCache, times(1)).write(eq("java:contentHash:MD5:changed"), any(byte[].class));
+  }
+
+  @Test
+  void writeToCache_reuses_the_hashes_already_in_the_next_cache() throws IOException, NoSuchAlgorithmException {
+    SensorContextTester sensorContext = getSonarComponentsTester();
+    ContentHashCache contentHashCache = new ContentHashCache(mockSonarComponents(sensorContext));
+    InputFile changedFile = mock(InputFile.class);
+    when(changedFile.key()).thenReturn("changed");
+    when(changedFile.contents()).thenReturn("class A {}");
+    InputFile newFile = mock(InputFile.class);
+    when(newFile.key()).thenReturn("new");
+    when(newFile.contents()).thenReturn("class B {}");
+    ReadCache readCache = sensorContext.previousCache();
+    when(readCache.read("java:contentHash:MD5:changed")).thenThrow(new IllegalArgumentException());
+
+    contentHashCache.prefetch(List.of(inputFile, changedFile));
+    Assertions.assertTrue(contentHashCache.writeToCache(inputFile));
+    Assertions.assertTrue(contentHashCache.writeToCache(changedFile));
+    Assertions.assertTrue(contentHashCache.writeToCache(newFile));
+    Assertions.assertTrue(contentHashCache.writeToCache(newFile));
+
+    verify(changedFile, times(1)).contents();
+    verify(newFile, times(1)).contents();
+    WriteCache writeCache = sensorContext.nextCache();
+    verify(writeCache, times(1)).copyFromPrevious("java:contentHash:MD5:" + inputFile.key());
+    verify(writeCache, never()).write(eq("java:contentHash:MD5:" + inputFile.key()), any(byte[].class));
+    verify(writeCache, times(1)).write(eq("java:contentHash:MD5:changed"), any(byte[].class));
+    verify(writeCache, times(1)).write(eq("java:contentHash:MD5:new"), any(byte[].class));
+  }
+
+  @Test
+  void prefetch_does_nothing_when_cache_is_disabled() throws IOException {
+    ContentHashCache contentHashCache = new ContentHashCache(mockSonarComponents(getSensorContextTesterWithEmptyCache(false)));
+    InputFile inputFile1 = mock(InputFile.class);
+    contentHashCache.prefetch(List.of(inputFile1));
+    verify(inputFile1, never()).contents();
+  }
+
   @Test
   void contains_returns_true_when_file_is_in_cache() throws IOException, NoSuchAlgorithmException {
     ContentHashCache contentHashCache = new ContentHashCache(mockSonarComponents(getSonarComponentsTester()));
@@ -52,6 +52,7 @@ class CFGLoopTest {
     assertThat(loop.startingBlock()).isSameAs(blocks.get(2));
     assertThat(loop.blocks()).containsOnly(blocks.get(1));
     assertThat(loop.hasNoWayOut()).isTrue();
+    assertThat(CFGLoop.getCFGLoops(cfg)).isSameAs(loops);
   }
 
   private CFG buildCFG(String methodName) {
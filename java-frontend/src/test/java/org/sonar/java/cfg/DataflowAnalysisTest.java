@@ -0,0 +1,136 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.cfg;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DataflowAnalysisTest {
+
+  private static CFG buildCFG(String methodCode) {
+    CompilationUnitTree cut = JParserTestUtils.parse("class A { " + methodCode + " }");
+    MethodTree tree = ((MethodTree) ((ClassTree) cut.types().get(0)).members().get(0));
+    return (CFG) tree.cfg();
+  }
+
+  /**
+   * Variables assigned in a path, or in all the paths, leading to each block.
+   */
+  private static Set<Symbol> assignedAtExit(CFG cfg, DataflowAnalysis.Meet meet) {
+    SymbolIndex symbols = new SymbolIndex();
+    cfg.blocks().forEach(block -> block.elements().forEach(element -> {
+      if (element.is(Tree.Kind.VARIABLE)) {
+        symbols.indexOf(((VariableTree) element).symbol());
+      }
+    }));
+    DataflowAnalysis.Result result = DataflowAnalysis.solve(cfg, DataflowAnalysis.Direction.FORWARD, meet, new BitSet(), symbols.size(),
+      (block, facts) -> block.elements().forEach(element -> {
+        if (element.is(Tree.Kind.ASSIGNMENT)) {
+          facts.set(symbols.indexOf(((IdentifierTree) ((AssignmentExpressionTree) element).variable()).symbol()));
+        } else if (element.is(Tree.Kind.VARIABLE) && ((VariableTree) element).initializer() != null) {
+          facts.set(symbols.indexOf(((VariableTree) element).symbol()));
+        }
+      }));
+    return symbols.asSet(result.before(cfg.reversedBlocks().get(0)));
+  }
+
+  private static Set<String> names(Set<Symbol> symbols) {
+    return symbols.stream().map(Symbol::name).collect(Collectors.toSet());
+  }
+
+  @Test
+  void forward_analysis_with_branches() {
+    CFG cfg = buildCFG("void foo(boolean b) { int x; int y; int z = 0; if (b) { x = 1; y = 1; } else { x = 2; } }");
+    assertThat(names(assignedAtExit(cfg, DataflowAnalysis.Meet.UNION))).containsOnly("x", "y", "z");
+    assertThat(names(assignedAtExit(cfg, DataflowAnalysis.Meet.INTERSECTION))).containsOnly("x", "z");
+  }
+
+  @Test
+  void forward_analysis_with_loops() {
+    CFG cfg = buildCFG("void foo(boolean b) { int x; int y; while (b) { x = 1; do { y = 1; } while (b); } }");
+    assertThat(names(assignedAtExit(cfg, DataflowAnalysis.Meet.UNION))).containsOnly("x", "y");
+    assertThat(assignedAtExit(cfg, DataflowAnalysis.Meet.INTERSECTION)).isEmpty();
+  }
+
+  @Test
+  void forward_analysis_with_exceptions() {
+    CFG cfg = buildCFG("void foo() { int x; int y; try { x = 1; bar(); y = 1; } catch (Exception e) { } } void bar() {}");
+    assertThat(names(assignedAtExit(cfg, DataflowAnalysis.Meet.UNION))).containsOnly("x", "y");
+    assertThat(names(assignedAtExit(cfg, DataflowAnalysis.Meet.INTERSECTION))).containsOnly("x");
+  }
+
+  @Test
+  void backward_analysis_starts_from_blocks_without_successors() {
+    CFG cfg = buildCFG("void foo(boolean b) { if (b) { return; } bar(); } void bar() {}");
+    BitSet boundary = new BitSet();
+    boundary.set(0);
+    DataflowAnalysis.Result result = DataflowAnalysis.solve(cfg, DataflowAnalysis.Direction.BACKWARD, DataflowAnalysis.Meet.INTERSECTION,
+      boundary, 2, (block, facts) -> {
+        if (!block.elements().isEmpty()) {
+          facts.set(1);
+        }
+      });
+    CFG.Block exit = cfg.reversedBlocks().get(0);
+    assertThat(result.after(exit)).isEqualTo(boundary);
+    assertThat(result.before(exit)).isEqualTo(boundary);
+    BitSet both = new BitSet();
+    both.set(0, 2);
+    assertThat(result.before(cfg.entryBlock())).isEqualTo(both);
+  }
+
+  @Test
+  void symbol_sets_are_views_of_bit_sets() {
+    SymbolIndex symbols = new SymbolIndex();
+    MethodTree method = (MethodTree) ((ClassTree) JParserTestUtils.parse("class A { void foo(int a, int b) { } }").types().get(0)).members().get(0);
+    Symbol a = method.parameters().get(0).symbol();
+    Symbol b = method.parameters().get(1).symbol();
+    assertThat(symbols.indexOf(a)).isZero();
+    assertThat(symbols.indexOf(b)).isEqualTo(1);
+    assertThat(symbols.indexOf(a)).isZero();
+    assertThat(symbols.size()).isEqualTo(2);
+    assertThat(symbols.symbol(1)).isSameAs(b);
+
+    BitSet bits = new BitSet();
+    Set<Symbol> set = symbols.asSet(bits);
+    assertThat(set).isEmpty();
+    bits.set(1);
+    assertThat(set).containsExactly(b).doesNotContain(a);
+    assertThat(set.contains("b")).isFalse();
+    assertThat(set).isEqualTo(Set.of(b));
+    assertThatThrownBy(() -> set.add(a)).isInstanceOf(UnsupportedOperationException.class);
+    Iterator<Symbol> iterator = set.iterator();
+    iterator.next();
+    assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+  }
+
+}
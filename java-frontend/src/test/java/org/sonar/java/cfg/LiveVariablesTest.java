@@ -146,4 +146,15 @@ class LiveVariablesTest {
     assertThat(in).hasSize(inEntryNames.length);
     in.forEach(symbol -> assertThat(symbol.name()).isIn(inEntryNames));
   }
+
+  @Test
+  void analysis_is_done_once_per_cfg() {
+    CFG cfg = buildCFG("void foo(int a) {  int i; if (false) ; foo(i); }");
+    LiveVariables liveVariables = LiveVariables.analyze(cfg);
+    assertThat(LiveVariables.analyze(cfg)).isSameAs(liveVariables);
+    LiveVariables liveVariablesWithFields = LiveVariables.analyzeWithFields(cfg);
+    assertThat(liveVariablesWithFields).isNotSameAs(liveVariables);
+    assertThat(LiveVariables.analyzeWithFields(cfg)).isSameAs(liveVariablesWithFields);
+  }
+
 }
@@ -260,6 +260,17 @@ class ClasspathForMainTest {
       "oklog-1.0.1.aar");
   }
 
+  @Test
+  void libraries_of_matching_directories_come_first() {
+    settings.setProperty(ClasspathProperties.SONAR_JAVA_LIBRARIES, "../../files/**/lib");
+    javaClasspath = createJavaClasspath();
+    List<File> elements = javaClasspath.getElements();
+    assertThat(elements.subList(7, 9)).extracting("name").containsExactly("lib", "lib");
+    for (File library : elements.subList(0, 7)) {
+      assertThat(elements.indexOf(library.getParentFile())).isGreaterThanOrEqualTo(7);
+    }
+  }
+
   @Test
   void should_not_scan_target_classes() {
     settings.setProperty(ClasspathProperties.SONAR_JAVA_LIBRARIES, "../../files/classpath/lib/target/classes");
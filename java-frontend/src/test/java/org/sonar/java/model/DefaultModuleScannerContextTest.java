@@ -17,6 +17,7 @@
 package org.sonar.java.model;
 
 import java.io.File;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
@@ -26,6 +27,7 @@ import org.sonar.api.batch.fs.InputComponent;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.caching.DummyCache;
+import org.sonar.java.reporting.PendingIssues;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.caching.CacheContext;
 
@@ -98,6 +100,34 @@ class DefaultModuleScannerContextTest {
     assertThat(context.inAndroidContext()).isFalse();
   }
 
+  @Test
+  void test_newPendingIssues_delegates_to_SonarComponents() {
+    var sonarComponents = spy(
+      new SonarComponents(null, null, null, null, null, null)
+    );
+    var pendingIssues = new PendingIssues();
+    doReturn(pendingIssues).when(sonarComponents).newPendingIssues();
+    var context = new DefaultModuleScannerContext(sonarComponents, JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION, false, null);
+    assertThat(context.newPendingIssues()).isSameAs(pendingIssues);
+
+    context = new DefaultModuleScannerContext(null, JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION, false, null);
+    assertThat(context.newPendingIssues().isEmpty()).isTrue();
+  }
+
+  @Test
+  void test_getJavaClasspath_delegates_to_SonarComponents() {
+    var sonarComponents = spy(
+      new SonarComponents(null, null, null, null, null, null)
+    );
+    List<File> classpath = List.of(new File("lib.jar"));
+    doReturn(classpath).when(sonarComponents).getJavaClasspath();
+    var context = new DefaultModuleScannerContext(sonarComponents, JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION, false, null);
+    assertThat(context.getJavaClasspath()).isSameAs(classpath);
+
+    context = new DefaultModuleScannerContext(null, JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION, false, null);
+    assertThat(context.getJavaClasspath()).isEmpty();
+  }
+
   @Test
   void test_getProject_delegates_to_SonarComponents() {
     var sonarComponents = spy(
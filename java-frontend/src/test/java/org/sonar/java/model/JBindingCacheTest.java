@@ -0,0 +1,66 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jdt.core.dom.IAnnotationBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class JBindingCacheTest {
+
+  private final JBindingCache cache = new JBindingCache();
+  private final AtomicInteger computations = new AtomicInteger();
+
+  @Test
+  void types_are_resolved_once_by_name() {
+    ITypeBinding binding = mock(ITypeBinding.class);
+    assertThat(cache.resolveType("A", name -> {
+      computations.incrementAndGet();
+      return binding;
+    })).isSameAs(binding);
+    assertThat(cache.resolveType("A", name -> mock(ITypeBinding.class))).isSameAs(binding);
+
+    assertThat(cache.resolveType("Unknown", name -> {
+      computations.incrementAndGet();
+      return null;
+    })).isNull();
+    assertThat(cache.resolveType("Unknown", name -> binding)).isNull();
+    assertThat(computations).hasValue(2);
+  }
+
+  @Test
+  void package_annotations_are_resolved_once_by_package() {
+    IAnnotationBinding[] annotations = new IAnnotationBinding[0];
+    assertThat(cache.packageAnnotations("p", name -> annotations)).isSameAs(annotations);
+    assertThat(cache.packageAnnotations("p", name -> new IAnnotationBinding[0])).isSameAs(annotations);
+  }
+
+  @Test
+  void names_can_be_computed_recursively() {
+    ITypeBinding array = mock(ITypeBinding.class);
+    ITypeBinding component = mock(ITypeBinding.class);
+    String name = cache.fullyQualifiedName(array, b -> cache.fullyQualifiedName(component, c -> "A") + "[]");
+    assertThat(name).isEqualTo("A[]");
+    assertThat(cache.fullyQualifiedName(array, b -> "other")).isSameAs(name);
+    assertThat(cache.fullyQualifiedName(component, b -> "other")).isEqualTo("A");
+  }
+
+}
@@ -16,10 +16,15 @@
  */
 package org.sonar.java.model;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.slf4j.event.Level;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.AnalysisProgress;
+import org.sonar.java.TestUtils;
 import org.sonar.java.testing.ThreadLocalLogTester;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -55,4 +60,31 @@ class JParserConfigTest {
     JParserConfig.Mode.BATCH.create(new JavaVersionImpl(17), Collections.emptyList(), true);
     assertThat(logTester.logs()).containsExactly("The Java analyzer will ignore the unnamed module for split packages.");
   }
+
+  @Test
+  void classpath_is_kept_warm_in_file_by_file_mode_only_when_requested() throws Exception {
+    List<InputFile> inputFiles = List.of(TestUtils.inputFile("src/test/files/metrics/Classes.java"));
+    List<JParserConfig.Result> results = new ArrayList<>();
+    try {
+      WarmClasspath.SHARED.release();
+      JParserConfig.Mode.FILE_BY_FILE.create(new JavaVersionImpl(17), JParserTestUtils.DEFAULT_CLASSPATH)
+        .parse(inputFiles, () -> false, new AnalysisProgress(1), (inputFile, result) -> results.add(result));
+      assertThat(WarmClasspath.SHARED.retain(JParserTestUtils.DEFAULT_CLASSPATH)).isTrue();
+
+      WarmClasspath.SHARED.release();
+      JParserConfig.Mode.FILE_BY_FILE.create(new JavaVersionImpl(17), JParserTestUtils.DEFAULT_CLASSPATH)
+        .keepClasspathWarm(true)
+        .parse(inputFiles, () -> false, new AnalysisProgress(1), (inputFile, result) -> results.add(result));
+      assertThat(WarmClasspath.SHARED.retain(JParserTestUtils.DEFAULT_CLASSPATH)).isFalse();
+
+      // archives kept open by previous analyses are released once the classpath is no longer kept warm
+      JParserConfig.Mode.FILE_BY_FILE.create(new JavaVersionImpl(17), JParserTestUtils.DEFAULT_CLASSPATH)
+        .parse(inputFiles, () -> false, new AnalysisProgress(1), (inputFile, result) -> results.add(result));
+      assertThat(WarmClasspath.SHARED.openArchiveCount()).isZero();
+    } finally {
+      WarmClasspath.SHARED.release();
+    }
+    assertThat(results).hasSize(3);
+    assertThat(results.get(1).get()).isNotNull();
+  }
 }
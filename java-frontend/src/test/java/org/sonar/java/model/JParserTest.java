@@ -32,6 +32,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.BooleanSupplier;
 import java.util.jar.Attributes;
@@ -45,8 +46,6 @@ import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
-import org.eclipse.jdt.internal.formatter.Token;
-import org.eclipse.jdt.internal.formatter.TokenManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.api.io.TempDir;
@@ -58,12 +57,15 @@ import org.slf4j.event.Level;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.java.AnalysisProgress;
 import org.sonar.java.TestUtils;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.java.model.JavaTree.CompilationUnitTreeImpl;
 import org.sonar.java.model.declaration.ClassTreeImpl;
 import org.sonar.java.testing.ThreadLocalLogTester;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.location.Range;
 import org.sonar.plugins.java.api.tree.ArrayTypeTree;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.CaseGroupTree;
 import org.sonar.plugins.java.api.tree.CaseLabelTree;
@@ -71,6 +73,7 @@ import org.sonar.plugins.java.api.tree.CatchTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.EnumConstantTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.ForEachStatement;
 import org.sonar.plugins.java.api.tree.ForStatementTree;
 import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
@@ -503,6 +506,71 @@ class JParserTest {
     assertThat(variableTree.simpleName().isUnnamedVariable()).isTrue();
   }
 
+  @Test
+  void deep_trees_are_linked_and_visited_without_overflowing_the_stack() throws InterruptedException {
+    int operands = 20_000;
+    StringBuilder source = new StringBuilder("class A { String s = \"\"");
+    for (int i = 0; i < operands; i++) {
+      source.append(" + i");
+    }
+    source.append("; int i; }");
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Tree> binaryExpressions = new ArrayList<>();
+    List<Tree> leftBinaryExpressions = new ArrayList<>();
+    // small stack, to not depend on the one of the test
+    Thread thread = new Thread(null, () -> {
+      try {
+        CompilationUnitTree cut = JParserTestUtils.parse(source.toString());
+        JavaFileScannerContext context = Mockito.mock(JavaFileScannerContext.class);
+        Mockito.when(context.getTree()).thenReturn(cut);
+        VariableTree s = (VariableTree) ((ClassTree) cut.types().get(0)).members().get(0);
+        ExpressionTree initializer = s.initializer();
+        assertThat(initializer.firstToken().text()).isEqualTo("\"\"");
+        assertThat(initializer.lastToken().text()).isEqualTo("i");
+        assertThat(((JavaTree) initializer).allTokens()).hasSize(2 * operands + 1);
+
+        ExpressionTree innermost = initializer;
+        while (innermost.is(Tree.Kind.PLUS)) {
+          innermost = ((BinaryExpressionTree) innermost).leftOperand();
+        }
+        Tree parent = innermost;
+        int depth = 0;
+        while (parent != null) {
+          parent = parent.parent();
+          depth++;
+        }
+        // the literal, the binary expressions, the variable, the class and the compilation unit
+        assertThat(depth).isEqualTo(operands + 4);
+
+        new SubscriptionVisitor() {
+          @Override
+          public List<Tree.Kind> nodesToVisit() {
+            return List.of(Tree.Kind.PLUS);
+          }
+
+          @Override
+          public void visitNode(Tree tree) {
+            binaryExpressions.add(tree);
+          }
+
+          @Override
+          public void leaveNode(Tree tree) {
+            leftBinaryExpressions.add(tree);
+          }
+        }.scanFile(context);
+      } catch (Throwable e) {
+        failure.set(e);
+      }
+    }, "deep tree", 512 * 1024L);
+    thread.start();
+    thread.join();
+    assertThat(failure.get()).isNull();
+    assertThat(binaryExpressions).hasSize(operands);
+    assertThat(leftBinaryExpressions).hasSize(operands);
+    // entered from the outermost, left from the innermost
+    assertThat(leftBinaryExpressions.get(0)).isSameAs(binaryExpressions.get(operands - 1));
+  }
+
   @Test
   void test_first_index_of_tokens_in_eclipse_ast() {
     String version = JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION.effectiveJavaVersionAsString();
@@ -515,12 +583,12 @@ class JParserTest {
     astParser.setUnitName(unitName);
     astParser.setSource(source.toCharArray());
     CompilationUnit compilationUnit = (CompilationUnit) astParser.createAST(null);
-    TokenManager tokenManager = JParser.createTokenManager(version, unitName, source);
+    JTokens tokens = JTokens.lex(version, unitName, source);
 
-    assertThat(JParser.firstIndexIn(tokenManager, compilationUnit, TerminalTokens.TokenNameIdentifier, TerminalTokens.TokenNameLBRACE)).isEqualTo(1);
-    assertThat(JParser.firstIndexIn(tokenManager, compilationUnit, TerminalTokens.TokenNameLBRACE, TerminalTokens.TokenNameIdentifier)).isEqualTo(1);
-    assertThat(JParser.firstIndexIn(tokenManager, compilationUnit, TerminalTokens.TokenNameRBRACE, TerminalTokens.TokenNameLBRACE)).isEqualTo(2);
-    assertThatThrownBy(() -> JParser.firstIndexIn(tokenManager, compilationUnit, TerminalTokens.TokenNamebreak, TerminalTokens.TokenNameconst))
+    assertThat(JParser.firstIndexIn(tokens, compilationUnit, TerminalTokens.TokenNameIdentifier, TerminalTokens.TokenNameLBRACE)).isEqualTo(1);
+    assertThat(JParser.firstIndexIn(tokens, compilationUnit, TerminalTokens.TokenNameLBRACE, TerminalTokens.TokenNameIdentifier)).isEqualTo(1);
+    assertThat(JParser.firstIndexIn(tokens, compilationUnit, TerminalTokens.TokenNameRBRACE, TerminalTokens.TokenNameLBRACE)).isEqualTo(2);
+    assertThatThrownBy(() -> JParser.firstIndexIn(tokens, compilationUnit, TerminalTokens.TokenNamebreak, TerminalTokens.TokenNameconst))
       .isInstanceOf(IllegalStateException.class)
       .hasMessage("Failed to find token 82 or 136 in the tokens of a org.eclipse.jdt.core.dom.CompilationUnit");
   }
@@ -541,46 +609,34 @@ class JParserTest {
         void foo() {}
       }
       """;
-    TokenManager tokens = JParser.createTokenManager(version, unitName, source);
+    JTokens tokens = JTokens.lex(version, unitName, source);
 
     assertThat(tokens.size()).isEqualTo(15);
 
-    Token token0 = tokens.get(0);
-    assertThat(token0.toString(source)).isEqualTo("class");
-    assertThat(token0.isComment()).isFalse();
-    assertThat(isComment(token0)).isFalse();
-    assertThatThrownBy(() -> convertTokenTypeToCommentKind(token0))
+    assertThat(tokens.text(0)).isEqualTo("class");
+    assertThat(isComment(tokens.type(0))).isFalse();
+    assertThatThrownBy(() -> convertTokenTypeToCommentKind(tokens.type(0)))
       .isInstanceOf(IllegalStateException.class)
       .hasMessage("Unexpected value: 71");
 
-    Token token3 = tokens.get(3);
-    assertThat(token3.toString(source)).isEqualTo("// line comment");
-    assertThat(token3.isComment()).isTrue();
-    assertThat(isComment(token3)).isTrue();
-    assertThat(convertTokenTypeToCommentKind(token3)).isEqualTo(CommentKind.LINE);
+    assertThat(tokens.text(3)).isEqualTo("// line comment");
+    assertThat(isComment(tokens.type(3))).isTrue();
+    assertThat(convertTokenTypeToCommentKind(tokens.type(3))).isEqualTo(CommentKind.LINE);
 
-    Token token4 = tokens.get(4);
-    assertThat(token4.toString(source)).isEqualTo("/* block comment */");
-    assertThat(token4.isComment()).isTrue();
-    assertThat(isComment(token4)).isTrue();
-    assertThat(convertTokenTypeToCommentKind(token4)).isEqualTo(CommentKind.BLOCK);
+    assertThat(tokens.text(4)).isEqualTo("/* block comment */");
+    assertThat(isComment(tokens.type(4))).isTrue();
+    assertThat(convertTokenTypeToCommentKind(tokens.type(4))).isEqualTo(CommentKind.BLOCK);
 
-    Token token5 = tokens.get(5);
-    assertThat(token5.toString(source)).isEqualTo("/// markdown comment 1\n  /// markdown comment 2");
-    assertThat(token5.isComment()).isFalse(); // JDT issue https://github.com/eclipse-jdt/eclipse.jdt.core/issues/3914
-    assertThat(isComment(token5)).isTrue();
-    assertThat(convertTokenTypeToCommentKind(token5)).isEqualTo(CommentKind.MARKDOWN);
+    assertThat(tokens.text(5)).isEqualTo("/// markdown comment 1\n  /// markdown comment 2");
+    assertThat(isComment(tokens.type(5))).isTrue();
+    assertThat(convertTokenTypeToCommentKind(tokens.type(5))).isEqualTo(CommentKind.MARKDOWN);
 
-    Token token6 = tokens.get(6);
-    assertThat(token6.toString(source)).isEqualTo("/**\n    * javadoc comment\n    */");
-    assertThat(token6.isComment()).isTrue();
-    assertThat(isComment(token6)).isTrue();
-    assertThat(convertTokenTypeToCommentKind(token6)).isEqualTo(CommentKind.JAVADOC);
+    assertThat(tokens.text(6)).isEqualTo("/**\n    * javadoc comment\n    */");
+    assertThat(isComment(tokens.type(6))).isTrue();
+    assertThat(convertTokenTypeToCommentKind(tokens.type(6))).isEqualTo(CommentKind.JAVADOC);
 
-    Token token7 = tokens.get(7);
-    assertThat(token7.toString(source)).isEqualTo("void");
-    assertThat(token7.isComment()).isFalse();
-    assertThat(isComment(token7)).isFalse();
+    assertThat(tokens.text(7)).isEqualTo("void");
+    assertThat(isComment(tokens.type(7))).isFalse();
   }
 
   @Test
@@ -693,6 +749,33 @@ class JParserTest {
       "[action] analyse class MyClass in Methods.java");
   }
 
+  @Test
+  void files_of_a_batch_share_the_data_derived_from_bindings() {
+    List<InputFile> inputFiles = Arrays.asList(
+      TestUtils.inputFile("src/test/files/metrics/Classes.java"),
+      TestUtils.inputFile("src/test/files/metrics/Methods.java"));
+    List<JSema> semas = new ArrayList<>();
+    BiConsumer<InputFile, JParserConfig.Result> action = (inputFile, result) -> {
+      try {
+        semas.add(result.get().sema);
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    };
+    BATCH.create(MAXIMUM_SUPPORTED_JAVA_VERSION, DEFAULT_CLASSPATH).parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), action);
+
+    assertThat(semas).hasSize(2);
+    JSema first = semas.get(0);
+    JSema second = semas.get(1);
+    // types are specific to each file, what they are built from is not
+    assertThat(first.getClassType("java.util.List")).isNotSameAs(second.getClassType("java.util.List"));
+    assertThat(first.resolveType("java.util.List")).isSameAs(second.resolveType("java.util.List"));
+    assertThat(first.resolveType("java.util.List[][]")).isSameAs(second.resolveType("java.util.List[][]"));
+    assertThat(first.resolveType("org.example.Unknown")).isNull();
+    assertThat(first.getClassType("java.util.List").fullyQualifiedName()).isSameAs(second.getClassType("java.util.List").fullyQualifiedName());
+    assertThat(first.resolvePackageAnnotations("java.lang")).isSameAs(second.resolvePackageAnnotations("java.lang"));
+  }
+
   @Test
   void successful_batch_mode_with_missing_analyzed_files_should_continue_file_by_file() {
     List<InputFile> inputFiles = Arrays.asList(
@@ -0,0 +1,156 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.parser.Scanner;
+import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
+import org.eclipse.jdt.internal.formatter.DefaultCodeFormatterOptions;
+import org.eclipse.jdt.internal.formatter.Token;
+import org.eclipse.jdt.internal.formatter.TokenManager;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JTokensTest {
+
+  private static final String VERSION = JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION.effectiveJavaVersionAsString();
+  private static final String SOURCE = "package p;\r\n" +
+    "// line comment\r\n" +
+    "/// markdown comment\n" +
+    "sealed interface Shape permits Circle, Square {}\n" +
+    "record Circle(int r) implements Shape {}\n" +
+    "record Square(int side) implements Shape {}\n" +
+    "class A {\n" +
+    "  /* block */ int f(Shape s, Object o) {\n" +
+    "    var x = switch (s) { case Circle c -> { yield c.r(); } case Square(int _) -> 2; };\n" +
+    "    if (o instanceof String str && !str.isEmpty()) { return -1; }\n" +
+    "    List<List<String>> l = null; ;;\n" +
+    "    return x >>> 1; // trailing\n" +
+    "  }\n" +
+    "}\n";
+
+  @Test
+  void tokens_are_the_ones_of_the_formatter() {
+    JTokens tokens = JTokens.lex(VERSION, "A.java", SOURCE);
+    List<Token> expected = formatterTokens(SOURCE);
+    assertThat(tokens.size()).isEqualTo(expected.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Token token = expected.get(i);
+      assertThat(tokens.type(i)).isEqualTo(token.tokenType);
+      assertThat(tokens.start(i)).isEqualTo(token.originalStart);
+      assertThat(tokens.end(i)).isEqualTo(token.originalEnd);
+      if (token.tokenType != TerminalTokens.TokenNameEOF) {
+        assertThat(tokens.text(i)).isEqualTo(token.toString(SOURCE));
+      }
+    }
+    assertThat(tokens.text(3)).isEqualTo("// line comment");
+  }
+
+  @Test
+  void lookups_are_the_ones_of_the_formatter() {
+    JTokens tokens = JTokens.lex(VERSION, "A.java", SOURCE);
+    TokenManager tokenManager = new TokenManager(formatterTokens(SOURCE), SOURCE, new DefaultCodeFormatterOptions(new HashMap<>()));
+    int[] tokenTypes = {
+      JTokens.ANY_TOKEN,
+      TerminalTokens.TokenNameIdentifier,
+      TerminalTokens.TokenNameSEMICOLON,
+      TerminalTokens.TokenNameLBRACE,
+      TerminalTokens.TokenNameRBRACE,
+      TerminalTokens.TokenNameRestrictedIdentifierpermits,
+      TerminalTokens.TokenNameRestrictedIdentifierrecord,
+      TerminalTokens.TokenNameRestrictedIdentifiersealed,
+      TerminalTokens.TokenNameRestrictedIdentifierYield
+    };
+    List<ASTNode> nodes = nodes(SOURCE);
+    assertThat(nodes).hasSizeGreaterThan(50);
+    for (ASTNode node : nodes) {
+      for (int tokenType : tokenTypes) {
+        assertSameIndex(() -> tokens.firstIndexIn(node, tokenType), () -> tokenManager.firstIndexIn(node, tokenType));
+        assertSameIndex(() -> tokens.lastIndexIn(node, tokenType), () -> tokenManager.lastIndexIn(node, tokenType));
+        assertSameIndex(() -> tokens.firstIndexBefore(node, tokenType), () -> tokenManager.firstIndexBefore(node, tokenType));
+        assertSameIndex(() -> tokens.firstIndexAfter(node, tokenType), () -> tokenManager.firstIndexAfter(node, tokenType));
+      }
+    }
+  }
+
+  /**
+   * Lookups of tokens which are not in the node, or not in the file, fail with the formatter and are not compared.
+   */
+  private static void assertSameIndex(IntSupplier actual, IntSupplier expected) {
+    int expectedIndex;
+    try {
+      expectedIndex = expected.getAsInt();
+    } catch (AssertionError | IndexOutOfBoundsException e) {
+      return;
+    }
+    assertThat(actual.getAsInt()).isEqualTo(expectedIndex);
+  }
+
+  @Test
+  void module_declarations_use_restricted_keywords() {
+    JTokens tokens = JTokens.lex(VERSION, "module-info.java", "module m { requires transitive a; }");
+    assertThat(tokens.type(0)).isEqualTo(TerminalTokens.TokenNamemodule);
+    assertThat(tokens.type(3)).isEqualTo(TerminalTokens.TokenNamerequires);
+  }
+
+  private static List<Token> formatterTokens(String source) {
+    List<Token> tokens = new ArrayList<>();
+    Scanner scanner = new Scanner(true, false, false, CompilerOptions.versionToJdkLevel(VERSION), null, null, false);
+    scanner.setSource(source.toCharArray());
+    int tokenType;
+    do {
+      try {
+        tokenType = scanner.getNextToken();
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+      tokens.add(Token.fromCurrent(scanner, tokenType));
+    } while (tokenType != TerminalTokens.TokenNameEOF);
+    return tokens;
+  }
+
+  private static List<ASTNode> nodes(String source) {
+    ASTParser astParser = ASTParser.newParser(AST.getJLSLatest());
+    Map<String, String> options = JavaCore.getOptions();
+    JavaCore.setComplianceOptions(VERSION, options);
+    astParser.setCompilerOptions(options);
+    astParser.setUnitName("A.java");
+    astParser.setSource(source.toCharArray());
+    CompilationUnit compilationUnit = (CompilationUnit) astParser.createAST(null);
+    List<ASTNode> nodes = new ArrayList<>();
+    compilationUnit.accept(new ASTVisitor() {
+      @Override
+      public void preVisit(ASTNode node) {
+        nodes.add(node);
+      }
+    });
+    return nodes;
+  }
+
+}
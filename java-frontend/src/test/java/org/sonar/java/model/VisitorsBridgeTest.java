@@ -16,6 +16,7 @@
  */
 package org.sonar.java.model;
 
+import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -34,8 +35,11 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.java.AnalysisException;
+import org.sonar.java.AnalysisProfiler;
 import org.sonar.java.CheckFailureException;
+import org.sonar.java.RuleTimeBudget;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.TestUtils;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
@@ -45,6 +49,7 @@ import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.notchecks.VisitorNotInChecksPackage;
 import org.sonar.java.testing.ThreadLocalLogTester;
 import org.sonar.plugins.java.api.DependencyVersionAware;
+import org.sonar.plugins.java.api.FileLocalCheck;
 import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScanner;
@@ -194,6 +199,139 @@ class VisitorsBridgeTest {
         "IV1_ThrowingNPEVisitingClass - IV1");
   }
 
+  @Test
+  void issuable_subscription_visitors_are_notified_in_the_same_order_as_a_standalone_subscription_visitor() {
+    String deeplyNested = "1" + " + (1".repeat(200) + ")".repeat(200);
+    CompilationUnitTree tree = JParserTestUtils.parse("""
+      class A {
+        // comment
+        int f() {
+          return %s;
+        }
+      }
+      """.formatted(deeplyNested));
+
+    EventRecordingVisitor dispatched = new EventRecordingVisitor();
+    visitorsBridge(Collections.singletonList(dispatched), false).visitFile(tree, false);
+    EventRecordingVisitor standalone = new EventRecordingVisitor();
+    new StandaloneVisitor(standalone).scan(tree);
+
+    assertThat(dispatched.events)
+      .hasSizeGreaterThan(1_000)
+      .containsExactlyElementsOf(standalone.events);
+  }
+
+  @Test
+  void rules_exceeding_their_time_budget_are_cancelled_on_the_file() {
+    SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
+    sensorContextTester.setSettings(new MapSettings().setProperty(SonarComponents.SONAR_RULE_TIME_BUDGET_PER_FILE_IN_MS_KEY, 100));
+    SonarComponents specificSonarComponents = spy(new SonarComponents(null, null, null, null, null, null));
+    doReturn(Optional.of(RuleKey.of("java", "S42"))).when(specificSonarComponents).getRuleKey(any());
+    specificSonarComponents.setSensorContext(sensorContextTester);
+    RuleTimeBudget ruleTimeBudget = specificSonarComponents.ruleTimeBudget();
+
+    IdentifierCountingVisitor slowVisitor = new IdentifierCountingVisitor(120);
+    IdentifierCountingVisitor fastVisitor = new IdentifierCountingVisitor(0);
+    SlowScanner slowScanner = new SlowScanner();
+    SlowScannerWithOwnTimeBudget slowScannerWithOwnTimeBudget = new SlowScannerWithOwnTimeBudget();
+    VisitorsBridge bridge = new VisitorsBridge(List.of(slowVisitor, fastVisitor, slowScanner, slowScannerWithOwnTimeBudget), Collections.emptyList(),
+      specificSonarComponents);
+    bridge.setCurrentFile(INPUT_FILE);
+    bridge.visitFile(COMPILATION_UNIT_TREE, false);
+
+    assertThat(slowVisitor.identifiers).isEqualTo(1);
+    assertThat(fastVisitor.identifiers).isEqualTo(5);
+    assertThat(slowVisitor.leftFiles).isEqualTo(1);
+    // the trees entered before the cancellation are still left
+    assertThat(slowVisitor.openTrees).isZero();
+    assertThat(fastVisitor.openTrees).isZero();
+    // both slow rules are cancelled, only the issues of the interrupted visitor are discarded
+    assertThat(logTester.logs(Level.WARN))
+      .hasSize(3)
+      .anyMatch(log -> log.startsWith("Rule " + SlowScanner.class.getName() + " cancelled on file"))
+      .anyMatch(log -> log.startsWith("Issues of rule " + IdentifierCountingVisitor.class.getName()))
+      .noneMatch(log -> log.contains(SlowScannerWithOwnTimeBudget.class.getName()));
+    // the issues reported before the interruption of a rule are discarded as well
+    assertThat(sensorContextTester.allIssues())
+      .extracting(issue -> issue.primaryLocation().message())
+      .containsOnly("fast identifier", "slow scanner", "scanner with its own time budget")
+      .hasSize(7);
+    // the file is done, issues are saved right away again
+    assertThat(ruleTimeBudget.isCancelled(slowVisitor)).isFalse();
+    specificSonarComponents.addIssue(INPUT_FILE, slowScanner, 1, "end of analysis", null);
+    assertThat(sensorContextTester.allIssues()).hasSize(8);
+
+    // the budget is reset on the next file
+    File otherFile = new File("src/test/files/model/ModifiersUtilsTest.java");
+    bridge.setCurrentFile(TestUtils.inputFile(otherFile));
+    bridge.visitFile(JParserTestUtils.parse(otherFile), false);
+    assertThat(slowVisitor.identifiers).isEqualTo(2);
+    assertThat(fastVisitor.identifiers).isGreaterThan(5);
+    assertThat(slowVisitor.leftFiles).isEqualTo(2);
+    assertThat(slowVisitor.openTrees).isZero();
+    assertThat(logTester.logs(Level.WARN)).hasSize(6);
+  }
+
+  private static class IdentifierCountingVisitor extends IssuableSubscriptionVisitor {
+    private final long sleepInMs;
+    private int identifiers = 0;
+    private int openTrees = 0;
+    private int leftFiles = 0;
+
+    IdentifierCountingVisitor(long sleepInMs) {
+      this.sleepInMs = sleepInMs;
+    }
+
+    @Override
+    public List<Kind> nodesToVisit() {
+      return List.of(Kind.CLASS, Kind.METHOD, Kind.IDENTIFIER);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      openTrees++;
+      if (tree.is(Kind.IDENTIFIER)) {
+        identifiers++;
+        reportIssue(tree, sleepInMs > 0 ? "slow identifier" : "fast identifier");
+        sleep(sleepInMs);
+      }
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      openTrees--;
+    }
+
+    @Override
+    public void leaveFile(JavaFileScannerContext context) {
+      leftFiles++;
+    }
+  }
+
+  private static class SlowScanner implements JavaFileScanner {
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      context.addIssueOnFile(this, "slow scanner");
+      sleep(120);
+    }
+  }
+
+  private static class SlowScannerWithOwnTimeBudget implements JavaFileScanner, RuleTimeBudget.OwnTimeBudget {
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      context.addIssueOnFile(this, "scanner with its own time budget");
+      sleep(120);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   @Test
   void no_log_when_filter_execute_fine() {
     VisitorsBridge visitorsBridge = visitorsBridge(Arrays.asList(), true);
@@ -216,6 +354,23 @@ class VisitorsBridgeTest {
     verify(specificSonarComponents, never()).symbolizableFor(any());
   }
 
+  @Test
+  void semantic_sample_is_stopped_when_the_symbol_table_fails_to_be_created() {
+    SonarComponents specificSonarComponents = mock(SonarComponents.class);
+    doThrow(NPE).when(specificSonarComponents).symbolizableFor(any());
+    VisitorsBridge bridge = new VisitorsBridge(Collections.emptySet(), Collections.emptyList(), specificSonarComponents);
+    bridge.setCurrentFile(INPUT_FILE);
+    AnalysisProfiler profiler = AnalysisProfiler.activate();
+    try {
+      assertThatThrownBy(() -> bridge.visitFile(COMPILATION_UNIT_TREE, false)).isSameAs(NPE);
+      AnalysisProfiler.start(AnalysisProfiler.Phase.VISIT).stop();
+    } finally {
+      AnalysisProfiler.deactivate();
+    }
+    assertThat(profiler.phases().get(AnalysisProfiler.Phase.SEMANTIC).calls()).isEqualTo(1L);
+    assertThat(profiler.collapsedStacks()).noneMatch(line -> line.startsWith("semantic;"));
+  }
+
   @Test
   void filter_scanner_by_java_version() {
     List<String> trace = new ArrayList<>();
@@ -368,6 +523,12 @@ class VisitorsBridgeTest {
     assertThat(VisitorsBridge.canVisitorBeSkippedOnUnchangedFiles(visitor)).isTrue();
   }
 
+  @Test
+  void canVisitorBeSkippedOnUnchangedFiles_returns_true_for_file_local_checks_defined_outside_of_checks_package() {
+    assertThat(VisitorsBridge.canVisitorBeSkippedOnUnchangedFiles(new FileLocalVisitor())).isTrue();
+    assertThat(VisitorsBridge.canVisitorBeSkippedOnUnchangedFiles(new FileLocalEndOfAnalysisVisitor())).isFalse();
+  }
+
   @Test
   void visitorsBridge_uses_appropriate_scanners() throws ApiMismatchException {
     SonarComponents specificSonarComponents = mock(SonarComponents.class);
@@ -519,6 +680,98 @@ class VisitorsBridgeTest {
       assertThat(scan_without_parsing(new IsvThatCannotScanWithoutParsing())).isFalse();
     }
 
+    @Test
+    void only_scanners_that_could_not_scan_without_parsing_are_run_on_the_parsed_file() throws ApiMismatchException {
+      SonarComponents specificSonarComponents = mock(SonarComponents.class);
+      doReturn(true).when(specificSonarComponents).fileCanBeSkipped(any(InputFile.class));
+      doReturn(true).when(specificSonarComponents).canSkipUnchangedFiles();
+
+      DefaultEndOfAnalysisCheck scannerNotRequiringParsing = spy(new DefaultEndOfAnalysisCheck());
+      ScannerThatCannotScanWithoutParsing scannerRequiringParsing = spy(new ScannerThatCannotScanWithoutParsing());
+      VisitorsBridge visitorsBridge = new VisitorsBridge(
+        List.of(scannerNotRequiringParsing, scannerRequiringParsing),
+        Collections.emptyList(),
+        specificSonarComponents
+      );
+      InputFile inputFile = mock(InputFile.class);
+      visitorsBridge.setCurrentFile(inputFile);
+
+      assertThat(visitorsBridge.scanWithoutParsing(inputFile)).isFalse();
+      visitorsBridge.visitFile(null, true);
+      verify(scannerNotRequiringParsing, never()).scanFile(any());
+      verify(scannerRequiringParsing, times(1)).scanFile(any());
+
+      // Without a prior scan without parsing, all the unskippable scanners are run
+      visitorsBridge.visitFile(null, true);
+      verify(scannerNotRequiringParsing, times(1)).scanFile(any());
+      verify(scannerRequiringParsing, times(2)).scanFile(any());
+    }
+
+    @Test
+    void scanners_left_to_run_on_a_file_are_forgotten_when_it_fails_to_parse() throws ApiMismatchException {
+      SonarComponents specificSonarComponents = mock(SonarComponents.class);
+      doReturn(true).when(specificSonarComponents).fileCanBeSkipped(any(InputFile.class));
+      doReturn(true).when(specificSonarComponents).canSkipUnchangedFiles();
+      doReturn(true).when(specificSonarComponents).reportAnalysisError(any(), any());
+
+      DefaultEndOfAnalysisCheck scannerNotRequiringParsing = spy(new DefaultEndOfAnalysisCheck());
+      ScannerThatCannotScanWithoutParsing scannerRequiringParsing = spy(new ScannerThatCannotScanWithoutParsing());
+      VisitorsBridge visitorsBridge = new VisitorsBridge(
+        List.of(scannerNotRequiringParsing, scannerRequiringParsing),
+        Collections.emptyList(),
+        specificSonarComponents
+      );
+      InputFile inputFile = mock(InputFile.class);
+      visitorsBridge.setCurrentFile(inputFile);
+
+      assertThat(visitorsBridge.scanWithoutParsing(inputFile)).isFalse();
+      visitorsBridge.processRecognitionException(new RecognitionException(1, "parse error"), inputFile);
+      verify(scannerRequiringParsing, never()).scanFile(any());
+
+      // a later visit of the file runs all the unskippable scanners again
+      visitorsBridge.visitFile(null, true);
+      verify(scannerNotRequiringParsing, times(1)).scanFile(any());
+      verify(scannerRequiringParsing, times(1)).scanFile(any());
+    }
+
+    @Test
+    void scanners_left_to_run_on_files_which_were_not_visited_are_forgotten_at_the_end_of_their_batch() throws ApiMismatchException {
+      SonarComponents specificSonarComponents = mock(SonarComponents.class);
+      doReturn(true).when(specificSonarComponents).fileCanBeSkipped(any(InputFile.class));
+      doReturn(true).when(specificSonarComponents).canSkipUnchangedFiles();
+
+      DefaultEndOfAnalysisCheck scannerNotRequiringParsing = spy(new DefaultEndOfAnalysisCheck());
+      ScannerThatCannotScanWithoutParsing scannerRequiringParsing = spy(new ScannerThatCannotScanWithoutParsing());
+      VisitorsBridge visitorsBridge = new VisitorsBridge(
+        List.of(scannerNotRequiringParsing, scannerRequiringParsing),
+        Collections.emptyList(),
+        specificSonarComponents
+      );
+      InputFile inBatch = mock(InputFile.class);
+      InputFile inNextBatch = mock(InputFile.class);
+      assertThat(visitorsBridge.scanWithoutParsing(inBatch)).isFalse();
+      assertThat(visitorsBridge.scanWithoutParsing(inNextBatch)).isFalse();
+
+      visitorsBridge.endOfBatch(List.of(inBatch));
+      visitorsBridge.setCurrentFile(inBatch);
+      visitorsBridge.visitFile(null, true);
+      verify(scannerNotRequiringParsing, times(1)).scanFile(any());
+      verify(scannerRequiringParsing, times(1)).scanFile(any());
+
+      visitorsBridge.setCurrentFile(inNextBatch);
+      visitorsBridge.visitFile(null, true);
+      verify(scannerNotRequiringParsing, times(1)).scanFile(any());
+      verify(scannerRequiringParsing, times(2)).scanFile(any());
+
+      // files which never reached a batch are forgotten at the end of the analysis
+      assertThat(visitorsBridge.scanWithoutParsing(inBatch)).isFalse();
+      visitorsBridge.endOfAnalysis();
+      visitorsBridge.setCurrentFile(inBatch);
+      visitorsBridge.visitFile(null, true);
+      verify(scannerNotRequiringParsing, times(2)).scanFile(any());
+      verify(scannerRequiringParsing, times(3)).scanFile(any());
+    }
+
     @Test
     void scanWithoutParsing_returns_false_when_a_JFS_throws_an_exception_while_scanning_without_parsing_and_fail_fast_is_disabled() throws ApiMismatchException {
       ScannerThatCannotScanWithoutParsing scanner = spy(new ScannerThatCannotScanWithoutParsing());
@@ -744,6 +997,86 @@ class VisitorsBridgeTest {
     }
   }
 
+  private static class EventRecordingVisitor extends IssuableSubscriptionVisitor {
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public List<Kind> nodesToVisit() {
+      return List.of(Kind.values());
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      events.add("visit " + tree.kind());
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      events.add("leave " + tree.kind());
+    }
+
+    @Override
+    public void visitToken(SyntaxToken syntaxToken) {
+      events.add("token " + syntaxToken.text());
+    }
+
+    @Override
+    public void visitTrivia(SyntaxTrivia syntaxTrivia) {
+      events.add("trivia " + syntaxTrivia.comment());
+    }
+  }
+
+  private static class StandaloneVisitor extends SubscriptionVisitor {
+    private final SubscriptionVisitor delegate;
+
+    StandaloneVisitor(SubscriptionVisitor delegate) {
+      this.delegate = delegate;
+    }
+
+    void scan(Tree tree) {
+      scanTree(tree);
+    }
+
+    @Override
+    public List<Kind> nodesToVisit() {
+      return delegate.nodesToVisit();
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      delegate.visitNode(tree);
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      delegate.leaveNode(tree);
+    }
+
+    @Override
+    public void visitToken(SyntaxToken syntaxToken) {
+      delegate.visitToken(syntaxToken);
+    }
+
+    @Override
+    public void visitTrivia(SyntaxTrivia syntaxTrivia) {
+      delegate.visitTrivia(syntaxTrivia);
+    }
+  }
+
+  private static class FileLocalVisitor extends IssuableSubscriptionVisitor implements FileLocalCheck {
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return List.of(Tree.Kind.COMPILATION_UNIT);
+    }
+  }
+
+  private static class FileLocalEndOfAnalysisVisitor extends FileLocalVisitor implements EndOfAnalysis {
+    @Override
+    public void endOfAnalysis(ModuleScannerContext context) {
+      // no-op
+    }
+  }
+
   private static class DefaultEndOfAnalysisCheck implements EndOfAnalysis, JavaFileScanner {
 
     @Override
@@ -0,0 +1,122 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WarmClasspathTest {
+
+  @TempDir
+  Path tempDir;
+
+  private final WarmClasspath warmClasspath = new WarmClasspath();
+
+  @AfterEach
+  void release() {
+    warmClasspath.release();
+  }
+
+  @Test
+  void archives_are_opened_once_for_the_same_classpath() throws IOException {
+    List<File> classpath = List.of(jar("a.jar", "A.class"), jar("b.zip", "B.class"), tempDir.toFile(), new File("missing.jar"));
+
+    assertThat(warmClasspath.retain(classpath)).isTrue();
+    assertThat(warmClasspath.openArchiveCount()).isEqualTo(2);
+    assertThat(warmClasspath.retain(List.copyOf(classpath))).isFalse();
+    assertThat(warmClasspath.openArchiveCount()).isEqualTo(2);
+  }
+
+  @Test
+  void archives_are_reopened_when_the_classpath_changes() throws IOException {
+    File a = jar("a.jar", "A.class");
+    File b = jar("b.jar", "B.class");
+    assertThat(warmClasspath.retain(List.of(a))).isTrue();
+    // an other classpath has its own archives
+    assertThat(warmClasspath.retain(List.of(a, b))).isTrue();
+    assertThat(warmClasspath.openArchiveCount()).isEqualTo(3);
+
+    jar("b.jar", "B.class", "C.class");
+    assertThat(warmClasspath.retain(List.of(a, b))).isTrue();
+    assertThat(warmClasspath.openArchiveCount()).isEqualTo(3);
+    assertThat(warmClasspath.retain(List.of(a, b))).isFalse();
+  }
+
+  @Test
+  void invalid_archives_are_ignored() throws IOException {
+    File invalid = tempDir.resolve("invalid.jar").toFile();
+    try (FileOutputStream out = new FileOutputStream(invalid)) {
+      out.write(new byte[] {1, 2, 3});
+    }
+    assertThat(warmClasspath.retain(List.of(invalid, jar("a.jar", "A.class")))).isTrue();
+    assertThat(warmClasspath.openArchiveCount()).isEqualTo(1);
+  }
+
+  @Test
+  void released_archives_are_reopened() throws IOException {
+    List<File> classpath = List.of(jar("a.jar", "A.class"));
+    warmClasspath.retain(classpath);
+    warmClasspath.release();
+    assertThat(warmClasspath.openArchiveCount()).isZero();
+    assertThat(warmClasspath.retain(classpath)).isTrue();
+    assertThat(warmClasspath.openArchiveCount()).isEqualTo(1);
+  }
+
+  @Test
+  void archives_of_the_last_classpaths_are_kept_open() throws IOException {
+    List<File> first = List.of(jar("a.jar", "A.class"));
+    List<File> second = List.of(jar("b.jar", "B.class"));
+    assertThat(warmClasspath.retain(first)).isTrue();
+    assertThat(warmClasspath.retain(second)).isTrue();
+    // alternating between projects does not reopen their archives
+    assertThat(warmClasspath.retain(first)).isFalse();
+    assertThat(warmClasspath.retain(second)).isFalse();
+    assertThat(warmClasspath.openArchiveCount()).isEqualTo(2);
+
+    for (int i = 0; i < WarmClasspath.MAX_CLASSPATHS - 1; i++) {
+      warmClasspath.retain(List.of(jar("other" + i + ".jar", "A.class")));
+    }
+    assertThat(warmClasspath.openArchiveCount()).isEqualTo(WarmClasspath.MAX_CLASSPATHS);
+    // the least recently used classpath has been released
+    assertThat(warmClasspath.retain(second)).isFalse();
+    assertThat(warmClasspath.retain(first)).isTrue();
+    assertThat(warmClasspath.openArchiveCount()).isEqualTo(WarmClasspath.MAX_CLASSPATHS);
+  }
+
+  private File jar(String name, String... entries) throws IOException {
+    File file = tempDir.resolve(name).toFile();
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file))) {
+      for (String entry : entries) {
+        out.putNextEntry(new JarEntry(entry));
+        out.write(new byte[] {0});
+        out.closeEntry();
+      }
+    }
+    return file;
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.reporting;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.testfixtures.log.LogTesterJUnit5;
+import org.sonar.java.TestUtils;
+import org.sonar.plugins.java.api.JavaCheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PendingIssuesTest {
+
+  @RegisterExtension
+  public LogTesterJUnit5 logTester = new LogTesterJUnit5().setLevel(Level.WARN);
+
+  @TempDir
+  File workDir;
+
+  private final JavaCheck check = mock(JavaCheck.class);
+  private final InputFile fileA = TestUtils.emptyInputFile("A.java");
+  private final InputFile fileB = TestUtils.emptyInputFile("B.java");
+
+  @Test
+  void issues_kept_in_memory() {
+    PendingIssues pendingIssues = new PendingIssues();
+    assertThat(pendingIssues.isEmpty()).isTrue();
+    AnalyzerMessage first = new AnalyzerMessage(check, fileA, 1, "first", 0);
+    AnalyzerMessage second = new AnalyzerMessage(check, fileB, 2, "second", 0);
+    pendingIssues.add(first);
+    pendingIssues.add("group", second);
+
+    List<String> groups = new ArrayList<>();
+    List<AnalyzerMessage> messages = new ArrayList<>();
+    pendingIssues.forEachWithGroup((group, message) -> {
+      groups.add(group);
+      messages.add(message);
+    });
+    assertThat(groups).containsExactly("", "group");
+    assertThat(messages).containsExactly(first, second);
+    assertThat(workDir.listFiles()).isEmpty();
+
+    pendingIssues.clear();
+    assertThat(pendingIssues.isEmpty()).isTrue();
+  }
+
+  @Test
+  void issues_written_to_disk_beyond_max_size() {
+    PendingIssues pendingIssues = new PendingIssues(1000L, workDir);
+    JavaCheck otherCheck = mock(JavaCheck.class);
+    for (int i = 0; i < 20; i++) {
+      AnalyzerMessage message = new AnalyzerMessage(i % 2 == 0 ? check : otherCheck, i % 3 == 0 ? fileA : fileB,
+        new AnalyzerMessage.TextSpan(i + 1, 2, i + 1, 7), "message é " + i, i);
+      AnalyzerMessage secondary = new AnalyzerMessage(check, fileA, new AnalyzerMessage.TextSpan(i + 2), "secondary " + i, 0);
+      message.flows.add(List.of(secondary));
+      pendingIssues.add("package" + (i % 4), message);
+    }
+    assertThat(pendingIssues.size()).isEqualTo(20);
+    assertThat(workDir.listFiles()).hasSize(1);
+
+    List<AnalyzerMessage> messages = new ArrayList<>();
+    List<String> groups = new ArrayList<>();
+    pendingIssues.forEachWithGroup((group, message) -> {
+      groups.add(group);
+      messages.add(message);
+    });
+    assertThat(messages).hasSize(20);
+    for (int i = 0; i < 20; i++) {
+      AnalyzerMessage message = messages.get(i);
+      assertThat(groups.get(i)).isEqualTo("package" + (i % 4));
+      assertThat(message.getCheck()).isSameAs(i % 2 == 0 ? check : otherCheck);
+      assertThat(message.getInputComponent()).isSameAs(i % 3 == 0 ? fileA : fileB);
+      assertThat(message.getMessage()).isEqualTo("message é " + i);
+      assertThat(message.getCost()).isEqualTo(i == 0 ? null : (double) i);
+      assertThat(message.primaryLocation()).isEqualTo(new AnalyzerMessage.TextSpan(i + 1, 2, i + 1, 7));
+      assertThat(message.flows).hasSize(1);
+      AnalyzerMessage secondary = message.flows.get(0).get(0);
+      assertThat(secondary.getMessage()).isEqualTo("secondary " + i);
+      assertThat(secondary.primaryLocation()).isEqualTo(new AnalyzerMessage.TextSpan(i + 2));
+    }
+
+    // iterating does not consume the issues
+    List<AnalyzerMessage> again = new ArrayList<>();
+    pendingIssues.forEach(again::add);
+    assertThat(again).hasSize(20);
+
+    pendingIssues.clear();
+    assertThat(pendingIssues.isEmpty()).isTrue();
+    assertThat(workDir.listFiles()).isEmpty();
+  }
+
+  @Test
+  void issues_without_location_written_to_disk() {
+    PendingIssues pendingIssues = new PendingIssues(0L, workDir);
+    pendingIssues.add(new AnalyzerMessage(check, fileA, null, "on file", 0));
+    List<AnalyzerMessage> messages = new ArrayList<>();
+    pendingIssues.forEach(messages::add);
+    assertThat(messages).hasSize(1);
+    assertThat(messages.get(0).primaryLocation()).isNull();
+    assertThat(messages.get(0).getMessage()).isEqualTo("on file");
+  }
+
+  @Test
+  void issues_kept_in_memory_when_disk_is_not_writable() {
+    PendingIssues pendingIssues = new PendingIssues(0L, new File(workDir, "missing"));
+    AnalyzerMessage first = new AnalyzerMessage(check, fileA, 1, "first", 0);
+    AnalyzerMessage second = new AnalyzerMessage(check, fileA, 2, "second", 0);
+    pendingIssues.add(first);
+    pendingIssues.add(second);
+    List<AnalyzerMessage> messages = new ArrayList<>();
+    pendingIssues.forEach(messages::add);
+    assertThat(messages).containsExactly(first, second);
+    assertThat(logTester.logs(Level.WARN)).hasSize(1);
+    assertThat(logTester.logs(Level.WARN).get(0)).startsWith("Unable to write pending issues to disk, they are kept in memory");
+  }
+
+}
@@ -16,7 +16,11 @@
  */
 package org.sonar.java.se;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import org.sonar.java.Preconditions;
@@ -36,7 +40,7 @@ import java.util.Set;
 public class ExplodedGraph {
 
   private final Map<Node, Node> nodes = new HashMap<>();
-  private final Map<ProgramPoint, List<Node>> nodesByProgramPoint = new HashMap<>();
+  private Map<ProgramPoint, List<Node>> nodesByProgramPoint = new HashMap<>();
 
   /**
    * Returns node associated with given (programPoint,programState) pair. If no node for this pair exists, it is created.
@@ -58,6 +62,44 @@ public class ExplodedGraph {
     return nodes;
   }
 
+  /**
+   * Releases the nodes which are no longer needed once the method has been explored: the index used to retrieve existing nodes,
+   * and every node from which no flow can be computed anymore. Only the given nodes, kept by the yields of the method behavior
+   * to compute the flows of its callers, and their ancestors are retained. The other nodes of their program points are replaced
+   * by copies without parents, as flow computation only reads their program state.
+   */
+  void explorationDone(Collection<Node> retainedNodes) {
+    nodes.clear();
+    Set<Node> ancestors = new HashSet<>();
+    Deque<Node> toVisit = new ArrayDeque<>(retainedNodes);
+    while (!toVisit.isEmpty()) {
+      Node current = toVisit.pop();
+      if (ancestors.add(current)) {
+        toVisit.addAll(current.parents());
+      }
+    }
+    Map<ProgramPoint, List<Node>> retainedNodesByProgramPoint = new HashMap<>();
+    for (Node ancestor : ancestors) {
+      retainedNodesByProgramPoint.computeIfAbsent(ancestor.programPoint, programPoint -> {
+        List<Node> siblings = new LinkedList<>();
+        for (Node sibling : nodesByProgramPoint.getOrDefault(programPoint, Collections.emptyList())) {
+          siblings.add(ancestors.contains(sibling) ? sibling : new Node(sibling.programPoint, sibling.programState, this));
+        }
+        return siblings;
+      });
+    }
+    nodesByProgramPoint = retainedNodesByProgramPoint;
+  }
+
+  /**
+   * @return the nodes of the graph which still have their parents
+   */
+  Collection<Node> nodesWithParents() {
+    List<Node> result = new ArrayList<>();
+    nodesByProgramPoint.values().forEach(siblings -> siblings.stream().filter(node -> !node.edges.isEmpty()).forEach(result::add));
+    return result;
+  }
+
   public static final class Node {
 
     public final ProgramPoint programPoint;
@@ -288,6 +288,7 @@ public class ExplodedGraphWalker {
     checkerDispatcher.executeCheckEndOfExecution();
     endOfExecutionDuration.stop();
     // Cleanup:
+    explodedGraph.explorationDone(yieldNodes());
     workList = null;
     node = null;
     programState = null;
@@ -333,6 +334,14 @@ public class ExplodedGraphWalker {
   private void interrupted(Exception cause) {
     handleEndOfExecutionPath(true);
     checkerDispatcher.interruptedExecution(cause);
+    explodedGraph.explorationDone(yieldNodes());
+  }
+
+  private List<ExplodedGraph.Node> yieldNodes() {
+    if (methodBehavior == null) {
+      return Collections.emptyList();
+    }
+    return methodBehavior.yields().stream().map(MethodYield::node).filter(Objects::nonNull).toList();
   }
 
   private void setNode(ExplodedGraph.Node node) {
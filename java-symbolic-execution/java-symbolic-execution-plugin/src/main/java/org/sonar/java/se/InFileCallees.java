@@ -0,0 +1,75 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodReferenceTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+
+/**
+ * Collects the methods declared in the analyzed file which are called by a method and which can not be overridden: their
+ * behavior is computed from their source code when the calling method is explored.
+ */
+final class InFileCallees extends BaseTreeVisitor {
+
+  private final List<MethodTree> callees = new ArrayList<>();
+
+  private InFileCallees() {
+  }
+
+  /**
+   * @return the declarations of the methods called by the given method, in the order of the calls in the source code.
+   */
+  static List<MethodTree> of(MethodTree methodTree) {
+    InFileCallees collector = new InFileCallees();
+    methodTree.accept(collector);
+    return collector.callees;
+  }
+
+  @Override
+  public void visitMethodInvocation(MethodInvocationTree tree) {
+    addCallee(tree.methodSymbol());
+    super.visitMethodInvocation(tree);
+  }
+
+  @Override
+  public void visitNewClass(NewClassTree tree) {
+    addCallee(tree.methodSymbol());
+    super.visitNewClass(tree);
+  }
+
+  @Override
+  public void visitMethodReference(MethodReferenceTree tree) {
+    Symbol symbol = tree.method().symbol();
+    if (symbol.isMethodSymbol()) {
+      addCallee((Symbol.MethodSymbol) symbol);
+    }
+    super.visitMethodReference(tree);
+  }
+
+  private void addCallee(Symbol.MethodSymbol symbol) {
+    MethodTree declaration = symbol.declaration();
+    if (declaration != null && SymbolicExecutionVisitor.methodCanNotBeOverridden(symbol)) {
+      callees.add(declaration);
+    }
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.se;
+
+import java.util.function.ObjIntConsumer;
+import javax.annotation.Nullable;
+
+/**
+ * Persistent map from keys to primitive {@code int} counts, used by {@link ProgramState} for the number of visits of program points
+ * and the number of references to symbolic values.
+ * It is an AVL tree ordered by the hash code of the keys, keys with the same hash code being chained in a bucket. Unlike a
+ * {@code PMap<K, Integer>}, counts are neither boxed nor compared with {@code equals}, and a node carries no value object.
+ * As in {@code PMap}, hash codes are not stored but asked to the keys, as some symbolic values of the checks change theirs once
+ * referenced.
+ * A missing key has a count of {@code 0}.
+ */
+final class PCountMap<K> {
+
+  private static final PCountMap<Object> EMPTY = new PCountMap<>();
+
+  private final K key;
+  private final int count;
+  @Nullable
+  private final PCountMap<K> nextInBucket;
+  private final PCountMap<K> left;
+  private final PCountMap<K> right;
+  private final int height;
+
+  private PCountMap() {
+    key = null;
+    count = 0;
+    nextInBucket = null;
+    left = this;
+    right = this;
+    height = 0;
+  }
+
+  private PCountMap(K key, int count, @Nullable PCountMap<K> nextInBucket, PCountMap<K> left, PCountMap<K> right) {
+    this.key = key;
+    this.count = count;
+    this.nextInBucket = nextInBucket;
+    this.left = left;
+    this.right = right;
+    this.height = Math.max(left.height, right.height) + 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K> PCountMap<K> empty() {
+    return (PCountMap<K>) EMPTY;
+  }
+
+  boolean isEmpty() {
+    return height == 0;
+  }
+
+  int get(K key) {
+    return getOrDefault(key, 0);
+  }
+
+  int getOrDefault(K key, int defaultCount) {
+    int keyHash = key.hashCode();
+    PCountMap<K> node = this;
+    while (node.height != 0) {
+      int nodeHash = node.key.hashCode();
+      if (keyHash < nodeHash) {
+        node = node.left;
+      } else if (keyHash > nodeHash) {
+        node = node.right;
+      } else {
+        for (PCountMap<K> entry = node; entry != null; entry = entry.nextInBucket) {
+          if (entry.key.equals(key)) {
+            return entry.count;
+          }
+        }
+        return defaultCount;
+      }
+    }
+    return defaultCount;
+  }
+
+  PCountMap<K> put(K key, int count) {
+    return put(this, key, key.hashCode(), count);
+  }
+
+  PCountMap<K> remove(K key) {
+    return remove(this, key, key.hashCode());
+  }
+
+  void forEach(ObjIntConsumer<K> action) {
+    if (height == 0) {
+      return;
+    }
+    left.forEach(action);
+    for (PCountMap<K> entry = this; entry != null; entry = entry.nextInBucket) {
+      action.accept(entry.key, entry.count);
+    }
+    right.forEach(action);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    forEach((k, c) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(c));
+    return sb.append('}').toString();
+  }
+
+  private static <K> PCountMap<K> put(PCountMap<K> t, K key, int hash, int count) {
+    if (t.height == 0) {
+      return new PCountMap<>(key, count, null, t, t);
+    }
+    int nodeHash = t.key.hashCode();
+    if (hash < nodeHash) {
+      PCountMap<K> newLeft = put(t.left, key, hash, count);
+      return newLeft == t.left ? t : balance(t, newLeft, t.right);
+    }
+    if (hash > nodeHash) {
+      PCountMap<K> newRight = put(t.right, key, hash, count);
+      return newRight == t.right ? t : balance(t, t.left, newRight);
+    }
+    PCountMap<K> bucket = putInBucket(t, key, count);
+    return bucket == t ? t : node(bucket, t.left, t.right);
+  }
+
+  private static <K> PCountMap<K> putInBucket(@Nullable PCountMap<K> entry, K key, int count) {
+    if (entry == null) {
+      return new PCountMap<>(key, count, null, empty(), empty());
+    }
+    if (entry.key.equals(key)) {
+      return entry.count == count ? entry : new PCountMap<>(key, count, entry.nextInBucket, empty(), empty());
+    }
+    PCountMap<K> next = putInBucket(entry.nextInBucket, key, count);
+    return next == entry.nextInBucket ? entry : new PCountMap<>(entry.key, entry.count, next, empty(), empty());
+  }
+
+  private static <K> PCountMap<K> remove(PCountMap<K> t, K key, int hash) {
+    if (t.height == 0) {
+      return t;
+    }
+    int nodeHash = t.key.hashCode();
+    if (hash < nodeHash) {
+      PCountMap<K> newLeft = remove(t.left, key, hash);
+      return newLeft == t.left ? t : balance(t, newLeft, t.right);
+    }
+    if (hash > nodeHash) {
+      PCountMap<K> newRight = remove(t.right, key, hash);
+      return newRight == t.right ? t : balance(t, t.left, newRight);
+    }
+    PCountMap<K> bucket = removeFromBucket(t, key);
+    if (bucket == t) {
+      return t;
+    }
+    if (bucket != null) {
+      return node(bucket, t.left, t.right);
+    }
+    if (t.left.height == 0) {
+      return t.right;
+    }
+    if (t.right.height == 0) {
+      return t.left;
+    }
+    PCountMap<K> min = t.right;
+    while (min.left.height != 0) {
+      min = min.left;
+    }
+    return balance(min, t.left, removeMin(t.right));
+  }
+
+  @Nullable
+  private static <K> PCountMap<K> removeFromBucket(@Nullable PCountMap<K> entry, K key) {
+    if (entry == null) {
+      return null;
+    }
+    if (entry.key.equals(key)) {
+      return entry.nextInBucket;
+    }
+    PCountMap<K> next = removeFromBucket(entry.nextInBucket, key);
+    return next == entry.nextInBucket ? entry : new PCountMap<>(entry.key, entry.count, next, empty(), empty());
+  }
+
+  private static <K> PCountMap<K> removeMin(PCountMap<K> t) {
+    if (t.left.height == 0) {
+      return t.right;
+    }
+    return balance(t, removeMin(t.left), t.right);
+  }
+
+  /**
+   * Node holding the bucket of {@code n} with the given children, rotated when their heights differ by more than one.
+   */
+  private static <K> PCountMap<K> balance(PCountMap<K> n, PCountMap<K> l, PCountMap<K> r) {
+    if (l.height > r.height + 1) {
+      if (l.left.height >= l.right.height) {
+        return node(l, l.left, node(n, l.right, r));
+      }
+      return node(l.right, node(l, l.left, l.right.left), node(n, l.right.right, r));
+    }
+    if (r.height > l.height + 1) {
+      if (r.right.height >= r.left.height) {
+        return node(r, node(n, l, r.left), r.right);
+      }
+      return node(r.left, node(n, l, r.left.left), node(r, r.left.right, r.right));
+    }
+    return node(n, l, r);
+  }
+
+  private static <K> PCountMap<K> node(PCountMap<K> bucket, PCountMap<K> l, PCountMap<K> r) {
+    return new PCountMap<>(bucket.key, bucket.count, bucket.nextInBucket, l, r);
+  }
+}
@@ -120,47 +120,30 @@ public class ProgramState {
   private final int constraintSize;
   public static final ProgramState EMPTY_STATE = new ProgramState(
     PCollections.emptyMap(),
-    PCollections.emptyMap(),
+    PCountMap.empty(),
     PCollections.<SymbolicValue, ConstraintsByDomain>emptyMap()
       .put(SymbolicValue.NULL_LITERAL, ConstraintsByDomain.empty().put(ObjectConstraint.NULL))
       .put(SymbolicValue.TRUE_LITERAL, ConstraintsByDomain.empty().put(BooleanConstraint.TRUE).put(ObjectConstraint.NOT_NULL))
       .put(SymbolicValue.FALSE_LITERAL, ConstraintsByDomain.empty().put(BooleanConstraint.FALSE).put(ObjectConstraint.NOT_NULL)),
-        PCollections.emptyMap(),
+    PCountMap.empty(),
     PCollections.emptyStack(),
     null,
     null);
 
-  private final PMap<ProgramPoint, Integer> visitedPoints;
+  private final PCountMap<ProgramPoint> visitedPoints;
   private final PStack<SymbolicValueSymbol> stack;
   @Nullable
   private SymbolicValue.ExceptionalSymbolicValue entryException;
-  private final PMap<SymbolicValue, Integer> references;
+  private final PCountMap<SymbolicValue> references;
   private SymbolicValue exitSymbolicValue;
   final PMap<Symbol, SymbolicValue> values;
-  final PMap<Integer, SymbolicValue> valuesByIndex;
   final PMap<SymbolicValue, ConstraintsByDomain> constraints;
 
-  private ProgramState(PMap<Symbol, SymbolicValue> values,PMap<Integer, SymbolicValue> valuesByIndex, PMap<SymbolicValue, Integer> references,
-                       PMap<SymbolicValue, ConstraintsByDomain> constraints, PMap<ProgramPoint, Integer> visitedPoints,
+  private ProgramState(PMap<Symbol, SymbolicValue> values, PCountMap<SymbolicValue> references,
+                       PMap<SymbolicValue, ConstraintsByDomain> constraints, PCountMap<ProgramPoint> visitedPoints,
                        PStack<SymbolicValueSymbol> stack, SymbolicValue exitSymbolicValue,
                        @Nullable SymbolicValue.ExceptionalSymbolicValue entryException) {
     this.values = values;
-    this.valuesByIndex = valuesByIndex;
-    this.references = references;
-    this.constraints = constraints;
-    this.visitedPoints = visitedPoints;
-    this.stack = stack;
-    this.exitSymbolicValue = exitSymbolicValue;
-    this.entryException = entryException;
-    constraintSize = 3;
-  }
-
-  private ProgramState(PMap<Symbol, SymbolicValue> values, PMap<SymbolicValue, Integer> references,
-                       PMap<SymbolicValue, ConstraintsByDomain> constraints, PMap<ProgramPoint, Integer> visitedPoints,
-                       PStack<SymbolicValueSymbol> stack, SymbolicValue exitSymbolicValue,
-                       @Nullable SymbolicValue.ExceptionalSymbolicValue entryException) {
-    this.values = values;
-    this.valuesByIndex = PCollections.emptyMap();
     this.references = references;
     this.constraints = constraints;
     this.visitedPoints = visitedPoints;
@@ -172,7 +155,6 @@ public class ProgramState {
 
   private ProgramState(ProgramState ps, PStack<SymbolicValueSymbol> newStack) {
     values = ps.values;
-    valuesByIndex = ps.valuesByIndex;
     references = ps.references;
     constraints = ps.constraints;
     constraintSize = ps.constraintSize;
@@ -184,7 +166,6 @@ public class ProgramState {
 
   private ProgramState(ProgramState ps, PMap<SymbolicValue, ConstraintsByDomain> newConstraints) {
     values = ps.values;
-    valuesByIndex = ps.valuesByIndex;
     references = ps.references;
     constraints = newConstraints;
     constraintSize = ps.constraintSize + 1;
@@ -195,7 +176,7 @@ public class ProgramState {
   }
 
   public ProgramState withEntryException(@Nullable SymbolicValue.ExceptionalSymbolicValue exception) {
-    return new ProgramState(values, valuesByIndex, references, constraints, visitedPoints, stack, exitSymbolicValue, exception);
+    return new ProgramState(values, references, constraints, visitedPoints, stack, exitSymbolicValue, exception);
   }
 
   @CheckForNull
@@ -258,8 +239,7 @@ public class ProgramState {
   }
 
   public int numberOfTimeVisited(ProgramPoint programPoint) {
-    Integer count = visitedPoints.get(programPoint);
-    return count == null ? 0 : count;
+    return visitedPoints.get(programPoint);
   }
 
   @Override
@@ -271,7 +251,9 @@ public class ProgramState {
       return false;
     }
     ProgramState that = (ProgramState) o;
-    return Objects.equals(values, that.values) &&
+    // hash codes are cached, mismatching ones spare the comparison of the maps
+    return hashCode() == that.hashCode() &&
+      Objects.equals(values, that.values) &&
       Objects.equals(constraints, that.constraints) &&
       Objects.equals(exitSymbolicValue, that.exitSymbolicValue) &&
       Objects.equals(stack, that.stack);
@@ -280,7 +262,7 @@ public class ProgramState {
   @Override
   public int hashCode() {
     if (hashCode == 0) {
-      hashCode = Objects.hash(values, constraints, peekValue());
+      hashCode = 31 * (31 * values.hashCode() + constraints.hashCode()) + Objects.hashCode(peekValue());
     }
     return hashCode;
   }
@@ -354,7 +336,7 @@ public class ProgramState {
     }
     SymbolicValue oldValue = values.get(symbol);
     if (oldValue == null || oldValue != value) {
-      PMap<SymbolicValue, Integer> newReferences = references;
+      PCountMap<SymbolicValue> newReferences = references;
       if (oldValue != null) {
         newReferences = decreaseReference(newReferences, oldValue);
       }
@@ -369,19 +351,14 @@ public class ProgramState {
     return isField(symbol) && symbol.isVolatile();
   }
 
-  private static PMap<SymbolicValue, Integer> decreaseReference(PMap<SymbolicValue, Integer> givenReferences, SymbolicValue sv) {
-    Integer value = givenReferences.get(sv);
-    Objects.requireNonNull(value);
+  private static PCountMap<SymbolicValue> decreaseReference(PCountMap<SymbolicValue> givenReferences, SymbolicValue sv) {
+    int value = givenReferences.getOrDefault(sv, Integer.MIN_VALUE);
+    Preconditions.checkState(value != Integer.MIN_VALUE, "No reference to %s", sv);
     return givenReferences.put(sv, value - 1);
   }
 
-  private static PMap<SymbolicValue, Integer> increaseReference(PMap<SymbolicValue, Integer> givenReferences, SymbolicValue sv) {
-    Integer value = givenReferences.get(sv);
-    if (value == null) {
-      return givenReferences.put(sv, 1);
-    } else {
-      return givenReferences.put(sv, value + 1);
-    }
+  private static PCountMap<SymbolicValue> increaseReference(PCountMap<SymbolicValue> givenReferences, SymbolicValue sv) {
+    return givenReferences.put(sv, givenReferences.get(sv) + 1);
   }
 
   private static boolean isDisposable(SymbolicValue symbolicValue, @Nullable Constraint constraint) {
@@ -403,7 +380,7 @@ public class ProgramState {
     class CleanAction implements BiConsumer<Symbol, SymbolicValue> {
       boolean newProgramState = false;
       PMap<Symbol, SymbolicValue> newValues = values;
-      PMap<SymbolicValue, Integer> newReferences = references;
+      PCountMap<SymbolicValue> newReferences = references;
       PMap<SymbolicValue, ConstraintsByDomain> newConstraints = constraints;
 
       @Override
@@ -431,7 +408,7 @@ public class ProgramState {
     class CleanAction implements BiConsumer<SymbolicValue, ConstraintsByDomain> {
       boolean newProgramState = false;
       PMap<SymbolicValue, ConstraintsByDomain> newConstraints = constraints;
-      PMap<SymbolicValue, Integer> newReferences = references;
+      PCountMap<SymbolicValue> newReferences = references;
 
       @Override
       public void accept(SymbolicValue symbolicValue, ConstraintsByDomain constraintPMap) {
@@ -476,9 +453,8 @@ public class ProgramState {
     return symbol.isVariableSymbol() && !symbol.owner().isMethodSymbol();
   }
 
-  private static boolean isReachable(SymbolicValue symbolicValue, PMap<SymbolicValue, Integer> references) {
-    Integer integer = references.get(symbolicValue);
-    return integer != null && integer > 0;
+  private static boolean isReachable(SymbolicValue symbolicValue, PCountMap<SymbolicValue> references) {
+    return references.get(symbolicValue) > 0;
   }
 
   public boolean canReach(SymbolicValue symbolicValue) {
@@ -486,7 +462,7 @@ public class ProgramState {
   }
 
   public ProgramState visitedPoint(ProgramPoint programPoint, int nbOfVisit) {
-    return new ProgramState(values, valuesByIndex, references, constraints, visitedPoints.put(programPoint, nbOfVisit), stack, exitSymbolicValue, entryException);
+    return new ProgramState(values, references, constraints, visitedPoints.put(programPoint, nbOfVisit), stack, exitSymbolicValue, entryException);
   }
 
   @Nullable
@@ -507,11 +483,6 @@ public class ProgramState {
     return constraintSize;
   }
 
-  @CheckForNull
-  public SymbolicValue getValue(int index) {
-    return valuesByIndex.get(index);
-  }
-
   @CheckForNull
   public SymbolicValue getValue(Symbol symbol) {
     return values.get(symbol);
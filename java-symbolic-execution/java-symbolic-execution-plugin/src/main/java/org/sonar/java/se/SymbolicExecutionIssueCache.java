@@ -0,0 +1,553 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.se;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.check.RuleProperty;
+import org.sonar.java.model.DefaultModuleScannerContext;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.se.checks.SECheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.SymbolMetadata;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Keeps, from one analysis to the next, the issues raised by the symbolic execution of each method of a file, so that a method
+ * which did not change since the previous analysis does not have to be explored again.
+ * <p>
+ * Entries are keyed by a fingerprint of the tokens of the method, of the tokens of the file outside of method bodies, of the
+ * tokens of the in-file methods it may call (transitively) and of the active checks, including the values of their parameters. As the exploration also depends on the
+ * other files of the project and on its libraries, the key also covers the declarations of the symbols defined out of the file
+ * which are used by the method and these callees, and the classpath of the project. Issue locations are stored as paths of
+ * child indexes starting from the method tree, so that they can be resolved on the syntax tree of the new analysis.
+ * <p>
+ * Only the issues are kept: method behaviors are still computed on demand when a method which has to be explored calls a
+ * method whose issues were replayed, as the yields of a behavior cannot be persisted without losing the exploded graph nodes
+ * that flows of callers rely on.
+ * <p>
+ * Cached issues are attributed to the check instances which raised them by an identifier made of the name of their class and
+ * of the values of their parameters, so that the instances of a template rule are kept apart and that a change of parameters
+ * discards the issues cached with the previous values.
+ */
+final class SymbolicExecutionIssueCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SymbolicExecutionIssueCache.class);
+
+  private static final String CACHE_KEY_PREFIX = "java:se:issues:";
+  private static final int FORMAT_VERSION = 3;
+
+  private final CacheContext cacheContext;
+  private final String inputFileKey;
+  private final Tree compilationUnit;
+  private final Map<String, SECheck> checksById = new HashMap<>();
+  private final byte[] checksDigest;
+
+  private final Map<Tree, String> cacheKeys = new IdentityHashMap<>();
+  private final Map<Tree, String> methodDigests = new IdentityHashMap<>();
+  private final Map<Tree, Set<String>> outOfFileSymbolsByMethod = new IdentityHashMap<>();
+  private final Set<String> keptKeys = new HashSet<>();
+  private final Deque<Recording> recordings = new ArrayDeque<>();
+  @Nullable
+  private String skeletonDigest;
+
+  private SymbolicExecutionIssueCache(List<SECheck> checks, JavaFileScannerContext context) {
+    this.cacheContext = context.getCacheContext();
+    this.inputFileKey = context.getInputFile().key();
+    this.compilationUnit = context.getTree();
+    MessageDigest digest = newDigest();
+    update(digest, Integer.toString(FORMAT_VERSION));
+    String version = SymbolicExecutionIssueCache.class.getPackage().getImplementationVersion();
+    update(digest, version == null ? "" : version);
+    for (SECheck check : checks) {
+      String id = checkId(check);
+      String uniqueId = id;
+      for (int occurrence = 2; checksById.containsKey(uniqueId); occurrence++) {
+        // instances with the same parameters raise the same issues, whichever of them is matched on replay
+        uniqueId = id + "#" + occurrence;
+      }
+      checksById.put(uniqueId, check);
+    }
+    new TreeSet<>(checksById.keySet()).forEach(id -> update(digest, id));
+    if (context instanceof DefaultModuleScannerContext moduleContext) {
+      moduleContext.getJavaClasspath().forEach(element -> update(digest, classpathElementFingerprint(element)));
+    }
+    this.checksDigest = digest.digest();
+  }
+
+  /**
+   * @return the name of the class of the check followed by the values of its parameters, sorted by their key.
+   */
+  static String checkId(SECheck check) {
+    Map<String, String> parameters = new TreeMap<>();
+    for (Class<?> type = check.getClass(); type != Object.class; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        RuleProperty property = field.getAnnotation(RuleProperty.class);
+        if (property != null) {
+          String key = property.key().isEmpty() ? field.getName() : property.key();
+          parameters.putIfAbsent(key, String.valueOf(parameterValue(field, check)));
+        }
+      }
+    }
+    StringBuilder id = new StringBuilder(check.getClass().getName());
+    parameters.forEach((key, value) -> id.append(';').append(key).append('=').append(value));
+    return id.toString();
+  }
+
+  @CheckForNull
+  private static Object parameterValue(Field field, SECheck check) {
+    try {
+      // parameters are injected the same way by the check factory
+      field.setAccessible(true);
+      return field.get(check);
+    } catch (IllegalAccessException | RuntimeException e) {
+      throw new IllegalStateException("Unable to read parameter " + field.getName() + " of " + check.getClass().getName(), e);
+    }
+  }
+
+  /**
+   * Libraries are identified by their path and size, which change with their version. Directories are only identified by their
+   * path, as they contain the binaries of the project, whose changes are covered by the fingerprints of the symbols.
+   */
+  private static String classpathElementFingerprint(File element) {
+    String path = element.getAbsolutePath();
+    return element.isFile() ? (path + ":" + element.length()) : path;
+  }
+
+  /**
+   * @return the cache of the issues raised on the methods of the file analyzed by the given context, or {@code null} when the
+   * analysis cache is disabled.
+   */
+  @CheckForNull
+  static SymbolicExecutionIssueCache forFile(List<SECheck> checks, JavaFileScannerContext context) {
+    CacheContext cacheContext = context.getCacheContext();
+    if (cacheContext == null || !cacheContext.isCacheEnabled()) {
+      return null;
+    }
+    return new SymbolicExecutionIssueCache(checks, context);
+  }
+
+  /**
+   * Reports again the issues cached for the given method by the previous analysis, and keeps them for the next one.
+   *
+   * @return true if the issues of the method have been reported from the cache, false if the method has to be explored.
+   */
+  boolean replay(MethodTree methodTree) {
+    String key = cacheKey(methodTree);
+    byte[] data = cacheContext.getReadCache().readBytes(key);
+    if (data == null) {
+      return false;
+    }
+    List<CachedIssue> cachedIssues;
+    try {
+      cachedIssues = decode(data, methodTree);
+    } catch (IOException | IllegalArgumentException e) {
+      LOG.debug("Unable to replay symbolic execution issues of method at line {} of {}: {}",
+        ((JavaTree) methodTree).getLine(), inputFileKey, e.getMessage());
+      return false;
+    }
+    cachedIssues.forEach(issue -> issue.check.reportIssue(issue.tree, issue.message, issue.flows));
+    if (keptKeys.add(key)) {
+      cacheContext.getWriteCache().copyFromPrevious(key);
+    }
+    return true;
+  }
+
+  /**
+   * Starts collecting the issues raised while exploring the given method. Issues raised by the exploration of the methods it
+   * calls are not attributed to it, as they are collected by their own recording.
+   */
+  Recording startRecording(MethodTree methodTree) {
+    Recording recording = new Recording(methodTree, issueFlowCounts());
+    recordings.push(recording);
+    return recording;
+  }
+
+  /**
+   * Stops collecting issues for the method of the given recording, and writes them to the cache if the exploration of the
+   * method completed and all their locations are inside of it.
+   */
+  void stopRecording(Recording recording, boolean completed) {
+    recordings.pop();
+    if (completed) {
+      store(recording);
+    }
+    Recording caller = recordings.peek();
+    if (caller != null) {
+      caller.knownIssues.putAll(issueFlowCounts());
+    }
+  }
+
+  private void store(Recording recording) {
+    String key = cacheKey(recording.methodTree);
+    if (keptKeys.contains(key)) {
+      return;
+    }
+    byte[] data;
+    try {
+      data = encode(recording);
+    } catch (IOException e) {
+      LOG.debug("Unable to cache symbolic execution issues of method at line {} of {}: {}",
+        ((JavaTree) recording.methodTree).getLine(), inputFileKey, e.getMessage());
+      return;
+    }
+    if (data != null) {
+      keptKeys.add(key);
+      cacheContext.getWriteCache().write(key, data);
+    }
+  }
+
+  private Map<SECheck.SEIssue, Integer> issueFlowCounts() {
+    Map<SECheck.SEIssue, Integer> counts = new IdentityHashMap<>();
+    for (SECheck check : checksById.values()) {
+      check.getIssues().forEach(issue -> counts.put(issue, issue.getRawFlows().size()));
+    }
+    return counts;
+  }
+
+  /**
+   * @return the serialized issues of the recorded method, or {@code null} if they cannot be cached.
+   */
+  @CheckForNull
+  private byte[] encode(Recording recording) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    List<Map.Entry<String, SECheck.SEIssue>> newIssues = new ArrayList<>();
+    for (Map.Entry<String, SECheck> entry : checksById.entrySet()) {
+      for (SECheck.SEIssue issue : entry.getValue().getIssues()) {
+        Integer knownFlowCount = recording.knownIssues.get(issue);
+        if (knownFlowCount == null) {
+          newIssues.add(Map.entry(entry.getKey(), issue));
+        } else if (knownFlowCount != issue.getRawFlows().size()) {
+          // flows have been added to an issue raised by another method
+          return null;
+        }
+      }
+    }
+    out.writeInt(newIssues.size());
+    for (Map.Entry<String, SECheck.SEIssue> entry : newIssues) {
+      SECheck.SEIssue issue = entry.getValue();
+      out.writeUTF(entry.getKey());
+      out.writeUTF(issue.getMessage());
+      if (!writePath(out, issue.getTree(), recording.methodTree)) {
+        return null;
+      }
+      out.writeInt(issue.getRawFlows().size());
+      for (Flow flow : issue.getRawFlows()) {
+        out.writeBoolean(!flow.isNonExceptional());
+        out.writeInt(flow.elements().size());
+        for (JavaFileScannerContext.Location location : flow.elements()) {
+          out.writeBoolean(location.msg != null);
+          if (location.msg != null) {
+            out.writeUTF(location.msg);
+          }
+          if (!writePath(out, location.syntaxNode, recording.methodTree)) {
+            return null;
+          }
+        }
+      }
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private List<CachedIssue> decode(byte[] data, MethodTree methodTree) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    int issueCount = in.readInt();
+    List<CachedIssue> cachedIssues = new ArrayList<>();
+    for (int i = 0; i < issueCount; i++) {
+      String checkId = in.readUTF();
+      SECheck check = checksById.get(checkId);
+      if (check == null) {
+        throw new IllegalArgumentException("Unknown check " + checkId);
+      }
+      String message = in.readUTF();
+      Tree tree = readPath(in, methodTree);
+      int flowCount = in.readInt();
+      Set<Flow> flows = new LinkedHashSet<>();
+      for (int j = 0; j < flowCount; j++) {
+        boolean exceptional = in.readBoolean();
+        int locationCount = in.readInt();
+        Flow.Builder flow = Flow.builder();
+        for (int k = 0; k < locationCount; k++) {
+          String locationMessage = in.readBoolean() ? in.readUTF() : null;
+          flow.add(new JavaFileScannerContext.Location(locationMessage, readPath(in, methodTree)));
+        }
+        if (exceptional) {
+          flow.setAsExceptional();
+        }
+        flows.add(flow.build());
+      }
+      cachedIssues.add(new CachedIssue(check, tree, message, flows));
+    }
+    return cachedIssues;
+  }
+
+  /**
+   * Writes the indexes of the children to follow from the method tree to reach the given tree.
+   *
+   * @return false if the tree is not part of the method.
+   */
+  private static boolean writePath(DataOutputStream out, Tree tree, Tree methodTree) throws IOException {
+    Deque<Integer> path = new ArrayDeque<>();
+    Tree current = tree;
+    while (current != methodTree) {
+      Tree parent = current.parent();
+      if (parent == null) {
+        return false;
+      }
+      path.push(indexOf(((JavaTree) parent).getChildren(), current));
+      current = parent;
+    }
+    out.writeInt(path.size());
+    for (int index : path) {
+      out.writeInt(index);
+    }
+    return true;
+  }
+
+  private static int indexOf(List<Tree> children, Tree child) {
+    for (int i = 0; i < children.size(); i++) {
+      if (children.get(i) == child) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("Tree is not a child of its parent");
+  }
+
+  private static Tree readPath(DataInputStream in, Tree methodTree) throws IOException {
+    int length = in.readInt();
+    Tree current = methodTree;
+    for (int i = 0; i < length; i++) {
+      int index = in.readInt();
+      JavaTree javaTree = (JavaTree) current;
+      if (javaTree.isLeaf() || index < 0 || index >= javaTree.getChildren().size()) {
+        throw new IllegalArgumentException("Cached location does not match the syntax tree");
+      }
+      current = javaTree.getChildren().get(index);
+    }
+    return current;
+  }
+
+  private String cacheKey(MethodTree methodTree) {
+    return cacheKeys.computeIfAbsent(methodTree, tree -> {
+      MessageDigest digest = newDigest();
+      digest.update(checksDigest);
+      update(digest, skeletonDigest());
+      update(digest, methodDigest(methodTree));
+      Set<MethodTree> callees = inFileCallees(methodTree);
+      callees.stream().map(this::methodDigest).sorted().forEach(calleeDigest -> update(digest, calleeDigest));
+      Set<String> outOfFileSymbols = new TreeSet<>(outOfFileSymbols(methodTree));
+      callees.forEach(callee -> outOfFileSymbols.addAll(outOfFileSymbols(callee)));
+      outOfFileSymbols.forEach(symbol -> update(digest, symbol));
+      return CACHE_KEY_PREFIX + inputFileKey + ":" + new BigInteger(1, digest.digest()).toString(16);
+    });
+  }
+
+  /**
+   * Fingerprint of everything in the file but method bodies: imports, annotations, fields and method signatures.
+   */
+  private String skeletonDigest() {
+    if (skeletonDigest == null) {
+      MessageDigest digest = newDigest();
+      updateWithTokens(digest, compilationUnit, true);
+      skeletonDigest = new BigInteger(1, digest.digest()).toString(16);
+    }
+    return skeletonDigest;
+  }
+
+  private String methodDigest(MethodTree methodTree) {
+    return methodDigests.computeIfAbsent(methodTree, tree -> {
+      MessageDigest digest = newDigest();
+      updateWithTokens(digest, tree, false);
+      return new BigInteger(1, digest.digest()).toString(16);
+    });
+  }
+
+  /**
+   * @return the methods declared in the file which can be called, directly or not, by the given method, and which can not be
+   * overridden: their behavior is computed from their source code when the given method is explored.
+   */
+  private static Set<MethodTree> inFileCallees(MethodTree methodTree) {
+    Set<MethodTree> callees = new LinkedHashSet<>();
+    Deque<MethodTree> toVisit = new ArrayDeque<>();
+    toVisit.push(methodTree);
+    while (!toVisit.isEmpty()) {
+      MethodTree current = toVisit.pop();
+      for (MethodTree callee : InFileCallees.of(current)) {
+        if (callee != methodTree && callees.add(callee)) {
+          toVisit.push(callee);
+        }
+      }
+    }
+    return callees;
+  }
+
+  /**
+   * Fingerprints of the symbols used in the given method which are not declared in the file: the declarations of the methods,
+   * fields and types of the other files of the project and of its libraries, including their nullability annotations. Only
+   * these declarations are used by the exploration, not the code of the methods declared out of the file.
+   */
+  private Set<String> outOfFileSymbols(MethodTree methodTree) {
+    return outOfFileSymbolsByMethod.computeIfAbsent(methodTree, tree -> {
+      Set<String> fingerprints = new HashSet<>();
+      addOutOfFileSymbols(tree, fingerprints);
+      return fingerprints;
+    });
+  }
+
+  private static void addOutOfFileSymbols(Tree methodTree, Set<String> fingerprints) {
+    Deque<Tree> toVisit = new ArrayDeque<>();
+    toVisit.push(methodTree);
+    while (!toVisit.isEmpty()) {
+      Tree tree = toVisit.pop();
+      Symbol symbol = null;
+      if (tree instanceof IdentifierTree identifier) {
+        symbol = identifier.symbol();
+      } else if (tree instanceof NewClassTree newClass) {
+        symbol = newClass.methodSymbol();
+      }
+      if (symbol != null && symbol.declaration() == null) {
+        fingerprints.add(fingerprint(symbol));
+      }
+      JavaTree javaTree = (JavaTree) tree;
+      if (!javaTree.isLeaf()) {
+        javaTree.getChildren().forEach(toVisit::push);
+      }
+    }
+  }
+
+  private static String fingerprint(Symbol symbol) {
+    if (symbol.isUnknown()) {
+      return "?" + symbol.name();
+    }
+    StringBuilder fingerprint = new StringBuilder();
+    if (symbol.isMethodSymbol()) {
+      Symbol.MethodSymbol method = (Symbol.MethodSymbol) symbol;
+      fingerprint.append(method.signature());
+      method.thrownTypes().forEach(type -> fingerprint.append(" throws ").append(type.fullyQualifiedName()));
+      method.declarationParameters().forEach(parameter -> appendMetadata(fingerprint.append(" param"), parameter.metadata()));
+    } else if (symbol.isTypeSymbol()) {
+      Symbol.TypeSymbol type = (Symbol.TypeSymbol) symbol;
+      fingerprint.append(type.type().fullyQualifiedName());
+      type.superTypes().stream().map(Type::fullyQualifiedName).sorted().forEach(superType -> fingerprint.append(" <: ").append(superType));
+    } else {
+      Symbol owner = symbol.owner();
+      String ownerName = owner == null || owner.type() == null ? "" : owner.type().fullyQualifiedName();
+      fingerprint.append(ownerName).append('.').append(symbol.name()).append(':').append(symbol.type().fullyQualifiedName());
+      if (symbol instanceof Symbol.VariableSymbol variable) {
+        variable.constantValue().ifPresent(value -> fingerprint.append(" = ").append(value));
+      }
+    }
+    fingerprint.append(symbol.isStatic() ? " static" : "").append(symbol.isFinal() ? " final" : "");
+    appendMetadata(fingerprint, symbol.metadata());
+    return fingerprint.toString();
+  }
+
+  private static void appendMetadata(StringBuilder fingerprint, SymbolMetadata metadata) {
+    metadata.annotations().stream()
+      .map(annotation -> annotation.symbol().type().fullyQualifiedName())
+      .sorted()
+      .forEach(annotation -> fingerprint.append(" @").append(annotation));
+    SymbolMetadata.NullabilityData nullability = metadata.nullabilityData();
+    fingerprint.append(' ').append(nullability.type()).append(' ').append(nullability.level());
+  }
+
+  /**
+   * Updates the digest with the tokens of the given tree, in the order of the source code.
+   */
+  private static void updateWithTokens(MessageDigest digest, Tree root, boolean skipMethodBodies) {
+    Deque<Tree> toVisit = new ArrayDeque<>();
+    toVisit.push(root);
+    while (!toVisit.isEmpty()) {
+      Tree tree = toVisit.pop();
+      JavaTree javaTree = (JavaTree) tree;
+      if (javaTree.isLeaf()) {
+        if (tree instanceof SyntaxToken token) {
+          update(digest, token.text());
+        }
+        continue;
+      }
+      Tree skipped = skipMethodBodies && tree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR) ? ((MethodTree) tree).block() : null;
+      List<Tree> children = javaTree.getChildren();
+      for (int i = children.size() - 1; i >= 0; i--) {
+        Tree child = children.get(i);
+        if (child != skipped) {
+          toVisit.push(child);
+        }
+      }
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not supported", e);
+    }
+  }
+
+  static final class Recording {
+    private final MethodTree methodTree;
+    private final Map<SECheck.SEIssue, Integer> knownIssues;
+
+    private Recording(MethodTree methodTree, Map<SECheck.SEIssue, Integer> knownIssues) {
+      this.methodTree = methodTree;
+      this.knownIssues = knownIssues;
+    }
+  }
+
+  private record CachedIssue(SECheck check, Tree tree, String message, Set<Flow> flows) {
+  }
+}
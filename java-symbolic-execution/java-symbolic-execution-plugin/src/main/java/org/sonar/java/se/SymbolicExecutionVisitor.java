@@ -18,9 +18,17 @@ package org.sonar.java.se;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.java.RuleTimeBudget;
 import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.java.se.checks.SECheck;
 import org.sonar.java.se.xproc.BehaviorCache;
@@ -31,7 +39,7 @@ import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.MethodTree;
 
-public class SymbolicExecutionVisitor extends BaseTreeVisitor implements JavaFileScanner {
+public class SymbolicExecutionVisitor extends BaseTreeVisitor implements JavaFileScanner, RuleTimeBudget.OwnTimeBudget {
 
   private static final Logger LOG = LoggerFactory.getLogger(SymbolicExecutionVisitor.class);
   protected JavaFileScannerContext context;
@@ -39,37 +47,136 @@ public class SymbolicExecutionVisitor extends BaseTreeVisitor implements JavaFil
   @VisibleForTesting
   public final BehaviorCache behaviorCache;
   private final ExplodedGraphWalker.ExplodedGraphWalkerFactory egwFactory;
+  private final boolean cacheIssues;
+  @Nullable
+  private SymbolicExecutionIssueCache issueCache;
+  private final Map<MethodTree, List<MethodTree>> calleesByMethod = new IdentityHashMap<>();
+  private final Set<MethodTree> callingRecursiveMethods = new HashSet<>();
+  private final long timeBudgetInNanos;
+  private final Consumer<String> analysisWarnings;
+  private long fileStartTime;
+  private boolean timeBudgetExceeded;
+  private boolean timeBudgetWarningAdded;
 
   public SymbolicExecutionVisitor(List<SECheck> seChecks) {
+    this(seChecks, false);
+  }
+
+  /**
+   * @param cacheIssues when true and the analysis cache is enabled, the issues raised on each method are kept for the next
+   *                    analysis, and methods which did not change since the previous one are not explored again.
+   */
+  public SymbolicExecutionVisitor(List<SECheck> seChecks, boolean cacheIssues) {
+    this(seChecks, cacheIssues, -1L, warning -> {
+    });
+  }
+
+  /**
+   * @param timeBudgetInMs    when positive, time after which no other method of a file is explored
+   * @param analysisWarnings  receives the warning added to the analysis the first time a file exceeds the time budget
+   */
+  public SymbolicExecutionVisitor(List<SECheck> seChecks, boolean cacheIssues, long timeBudgetInMs, Consumer<String> analysisWarnings) {
     egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(seChecks);
     this.behaviorCache = new BehaviorCache();
+    this.cacheIssues = cacheIssues;
+    this.timeBudgetInNanos = timeBudgetInMs > 0 ? TimeUnit.MILLISECONDS.toNanos(timeBudgetInMs) : -1L;
+    this.analysisWarnings = analysisWarnings;
   }
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
     behaviorCache.cleanup();
     behaviorCache.setFileContext(this);
+    calleesByMethod.clear();
+    callingRecursiveMethods.clear();
     this.context = context;
+    issueCache = cacheIssues ? SymbolicExecutionIssueCache.forFile(egwFactory.seChecks, context) : null;
+    fileStartTime = System.nanoTime();
+    timeBudgetExceeded = false;
     scan(context.getTree());
   }
 
   @Override
   public void visitMethod(MethodTree tree) {
-    execute(tree);
+    if (!isExplored(tree) && (issueCache == null || !issueCache.replay(tree)) && !isTimeBudgetExceeded()) {
+      exploreCallees(tree, new HashSet<>());
+      if (!isTimeBudgetExceeded()) {
+        execute(tree);
+      }
+    }
     super.visitMethod(tree);
   }
 
+  /**
+   * Explores the in-file methods called by the given method before it, deepest callees first, so that their behavior is already
+   * known when the method is explored instead of being computed in the middle of its exploration, while its exploded graph is
+   * kept in memory. Methods involved in recursive calls are left to be explored on demand, as their behavior depends on the
+   * method from which the recursion is entered.
+   *
+   * @return false if the given method calls, directly or not, a recursive method.
+   */
+  private boolean exploreCallees(MethodTree methodTree, Set<MethodTree> callStack) {
+    callStack.add(methodTree);
+    boolean callsRecursiveMethod = false;
+    for (MethodTree callee : calleesByMethod.computeIfAbsent(methodTree, InFileCallees::of)) {
+      if (isExplored(callee)) {
+        continue;
+      }
+      if (callStack.contains(callee) || callingRecursiveMethods.contains(callee) || !exploreCallees(callee, callStack)) {
+        callsRecursiveMethod = true;
+      } else if (!isTimeBudgetExceeded()) {
+        execute(callee);
+      }
+    }
+    callStack.remove(methodTree);
+    if (callsRecursiveMethod) {
+      callingRecursiveMethods.add(methodTree);
+    }
+    return !callsRecursiveMethod;
+  }
+
+  /**
+   * Methods are not interrupted, the time budget is checked before exploring each of them.
+   */
+  private boolean isTimeBudgetExceeded() {
+    if (!timeBudgetExceeded && timeBudgetInNanos > 0 && System.nanoTime() - fileStartTime > timeBudgetInNanos) {
+      timeBudgetExceeded = true;
+      long timeBudgetInMs = TimeUnit.NANOSECONDS.toMillis(timeBudgetInNanos);
+      LOG.warn("Symbolic execution stopped on file {} after exceeding its time budget of {} ms.", context.getInputFile(), timeBudgetInMs);
+      if (!timeBudgetWarningAdded) {
+        timeBudgetWarningAdded = true;
+        analysisWarnings.accept(String.format("Symbolic execution exceeded its time budget of %d ms on some files, on which some"
+          + " methods were not explored. See the analysis logs for the list of these files.", timeBudgetInMs));
+      }
+    }
+    return timeBudgetExceeded;
+  }
+
+  private boolean isExplored(MethodTree methodTree) {
+    Symbol.MethodSymbol methodSymbol = methodTree.symbol();
+    if (!methodCanNotBeOverridden(methodSymbol)) {
+      return false;
+    }
+    // do not create the behavior here: callers would consider it as known and not explore the method
+    MethodBehavior methodBehavior = behaviorCache.peek(methodSymbol.signature());
+    return methodBehavior != null && methodBehavior.isVisited();
+  }
+
   public void execute(MethodTree methodTree) {
     ExplodedGraphWalker walker = getWalker();
+    SymbolicExecutionIssueCache.Recording recording = issueCache == null ? null : issueCache.startRecording(methodTree);
+    boolean explored = false;
     try {
       Symbol.MethodSymbol methodSymbol = methodTree.symbol();
       if (methodCanNotBeOverridden(methodSymbol)) {
         MethodBehavior methodBehavior = behaviorCache.methodBehaviorForSymbol(methodSymbol);
         if (!methodBehavior.isVisited()) {
           walker.visitMethod(methodTree, methodBehavior);
+          explored = true;
         }
       } else {
         walker.visitMethod(methodTree);
+        explored = true;
       }
     } catch (ExplodedGraphWalker.MaximumStepsReachedException
       | ExplodedGraphWalker.ExplodedGraphTooBigException
@@ -83,6 +190,11 @@ public class SymbolicExecutionVisitor extends BaseTreeVisitor implements JavaFil
       if (walker.methodBehavior != null) {
         walker.methodBehavior.visited();
       }
+      explored = true;
+    } finally {
+      if (recording != null) {
+        issueCache.stopRecording(recording, explored);
+      }
     }
   }
 
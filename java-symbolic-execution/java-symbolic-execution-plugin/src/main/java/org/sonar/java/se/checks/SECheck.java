@@ -82,7 +82,14 @@ public abstract class SECheck implements JavaFileScanner {
     // By default do nothing
   }
 
-  protected static class SEIssue {
+  /**
+   * @return the issues raised so far on the current file, which will be reported at the end of its analysis
+   */
+  public Set<SEIssue> getIssues() {
+    return issues;
+  }
+
+  public static class SEIssue {
     private final Tree tree;
     private final String message;
     private final Set<Flow> flows;
@@ -101,6 +108,10 @@ public abstract class SECheck implements JavaFileScanner {
       return message;
     }
 
+    public Set<Flow> getRawFlows() {
+      return flows;
+    }
+
     public Set<List<JavaFileScannerContext.Location>> getFlows() {
       Set<List<JavaFileScannerContext.Location>> nonExceptionalFlows = flows.stream().filter(Flow::isNonExceptional).map(Flow::elements).collect(Collectors.toSet());
       if (!nonExceptionalFlows.isEmpty()) {
@@ -18,13 +18,17 @@ package org.sonar.java.se.plugin;
 
 import java.util.ArrayList;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.sonar.api.SonarRuntime;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.batch.rule.Checks;
 import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.notifications.AnalysisWarnings;
 import org.sonar.api.scanner.ScannerSide;
 import org.sonar.api.server.ServerSide;
 import org.sonar.api.server.rule.RulesDefinition;
+import org.sonar.java.SonarComponents;
 import org.sonar.java.se.SymbolicExecutionVisitor;
 import org.sonar.java.se.checks.SECheck;
 import org.sonar.plugins.java.api.CheckRegistrar;
@@ -40,11 +44,34 @@ public class JavaSECheckRegistrar implements CheckRegistrar {
   static final String SONAR_WAY_PATH = RESOURCE_BASE_PATH + "/Sonar_way_profile.json";
   public static final String REPOSITORY_KEY = "java";
 
+  /**
+   * Keep the issues raised by symbolic execution on each method in the analysis cache, so that methods which did not change
+   * since the previous analysis are not explored again.
+   */
+  public static final String SE_ISSUE_CACHE_KEY = "sonar.java.experimental.symbolicExecutionIssueCache";
+
   private static final Set<String> RULE_TEMPLATES_KEY = Set.of("S3546");
   private final SonarRuntime runtime;
+  @Nullable
+  private final Configuration configuration;
+  @Nullable
+  private final AnalysisWarnings analysisWarnings;
 
   public JavaSECheckRegistrar(SonarRuntime runtime) {
+    this(runtime, null);
+  }
+
+  public JavaSECheckRegistrar(SonarRuntime runtime, @Nullable Configuration configuration) {
+    this(runtime, configuration, null);
+  }
+
+  /**
+   * AnalysisWarnings are not available in SonarLint, where the warnings of symbolic execution are only logged.
+   */
+  public JavaSECheckRegistrar(SonarRuntime runtime, @Nullable Configuration configuration, @Nullable AnalysisWarnings analysisWarnings) {
     this.runtime = runtime;
+    this.configuration = configuration;
+    this.analysisWarnings = analysisWarnings;
   }
 
   @Override
@@ -63,10 +90,28 @@ public class JavaSECheckRegistrar implements CheckRegistrar {
 
     var ruleKeys = seChecks.stream().map(checks::ruleKey).toList();
 
-    registrarContext.registerMainSharedCheck(new SymbolicExecutionVisitor(seChecks), ruleKeys);
+    registrarContext.registerMainSharedCheck(new SymbolicExecutionVisitor(seChecks, cacheIssues(), timeBudgetInMs(), this::addAnalysisWarning),
+      ruleKeys);
     registrarContext.registerMainChecks(checks, seChecks);
   }
 
+  private boolean cacheIssues() {
+    return configuration != null && configuration.getBoolean(SE_ISSUE_CACHE_KEY).orElse(false);
+  }
+
+  /**
+   * Symbolic execution stops exploring the methods of a file once the time budget of the rules is exceeded on it.
+   */
+  private long timeBudgetInMs() {
+    return configuration == null ? -1L : configuration.getLong(SonarComponents.SONAR_RULE_TIME_BUDGET_PER_FILE_IN_MS_KEY).orElse(-1L);
+  }
+
+  private void addAnalysisWarning(String warning) {
+    if (analysisWarnings != null) {
+      analysisWarnings.addUnique(warning);
+    }
+  }
+
   @Override
   public void customRulesDefinition(RulesDefinition.Context context, RulesDefinition.NewRepository javaRepository) {
     RuleMetadataLoader ruleMetadataLoader = new RuleMetadataLoader(RESOURCE_BASE_PATH, SONAR_WAY_PATH, runtime);
@@ -63,6 +63,14 @@ public abstract class MethodYield {
     this.behavior = behavior;
   }
 
+  /**
+   * @return the node of the exploded graph at the end of the path of this yield, from which the flows of its callers are computed
+   */
+  @CheckForNull
+  public ExplodedGraph.Node node() {
+    return node;
+  }
+
   public abstract Stream<ProgramState> statesAfterInvocation(List<SymbolicValue> invocationArguments, List<Type> invocationTypes, ProgramState programState,
     Supplier<SymbolicValue> svSupplier);
 
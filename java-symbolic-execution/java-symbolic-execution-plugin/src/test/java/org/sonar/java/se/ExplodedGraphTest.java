@@ -16,6 +16,7 @@
  */
 package org.sonar.java.se;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -74,6 +75,47 @@ class ExplodedGraphTest {
     assertThat(node1).isNotEqualTo(notANode);
   }
 
+  @Test
+  void only_the_ancestors_of_retained_nodes_are_kept_after_exploration() {
+    ExplodedGraph eg = new ExplodedGraph();
+    ProgramPoint middle = mockProgramPoint("middle");
+    ExplodedGraph.Node root = eg.node(mockProgramPoint("root"), null);
+    ExplodedGraph.Node kept = eg.node(middle, mock(ProgramState.class));
+    ExplodedGraph.Node sibling = eg.node(middle, mock(ProgramState.class));
+    ExplodedGraph.Node yieldNode = eg.node(mockProgramPoint("yield"), null);
+    ExplodedGraph.Node deadEnd = eg.node(mockProgramPoint("dead end"), null);
+    kept.addParent(root, null);
+    sibling.addParent(root, null);
+    yieldNode.addParent(kept, null);
+    deadEnd.addParent(sibling, null);
+    assertThat(eg.nodesWithParents()).containsExactlyInAnyOrder(kept, sibling, yieldNode, deadEnd);
+
+    eg.explorationDone(List.of(yieldNode));
+
+    assertThat(eg.nodes()).isEmpty();
+    assertThat(eg.nodesWithParents()).containsExactlyInAnyOrder(kept, yieldNode);
+    assertThat(yieldNode.parent()).isSameAs(kept);
+    assertThat(kept.parent()).isSameAs(root);
+    // siblings of the retained nodes are still visible to flow computation, without their parents
+    assertThat(kept.siblings()).singleElement()
+      .isEqualTo(sibling)
+      .isNotSameAs(sibling)
+      .satisfies(copy -> assertThat(copy.parents()).isEmpty());
+    assertThat(deadEnd.siblings()).isEmpty();
+  }
+
+  @Test
+  void nothing_is_kept_after_exploration_without_retained_nodes() {
+    ExplodedGraph eg = new ExplodedGraph();
+    ExplodedGraph.Node child = eg.node(mockProgramPoint("child"), null);
+    child.addParent(eg.node(mockProgramPoint("parent"), null), null);
+
+    eg.explorationDone(List.of());
+
+    assertThat(eg.nodesWithParents()).isEmpty();
+    assertThat(child.siblings()).isEmpty();
+  }
+
   private ProgramPoint mockProgramPoint(String toString) {
     ProgramPoint mock = mock(ProgramPoint.class);
     when(mock.toString()).thenReturn(toString);
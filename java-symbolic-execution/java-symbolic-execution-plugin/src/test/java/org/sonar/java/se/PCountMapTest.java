@@ -0,0 +1,142 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.se;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PCountMapTest {
+
+  @Test
+  void empty_map() {
+    PCountMap<String> empty = PCountMap.empty();
+    assertThat(empty.isEmpty()).isTrue();
+    assertThat(empty.get("a")).isZero();
+    assertThat(empty.remove("a")).isSameAs(empty);
+    assertThat(empty).hasToString("{}");
+  }
+
+  @Test
+  void put_get_remove() {
+    PCountMap<String> map = PCountMap.<String>empty().put("a", 1).put("b", 2);
+    assertThat(map.isEmpty()).isFalse();
+    assertThat(map.get("a")).isEqualTo(1);
+    assertThat(map.get("b")).isEqualTo(2);
+    assertThat(map.get("c")).isZero();
+    assertThat(map.getOrDefault("c", -1)).isEqualTo(-1);
+    assertThat(map.getOrDefault("a", -1)).isEqualTo(1);
+    assertThat(map.put("a", 1)).isSameAs(map);
+    assertThat(map.put("a", 3).get("a")).isEqualTo(3);
+    assertThat(map.get("a")).isEqualTo(1);
+    assertThat(map.remove("c")).isSameAs(map);
+    assertThat(map.remove("a").get("a")).isZero();
+    assertThat(map.remove("a").remove("b").isEmpty()).isTrue();
+    assertThat(map).hasToString("{a=1, b=2}");
+  }
+
+  @Test
+  void keys_with_same_hash_code() {
+    Key k1 = new Key(1, 42);
+    Key k2 = new Key(2, 42);
+    Key k3 = new Key(3, 42);
+    PCountMap<Key> map = PCountMap.<Key>empty().put(k1, 1).put(k2, 2).put(k3, 3).put(new Key(4, 0), 4);
+    assertThat(map.get(k1)).isEqualTo(1);
+    assertThat(map.get(k2)).isEqualTo(2);
+    assertThat(map.get(k3)).isEqualTo(3);
+    assertThat(map.get(new Key(5, 42))).isZero();
+    assertThat(map.put(k2, 2)).isSameAs(map);
+    assertThat(map.put(k2, 5).get(k2)).isEqualTo(5);
+    assertThat(map.remove(new Key(5, 42))).isSameAs(map);
+
+    PCountMap<Key> withoutK2 = map.remove(k2);
+    assertThat(withoutK2.get(k1)).isEqualTo(1);
+    assertThat(withoutK2.get(k2)).isZero();
+    assertThat(withoutK2.get(k3)).isEqualTo(3);
+    PCountMap<Key> withoutK1 = map.remove(k1);
+    assertThat(withoutK1.get(k1)).isZero();
+    assertThat(withoutK1.get(k2)).isEqualTo(2);
+    assertThat(withoutK1.get(k3)).isEqualTo(3);
+    assertThat(withoutK1.remove(k2).remove(k3).get(new Key(4, 0))).isEqualTo(4);
+  }
+
+  @Test
+  void keys_changing_their_hash_code() {
+    MutableKey mutable = new MutableKey(7);
+    PCountMap<Object> map = PCountMap.empty().put(new Key(1, 5), 1).put(mutable, 2).put(new Key(3, 9), 3);
+    mutable.hash = 8;
+    assertThat(map.get(mutable)).isEqualTo(2);
+    assertThat(map.put(mutable, 3).get(mutable)).isEqualTo(3);
+    assertThat(map.remove(mutable).get(mutable)).isZero();
+  }
+
+  @Test
+  void behaves_like_a_map() {
+    Random random = new Random(0);
+    Map<Key, Integer> expected = new HashMap<>();
+    PCountMap<Key> map = PCountMap.empty();
+    for (int i = 0; i < 10_000; i++) {
+      int id = random.nextInt(500);
+      // few distinct hash codes, to also exercise the buckets
+      Key key = new Key(id, id % 100);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.remove(key);
+      } else {
+        int count = random.nextInt(10);
+        expected.put(key, count);
+        map = map.put(key, count);
+      }
+    }
+    Map<Key, Integer> actual = new HashMap<>();
+    map.forEach(actual::put);
+    assertThat(actual).isEqualTo(expected);
+    for (int id = 0; id < 500; id++) {
+      Key key = new Key(id, id % 100);
+      assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+    }
+  }
+
+  private static class MutableKey {
+    int hash;
+
+    MutableKey(int hash) {
+      this.hash = hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private record Key(int id, int hash) {
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key other && other.id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.se;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.java.checks.verifier.CheckVerifier;
+import org.sonar.java.checks.verifier.internal.InternalReadCache;
+import org.sonar.java.checks.verifier.internal.InternalWriteCache;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.se.checks.CustomUnclosedResourcesCheck;
+import org.sonar.java.se.checks.DivisionByZeroCheck;
+import org.sonar.java.se.checks.SECheck;
+import org.sonar.java.se.checks.UnclosedResourcesCheck;
+import org.sonar.java.se.utils.SETestUtils;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.java.checks.verifier.TestUtils.mainCodeSourcesPath;
+
+class SymbolicExecutionIssueCacheTest {
+
+  private static final String SOURCE = mainCodeSourcesPath("symbolicexecution/checks/DivisionByZeroCheckSample.java");
+
+  @Test
+  void issues_are_replayed_from_the_previous_analysis() {
+    InternalReadCache emptyCache = new InternalReadCache();
+    InternalWriteCache firstWriteCache = new InternalWriteCache().bind(emptyCache);
+    CountingVisitor firstAnalysis = analyze(true, emptyCache, firstWriteCache);
+
+    assertThat(issueKeys(firstWriteCache)).isNotEmpty();
+
+    // only the issues are kept: the content of the file is considered as changed
+    InternalReadCache readCache = new InternalReadCache();
+    issueKeys(firstWriteCache).forEach(key -> readCache.put(key, firstWriteCache.getData().get(key)));
+    InternalWriteCache secondWriteCache = new InternalWriteCache().bind(readCache);
+    CountingVisitor secondAnalysis = analyze(true, readCache, secondWriteCache);
+
+    assertThat(secondAnalysis.explorations).isLessThan(firstAnalysis.explorations);
+    assertThat(issueKeys(secondWriteCache)).containsExactlyInAnyOrderElementsOf(issueKeys(firstWriteCache));
+  }
+
+  @Test
+  void methods_are_explored_when_cached_issues_cannot_be_read() {
+    InternalReadCache emptyCache = new InternalReadCache();
+    InternalWriteCache firstWriteCache = new InternalWriteCache().bind(emptyCache);
+    CountingVisitor firstAnalysis = analyze(true, emptyCache, firstWriteCache);
+
+    InternalReadCache corruptedCache = new InternalReadCache();
+    issueKeys(firstWriteCache).forEach(key -> corruptedCache.put(key, "corrupted".getBytes(StandardCharsets.UTF_8)));
+    CountingVisitor secondAnalysis = analyze(true, corruptedCache, new InternalWriteCache().bind(corruptedCache));
+
+    assertThat(secondAnalysis.explorations).isEqualTo(firstAnalysis.explorations);
+  }
+
+  @Test
+  void behaviors_of_replayed_methods_are_computed_for_their_callers(@TempDir Path tempDir) throws IOException {
+    Path source = tempDir.resolve("Sample.java");
+    Files.writeString(source, """
+      class Sample {
+        private static int zero() { return 0; }
+        int f() { return 1 / zero(); } // Noncompliant
+      }
+      """);
+    InternalReadCache emptyCache = new InternalReadCache();
+    InternalWriteCache firstWriteCache = new InternalWriteCache().bind(emptyCache);
+    analyze(source.toString(), true, emptyCache, firstWriteCache);
+
+    Files.writeString(source, """
+      class Sample {
+        private static int zero() { return 0; }
+        int f() { int one = 1; return one / zero(); } // Noncompliant
+      }
+      """);
+    InternalReadCache readCache = new InternalReadCache();
+    issueKeys(firstWriteCache).forEach(key -> readCache.put(key, firstWriteCache.getData().get(key)));
+    CountingVisitor secondAnalysis = analyze(source.toString(), true, readCache, new InternalWriteCache().bind(readCache));
+
+    // "zero()" is replayed, then explored again to compute its behavior when exploring "f()"
+    assertThat(secondAnalysis.explorations).isEqualTo(2);
+  }
+
+  @Test
+  void cache_keys_depend_on_the_declarations_used_from_other_files(@TempDir Path tempDir) throws IOException {
+    Path source = tempDir.resolve("Sample.java");
+    Files.writeString(source, """
+      class Sample {
+        private static int zero() { return 0; }
+        int f() { return 1 / Other.one(); }
+        int g() { return 1 / zero(); } // Noncompliant
+      }
+      """);
+    List<String> keys = sampleIssueKeys(source, compileOther(tempDir, "static int one() { return 1; }"));
+
+    // the code of the methods of other files is not used by the exploration
+    assertThat(sampleIssueKeys(source, compileOther(tempDir, "static int one() { return 2 - 1; }")))
+      .containsExactlyInAnyOrderElementsOf(keys);
+
+    List<String> changedKeys = sampleIssueKeys(source, compileOther(tempDir, "@javax.annotation.CheckForNull static Integer one() { return 1; }"));
+    assertThat(changedKeys).hasSameSizeAs(keys).containsAnyElementsOf(keys).isNotEqualTo(keys);
+  }
+
+  /**
+   * @return the directory of the binary of an other file of the project, declaring the given method
+   */
+  private static File compileOther(Path tempDir, String method) throws IOException {
+    Path sources = Files.createTempDirectory(tempDir, "other");
+    Path other = sources.resolve("Other.java");
+    Files.writeString(other, "class Other { " + method + " }");
+    String classpath = SETestUtils.CLASS_PATH.stream().map(File::getAbsolutePath).collect(Collectors.joining(File.pathSeparator));
+    int exitCode = ToolProvider.getSystemJavaCompiler().run(null, null, null, "-cp", classpath, "-d", sources.toString(), other.toString());
+    assertThat(exitCode).isZero();
+    return sources.toFile();
+  }
+
+  private static List<String> sampleIssueKeys(Path source, File binaries) {
+    InternalReadCache emptyCache = new InternalReadCache();
+    InternalWriteCache writeCache = new InternalWriteCache().bind(emptyCache);
+    DivisionByZeroCheck check = new DivisionByZeroCheck();
+    List<File> classpath = new ArrayList<>(SETestUtils.CLASS_PATH);
+    classpath.add(binaries);
+    CheckVerifier.newInternalVerifier()
+      .onFile(source.toString())
+      .withChecks(new CountingVisitor(List.of(check), true), check)
+      .withClassPath(classpath)
+      .withCache(emptyCache, writeCache)
+      .verifyIssues();
+    return issueKeys(writeCache);
+  }
+
+  @Test
+  void cache_keys_depend_on_the_parameters_of_the_checks(@TempDir Path tempDir) throws IOException {
+    Path source = tempDir.resolve("Sample.java");
+    Files.writeString(source, """
+      class Sample {
+        int f() { return 1; }
+      }
+      """);
+    UnclosedResourcesCheck check = new UnclosedResourcesCheck();
+    List<String> keys = parameterizedIssueKeys(source, check);
+    assertThat(keys).isNotEmpty();
+    assertThat(parameterizedIssueKeys(source, new UnclosedResourcesCheck())).containsExactlyInAnyOrderElementsOf(keys);
+
+    UnclosedResourcesCheck otherCheck = new UnclosedResourcesCheck();
+    otherCheck.excludedTypes = "java.io.FileInputStream";
+    assertThat(parameterizedIssueKeys(source, otherCheck)).doesNotContainAnyElementsOf(keys);
+  }
+
+  private static List<String> parameterizedIssueKeys(Path source, SECheck check) {
+    InternalReadCache emptyCache = new InternalReadCache();
+    InternalWriteCache writeCache = new InternalWriteCache().bind(emptyCache);
+    CheckVerifier.newInternalVerifier()
+      .onFile(source.toString())
+      .withChecks(new CountingVisitor(List.of(check), true), check)
+      .withClassPath(SETestUtils.CLASS_PATH)
+      .withCache(emptyCache, writeCache)
+      .verifyNoIssues();
+    return issueKeys(writeCache);
+  }
+
+  @Test
+  void issues_are_replayed_on_the_instance_of_the_template_rule_which_raised_them(@TempDir Path tempDir) throws IOException {
+    Path source = tempDir.resolve("Sample.java");
+    Files.writeString(source, """
+      class Sample {
+        void f() throws java.io.IOException {
+          new java.io.FileInputStream("in"); // Noncompliant
+          new java.io.FileOutputStream("out"); // Noncompliant
+        }
+      }
+      """);
+    InternalReadCache emptyCache = new InternalReadCache();
+    InternalWriteCache firstWriteCache = new InternalWriteCache().bind(emptyCache);
+    Set<String> firstIssues = new TreeSet<>();
+    analyzeWithTemplates(source, emptyCache, firstWriteCache, firstIssues);
+
+    InternalReadCache readCache = new InternalReadCache();
+    issueKeys(firstWriteCache).forEach(key -> readCache.put(key, firstWriteCache.getData().get(key)));
+    Set<String> secondIssues = new TreeSet<>();
+    CountingVisitor secondAnalysis = analyzeWithTemplates(source, readCache, new InternalWriteCache().bind(readCache), secondIssues);
+
+    assertThat(secondAnalysis.explorations).isZero();
+    assertThat(firstIssues).containsExactly("java.io.FileInputStream:3", "java.io.FileOutputStream:4");
+    assertThat(secondIssues).isEqualTo(firstIssues);
+  }
+
+  private static CountingVisitor analyzeWithTemplates(Path source, InternalReadCache readCache, InternalWriteCache writeCache, Set<String> issues) {
+    SECheck inputStreams = new RecordingCustomUnclosedResourcesCheck("java.io.FileInputStream", issues);
+    SECheck outputStreams = new RecordingCustomUnclosedResourcesCheck("java.io.FileOutputStream", issues);
+    CountingVisitor visitor = new CountingVisitor(List.of(inputStreams, outputStreams), true);
+    CheckVerifier.newInternalVerifier()
+      .onFile(source.toString())
+      .withChecks(visitor, inputStreams, outputStreams)
+      .withClassPath(SETestUtils.CLASS_PATH)
+      .withCache(readCache, writeCache)
+      .verifyIssues();
+    return visitor;
+  }
+
+  /**
+   * Records the lines of the issues it raises, prefixed by the resource type it is parameterized with.
+   */
+  private static class RecordingCustomUnclosedResourcesCheck extends CustomUnclosedResourcesCheck {
+    private final Set<String> issues;
+
+    RecordingCustomUnclosedResourcesCheck(String constructor, Set<String> issues) {
+      this.constructor = constructor;
+      this.issues = issues;
+    }
+
+    @Override
+    public void reportIssue(Tree tree, String message, Set<Flow> flows) {
+      issues.add(constructor + ":" + ((JavaTree) tree).getLine());
+      super.reportIssue(tree, message, flows);
+    }
+  }
+
+  @Test
+  void check_ids_contain_the_values_of_the_parameters() {
+    CustomUnclosedResourcesCheck check = new CustomUnclosedResourcesCheck();
+    check.constructor = "org.assoc.res.MyResource";
+    assertThat(SymbolicExecutionIssueCache.checkId(check))
+      .isEqualTo(CustomUnclosedResourcesCheck.class.getName() + ";closingMethod=;constructor=org.assoc.res.MyResource;factoryMethod=;openingMethod=");
+    assertThat(SymbolicExecutionIssueCache.checkId(new DivisionByZeroCheck())).isEqualTo(DivisionByZeroCheck.class.getName());
+  }
+
+  @Test
+  void nothing_is_cached_when_disabled() {
+    InternalReadCache readCache = new InternalReadCache();
+    InternalWriteCache writeCache = new InternalWriteCache().bind(readCache);
+    analyze(false, readCache, writeCache);
+
+    assertThat(issueKeys(writeCache)).isEmpty();
+  }
+
+  private static List<String> issueKeys(InternalWriteCache writeCache) {
+    return writeCache.getData().keySet().stream()
+      .filter(key -> key.startsWith("java:se:issues:"))
+      .toList();
+  }
+
+  private static CountingVisitor analyze(boolean cacheIssues, InternalReadCache readCache, InternalWriteCache writeCache) {
+    return analyze(SOURCE, cacheIssues, readCache, writeCache);
+  }
+
+  private static CountingVisitor analyze(String source, boolean cacheIssues, InternalReadCache readCache, InternalWriteCache writeCache) {
+    DivisionByZeroCheck check = new DivisionByZeroCheck();
+    CountingVisitor visitor = new CountingVisitor(List.of(check), cacheIssues);
+    CheckVerifier.newInternalVerifier()
+      .onFile(source)
+      .withChecks(visitor, check)
+      .withClassPath(SETestUtils.CLASS_PATH)
+      .withCache(readCache, writeCache)
+      .verifyIssues();
+    return visitor;
+  }
+
+  private static class CountingVisitor extends SymbolicExecutionVisitor {
+    private int explorations = 0;
+
+    CountingVisitor(List<SECheck> seChecks, boolean cacheIssues) {
+      super(seChecks, cacheIssues);
+    }
+
+    @Override
+    protected ExplodedGraphWalker getWalker() {
+      explorations++;
+      return super.getWalker();
+    }
+  }
+}
@@ -18,6 +18,7 @@ package org.sonar.java.se.xproc;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -53,6 +54,7 @@ import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Sema;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -79,12 +81,11 @@ class BehaviorCacheTest {
     SymbolicExecutionVisitor sev = createSymbolicExecutionVisitor("src/test/resources/se/MethodBehavior.java", new NullDereferenceCheck());
     assertThat(sev.behaviorCache.behaviors.entrySet()).hasSize(4);
     assertThat(sev.behaviorCache.behaviors.values().stream().filter(mb -> mb != null).count()).isEqualTo(4);
-    // check order of method exploration : last is the topMethod as it requires the other to get its behavior.
-    // Then, as we explore fully a path before switching to another one (see the LIFO in EGW) : qix is handled before foo.
+    // check order of method exploration : callees of topMethod are explored before it, in the order of the calls in the code.
     assertThat(sev.behaviorCache.behaviors.keySet().stream().toList()).containsSequence(
-      "MethodBehavior#topMethod(Z)Z",
       "MethodBehavior#bar(Z)Z",
       "MethodBehavior#foo(Z)Z",
+      "MethodBehavior#topMethod(Z)Z",
       "MethodBehavior#independent()V");
 
     // method which can be overridden should not have behaviors: 'abstractMethod', 'publicMethod', 'nativeMethod'
@@ -106,6 +107,71 @@ class BehaviorCacheTest {
     assertThat(debugLogs).containsOnlyOnce("Could not complete symbolic execution: reached limit of 16000 steps for method plop#24 in class ComputeBehaviorOnce");
   }
 
+  @Test
+  void callees_are_explored_before_their_callers() {
+    File file = new File("src/test/resources/se/CalleesFirst.java");
+    InputFile inputFile = InternalInputFile.inputFile("", file);
+    CompilationUnitTreeImpl cut = (CompilationUnitTreeImpl) JParserTestUtils.parse(file, SETestUtils.CLASS_PATH);
+    List<String> explorations = new ArrayList<>();
+    SymbolicExecutionVisitor sev = new SymbolicExecutionVisitor(List.of(new NullDereferenceCheck())) {
+      private int depth = 0;
+
+      @Override
+      public void execute(MethodTree methodTree) {
+        explorations.add(methodTree.simpleName().name() + "@" + depth);
+        depth++;
+        super.execute(methodTree);
+        depth--;
+      }
+    };
+    sev.scanFile(new DefaultJavaFileScannerContext(cut, inputFile, cut.sema, null, new JavaVersionImpl(8), true, false));
+
+    assertThat(explorations).containsExactly(
+      "leaf@0",
+      "middle@0",
+      "top@0",
+      // recursive methods are explored on demand, from the first one which is called
+      "callsRecursion@0",
+      "recursive@1",
+      "mutuallyRecursive@2");
+    assertThat(sev.behaviorCache.behaviors.values()).allMatch(MethodBehavior::isVisited);
+  }
+
+  @Test
+  void no_method_is_explored_once_the_time_budget_of_the_file_is_exceeded() {
+    File file = new File("src/test/resources/se/CalleesFirst.java");
+    InputFile inputFile = InternalInputFile.inputFile("", file);
+    CompilationUnitTreeImpl cut = (CompilationUnitTreeImpl) JParserTestUtils.parse(file, SETestUtils.CLASS_PATH);
+    List<String> explorations = new ArrayList<>();
+    List<String> warnings = new ArrayList<>();
+    SymbolicExecutionVisitor sev = new SymbolicExecutionVisitor(List.of(new NullDereferenceCheck()), false, 20, warnings::add) {
+      @Override
+      public void execute(MethodTree methodTree) {
+        explorations.add(methodTree.simpleName().name());
+        super.execute(methodTree);
+        try {
+          Thread.sleep(30);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    sev.scanFile(new DefaultJavaFileScannerContext(cut, inputFile, cut.sema, null, new JavaVersionImpl(8), true, false));
+
+    assertThat(explorations).containsExactly("leaf");
+    assertThat(logTester.logs(Level.WARN))
+      .containsExactly("Symbolic execution stopped on file " + inputFile + " after exceeding its time budget of 20 ms.");
+    assertThat(warnings).containsExactly("Symbolic execution exceeded its time budget of 20 ms on some files, on which some methods"
+      + " were not explored. See the analysis logs for the list of these files.");
+
+    // the time budget is reset on the next file, and the analysis warning is only added once
+    explorations.clear();
+    sev.scanFile(new DefaultJavaFileScannerContext(cut, inputFile, cut.sema, null, new JavaVersionImpl(8), true, false));
+    assertThat(explorations).containsExactly("leaf");
+    assertThat(logTester.logs(Level.WARN)).hasSize(2);
+    assertThat(warnings).hasSize(1);
+  }
+
   @Test
   void explore_method_with_recursive_call() {
     SymbolicExecutionVisitor sev = createSymbolicExecutionVisitor("src/test/resources/se/RecursiveCall.java",
@@ -297,7 +363,8 @@ class BehaviorCacheTest {
         if (syntaxNode.is(Tree.Kind.METHOD_INVOCATION)) {
           Symbol.MethodSymbol symbol = ((MethodInvocationTree) syntaxNode).methodSymbol();
           MethodBehavior peekMethodBehavior = ((CheckerDispatcher) context).peekMethodBehavior(symbol);
-          if ("isBlank".equals(symbol.name())) {
+          if ("isBlank".equals(symbol.name()) || "foo".equals(symbol.name())) {
+            // foo is explored before its caller
             assertThat(peekMethodBehavior).isNotNull();
           } else {
             assertThat(peekMethodBehavior).isNull();
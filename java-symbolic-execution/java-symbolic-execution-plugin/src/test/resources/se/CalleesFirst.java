@@ -0,0 +1,26 @@
+class CalleesFirst {
+
+  int top(int x) {
+    return middle(x) + leaf(x);
+  }
+
+  private int middle(int x) {
+    return leaf(x) * 2;
+  }
+
+  private int leaf(int x) {
+    return x;
+  }
+
+  int callsRecursion(int x) {
+    return recursive(x) + leaf(x);
+  }
+
+  private int recursive(int x) {
+    return x == 0 ? 0 : mutuallyRecursive(x - 1);
+  }
+
+  private int mutuallyRecursive(int x) {
+    return recursive(x);
+  }
+}
@@ -58,9 +58,9 @@ public class JavaSensor implements Sensor {
 
   private static final Logger LOG = LoggerFactory.getLogger(JavaSensor.class);
 
-  private static final String PERFORMANCE_MEASURE_ACTIVATION_PROPERTY = "sonar.java.performance.measure";
-  private static final String PERFORMANCE_MEASURE_FILE_PATH_PROPERTY = "sonar.java.performance.measure.path";
-  private static final String PERFORMANCE_MEASURE_DESTINATION_FILE = "sonar.java.performance.measure.json";
+  private static final String PERFORMANCE_MEASURE_ACTIVATION_PROPERTY = SonarComponents.PERFORMANCE_MEASURE_ACTIVATION_KEY;
+  private static final String PERFORMANCE_MEASURE_FILE_PATH_PROPERTY = SonarComponents.PERFORMANCE_MEASURE_FILE_PATH_KEY;
+  private static final String PERFORMANCE_MEASURE_DESTINATION_FILE = SonarComponents.PERFORMANCE_MEASURE_DEFAULT_FILE;
 
   private final SonarComponents sonarComponents;
   private final FileSystem fs;